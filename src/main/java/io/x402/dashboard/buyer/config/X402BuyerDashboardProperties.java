@@ -47,6 +47,11 @@ public class X402BuyerDashboardProperties {
      */
     private String serviceIdMapping;
 
+    /**
+     * Largest page size the transaction views return; larger requested sizes are capped.
+     */
+    private int maxPageSize = 200;
+
     // Getters and Setters
 
     public boolean isEnabled() {
@@ -104,4 +109,12 @@ public class X402BuyerDashboardProperties {
     public void setServiceIdMapping(String serviceIdMapping) {
         this.serviceIdMapping = serviceIdMapping;
     }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
 }
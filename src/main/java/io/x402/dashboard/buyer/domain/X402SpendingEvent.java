@@ -1,24 +1,34 @@
 package io.x402.dashboard.buyer.domain;
 
+import io.x402.dashboard.common.dictionary.X402DictionaryConverter;
+import io.x402.dashboard.common.id.X402TimeOrderedId;
 import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 
 /**
  * Entity representing a spending event from the buyer's perspective.
  * Tracks outbound payments made by AI agents/clients to external services.
+ *
+ * Buyer name, service name and URL, endpoint, network, asset, method and user agent are stored
+ * as int X402Dictionary IDs and converted back to strings on load.
  */
 @Entity
 @Table(name = "x402_spending_event", indexes = {
     @Index(name = "idx_spending_buyer_created", columnList = "buyer_id, created_at"),
     @Index(name = "idx_spending_service_created", columnList = "service_id, created_at"),
+    @Index(name = "idx_spending_created", columnList = "created_at"),
     @Index(name = "idx_spending_category", columnList = "category"),
     @Index(name = "idx_spending_status", columnList = "status"),
-    @Index(name = "idx_spending_budget", columnList = "budget_id")
+    @Index(name = "idx_spending_budget", columnList = "budget_id"),
+    @Index(name = "uk_spending_dedup_key", columnList = "dedup_key", unique = true)
 })
 public class X402SpendingEvent {
 
+    /**
+     * Time-ordered ID assigned by the application (see X402EventIdGenerator).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @X402TimeOrderedId
     private Long id;
 
     // ========================================
@@ -34,6 +44,7 @@ public class X402SpendingEvent {
     /**
      * Friendly name of the buyer/agent.
      */
+    @Convert(converter = X402DictionaryConverter.BuyerName.class)
     @Column(name = "buyer_name")
     private String buyerName;
 
@@ -50,18 +61,21 @@ public class X402SpendingEvent {
     /**
      * Service name (e.g., "OpenAI API", "Weather Service").
      */
+    @Convert(converter = X402DictionaryConverter.ServiceName.class)
     @Column(name = "service_name")
     private String serviceName;
 
     /**
      * Base URL of the service.
      */
+    @Convert(converter = X402DictionaryConverter.ServiceUrl.class)
     @Column(name = "service_url")
     private String serviceUrl;
 
     /**
      * Specific endpoint called (e.g., "/chat/completions").
      */
+    @Convert(converter = X402DictionaryConverter.Endpoint.class)
     @Column(name = "endpoint")
     private String endpoint;
 
@@ -83,12 +97,14 @@ public class X402SpendingEvent {
     /**
      * Blockchain network in CAIP-2 format (e.g., eip155:84532 for Base Sepolia).
      */
+    @Convert(converter = X402DictionaryConverter.Network.class)
     @Column(name = "network")
     private String network;
 
     /**
      * Asset type (e.g., USDC, ETH).
      */
+    @Convert(converter = X402DictionaryConverter.Asset.class)
     @Column(name = "asset")
     private String asset;
 
@@ -173,6 +189,13 @@ public class X402SpendingEvent {
     @Column(name = "latency_ms")
     private Long latencyMs;
 
+    /**
+     * Request latency in microseconds, when it was measured with sub-millisecond precision.
+     * latencyMs is then this value in whole milliseconds.
+     */
+    @Column(name = "latency_us")
+    private Long latencyMicros;
+
     /**
      * Error message if payment failed.
      */
@@ -188,7 +211,8 @@ public class X402SpendingEvent {
     /**
      * HTTP method used (GET, POST, etc.).
      */
-    @Column(name = "method", length = 10)
+    @Convert(converter = X402DictionaryConverter.Method.class)
+    @Column(name = "method")
     private String method;
 
     /**
@@ -200,9 +224,17 @@ public class X402SpendingEvent {
     /**
      * User-Agent header value.
      */
-    @Column(name = "user_agent", length = 500)
+    @Convert(converter = X402DictionaryConverter.UserAgent.class)
+    @Column(name = "user_agent")
     private String userAgent;
 
+    /**
+     * Settlement key (the payment ID, or the transaction hash of a SUCCESS event without one),
+     * set only while duplicate filtering is enabled. Unique, so a payment is stored once.
+     */
+    @Column(name = "dedup_key", length = 128)
+    private String dedupKey;
+
     // ========================================
     // Lifecycle Callbacks
     // ========================================
@@ -388,6 +420,14 @@ public class X402SpendingEvent {
         this.latencyMs = latencyMs;
     }
 
+    public Long getLatencyMicros() {
+        return latencyMicros;
+    }
+
+    public void setLatencyMicros(Long latencyMicros) {
+        this.latencyMicros = latencyMicros;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -427,4 +467,12 @@ public class X402SpendingEvent {
     public void setUserAgent(String userAgent) {
         this.userAgent = userAgent;
     }
+
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    public void setDedupKey(String dedupKey) {
+        this.dedupKey = dedupKey;
+    }
 }
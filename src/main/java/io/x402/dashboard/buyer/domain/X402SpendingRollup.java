@@ -0,0 +1,107 @@
+package io.x402.dashboard.buyer.domain;
+
+import io.x402.dashboard.seller.domain.X402RollupResolution;
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Spending counts for one hour or day and dimension combination, compacted from raw events
+ * deleted by the retention job.
+ *
+ * Maintained and read through X402SpendingRollupRepository; the entity mapping only defines
+ * the table. Only deleted events are rolled up, so rollups and remaining raw events never
+ * overlap. Service name is an X402Dictionary ID. Null buyers, services and categories are
+ * stored as an empty string and null service names as 0, so the natural key can be unique.
+ * {@code amountCount} counts the events with an amount, which {@code amountSum} adds up.
+ */
+@Entity
+@Table(name = "x402_spending_rollup",
+    uniqueConstraints = @UniqueConstraint(name = "uk_spending_rollup_key",
+        columnNames = {"resolution", "bucket_start", "buyer_id", "service_id", "service_name", "category", "status"}),
+    indexes = {
+        @Index(name = "idx_spending_rollup_buyer", columnList = "buyer_id, resolution, bucket_start")
+    })
+public class X402SpendingRollup {
+
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", length = 10, nullable = false)
+    private X402RollupResolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "buyer_id", nullable = false)
+    private String buyerId;
+
+    @Column(name = "service_id", nullable = false)
+    private String serviceId;
+
+    @Column(name = "service_name", nullable = false)
+    private int serviceName;
+
+    @Column(name = "category", length = 30, nullable = false)
+    private String category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 30, nullable = false)
+    private SpendingStatus status;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    @Column(name = "amount_count", nullable = false)
+    private long amountCount;
+
+    @Column(name = "amount_sum", nullable = false)
+    private long amountSum;
+
+    public X402SpendingRollup() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public X402RollupResolution getResolution() {
+        return resolution;
+    }
+
+    public OffsetDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getBuyerId() {
+        return buyerId;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public int getServiceName() {
+        return serviceName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public SpendingStatus getStatus() {
+        return status;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getAmountCount() {
+        return amountCount;
+    }
+
+    public long getAmountSum() {
+        return amountSum;
+    }
+}
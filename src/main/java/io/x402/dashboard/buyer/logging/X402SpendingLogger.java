@@ -3,10 +3,19 @@ package io.x402.dashboard.buyer.logging;
 import io.x402.dashboard.buyer.domain.ServiceCategory;
 import io.x402.dashboard.buyer.domain.SpendingStatus;
 import io.x402.dashboard.buyer.domain.X402SpendingEvent;
-import io.x402.dashboard.buyer.repository.X402SpendingEventRepository;
+import io.x402.dashboard.buyer.service.X402SpendingEventService;
+import io.x402.dashboard.common.ingest.X402CaptureListener;
+import io.x402.dashboard.common.ingest.X402IngestDeduplicator;
+import io.x402.dashboard.common.ingest.X402WriteAheadLog;
+import io.x402.dashboard.common.ingest.X402WriteBehindQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 
 /**
  * Logger for x402 spending events from buyer's perspective.
@@ -32,14 +41,52 @@ import java.time.OffsetDateTime;
  *     );
  * }
  * </pre>
+ *
+ * When {@code x402.dashboard.ingest.async-enabled=true}, events are handed to a write-behind
+ * queue and persisted in batches by a background writer. The returned event is then not yet
+ * persisted and has no ID.
+ *
+ * When {@code x402.dashboard.wal.enabled=true}, events are appended to a local write-ahead log
+ * instead and applied to the database in the background; this takes precedence over the
+ * write-behind queue. The returned event is then not yet persisted and has no ID.
+ *
+ * When {@code x402.dashboard.ingest.dedup.enabled=true}, an event whose paymentId (or, for a
+ * SUCCESS event without one, txHash) is already recorded is returned unsaved.
+ *
+ * Every admitted event is also passed to the registered X402CaptureListener beans (such as
+ * the distinct-count sketches) before it is queued or persisted.
  */
 @Component
 public class X402SpendingLogger {
 
-    private final X402SpendingEventRepository repository;
+    private static final Logger logger = LoggerFactory.getLogger(X402SpendingLogger.class);
+
+    private final X402SpendingEventService eventService;
+    private final X402WriteBehindQueue<X402SpendingEvent> writeBehindQueue;
+    private final X402WriteAheadLog<X402SpendingEvent> writeAheadLog;
+    private final X402IngestDeduplicator deduplicator;
+    private final List<X402CaptureListener<X402SpendingEvent>> captureListeners;
 
-    public X402SpendingLogger(X402SpendingEventRepository repository) {
-        this.repository = repository;
+    public X402SpendingLogger(X402SpendingEventService eventService) {
+        this.eventService = eventService;
+        this.writeBehindQueue = null;
+        this.writeAheadLog = null;
+        this.deduplicator = null;
+        this.captureListeners = List.of();
+    }
+
+    @Autowired
+    public X402SpendingLogger(
+            X402SpendingEventService eventService,
+            ObjectProvider<X402WriteBehindQueue<X402SpendingEvent>> writeBehindQueue,
+            ObjectProvider<X402WriteAheadLog<X402SpendingEvent>> writeAheadLog,
+            ObjectProvider<X402IngestDeduplicator> deduplicator,
+            ObjectProvider<X402CaptureListener<X402SpendingEvent>> captureListeners) {
+        this.eventService = eventService;
+        this.writeBehindQueue = writeBehindQueue.getIfAvailable();
+        this.writeAheadLog = writeAheadLog.getIfAvailable();
+        this.deduplicator = deduplicator.getIfAvailable();
+        this.captureListeners = captureListeners.orderedStream().toList();
     }
 
     /**
@@ -69,6 +116,36 @@ public class X402SpendingLogger {
             OffsetDateTime requestedAt,
             OffsetDateTime settledAt,
             OffsetDateTime createdAt
+    ) {
+        return capture(newEvent(buyerId, buyerName, serviceId, serviceName, serviceUrl, endpoint,
+            category, network, asset, amountAtomic, txHash, paymentId, status, budgetId, projectId,
+            latencyMs, errorMessage, method, clientIp, userAgent, requestedAt, settledAt, createdAt));
+    }
+
+    private static X402SpendingEvent newEvent(
+            String buyerId,
+            String buyerName,
+            String serviceId,
+            String serviceName,
+            String serviceUrl,
+            String endpoint,
+            ServiceCategory category,
+            String network,
+            String asset,
+            Long amountAtomic,
+            String txHash,
+            String paymentId,
+            SpendingStatus status,
+            String budgetId,
+            String projectId,
+            Long latencyMs,
+            String errorMessage,
+            String method,
+            String clientIp,
+            String userAgent,
+            OffsetDateTime requestedAt,
+            OffsetDateTime settledAt,
+            OffsetDateTime createdAt
     ) {
         X402SpendingEvent event = new X402SpendingEvent();
         event.setBuyerId(buyerId);
@@ -93,9 +170,34 @@ public class X402SpendingLogger {
         event.setUserAgent(userAgent);
         event.setRequestedAt(requestedAt != null ? requestedAt : OffsetDateTime.now());
         event.setSettledAt(settledAt);
-        event.setCreatedAt(createdAt); // Allow setting createdAt for demo data
+        // Allow setting createdAt for demo data; otherwise stamp capture time, not write time
+        event.setCreatedAt(createdAt != null ? createdAt : OffsetDateTime.now());
+        return event;
+    }
 
-        return repository.save(event);
+    private X402SpendingEvent capture(X402SpendingEvent event) {
+        if (deduplicator != null && !deduplicator.admit(event)) {
+            return event;
+        }
+        for (X402CaptureListener<X402SpendingEvent> listener : captureListeners) {
+            try {
+                listener.onCapture(event);
+            } catch (RuntimeException e) {
+                logger.warn("Capture listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+        if (writeAheadLog != null) {
+            writeAheadLog.append(event);
+            return event;
+        }
+        if (writeBehindQueue != null) {
+            writeBehindQueue.offer(event);
+            return event;
+        }
+        if (deduplicator != null) {
+            return deduplicator.save(X402IngestDeduplicator.SPENDING, event, eventService::save, X402SpendingEvent::getDedupKey);
+        }
+        return eventService.save(event);
     }
 
     /**
@@ -237,6 +339,7 @@ public class X402SpendingLogger {
         private String budgetId;
         private String projectId;
         private Long latencyMs;
+        private Long latencyMicros;
         private String errorMessage;
         private String method;
         private String clientIp;
@@ -326,6 +429,17 @@ public class X402SpendingLogger {
 
         public X402SpendingEventBuilder latencyMs(Long latencyMs) {
             this.latencyMs = latencyMs;
+            this.latencyMicros = null;
+            return this;
+        }
+
+        /**
+         * Latency measured with {@link System#nanoTime()}; kept in microseconds as well as
+         * whole milliseconds.
+         */
+        public X402SpendingEventBuilder latencyNanos(long latencyNanos) {
+            this.latencyMs = latencyNanos / 1_000_000;
+            this.latencyMicros = latencyNanos / 1_000;
             return this;
         }
 
@@ -365,12 +479,14 @@ public class X402SpendingLogger {
         }
 
         public X402SpendingEvent log() {
-            return logger.log(
+            X402SpendingEvent event = newEvent(
                 buyerId, buyerName, serviceId, serviceName, serviceUrl, endpoint,
                 category, network, asset, amountAtomic, txHash, paymentId,
                 status, budgetId, projectId, latencyMs, errorMessage,
                 method, clientIp, userAgent, requestedAt, settledAt, createdAt
             );
+            event.setLatencyMicros(latencyMicros);
+            return logger.capture(event);
         }
     }
 }
@@ -0,0 +1,108 @@
+package io.x402.dashboard.buyer.repository;
+
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.common.archive.X402EventArchive;
+import io.x402.dashboard.common.dictionary.X402Dictionary;
+import io.x402.dashboard.common.jdbc.X402JdbcExport.Column;
+import io.x402.dashboard.common.jdbc.X402JdbcExport.Format;
+import io.x402.dashboard.common.jdbc.X402JdbcExport;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static io.x402.dashboard.common.jdbc.X402JdbcExport.Type.NUMBER;
+import static io.x402.dashboard.common.jdbc.X402JdbcExport.Type.STRING;
+import static io.x402.dashboard.common.jdbc.X402JdbcExport.Type.TIMESTAMP;
+
+/**
+ * Streaming NDJSON/CSV export of x402_spending_event, oldest first, including its day archive
+ * tables in range when X402EventArchive is on.
+ * Dictionary-encoded columns are written as their original strings.
+ */
+@Repository
+public class X402SpendingEventExporter {
+
+    private final X402JdbcExport export;
+    private final X402EventArchive archive;
+
+    public X402SpendingEventExporter(
+            JdbcTemplate jdbcTemplate, X402Dictionary dictionary, ObjectProvider<X402EventArchive> archive) {
+        IntFunction<String> decoder = dictionary::decode;
+        this.archive = archive.getIfAvailable();
+        this.export = new X402JdbcExport(jdbcTemplate, X402EventArchive.SPENDING_TABLE, List.of(
+                new Column("id", "id", NUMBER),
+                new Column("buyerId", "buyer_id", STRING),
+                new Column("buyerName", "buyer_name", decoder),
+                new Column("serviceId", "service_id", STRING),
+                new Column("serviceName", "service_name", decoder),
+                new Column("serviceUrl", "service_url", decoder),
+                new Column("endpoint", "endpoint", decoder),
+                new Column("category", "category", STRING),
+                new Column("network", "network", decoder),
+                new Column("asset", "asset", decoder),
+                new Column("amountAtomic", "amount_atomic", NUMBER),
+                new Column("requestedAt", "requested_at", TIMESTAMP),
+                new Column("settledAt", "settled_at", TIMESTAMP),
+                new Column("createdAt", "created_at", TIMESTAMP),
+                new Column("status", "status", STRING),
+                new Column("txHash", "tx_hash", STRING),
+                new Column("paymentId", "payment_id", STRING),
+                new Column("budgetId", "budget_id", STRING),
+                new Column("projectId", "project_id", STRING),
+                new Column("latencyMs", "latency_ms", NUMBER),
+                new Column("latencyMicros", "latency_us", NUMBER),
+                new Column("errorMessage", "error_message", STRING),
+                new Column("metadata", "metadata", STRING),
+                new Column("method", "method", decoder),
+                new Column("clientIp", "client_ip", STRING),
+                new Column("userAgent", "user_agent", decoder)));
+    }
+
+    /**
+     * Resolve a comma-separated column selection; null or blank selects every column.
+     *
+     * @throws IllegalArgumentException if a column is unknown
+     */
+    public List<Column> columns(String selection) {
+        return export.columns(selection);
+    }
+
+    /**
+     * Write the spending events matching the filters to {@code out}.
+     */
+    public void export(
+            OutputStream out,
+            Format format,
+            List<Column> columns,
+            String buyerId,
+            String serviceId,
+            SpendingStatus status,
+            OffsetDateTime from,
+            OffsetDateTime to) throws IOException {
+        StringBuilder where = new StringBuilder("created_at >= ? AND created_at <= ?");
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        if (buyerId != null) {
+            where.append(" AND buyer_id = ?");
+            args.add(buyerId);
+        }
+        if (serviceId != null) {
+            where.append(" AND service_id = ?");
+            args.add(serviceId);
+        }
+        if (status != null) {
+            where.append(" AND status = ?");
+            args.add(status.name());
+        }
+        String source = archive != null
+                ? archive.source(X402EventArchive.SPENDING_TABLE, from, to) + " e"
+                : X402EventArchive.SPENDING_TABLE;
+        export.export(out, format, columns, source, where.toString(), "created_at, id", args);
+    }
+}
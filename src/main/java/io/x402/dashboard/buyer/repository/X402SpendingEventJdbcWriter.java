@@ -0,0 +1,117 @@
+package io.x402.dashboard.buyer.repository;
+
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.common.dictionary.X402Dictionary;
+import io.x402.dashboard.common.dictionary.X402DictionaryKind;
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import io.x402.dashboard.common.jdbc.X402JdbcBatchInsert;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static io.x402.dashboard.common.jdbc.X402JdbcBatchInsert.setEnum;
+import static io.x402.dashboard.common.jdbc.X402JdbcBatchInsert.setInteger;
+import static io.x402.dashboard.common.jdbc.X402JdbcBatchInsert.setLong;
+import static io.x402.dashboard.common.jdbc.X402JdbcBatchInsert.setString;
+import static io.x402.dashboard.common.jdbc.X402JdbcBatchInsert.setTimestamp;
+
+/**
+ * Insert-only JDBC writer for x402_spending_event.
+ *
+ * Used instead of the JPA repository for writes when {@code x402.dashboard.ingest.writer=jdbc}.
+ * Assigns the time-ordered ID and the timestamps the entity's {@code @PrePersist} callback
+ * would otherwise fill in.
+ *
+ * Dictionary-encoded columns are bound as X402Dictionary IDs, as the entity's converters
+ * would.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "x402.dashboard.ingest", name = "writer", havingValue = "jdbc")
+public class X402SpendingEventJdbcWriter {
+
+    private static final int ROWS_PER_STATEMENT = 32;
+
+    private static final List<String> COLUMNS = List.of(
+            "id", "buyer_id", "buyer_name", "service_id", "service_name", "service_url", "endpoint",
+            "category", "network", "asset", "amount_atomic", "requested_at", "settled_at", "created_at",
+            "status", "tx_hash", "payment_id", "budget_id", "project_id", "latency_ms", "error_message",
+            "metadata", "method", "client_ip", "user_agent", "dedup_key", "latency_us");
+
+    private final X402JdbcBatchInsert<X402SpendingEvent> insert;
+    private final X402EventIdGenerator idGenerator;
+    private final X402Dictionary dictionary;
+
+    public X402SpendingEventJdbcWriter(JdbcTemplate jdbcTemplate, X402EventIdGenerator idGenerator, X402Dictionary dictionary) {
+        this.insert = new X402JdbcBatchInsert<>(
+                jdbcTemplate, "x402_spending_event", COLUMNS, ROWS_PER_STATEMENT, this::bind);
+        this.idGenerator = idGenerator;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Insert a single spending event.
+     */
+    public X402SpendingEvent insert(X402SpendingEvent event) {
+        prepare(event);
+        insert.insert(event);
+        return event;
+    }
+
+    /**
+     * Insert a batch of spending events.
+     */
+    public List<X402SpendingEvent> insertAll(List<X402SpendingEvent> events) {
+        for (X402SpendingEvent event : events) {
+            prepare(event);
+        }
+        insert.insertAll(events);
+        return events;
+    }
+
+    private void prepare(X402SpendingEvent event) {
+        if (event.getId() == null) {
+            event.setId(idGenerator.nextId());
+        }
+        if (event.getCreatedAt() == null) {
+            event.setCreatedAt(OffsetDateTime.now());
+        }
+        if (event.getRequestedAt() == null) {
+            event.setRequestedAt(event.getCreatedAt());
+        }
+    }
+
+    private void bind(PreparedStatement ps, int i, X402SpendingEvent e) throws SQLException {
+        ps.setLong(i, e.getId());
+        setString(ps, i + 1, e.getBuyerId());
+        setInteger(ps, i + 2, dictionary.encode(X402DictionaryKind.BUYER_NAME, e.getBuyerName()));
+        setString(ps, i + 3, e.getServiceId());
+        setInteger(ps, i + 4, dictionary.encode(X402DictionaryKind.SERVICE_NAME, e.getServiceName()));
+        setInteger(ps, i + 5, dictionary.encode(X402DictionaryKind.SERVICE_URL, e.getServiceUrl()));
+        setInteger(ps, i + 6, dictionary.encode(X402DictionaryKind.ENDPOINT, e.getEndpoint()));
+        setEnum(ps, i + 7, e.getCategory());
+        setInteger(ps, i + 8, dictionary.encode(X402DictionaryKind.NETWORK, e.getNetwork()));
+        setInteger(ps, i + 9, dictionary.encode(X402DictionaryKind.ASSET, e.getAsset()));
+        setLong(ps, i + 10, e.getAmountAtomic());
+        setTimestamp(ps, i + 11, e.getRequestedAt());
+        setTimestamp(ps, i + 12, e.getSettledAt());
+        setTimestamp(ps, i + 13, e.getCreatedAt());
+        setEnum(ps, i + 14, e.getStatus());
+        setString(ps, i + 15, e.getTxHash());
+        setString(ps, i + 16, e.getPaymentId());
+        setString(ps, i + 17, e.getBudgetId());
+        setString(ps, i + 18, e.getProjectId());
+        setLong(ps, i + 19, e.getLatencyMs());
+        setString(ps, i + 20, e.getErrorMessage());
+        setString(ps, i + 21, e.getMetadata());
+        setInteger(ps, i + 22, dictionary.encode(X402DictionaryKind.METHOD, e.getMethod()));
+        setString(ps, i + 23, e.getClientIp());
+        setInteger(ps, i + 24, dictionary.encode(X402DictionaryKind.USER_AGENT, e.getUserAgent()));
+        setString(ps, i + 25, e.getDedupKey());
+        setLong(ps, i + 26, e.getLatencyMicros());
+    }
+}
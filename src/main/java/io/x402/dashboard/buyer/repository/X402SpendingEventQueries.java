@@ -0,0 +1,161 @@
+package io.x402.dashboard.buyer.repository;
+
+import io.x402.dashboard.buyer.domain.ServiceCategory;
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Spending event queries with optional filters, built per call with only the filters that
+ * are set (see X402QueryBuilder).
+ *
+ * Each combination is covered by an index on an equality-filtered column followed by
+ * created_at: idx_spending_buyer_created when a buyer is given, idx_spending_service_created
+ * when only a service is, and idx_spending_created otherwise. A null filter matches all
+ * values. Time ranges are inclusive.
+ *
+ * Also holds the buyer aggregates, which like the filtered queries read the day archive
+ * tables in range when X402EventArchive is on.
+ */
+public interface X402SpendingEventQueries {
+
+    /**
+     * Find spending events by buyer within a time range, newest first.
+     */
+    List<X402SpendingEvent> findByBuyerIdAndCreatedAtBetween(String buyerId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Find spending events by category within a time range, newest first.
+     */
+    List<X402SpendingEvent> findByCategoryAndCreatedAtBetween(
+        ServiceCategory category, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Count spending events by buyer within a time range.
+     */
+    Long countByBuyerIdAndCreatedAtBetween(String buyerId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Count spending events by buyer and status within a time range.
+     */
+    Long countByBuyerIdAndStatusAndCreatedAtBetween(
+        String buyerId, SpendingStatus status, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Total amount of the successful spending events of a buyer within a time range.
+     */
+    Long sumAmountByBuyerAndTimeRange(String buyerId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * The latest 10 spending events of a buyer, newest first. Walks back from the event table
+     * through the day archive tables, newest first, only as far as needed.
+     */
+    List<X402SpendingEvent> findTop10ByBuyerIdOrderByCreatedAtDesc(String buyerId);
+
+    /**
+     * Find paginated spending events with optional filters, newest first. The sort of
+     * {@code pageable} is ignored.
+     */
+    Page<X402SpendingEvent> findWithFilters(
+        String buyerId,
+        String serviceId,
+        SpendingStatus status,
+        ServiceCategory category,
+        OffsetDateTime from,
+        OffsetDateTime to,
+        Pageable pageable
+    );
+
+    /**
+     * Keyset page: spending events older than the cursor row, newest first.
+     * Pass a Pageable of page 0 to limit the rows; no count query is run.
+     */
+    List<X402SpendingEvent> findWithFiltersAfterCursor(
+        String buyerId,
+        String serviceId,
+        SpendingStatus status,
+        ServiceCategory category,
+        OffsetDateTime from,
+        OffsetDateTime to,
+        OffsetDateTime cursorCreatedAt,
+        Long cursorId,
+        Pageable pageable
+    );
+
+    /**
+     * Keyset page: spending events newer than the cursor row, oldest first.
+     * Pass a Pageable of page 0 to limit the rows; no count query is run.
+     */
+    List<X402SpendingEvent> findWithFiltersBeforeCursor(
+        String buyerId,
+        String serviceId,
+        SpendingStatus status,
+        ServiceCategory category,
+        OffsetDateTime from,
+        OffsetDateTime to,
+        OffsetDateTime cursorCreatedAt,
+        Long cursorId,
+        Pageable pageable
+    );
+
+    /**
+     * Overview totals by buyer within a time range, in one scan.
+     * Returns: [[totalRequests, successCount, totalSpent (SUCCESS only)]], one row wrapped in
+     * a one-element array.
+     */
+    Object[] getOverviewTotals(String buyerId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Top services by successful spending of a buyer within a time range.
+     * The share of the buyer's total is computed over all successful events, including those
+     * without a service ID. The service name (a dictionary ID in the table) is looked up once per
+     * service.
+     * Returns: [serviceId, serviceName, category, requestCount, totalSpent, percentOfTotal]
+     */
+    List<Object[]> aggregateTopServices(String buyerId, OffsetDateTime from, OffsetDateTime to, int limit);
+
+    /**
+     * Successful spending of a buyer per service within a time range, including a row for
+     * events without a service ID, unranked and unlimited. Used to merge ranges from cached
+     * segments; {@link #aggregateTopServices} ranks in the database instead.
+     * Returns: [serviceId, serviceName, category, requestCount, totalSpent]
+     */
+    List<Object[]> aggregateServices(String buyerId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Successful spending of a buyer per category within a time range.
+     * Returns: [category, totalSpent]
+     */
+    List<Object[]> aggregateSpendingByCategory(String buyerId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Successful spending of a buyer per day within a time range.
+     * Returns: [date, totalSpent]
+     */
+    List<Object[]> aggregateDailySpending(String buyerId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Find an event by ID in the event table or, when X402EventArchive is on, the day
+     * archive table it was moved into.
+     */
+    Optional<X402SpendingEvent> findByIdIncludingArchive(Long id);
+
+    /**
+     * Delete an event created at {@code createdAt} by ID from the event table and, when
+     * X402EventArchive is on, the day archive table of its day.
+     *
+     * @return number of events deleted
+     */
+    int deleteByIdIncludingArchive(Long id, OffsetDateTime createdAt);
+
+    /**
+     * Whether an event with the given settlement key is stored in the event table or, when
+     * X402EventArchive is on, a day archive table.
+     */
+    boolean existsByDedupKeyIncludingArchive(String dedupKey);
+}
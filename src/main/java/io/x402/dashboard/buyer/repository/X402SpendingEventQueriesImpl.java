@@ -0,0 +1,328 @@
+package io.x402.dashboard.buyer.repository;
+
+import io.x402.dashboard.buyer.domain.ServiceCategory;
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.common.archive.X402EventArchive;
+import io.x402.dashboard.common.query.X402QueryBuilder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of X402SpendingEventQueries, picked up by X402SpendingEventRepository.
+ *
+ * Queries are native SQL over the event table, or over it and the day archive tables in
+ * range when X402EventArchive is on.
+ */
+public class X402SpendingEventQueriesImpl implements X402SpendingEventQueries {
+
+    private static final Comparator<X402SpendingEvent> NEWEST_FIRST =
+        Comparator.comparing(X402SpendingEvent::getCreatedAt).thenComparing(X402SpendingEvent::getId).reversed();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectProvider<X402EventArchive> archive;
+
+    @Override
+    public List<X402SpendingEvent> findByBuyerIdAndCreatedAtBetween(
+            String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        return events(filter("SELECT e.* FROM " + source(from, to) + " e", buyerId, null, null, null, from, to)
+            .append("ORDER BY e.created_at DESC"), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<X402SpendingEvent> findByCategoryAndCreatedAtBetween(
+            ServiceCategory category, OffsetDateTime from, OffsetDateTime to) {
+        return events(filter("SELECT e.* FROM " + source(from, to) + " e", null, null, null, category, from, to)
+            .append("ORDER BY e.created_at DESC"), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Long countByBuyerIdAndCreatedAtBetween(String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        return count(filter("SELECT COUNT(*) FROM " + source(from, to) + " e", buyerId, null, null, null, from, to));
+    }
+
+    @Override
+    public Long countByBuyerIdAndStatusAndCreatedAtBetween(
+            String buyerId, SpendingStatus status, OffsetDateTime from, OffsetDateTime to) {
+        return count(filter("SELECT COUNT(*) FROM " + source(from, to) + " e", buyerId, null, status, null, from, to));
+    }
+
+    @Override
+    public Long sumAmountByBuyerAndTimeRange(String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        return count(buyer("SELECT COALESCE(SUM(e.amount_atomic), 0) FROM " + source(from, to) + " e", buyerId, from, to)
+            .where("e.status = 'SUCCESS'"));
+    }
+
+    @Override
+    public List<X402SpendingEvent> findTop10ByBuyerIdOrderByCreatedAtDesc(String buyerId) {
+        int limit = 10;
+        List<X402SpendingEvent> latest = new ArrayList<>(events(latest(X402EventArchive.SPENDING_TABLE, buyerId), 0, limit));
+        X402EventArchive eventArchive = archive.getIfAvailable();
+        List<LocalDate> days = eventArchive != null
+            ? eventArchive.getDays(X402EventArchive.SPENDING_TABLE)
+            : List.of();
+        for (int i = days.size() - 1; i >= 0; i--) {
+            LocalDate day = days.get(i);
+            OffsetDateTime dayEnd = day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+            // This day and older ones only hold older events than those found
+            if (latest.size() >= limit && !latest.get(limit - 1).getCreatedAt().isBefore(dayEnd)) {
+                break;
+            }
+            Optional<String> dayTable = eventArchive.getTable(X402EventArchive.SPENDING_TABLE,
+                day.atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime());
+            if (dayTable.isPresent()) {
+                latest.addAll(events(latest(dayTable.get(), buyerId), 0, limit));
+                latest.sort(NEWEST_FIRST);
+                latest.subList(Math.min(limit, latest.size()), latest.size()).clear();
+            }
+        }
+        return latest;
+    }
+
+    @Override
+    public Page<X402SpendingEvent> findWithFilters(
+            String buyerId,
+            String serviceId,
+            SpendingStatus status,
+            ServiceCategory category,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            Pageable pageable) {
+        String source = source(from, to);
+        X402QueryBuilder query = filter("SELECT e.* FROM " + source + " e", buyerId, serviceId, status, category, from, to)
+            .append("ORDER BY e.created_at DESC");
+        List<X402SpendingEvent> content = events(query, (int) pageable.getOffset(), pageable.getPageSize());
+        X402QueryBuilder count = query.withSelect("SELECT COUNT(*) FROM " + source + " e");
+        return PageableExecutionUtils.getPage(content, pageable,
+            () -> ((Number) count.bind(entityManager.createNativeQuery(count.build())).getSingleResult()).longValue());
+    }
+
+    @Override
+    public List<X402SpendingEvent> findWithFiltersAfterCursor(
+            String buyerId,
+            String serviceId,
+            SpendingStatus status,
+            ServiceCategory category,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            OffsetDateTime cursorCreatedAt,
+            Long cursorId,
+            Pageable pageable) {
+        X402QueryBuilder query = filter("SELECT e.* FROM " + source(from, to) + " e",
+                buyerId, serviceId, status, category, from, to)
+            .where("(e.created_at < :cursorCreatedAt OR (e.created_at = :cursorCreatedAt AND e.id < :cursorId))")
+            .parameter("cursorCreatedAt", cursorCreatedAt)
+            .parameter("cursorId", cursorId)
+            .append("ORDER BY e.created_at DESC, e.id DESC");
+        return events(query, 0, pageable.getPageSize());
+    }
+
+    @Override
+    public List<X402SpendingEvent> findWithFiltersBeforeCursor(
+            String buyerId,
+            String serviceId,
+            SpendingStatus status,
+            ServiceCategory category,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            OffsetDateTime cursorCreatedAt,
+            Long cursorId,
+            Pageable pageable) {
+        X402QueryBuilder query = filter("SELECT e.* FROM " + source(from, to) + " e",
+                buyerId, serviceId, status, category, from, to)
+            .where("(e.created_at > :cursorCreatedAt OR (e.created_at = :cursorCreatedAt AND e.id > :cursorId))")
+            .parameter("cursorCreatedAt", cursorCreatedAt)
+            .parameter("cursorId", cursorId)
+            .append("ORDER BY e.created_at ASC, e.id ASC");
+        return events(query, 0, pageable.getPageSize());
+    }
+
+    @Override
+    public Object[] getOverviewTotals(String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        X402QueryBuilder query = buyer("""
+            SELECT COUNT(*),
+                   SUM(CASE WHEN e.status = 'SUCCESS' THEN 1 ELSE 0 END),
+                   SUM(CASE WHEN e.status = 'SUCCESS' THEN COALESCE(e.amount_atomic, 0) ELSE 0 END)
+            FROM\s""" + source(from, to) + " e", buyerId, from, to);
+        return new Object[]{query.bind(entityManager.createNativeQuery(query.build())).getSingleResult()};
+    }
+
+    @Override
+    public List<Object[]> aggregateTopServices(String buyerId, OffsetDateTime from, OffsetDateTime to, int limit) {
+        return rows(buyer("""
+            SELECT s.service_id, n.value_text, s.category, s.request_count, s.total_spent,
+                   CASE WHEN s.grand_total > 0 THEN s.total_spent * 100.0 / s.grand_total ELSE 0 END
+            FROM (
+                SELECT e.service_id, MAX(e.service_name) AS service_name_id, MAX(e.category) AS category,
+                       COUNT(*) AS request_count, COALESCE(SUM(e.amount_atomic), 0) AS total_spent,
+                       SUM(COALESCE(SUM(e.amount_atomic), 0)) OVER () AS grand_total
+                FROM\s""" + source(from, to) + " e", buyerId, from, to)
+            .where("e.status = 'SUCCESS'")
+            .append("""
+                GROUP BY e.service_id
+            ) s
+            LEFT JOIN x402_dictionary n ON n.id = s.service_name_id
+            WHERE s.service_id IS NOT NULL
+            ORDER BY s.total_spent DESC
+            LIMIT :limit
+            """)
+            .parameter("limit", limit));
+    }
+
+    @Override
+    public List<Object[]> aggregateServices(String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        return rows(buyer("""
+            SELECT s.service_id, n.value_text, s.category, s.request_count, s.total_spent
+            FROM (
+                SELECT e.service_id, MAX(e.service_name) AS service_name_id, MAX(e.category) AS category,
+                       COUNT(*) AS request_count, COALESCE(SUM(e.amount_atomic), 0) AS total_spent
+                FROM\s""" + source(from, to) + " e", buyerId, from, to)
+            .where("e.status = 'SUCCESS'")
+            .append("""
+                GROUP BY e.service_id
+            ) s
+            LEFT JOIN x402_dictionary n ON n.id = s.service_name_id
+            """));
+    }
+
+    @Override
+    public List<Object[]> aggregateSpendingByCategory(String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        List<Object[]> rows = rows(buyer(
+                "SELECT e.category, SUM(e.amount_atomic) FROM " + source(from, to) + " e", buyerId, from, to)
+            .where("e.status = 'SUCCESS'")
+            .where("e.category IS NOT NULL")
+            .where("e.amount_atomic IS NOT NULL")
+            .append("GROUP BY e.category ORDER BY SUM(e.amount_atomic) DESC"));
+        for (Object[] row : rows) {
+            row[0] = ServiceCategory.valueOf(row[0].toString());
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> aggregateDailySpending(String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        return rows(buyer("SELECT CAST(e.created_at AS DATE) AS spending_date, SUM(e.amount_atomic) FROM "
+                + source(from, to) + " e", buyerId, from, to)
+            .where("e.status = 'SUCCESS'")
+            .where("e.amount_atomic IS NOT NULL")
+            .append("GROUP BY CAST(e.created_at AS DATE) ORDER BY CAST(e.created_at AS DATE)"));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<X402SpendingEvent> findByIdIncludingArchive(Long id) {
+        List<X402SpendingEvent> events = entityManager.createNativeQuery(
+                        "SELECT e.* FROM " + lookup("id") + " e", X402SpendingEvent.class)
+                .setParameter("value", id)
+                .setMaxResults(1)
+                .getResultList();
+        return events.stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    public int deleteByIdIncludingArchive(Long id, OffsetDateTime createdAt) {
+        List<String> tables = new ArrayList<>(List.of(X402EventArchive.SPENDING_TABLE));
+        X402EventArchive eventArchive = archive.getIfAvailable();
+        if (eventArchive != null) {
+            // A late event of an archived day may still be in the event table
+            eventArchive.getTable(X402EventArchive.SPENDING_TABLE, createdAt).ifPresent(tables::add);
+        }
+        int deleted = 0;
+        for (String table : tables) {
+            deleted += entityManager.createNativeQuery("DELETE FROM " + table + " WHERE id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean existsByDedupKeyIncludingArchive(String dedupKey) {
+        return !entityManager.createNativeQuery("SELECT 1 FROM " + lookup("dedup_key") + " e")
+                .setParameter("value", dedupKey)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    private static X402QueryBuilder filter(
+            String select,
+            String buyerId,
+            String serviceId,
+            SpendingStatus status,
+            ServiceCategory category,
+            OffsetDateTime from,
+            OffsetDateTime to) {
+        return new X402QueryBuilder(select)
+            .equal("e.buyer_id", "buyerId", buyerId)
+            .equal("e.service_id", "serviceId", serviceId)
+            .equal("e.status", "status", status != null ? status.name() : null)
+            .equal("e.category", "category", category != null ? category.name() : null)
+            .between("e.created_at", from, to);
+    }
+
+    /**
+     * Aggregates always filter by buyer; a null buyer matches no events.
+     */
+    private static X402QueryBuilder buyer(String select, String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        return new X402QueryBuilder(select)
+            .where("e.buyer_id = :buyerId")
+            .parameter("buyerId", buyerId)
+            .between("e.created_at", from, to);
+    }
+
+    private static X402QueryBuilder latest(String table, String buyerId) {
+        return new X402QueryBuilder("SELECT e.* FROM " + table + " e")
+            .equal("e.buyer_id", "buyerId", buyerId)
+            .append("ORDER BY e.created_at DESC, e.id DESC");
+    }
+
+    private String source(OffsetDateTime from, OffsetDateTime to) {
+        X402EventArchive eventArchive = archive.getIfAvailable();
+        return eventArchive != null
+            ? eventArchive.source(X402EventArchive.SPENDING_TABLE, from, to)
+            : X402EventArchive.SPENDING_TABLE;
+    }
+
+    private String lookup(String column) {
+        X402EventArchive eventArchive = archive.getIfAvailable();
+        return eventArchive != null
+                ? eventArchive.lookup(X402EventArchive.SPENDING_TABLE, column)
+                : "(SELECT * FROM " + X402EventArchive.SPENDING_TABLE + " WHERE " + column + " = :value)";
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<X402SpendingEvent> events(X402QueryBuilder query, int offset, int limit) {
+        return query.bind(entityManager.createNativeQuery(query.build(), X402SpendingEvent.class))
+            .setFirstResult(offset)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    private Long count(X402QueryBuilder query) {
+        return ((Number) query.bind(entityManager.createNativeQuery(query.build())).getSingleResult()).longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> rows(X402QueryBuilder query) {
+        return query.bind(entityManager.createNativeQuery(query.build())).getResultList();
+    }
+}
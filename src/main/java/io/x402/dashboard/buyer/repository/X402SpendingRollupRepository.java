@@ -0,0 +1,344 @@
+package io.x402.dashboard.buyer.repository;
+
+import io.x402.dashboard.buyer.domain.ServiceCategory;
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import io.x402.dashboard.common.retention.X402RetentionPolicy;
+import io.x402.dashboard.seller.domain.X402RollupResolution;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * JDBC access to the spending rollup table (x402_spending_rollup).
+ *
+ * The retention job compacts spending events past the raw retention into HOUR and DAY
+ * rollups and deletes them in the same transaction, so every event is counted either raw or
+ * rolled up, never both. Aggregations add the rollups of a range to the raw results: HOUR
+ * rollups where they are kept, DAY rollups before that. A rollup counts if its bucket starts
+ * within the range.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "x402.dashboard.retention", name = "enabled", havingValue = "true")
+public class X402SpendingRollupRepository {
+
+    /**
+     * Name of the spending compaction's row in x402_rollup_state.
+     */
+    static final String STATE_NAME = "spending";
+
+    /**
+     * Stored in place of a null buyer, service or category, so the rollup key can be unique.
+     */
+    static final String NONE = "";
+
+    /**
+     * Stored in place of a null service name; dictionary IDs start at 1.
+     */
+    static final int NO_ID = 0;
+
+    private static final List<X402RollupResolution> RESOLUTIONS =
+            List.of(X402RollupResolution.HOUR, X402RollupResolution.DAY);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final X402EventIdGenerator idGenerator;
+
+    public X402SpendingRollupRepository(JdbcTemplate jdbcTemplate, X402EventIdGenerator idGenerator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+    }
+
+    // ========================================
+    // Maintenance
+    // ========================================
+
+    /**
+     * Lock the compaction for the current transaction, across nodes as well.
+     */
+    public void lock() {
+        if (jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM x402_rollup_state WHERE name = ?", Long.class, STATE_NAME) == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO x402_rollup_state (name, watermark_id, updated_at) VALUES (?, 0, ?)",
+                        STATE_NAME, OffsetDateTime.now());
+            } catch (DuplicateKeyException e) {
+                // Created concurrently by another node
+            }
+        }
+        jdbcTemplate.queryForObject(
+                "SELECT watermark_id FROM x402_rollup_state WHERE name = ? FOR UPDATE", Long.class, STATE_NAME);
+    }
+
+    /**
+     * Drop all spending rollups.
+     */
+    public void reset() {
+        lock();
+        jdbcTemplate.update("DELETE FROM x402_spending_rollup");
+    }
+
+    /**
+     * Roll up and delete up to {@code limit} events of {@code table}, the event table or one
+     * of its day archive tables, created before {@code before}. Must run in a transaction
+     * holding {@link #lock()}; fails, and so rolls back, if another transaction deleted any of them
+     * first.
+     *
+     * @return number of events compacted
+     */
+    public int compact(
+            String table,
+            X402RetentionPolicy.Scope scope,
+            OffsetDateTime before,
+            int limit,
+            ZoneId zone) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, buyer_id, service_id, service_name, category, status, amount_atomic, created_at
+                FROM\s""").append(table).append(" WHERE created_at < ?");
+        List<Object> args = new ArrayList<>(List.of(before));
+        scope.appendTo(sql, args, "buyer_id");
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+
+        List<Long> ids = new ArrayList<>();
+        Map<Key, long[]> deltas = new LinkedHashMap<>();
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+            ids.add(rs.getLong(1));
+            int serviceName = rs.getInt(4);
+            if (rs.wasNull()) {
+                serviceName = NO_ID;
+            }
+            long amount = rs.getLong(7);
+            boolean hasAmount = !rs.wasNull();
+            OffsetDateTime createdAt = rs.getObject(8, OffsetDateTime.class);
+            for (X402RollupResolution resolution : RESOLUTIONS) {
+                Key key = new Key(resolution,
+                        resolution.floor(createdAt.atZoneSameInstant(zone)).toOffsetDateTime(),
+                        rs.getString(2), rs.getString(3), serviceName, rs.getString(5), rs.getString(6));
+                long[] delta = deltas.computeIfAbsent(key, k -> new long[3]);
+                delta[0]++;
+                if (hasAmount) {
+                    delta[1]++;
+                    delta[2] += amount;
+                }
+            }
+        }, args.toArray());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        apply(deltas);
+        int deleted = 0;
+        for (int count : jdbcTemplate.batchUpdate("DELETE FROM " + table + " WHERE id = ?",
+                ids.stream().map(id -> new Object[]{id}).toList())) {
+            deleted += count;
+        }
+        if (deleted != ids.size()) {
+            throw new IllegalStateException("Spending events in " + table + " changed while being compacted");
+        }
+        return deleted;
+    }
+
+    private void apply(Map<Key, long[]> deltas) {
+        List<Key> keys = new ArrayList<>(deltas.keySet());
+        List<Object[]> updates = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            long[] delta = deltas.get(key);
+            updates.add(new Object[]{delta[0], delta[1], delta[2], key.resolution.name(), key.bucketStart,
+                    key.buyerId, key.serviceId, key.serviceName, key.category, key.status});
+        }
+        int[] updated = jdbcTemplate.batchUpdate("""
+                UPDATE x402_spending_rollup
+                SET event_count = event_count + ?, amount_count = amount_count + ?, amount_sum = amount_sum + ?
+                WHERE resolution = ? AND bucket_start = ? AND buyer_id = ? AND service_id = ?
+                  AND service_name = ? AND category = ? AND status = ?
+                """, updates);
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (updated[i] == 0) {
+                Key key = keys.get(i);
+                long[] delta = deltas.get(key);
+                inserts.add(new Object[]{idGenerator.nextId(), key.resolution.name(), key.bucketStart, key.buyerId,
+                        key.serviceId, key.serviceName, key.category, key.status, delta[0], delta[1], delta[2]});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO x402_spending_rollup
+                        (id, resolution, bucket_start, buyer_id, service_id, service_name, category, status,
+                         event_count, amount_count, amount_sum)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """, inserts);
+        }
+    }
+
+    /**
+     * Delete up to {@code limit} rollups of a resolution whose buckets start before
+     * {@code before}. Must run in a transaction holding {@link #lock()}.
+     *
+     * @return number of rollups deleted
+     */
+    public int deleteRollups(
+            X402RollupResolution resolution,
+            X402RetentionPolicy.Scope scope,
+            OffsetDateTime before,
+            int limit) {
+        StringBuilder ids = new StringBuilder(
+                "SELECT id FROM x402_spending_rollup WHERE resolution = ? AND bucket_start < ?");
+        List<Object> args = new ArrayList<>(List.of(resolution.name(), before));
+        scope.appendTo(ids, args, "buyer_id");
+        ids.append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.update("DELETE FROM x402_spending_rollup WHERE id IN (" + ids + ")", args.toArray());
+    }
+
+    // ========================================
+    // Aggregation
+    // ========================================
+
+    /**
+     * Total requests, success count and total spent (SUCCESS only) of a buyer's rollups in
+     * [from, to].
+     */
+    public long[] getOverviewTotals(
+            String buyerId, OffsetDateTime from, OffsetDateTime to, OffsetDateTime hourlyBefore, ZoneId zone) {
+        List<Object> args = new ArrayList<>();
+        String where = where(buyerId, from, to, hourlyBefore, zone, args);
+        return jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(event_count), 0),
+                       COALESCE(SUM(CASE WHEN status = 'SUCCESS' THEN event_count ELSE 0 END), 0),
+                       COALESCE(SUM(CASE WHEN status = 'SUCCESS' THEN amount_sum ELSE 0 END), 0)
+                FROM x402_spending_rollup
+                """ + where, (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)}, args.toArray());
+    }
+
+    /**
+     * Successful spending per service, as {@link X402SpendingEventQueries#aggregateServices}.
+     * Returns: [serviceId, serviceName, category, requestCount, totalSpent]
+     */
+    public List<Object[]> aggregateServices(
+            String buyerId, OffsetDateTime from, OffsetDateTime to, OffsetDateTime hourlyBefore, ZoneId zone) {
+        List<Object> args = new ArrayList<>();
+        String where = where(buyerId, from, to, hourlyBefore, zone, args);
+        return jdbcTemplate.query("""
+                SELECT s.service_id, n.value_text, s.category, s.request_count, s.total_spent
+                FROM (
+                    SELECT service_id, MAX(service_name) AS service_name_id, MAX(category) AS category,
+                           SUM(event_count) AS request_count, SUM(amount_sum) AS total_spent
+                    FROM x402_spending_rollup
+                    """ + where + """
+                      AND status = 'SUCCESS'
+                    GROUP BY service_id
+                ) s
+                LEFT JOIN x402_dictionary n ON n.id = s.service_name_id
+                """, (rs, i) -> new Object[]{
+                        blankToNull(rs.getString(1)), rs.getString(2), blankToNull(rs.getString(3)),
+                        rs.getLong(4), rs.getLong(5)}, args.toArray());
+    }
+
+    /**
+     * Successful spending per category, of the categories with any amount.
+     * Returns: [ServiceCategory, totalSpent]
+     */
+    public List<Object[]> aggregateSpendingByCategory(
+            String buyerId, OffsetDateTime from, OffsetDateTime to, OffsetDateTime hourlyBefore, ZoneId zone) {
+        List<Object> args = new ArrayList<>();
+        String where = where(buyerId, from, to, hourlyBefore, zone, args);
+        return jdbcTemplate.query("SELECT category, SUM(amount_sum) FROM x402_spending_rollup " + where
+                + " AND status = 'SUCCESS' AND category <> '' GROUP BY category HAVING SUM(amount_count) > 0",
+                (rs, i) -> new Object[]{ServiceCategory.valueOf(rs.getString(1)), rs.getLong(2)}, args.toArray());
+    }
+
+    /**
+     * Successful spending per bucket, of the buckets with any amount.
+     * Returns: [bucket start OffsetDateTime, totalSpent]
+     */
+    public List<Object[]> aggregateSpendingByBucket(
+            String buyerId, OffsetDateTime from, OffsetDateTime to, OffsetDateTime hourlyBefore, ZoneId zone) {
+        List<Object> args = new ArrayList<>();
+        String where = where(buyerId, from, to, hourlyBefore, zone, args);
+        return jdbcTemplate.query("SELECT bucket_start, SUM(amount_sum) FROM x402_spending_rollup " + where
+                + " AND status = 'SUCCESS' GROUP BY bucket_start HAVING SUM(amount_count) > 0",
+                (rs, i) -> new Object[]{rs.getObject(1, OffsetDateTime.class), rs.getLong(2)}, args.toArray());
+    }
+
+    /**
+     * WHERE clause selecting a buyer's rollups starting in [from, to]: HOUR rollups from the
+     * day after the hourly horizon on, DAY rollups before it. A null buyer matches nothing, as
+     * in the raw queries.
+     */
+    private static String where(
+            String buyerId, OffsetDateTime from, OffsetDateTime to, OffsetDateTime hourlyBefore, ZoneId zone,
+            List<Object> args) {
+        args.add(buyerId);
+        args.add(from);
+        args.add(to);
+        if (hourlyBefore == null) {
+            return "WHERE buyer_id = ? AND bucket_start BETWEEN ? AND ? AND resolution = 'HOUR'";
+        }
+        OffsetDateTime dailyUntil = X402RollupResolution.DAY.ceil(hourlyBefore.atZoneSameInstant(zone)).toOffsetDateTime();
+        args.add(dailyUntil);
+        args.add(dailyUntil);
+        return "WHERE buyer_id = ? AND bucket_start BETWEEN ? AND ?"
+                + " AND ((resolution = 'HOUR' AND bucket_start >= ?) OR (resolution = 'DAY' AND bucket_start < ?))";
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || NONE.equals(value) ? null : value;
+    }
+
+    /**
+     * Natural key of a rollup row.
+     */
+    private static final class Key {
+        private final X402RollupResolution resolution;
+        private final OffsetDateTime bucketStart;
+        private final String buyerId;
+        private final String serviceId;
+        private final int serviceName;
+        private final String category;
+        private final String status;
+
+        Key(X402RollupResolution resolution, OffsetDateTime bucketStart, String buyerId, String serviceId,
+            int serviceName, String category, String status) {
+            this.resolution = resolution;
+            this.bucketStart = bucketStart;
+            this.buyerId = buyerId != null ? buyerId : NONE;
+            this.serviceId = serviceId != null ? serviceId : NONE;
+            this.serviceName = serviceName;
+            this.category = category != null ? category : NONE;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return resolution == other.resolution
+                    && bucketStart.equals(other.bucketStart)
+                    && buyerId.equals(other.buyerId)
+                    && serviceId.equals(other.serviceId)
+                    && serviceName == other.serviceName
+                    && category.equals(other.category)
+                    && status.equals(other.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resolution, bucketStart, buyerId, serviceId, serviceName, category, status);
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package io.x402.dashboard.buyer.service;
 
 import io.x402.dashboard.buyer.domain.ServiceCategory;
-import io.x402.dashboard.buyer.domain.SpendingStatus;
-import io.x402.dashboard.buyer.domain.X402SpendingEvent;
 import io.x402.dashboard.buyer.repository.X402SpendingEventRepository;
+import io.x402.dashboard.buyer.repository.X402SpendingRollupRepository;
 import io.x402.dashboard.buyer.service.dto.ServiceSpendingAggregation;
 import io.x402.dashboard.buyer.service.dto.SpendingOverview;
+import io.x402.dashboard.common.cache.X402AggregateCache;
+import io.x402.dashboard.common.retention.X402RetentionPolicy;
+import io.x402.dashboard.common.sketch.X402DistinctCounter;
+import io.x402.dashboard.common.sketch.X402DistinctMetric;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Dimension;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Metric;
+import io.x402.dashboard.common.sketch.X402LatencyPercentiles;
+import io.x402.dashboard.common.sketch.X402LatencyRecorder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,40 +26,81 @@ import java.util.stream.Collectors;
 
 /**
  * Service for aggregating and analyzing spending data.
+ *
+ * With {@code x402.dashboard.distinct.enabled=true}, unique services and buyers are estimated
+ * from the daily distinct-count sketches instead of scanning events. With
+ * {@code x402.dashboard.latency.enabled=true}, latency and settlement delay percentiles per
+ * service come from the hourly latency histograms.
+ *
+ * With {@code x402.dashboard.retention.enabled=true}, events past the raw retention are
+ * compacted into hourly and daily spending rollups, which the overview, services, categories
+ * and daily series add to what is left of the raw events. Rollups count if their hour or
+ * day starts within the range.
+ *
+ * With {@code x402.dashboard.cache.enabled=true}, the overview, services, categories and daily
+ * series are read per day through X402AggregateCache: closed days come from memory and only
+ * the open rest of the range is queried.
  */
 @Service
 @Transactional(readOnly = true)
 public class X402SpendingAggregationService {
 
+    /**
+     * Cache scope of spending aggregates, invalidated by X402SpendingEventService.
+     */
+    public static final String CACHE_SCOPE = "spending";
+
     private final X402SpendingEventRepository repository;
+    private final X402DistinctCounter distinctCounter;
+    private final X402LatencyRecorder latencyRecorder;
+    private final X402AggregateCache cache;
+    private final X402SpendingRollupRepository rollupRepository;
+    private final X402RetentionPolicy retention;
+    private final ZoneId zone = ZoneId.systemDefault();
 
     public X402SpendingAggregationService(X402SpendingEventRepository repository) {
         this.repository = repository;
+        this.distinctCounter = null;
+        this.latencyRecorder = null;
+        this.cache = null;
+        this.rollupRepository = null;
+        this.retention = null;
+    }
+
+    @Autowired
+    public X402SpendingAggregationService(
+            X402SpendingEventRepository repository,
+            ObjectProvider<X402DistinctCounter> distinctCounter,
+            ObjectProvider<X402LatencyRecorder> latencyRecorder,
+            ObjectProvider<X402AggregateCache> cache,
+            ObjectProvider<X402SpendingRollupRepository> rollupRepository,
+            ObjectProvider<X402RetentionPolicy> retention) {
+        this.repository = repository;
+        this.distinctCounter = distinctCounter.getIfAvailable();
+        this.latencyRecorder = latencyRecorder.getIfAvailable();
+        this.cache = cache.getIfAvailable();
+        this.rollupRepository = rollupRepository.getIfAvailable();
+        this.retention = retention.getIfAvailable();
     }
 
     /**
      * Get spending overview for a buyer within time range.
      */
     public SpendingOverview getOverview(String buyerId, OffsetDateTime from, OffsetDateTime to) {
-        // Total spent (SUCCESS only)
-        Long totalSpent = repository.sumAmountByBuyerAndTimeRange(buyerId, from, to);
-        if (totalSpent == null) {
-            totalSpent = 0L;
-        }
-
-        // Total requests
-        Long totalRequests = repository.countByBuyerIdAndCreatedAtBetween(buyerId, from, to);
-        if (totalRequests == null) {
-            totalRequests = 0L;
-        }
-
-        // Success count
-        Long successCount = repository.countByBuyerIdAndStatusAndCreatedAtBetween(
-            buyerId, SpendingStatus.SUCCESS, from, to
-        );
-        if (successCount == null) {
-            successCount = 0L;
+        long[] totals = new long[3];
+        if (cache != null) {
+            for (long[] segment : cache.segments(CACHE_SCOPE, buyerId, List.of("overview"), from, to,
+                    (segmentFrom, segmentTo) -> overviewTotals(buyerId, segmentFrom, segmentTo))) {
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += segment[i];
+                }
+            }
+        } else {
+            totals = overviewTotals(buyerId, from, to);
         }
+        Long totalRequests = totals[0];
+        Long successCount = totals[1];
+        Long totalSpent = totals[2];
 
         // Success rate
         Double successRate = 0.0;
@@ -64,7 +114,7 @@ public class X402SpendingAggregationService {
             avgCost = totalSpent / successCount;
         }
 
-        return new SpendingOverview(
+        SpendingOverview overview = new SpendingOverview(
             totalSpent,
             totalRequests,
             successCount,
@@ -73,6 +123,10 @@ public class X402SpendingAggregationService {
             from,
             to
         );
+        if (distinctCounter != null) {
+            overview.setUniqueServices(distinctCounter.count(X402DistinctMetric.SERVICE, buyerId, from, to));
+        }
+        return overview;
     }
 
     /**
@@ -84,41 +138,22 @@ public class X402SpendingAggregationService {
             OffsetDateTime to,
             int limit) {
 
-        // Get all successful spending events
-        List<X402SpendingEvent> events = repository.findByBuyerIdAndStatusAndCreatedAtBetween(
-            buyerId, SpendingStatus.SUCCESS, from, to
-        );
-
-        // Calculate total spending
-        long totalSpent = events.stream()
-            .mapToLong(e -> e.getAmountAtomic() != null ? e.getAmountAtomic() : 0L)
-            .sum();
-
-        // Group by service ID
-        Map<String, List<X402SpendingEvent>> grouped = events.stream()
-            .filter(e -> e.getServiceId() != null)
-            .collect(Collectors.groupingBy(X402SpendingEvent::getServiceId));
-
-        // Aggregate and sort
-        return grouped.entrySet().stream()
-            .map(entry -> {
-                String serviceId = entry.getKey();
-                List<X402SpendingEvent> serviceEvents = entry.getValue();
-
-                long serviceTotal = serviceEvents.stream()
-                    .mapToLong(e -> e.getAmountAtomic() != null ? e.getAmountAtomic() : 0L)
-                    .sum();
-
-                long requestCount = serviceEvents.size();
+        if (cache != null) {
+            return topServices(cache.segments(CACHE_SCOPE, buyerId, List.of("services"), from, to,
+                    (segmentFrom, segmentTo) -> services(buyerId, segmentFrom, segmentTo)), limit);
+        }
+        if (rollupRepository != null) {
+            return topServices(List.of(services(buyerId, from, to)), limit);
+        }
+        // Grouping, ranking and share of total happen in the database; only the top rows come back
+        return repository.aggregateTopServices(buyerId, from, to, limit).stream()
+            .map(r -> {
+                String serviceId = (String) r[0];
+                String serviceName = r[1] != null ? (String) r[1] : serviceId;
+                ServiceCategory category = r[2] != null ? ServiceCategory.valueOf((String) r[2]) : null;
+                long requestCount = ((Number) r[3]).longValue();
+                long serviceTotal = ((Number) r[4]).longValue();
                 long avgCost = requestCount > 0 ? serviceTotal / requestCount : 0L;
-                double percentOfTotal = totalSpent > 0 ? (serviceTotal * 100.0) / totalSpent : 0.0;
-
-                // Get service name and category from first event
-                String serviceName = serviceEvents.get(0).getServiceName();
-                if (serviceName == null) {
-                    serviceName = serviceId;
-                }
-                ServiceCategory category = serviceEvents.get(0).getCategory();
 
                 return new ServiceSpendingAggregation(
                     serviceId,
@@ -127,11 +162,9 @@ public class X402SpendingAggregationService {
                     requestCount,
                     serviceTotal,
                     avgCost,
-                    percentOfTotal
+                    ((Number) r[5]).doubleValue()
                 );
             })
-            .sorted(Comparator.comparing(ServiceSpendingAggregation::getTotalSpentAtomic).reversed())
-            .limit(limit)
             .collect(Collectors.toList());
     }
 
@@ -143,16 +176,17 @@ public class X402SpendingAggregationService {
             OffsetDateTime from,
             OffsetDateTime to) {
 
-        List<X402SpendingEvent> events = repository.findByBuyerIdAndStatusAndCreatedAtBetween(
-            buyerId, SpendingStatus.SUCCESS, from, to
-        );
-
-        return events.stream()
-            .filter(e -> e.getCategory() != null && e.getAmountAtomic() != null)
-            .collect(Collectors.groupingBy(
-                X402SpendingEvent::getCategory,
-                Collectors.summingLong(X402SpendingEvent::getAmountAtomic)
-            ));
+        if (cache == null) {
+            return spendingByCategory(buyerId, from, to);
+        }
+        Map<ServiceCategory, Long> spending = new HashMap<>();
+        for (Map<ServiceCategory, Long> segment : cache.segments(CACHE_SCOPE, buyerId, List.of("categories"), from, to,
+                (segmentFrom, segmentTo) -> spendingByCategory(buyerId, segmentFrom, segmentTo))) {
+            segment.forEach((category, amount) -> spending.merge(category, amount, Long::sum));
+        }
+        return spending.entrySet().stream()
+            .sorted(Map.Entry.<ServiceCategory, Long>comparingByValue().reversed())
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
     }
 
     /**
@@ -164,16 +198,209 @@ public class X402SpendingAggregationService {
             OffsetDateTime from,
             OffsetDateTime to) {
 
-        List<X402SpendingEvent> events = repository.findByBuyerIdAndStatusAndCreatedAtBetween(
-            buyerId, SpendingStatus.SUCCESS, from, to
-        );
+        if (cache == null) {
+            return dailySpending(buyerId, from, to);
+        }
+        Map<LocalDate, Long> spending = new TreeMap<>();
+        for (Map<LocalDate, Long> segment : cache.segments(CACHE_SCOPE, buyerId, List.of("daily"), from, to,
+                (segmentFrom, segmentTo) -> dailySpending(buyerId, segmentFrom, segmentTo))) {
+            segment.forEach((date, amount) -> spending.merge(date, amount, Long::sum));
+        }
+        return spending;
+    }
+
+    /**
+     * Whether unique services and buyers are tracked.
+     */
+    public boolean isDistinctCountEnabled() {
+        return distinctCounter != null;
+    }
+
+    /**
+     * Get estimated distinct services used by a buyer per day.
+     * Empty unless distinct-count sketches are enabled.
+     */
+    public Map<LocalDate, Long> getDailyUniqueServices(
+            String buyerId,
+            OffsetDateTime from,
+            OffsetDateTime to) {
+
+        if (distinctCounter == null) {
+            return new TreeMap<>();
+        }
+        return distinctCounter.daily(X402DistinctMetric.SERVICE, buyerId, from, to);
+    }
+
+    /**
+     * Get estimated distinct buyers per day, across all buyers.
+     * Empty unless distinct-count sketches are enabled.
+     */
+    public Map<LocalDate, Long> getDailyUniqueBuyers(OffsetDateTime from, OffsetDateTime to) {
+        if (distinctCounter == null) {
+            return new TreeMap<>();
+        }
+        return distinctCounter.daily(X402DistinctMetric.BUYER, null, from, to);
+    }
+
+    /**
+     * Whether latency and settlement delay percentiles are tracked.
+     */
+    public boolean isLatencyEnabled() {
+        return latencyRecorder != null;
+    }
+
+    /**
+     * Get latency or settlement delay percentiles of a buyer's requests, for one service or,
+     * if {@code serviceId} is null, all of them. Null unless latency histograms are enabled.
+     */
+    public X402LatencyPercentiles getLatency(
+            Metric metric,
+            String buyerId,
+            String serviceId,
+            OffsetDateTime from,
+            OffsetDateTime to) {
+
+        if (latencyRecorder == null) {
+            return null;
+        }
+        return latencyRecorder.percentiles(metric, Dimension.SERVICE, buyerId, serviceId, from, to);
+    }
+
+    /**
+     * Get latency or settlement delay percentiles per service, busiest first.
+     * Empty unless latency histograms are enabled.
+     */
+    public List<X402LatencyPercentiles> getLatencyByService(
+            Metric metric,
+            String buyerId,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            Integer limit) {
+
+        if (latencyRecorder == null) {
+            return new ArrayList<>();
+        }
+        return latencyRecorder.breakdown(metric, Dimension.SERVICE, buyerId, from, to, limit);
+    }
+
+    /**
+     * Total requests, success count and total spent (SUCCESS only), in one scan.
+     */
+    private long[] overviewTotals(String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        Object[] result = repository.getOverviewTotals(buyerId, from, to);
+        // The result is a nested array - outer array contains rows, inner array contains columns
+        Object[] row = result != null && result.length > 0 ? (Object[]) result[0] : null;
+        long[] totals = {longValue(row, 0), longValue(row, 1), longValue(row, 2)};
+        if (rollupRepository != null) {
+            long[] rolledUp = rollupRepository.getOverviewTotals(buyerId, from, to, hourlyBefore(buyerId), zone);
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += rolledUp[i];
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Successful spending per service, raw and rolled up; a service can have a row of each.
+     */
+    private List<Object[]> services(String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        List<Object[]> rows = new ArrayList<>(repository.aggregateServices(buyerId, from, to));
+        if (rollupRepository != null) {
+            rows.addAll(rollupRepository.aggregateServices(buyerId, from, to, hourlyBefore(buyerId), zone));
+        }
+        return rows;
+    }
+
+    private Map<ServiceCategory, Long> spendingByCategory(String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        Map<ServiceCategory, Long> spending = new LinkedHashMap<>();
+        for (Object[] r : repository.aggregateSpendingByCategory(buyerId, from, to)) {
+            spending.put((ServiceCategory) r[0], ((Number) r[1]).longValue());
+        }
+        if (rollupRepository == null) {
+            return spending;
+        }
+        for (Object[] r : rollupRepository.aggregateSpendingByCategory(buyerId, from, to, hourlyBefore(buyerId), zone)) {
+            spending.merge((ServiceCategory) r[0], (Long) r[1], Long::sum);
+        }
+        return spending.entrySet().stream()
+            .sorted(Map.Entry.<ServiceCategory, Long>comparingByValue().reversed())
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private Map<LocalDate, Long> dailySpending(String buyerId, OffsetDateTime from, OffsetDateTime to) {
+        Map<LocalDate, Long> spending = new TreeMap<>();
+        for (Object[] r : repository.aggregateDailySpending(buyerId, from, to)) {
+            spending.put(toLocalDate(r[0]), ((Number) r[1]).longValue());
+        }
+        if (rollupRepository != null) {
+            for (Object[] r : rollupRepository.aggregateSpendingByBucket(buyerId, from, to, hourlyBefore(buyerId), zone)) {
+                spending.merge(((OffsetDateTime) r[0]).atZoneSameInstant(zone).toLocalDate(), (Long) r[1], Long::sum);
+            }
+        }
+        return spending;
+    }
+
+    /**
+     * Time before which the buyer's hourly rollups are gone, or null.
+     */
+    private OffsetDateTime hourlyBefore(String buyerId) {
+        return retention != null ? retention.horizons(buyerId, OffsetDateTime.now(zone)).getHourlyBefore() : null;
+    }
+
+    /**
+     * Rank services merged from per-segment rows of {@link X402SpendingEventRepository#aggregateServices},
+     * as {@link X402SpendingEventRepository#aggregateTopServices} does in the database.
+     */
+    private static List<ServiceSpendingAggregation> topServices(List<List<Object[]>> segments, int limit) {
+        Map<String, Object[]> services = new HashMap<>();
+        long grandTotal = 0;
+        for (List<Object[]> rows : segments) {
+            for (Object[] r : rows) {
+                long requestCount = ((Number) r[3]).longValue();
+                long serviceTotal = ((Number) r[4]).longValue();
+                grandTotal += serviceTotal;
+                if (r[0] == null) {
+                    continue;
+                }
+                Object[] service = services.computeIfAbsent((String) r[0], id -> new Object[]{id, null, null, 0L, 0L});
+                service[1] = service[1] != null ? service[1] : r[1];
+                service[2] = service[2] != null ? service[2] : r[2];
+                service[3] = (Long) service[3] + requestCount;
+                service[4] = (Long) service[4] + serviceTotal;
+            }
+        }
+        long total = grandTotal;
+        return services.values().stream()
+            .sorted((a, b) -> Long.compare((Long) b[4], (Long) a[4]))
+            .limit(limit)
+            .map(r -> {
+                String serviceId = (String) r[0];
+                long requestCount = (Long) r[3];
+                long serviceTotal = (Long) r[4];
+                return new ServiceSpendingAggregation(
+                    serviceId,
+                    r[1] != null ? (String) r[1] : serviceId,
+                    r[2] != null ? ServiceCategory.valueOf((String) r[2]) : null,
+                    requestCount,
+                    serviceTotal,
+                    requestCount > 0 ? serviceTotal / requestCount : 0L,
+                    total > 0 ? serviceTotal * 100.0 / total : 0.0
+                );
+            })
+            .collect(Collectors.toList());
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return LocalDate.parse(value.toString());
+    }
 
-        return events.stream()
-            .filter(e -> e.getAmountAtomic() != null && e.getCreatedAt() != null)
-            .collect(Collectors.groupingBy(
-                e -> e.getCreatedAt().atZoneSameInstant(ZoneId.systemDefault()).toLocalDate(),
-                TreeMap::new,
-                Collectors.summingLong(X402SpendingEvent::getAmountAtomic)
-            ));
+    private static Long longValue(Object[] row, int index) {
+        return row != null && row.length > index && row[index] != null ? ((Number) row[index]).longValue() : 0L;
     }
 }
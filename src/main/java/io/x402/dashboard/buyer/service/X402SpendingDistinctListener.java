@@ -0,0 +1,29 @@
+package io.x402.dashboard.buyer.service;
+
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.common.ingest.X402CaptureListener;
+import io.x402.dashboard.common.sketch.X402DistinctCounter;
+import io.x402.dashboard.common.sketch.X402DistinctMetric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds captured spending events into the distinct-count sketches: services per buyer, and
+ * buyers overall.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.distinct", name = "enabled", havingValue = "true")
+public class X402SpendingDistinctListener implements X402CaptureListener<X402SpendingEvent> {
+
+    private final X402DistinctCounter counter;
+
+    public X402SpendingDistinctListener(X402DistinctCounter counter) {
+        this.counter = counter;
+    }
+
+    @Override
+    public void onCapture(X402SpendingEvent event) {
+        counter.add(X402DistinctMetric.SERVICE, event.getBuyerId(), event.getCreatedAt(), event.getServiceId());
+        counter.add(X402DistinctMetric.BUYER, null, event.getCreatedAt(), event.getBuyerId());
+    }
+}
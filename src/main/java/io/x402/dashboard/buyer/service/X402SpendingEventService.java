@@ -2,27 +2,78 @@ package io.x402.dashboard.buyer.service;
 
 import io.x402.dashboard.buyer.domain.SpendingStatus;
 import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.buyer.repository.X402SpendingEventExporter;
+import io.x402.dashboard.buyer.repository.X402SpendingEventJdbcWriter;
 import io.x402.dashboard.buyer.repository.X402SpendingEventRepository;
+import io.x402.dashboard.buyer.repository.X402SpendingRollupRepository;
+import io.x402.dashboard.common.archive.X402EventArchive;
+import io.x402.dashboard.common.cache.X402AggregateCache;
+import io.x402.dashboard.common.jdbc.X402JdbcExport;
+import io.x402.dashboard.common.pagination.X402Cursor;
+import io.x402.dashboard.common.pagination.X402CursorPage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Service for managing X402SpendingEvent entities.
+ *
+ * Reads go through the JPA repository. Writes go through X402SpendingEventJdbcWriter when one
+ * is configured, and through the repository otherwise. Writes and deletes invalidate the
+ * days they touch in the aggregate cache.
  */
 @Service
 @Transactional(readOnly = true)
 public class X402SpendingEventService {
 
     private final X402SpendingEventRepository repository;
+    private final X402SpendingEventJdbcWriter jdbcWriter;
+    private final X402SpendingEventExporter exporter;
+    private final X402AggregateCache cache;
+    private final X402EventArchive archive;
+    private final X402SpendingRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
 
     public X402SpendingEventService(X402SpendingEventRepository repository) {
         this.repository = repository;
+        this.jdbcWriter = null;
+        this.exporter = null;
+        this.cache = null;
+        this.archive = null;
+        this.rollupRepository = null;
+        this.transactionTemplate = null;
+    }
+
+    @Autowired
+    public X402SpendingEventService(
+            X402SpendingEventRepository repository,
+            ObjectProvider<X402SpendingEventJdbcWriter> jdbcWriter,
+            ObjectProvider<X402SpendingEventExporter> exporter,
+            ObjectProvider<X402AggregateCache> cache,
+            ObjectProvider<X402EventArchive> archive,
+            ObjectProvider<X402SpendingRollupRepository> rollupRepository,
+            PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.jdbcWriter = jdbcWriter.getIfAvailable();
+        this.exporter = exporter.getIfAvailable();
+        this.cache = cache.getIfAvailable();
+        this.archive = archive.getIfAvailable();
+        this.rollupRepository = rollupRepository.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -30,14 +81,30 @@ public class X402SpendingEventService {
      */
     @Transactional
     public X402SpendingEvent save(X402SpendingEvent event) {
+        invalidate(event);
+        if (jdbcWriter != null) {
+            return jdbcWriter.insert(event);
+        }
         return repository.save(event);
     }
 
+    /**
+     * Save a batch of spending events in a single transaction.
+     */
+    @Transactional
+    public List<X402SpendingEvent> saveAll(List<X402SpendingEvent> events) {
+        events.forEach(this::invalidate);
+        if (jdbcWriter != null) {
+            return jdbcWriter.insertAll(events);
+        }
+        return repository.saveAll(events);
+    }
+
     /**
      * Find spending event by ID.
      */
     public Optional<X402SpendingEvent> findById(Long id) {
-        return repository.findById(id);
+        return repository.findByIdIncludingArchive(id);
     }
 
     /**
@@ -70,6 +137,62 @@ public class X402SpendingEventService {
         return repository.findWithFilters(buyerId, serviceId, status, null, from, to, pageable);
     }
 
+    /**
+     * Find spending events with filters and keyset pagination, newest first.
+     *
+     * @param cursor cursor from a previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public X402CursorPage<X402SpendingEvent> findWithFilters(
+            String buyerId,
+            String serviceId,
+            SpendingStatus status,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            String cursor,
+            int size) {
+        X402Cursor position = cursor != null ? X402Cursor.decode(cursor) : X402Cursor.first(to);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<X402SpendingEvent> rows = position.isBackward()
+            ? repository.findWithFiltersBeforeCursor(buyerId, serviceId, status, null, from, to,
+                position.getCreatedAt(), position.getId(), limit)
+            : repository.findWithFiltersAfterCursor(buyerId, serviceId, status, null, from, to,
+                position.getCreatedAt(), position.getId(), limit);
+        return X402CursorPage.of(rows, size, position, cursor == null, X402SpendingEvent::getCreatedAt, X402SpendingEvent::getId);
+    }
+
+    /**
+     * Resolve a comma-separated export column selection; null or blank selects every column.
+     *
+     * @throws IllegalArgumentException if a column is unknown
+     */
+    public List<X402JdbcExport.Column> exportColumns(String selection) {
+        return requireExporter().columns(selection);
+    }
+
+    /**
+     * Stream the matching spending events to {@code out}, oldest first, without loading them
+     * into memory.
+     */
+    public void exportEvents(
+            OutputStream out,
+            X402JdbcExport.Format format,
+            List<X402JdbcExport.Column> columns,
+            String buyerId,
+            String serviceId,
+            SpendingStatus status,
+            OffsetDateTime from,
+            OffsetDateTime to) throws IOException {
+        requireExporter().export(out, format, columns, buyerId, serviceId, status, from, to);
+    }
+
+    private X402SpendingEventExporter requireExporter() {
+        if (exporter == null) {
+            throw new IllegalStateException("Spending export is not configured");
+        }
+        return exporter;
+    }
+
     /**
      * Find recent spending events (latest 10).
      */
@@ -78,11 +201,54 @@ public class X402SpendingEventService {
     }
 
     /**
-     * Delete all spending events.
+     * Delete spending event by ID, from the event table or the day archive table holding it.
+     *
+     * Runs in a transaction of its own, suspending any of the caller's: with X402EventArchive
+     * on, this node moves no day until the delete commits, so a move cannot copy the event
+     * back into a day table first.
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deleteById(Long id) {
+        if (archive != null) {
+            archive.locked(() -> inTransaction(() -> delete(id)));
+        } else {
+            inTransaction(() -> delete(id));
+        }
+    }
+
+    private int delete(Long id) {
+        Optional<X402SpendingEvent> found = repository.findByIdIncludingArchive(id);
+        if (found.isEmpty()) {
+            return 0;
+        }
+        // The spending rollups only hold events compacted away, never one still stored
+        invalidate(found.get());
+        return repository.deleteByIdIncludingArchive(id, found.get().getCreatedAt());
+    }
+
+    /**
+     * Delete all spending events, including the day archive tables and the rollups of events
+     * past retention.
+     *
+     * The events are deleted in a transaction of its own, suspending any of the caller's, and
+     * the day tables are dropped once it has committed.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteAll() {
-        repository.deleteAll();
+        inTransaction(() -> {
+            repository.deleteAll();
+            if (rollupRepository != null) {
+                rollupRepository.reset();
+            }
+            return null;
+        });
+        if (cache != null) {
+            cache.clear(X402SpendingAggregationService.CACHE_SCOPE);
+        }
+        if (archive != null) {
+            // After the commit: dropping a table would commit the transaction half way
+            archive.dropAll(X402EventArchive.SPENDING_TABLE);
+        }
     }
 
     /**
@@ -91,4 +257,14 @@ public class X402SpendingEventService {
     public Long countByBuyer(String buyerId, OffsetDateTime from, OffsetDateTime to) {
         return repository.countByBuyerIdAndCreatedAtBetween(buyerId, from, to);
     }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate != null ? transactionTemplate.execute(status -> work.get()) : work.get();
+    }
+
+    private void invalidate(X402SpendingEvent event) {
+        if (cache != null) {
+            cache.invalidate(X402SpendingAggregationService.CACHE_SCOPE, event.getBuyerId(), event.getCreatedAt());
+        }
+    }
 }
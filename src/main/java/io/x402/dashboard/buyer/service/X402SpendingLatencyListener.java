@@ -0,0 +1,41 @@
+package io.x402.dashboard.buyer.service;
+
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.common.ingest.X402CaptureListener;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Dimension;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Metric;
+import io.x402.dashboard.common.sketch.X402LatencyRecorder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Feeds captured spending events into the latency histograms: request latency and settlement
+ * delay per service, partitioned by buyer.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.latency", name = "enabled", havingValue = "true")
+public class X402SpendingLatencyListener implements X402CaptureListener<X402SpendingEvent> {
+
+    private final X402LatencyRecorder recorder;
+
+    public X402SpendingLatencyListener(X402LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void onCapture(X402SpendingEvent event) {
+        Long latencyMicros = event.getLatencyMicros() != null ? event.getLatencyMicros()
+                : event.getLatencyMs() != null ? event.getLatencyMs() * 1000 : null;
+        if (latencyMicros != null) {
+            recorder.record(Metric.LATENCY, Dimension.SERVICE, event.getBuyerId(), event.getServiceId(),
+                    event.getCreatedAt(), latencyMicros, 1);
+        }
+        if (event.getSettledAt() != null && event.getCreatedAt() != null) {
+            long delayMicros = Duration.between(event.getCreatedAt(), event.getSettledAt()).toNanos() / 1000;
+            recorder.record(Metric.SETTLEMENT_DELAY, Dimension.SERVICE, event.getBuyerId(), event.getServiceId(),
+                    event.getCreatedAt(), delayMicros, 1);
+        }
+    }
+}
@@ -12,6 +12,7 @@ public class SpendingOverview {
     private Long successCount;
     private Double successRate;
     private Long avgCostAtomic;
+    private Long uniqueServices;
     private OffsetDateTime from;
     private OffsetDateTime to;
 
@@ -72,6 +73,17 @@ public class SpendingOverview {
         this.avgCostAtomic = avgCostAtomic;
     }
 
+    /**
+     * Estimated distinct services used; null unless distinct-count sketches are enabled.
+     */
+    public Long getUniqueServices() {
+        return uniqueServices;
+    }
+
+    public void setUniqueServices(Long uniqueServices) {
+        this.uniqueServices = uniqueServices;
+    }
+
     public OffsetDateTime getFrom() {
         return from;
     }
@@ -6,6 +6,7 @@ import io.x402.dashboard.buyer.service.X402SpendingAggregationService;
 import io.x402.dashboard.buyer.service.X402SpendingEventService;
 import io.x402.dashboard.buyer.service.dto.ServiceSpendingAggregation;
 import io.x402.dashboard.buyer.service.dto.SpendingOverview;
+import io.x402.dashboard.common.pagination.X402CursorPage;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -134,6 +135,7 @@ public class X402BuyerDashboardController {
             @RequestParam(required = false) String to,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
             Model model) {
 
         String actualBuyerId = buyerId != null ? buyerId : properties.getDefaultBuyerId();
@@ -161,26 +163,47 @@ public class X402BuyerDashboardController {
             }
         }
 
-        // Get paginated transactions
-        org.springframework.data.domain.Page<X402SpendingEvent> transactionsPage =
-            eventService.findWithFilters(
-                actualBuyerId,
-                actualServiceId,
-                spendingStatus,
-                fromDate,
-                toDate,
-                org.springframework.data.domain.PageRequest.of(page, size,
-                    org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, "createdAt"))
-            );
-
-        model.addAttribute("transactions", transactionsPage);
+        int pageSize = Math.max(1, Math.min(size, properties.getMaxPageSize()));
+
+        if (cursor != null) {
+            // Keyset mode: Older/Newer links, no total count
+            X402CursorPage<X402SpendingEvent> transactionsPage;
+            try {
+                transactionsPage = eventService.findWithFilters(
+                    actualBuyerId, actualServiceId, spendingStatus, fromDate, toDate,
+                    cursor.isEmpty() ? null : cursor, pageSize);
+            } catch (IllegalArgumentException e) {
+                // Invalid cursor, start from the first page
+                transactionsPage = eventService.findWithFilters(
+                    actualBuyerId, actualServiceId, spendingStatus, fromDate, toDate, null, pageSize);
+            }
+            model.addAttribute("cursorMode", true);
+            model.addAttribute("transactions", transactionsPage);
+            model.addAttribute("nextCursor", transactionsPage.getNextCursor());
+            model.addAttribute("prevCursor", transactionsPage.getPrevCursor());
+        } else {
+            // Get paginated transactions
+            org.springframework.data.domain.Page<X402SpendingEvent> transactionsPage =
+                eventService.findWithFilters(
+                    actualBuyerId,
+                    actualServiceId,
+                    spendingStatus,
+                    fromDate,
+                    toDate,
+                    org.springframework.data.domain.PageRequest.of(page, pageSize,
+                        org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, "createdAt"))
+                );
+            model.addAttribute("cursorMode", false);
+            model.addAttribute("transactions", transactionsPage);
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", transactionsPage.getTotalPages());
+        }
+
         model.addAttribute("buyerId", actualBuyerId);
         model.addAttribute("serviceId", serviceId);
         model.addAttribute("status", status);
         model.addAttribute("from", fromDate);
         model.addAttribute("to", toDate);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", transactionsPage.getTotalPages());
 
         return "x402-buyer-dashboard/transactions";
     }
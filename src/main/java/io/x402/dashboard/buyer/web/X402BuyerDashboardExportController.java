@@ -0,0 +1,95 @@
+package io.x402.dashboard.buyer.web;
+
+import io.x402.dashboard.buyer.config.X402BuyerDashboardProperties;
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.buyer.service.X402SpendingEventService;
+import io.x402.dashboard.common.jdbc.X402JdbcExport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * REST API controller for the spending event export, next to X402BuyerDashboardRestController.
+ *
+ * Registered in servlet web applications only, as the export streams into the servlet
+ * response (StreamingResponseBody).
+ */
+@RestController
+@RequestMapping("${x402.buyer.dashboard.api-path:/x402-buyer-dashboard/api}")
+@ConditionalOnProperty(name = "x402.buyer.dashboard.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class X402BuyerDashboardExportController {
+
+    private final X402SpendingEventService eventService;
+    private final X402BuyerDashboardProperties properties;
+
+    public X402BuyerDashboardExportController(
+            X402SpendingEventService eventService,
+            X402BuyerDashboardProperties properties) {
+        this.eventService = eventService;
+        this.properties = properties;
+    }
+
+    /**
+     * Export spending events as NDJSON or CSV, oldest first.
+     *
+     * Rows are streamed from a database cursor straight into the response, so the export
+     * size is not limited by heap. {@code columns} selects and orders the fields
+     * (comma-separated), all by default.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) String buyerId,
+            @RequestParam(required = false) String serviceId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String columns) {
+
+        String actualBuyerId = buyerId != null ? buyerId : properties.getDefaultBuyerId();
+        if (actualBuyerId == null) {
+            actualBuyerId = "default";
+        }
+
+        OffsetDateTime fromDate = (from != null && !from.isBlank()) ?
+            LocalDateTime.parse(from).atZone(ZoneId.systemDefault()).toOffsetDateTime() :
+            OffsetDateTime.now().minusDays(30);
+        OffsetDateTime toDate = (to != null && !to.isBlank()) ?
+            LocalDateTime.parse(to).atZone(ZoneId.systemDefault()).toOffsetDateTime() :
+            OffsetDateTime.now();
+        String actualServiceId = (serviceId != null && !serviceId.isBlank()) ? serviceId : null;
+
+        SpendingStatus spendingStatus;
+        X402JdbcExport.Format exportFormat;
+        List<X402JdbcExport.Column> exportColumns;
+        try {
+            spendingStatus = (status != null && !status.isBlank()) ? SpendingStatus.valueOf(status) : null;
+            exportFormat = X402JdbcExport.Format.parse(format);
+            exportColumns = eventService.exportColumns(columns);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String exportBuyerId = actualBuyerId;
+        StreamingResponseBody body = out -> eventService.exportEvents(
+            out, exportFormat, exportColumns, exportBuyerId, actualServiceId, spendingStatus, fromDate, toDate);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"x402-spending-events." + exportFormat.getExtension() + "\"")
+            .body(body);
+    }
+}
@@ -2,11 +2,14 @@ package io.x402.dashboard.buyer.web;
 
 import io.x402.dashboard.buyer.config.X402BuyerDashboardProperties;
 import io.x402.dashboard.buyer.domain.ServiceCategory;
+import io.x402.dashboard.buyer.domain.SpendingStatus;
 import io.x402.dashboard.buyer.domain.X402SpendingEvent;
 import io.x402.dashboard.buyer.service.X402SpendingAggregationService;
 import io.x402.dashboard.buyer.service.X402SpendingEventService;
 import io.x402.dashboard.buyer.service.dto.ServiceSpendingAggregation;
 import io.x402.dashboard.buyer.service.dto.SpendingOverview;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Metric;
+import io.x402.dashboard.common.sketch.X402LatencyPercentiles;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -138,6 +141,126 @@ public class X402BuyerDashboardRestController {
         return ResponseEntity.ok(dailySpending);
     }
 
+    /**
+     * Get estimated unique services used per day for charts.
+     */
+    @GetMapping("/charts/daily-unique-services")
+    public ResponseEntity<Map<LocalDate, Long>> getDailyUniqueServices(
+            @RequestParam(required = false) String buyerId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+
+        if (!aggregationService.isDistinctCountEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        String actualBuyerId = buyerId != null ? buyerId : properties.getDefaultBuyerId();
+        if (actualBuyerId == null) {
+            actualBuyerId = "default";
+        }
+
+        OffsetDateTime fromDate = (from != null && !from.isBlank()) ?
+            LocalDateTime.parse(from).atZone(ZoneId.systemDefault()).toOffsetDateTime() :
+            OffsetDateTime.now().minusDays(30);
+        OffsetDateTime toDate = (to != null && !to.isBlank()) ?
+            LocalDateTime.parse(to).atZone(ZoneId.systemDefault()).toOffsetDateTime() :
+            OffsetDateTime.now();
+
+        return ResponseEntity.ok(aggregationService.getDailyUniqueServices(actualBuyerId, fromDate, toDate));
+    }
+
+    /**
+     * Get estimated unique buyers per day, across all buyers, for charts.
+     */
+    @GetMapping("/charts/daily-unique-buyers")
+    public ResponseEntity<Map<LocalDate, Long>> getDailyUniqueBuyers(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+
+        if (!aggregationService.isDistinctCountEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        OffsetDateTime fromDate = (from != null && !from.isBlank()) ?
+            LocalDateTime.parse(from).atZone(ZoneId.systemDefault()).toOffsetDateTime() :
+            OffsetDateTime.now().minusDays(30);
+        OffsetDateTime toDate = (to != null && !to.isBlank()) ?
+            LocalDateTime.parse(to).atZone(ZoneId.systemDefault()).toOffsetDateTime() :
+            OffsetDateTime.now();
+
+        return ResponseEntity.ok(aggregationService.getDailyUniqueBuyers(fromDate, toDate));
+    }
+
+    /**
+     * Get latency ({@code metric=latency}) or settlement delay ({@code metric=settlement-delay})
+     * percentiles, for one service or, without {@code serviceId}, all of the buyer's requests.
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<X402LatencyPercentiles> getLatency(
+            @RequestParam(required = false) String buyerId,
+            @RequestParam(required = false) String serviceId,
+            @RequestParam(defaultValue = "latency") String metric,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+
+        if (!aggregationService.isLatencyEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        Metric latencyMetric;
+        try {
+            latencyMetric = Metric.parse(metric);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String actualBuyerId = buyerId != null ? buyerId : properties.getDefaultBuyerId();
+        if (actualBuyerId == null) {
+            actualBuyerId = "default";
+        }
+
+        OffsetDateTime fromDate = (from != null && !from.isBlank()) ?
+            LocalDateTime.parse(from).atZone(ZoneId.systemDefault()).toOffsetDateTime() :
+            OffsetDateTime.now().minusDays(30);
+        OffsetDateTime toDate = (to != null && !to.isBlank()) ?
+            LocalDateTime.parse(to).atZone(ZoneId.systemDefault()).toOffsetDateTime() :
+            OffsetDateTime.now();
+
+        return ResponseEntity.ok(aggregationService.getLatency(latencyMetric, actualBuyerId, serviceId, fromDate, toDate));
+    }
+
+    /**
+     * Get latency or settlement delay percentiles per service, busiest first.
+     */
+    @GetMapping("/latency/services")
+    public ResponseEntity<List<X402LatencyPercentiles>> getLatencyByService(
+            @RequestParam(required = false) String buyerId,
+            @RequestParam(defaultValue = "latency") String metric,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) Integer limit) {
+
+        if (!aggregationService.isLatencyEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        Metric latencyMetric;
+        try {
+            latencyMetric = Metric.parse(metric);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String actualBuyerId = buyerId != null ? buyerId : properties.getDefaultBuyerId();
+        if (actualBuyerId == null) {
+            actualBuyerId = "default";
+        }
+
+        OffsetDateTime fromDate = (from != null && !from.isBlank()) ?
+            LocalDateTime.parse(from).atZone(ZoneId.systemDefault()).toOffsetDateTime() :
+            OffsetDateTime.now().minusDays(30);
+        OffsetDateTime toDate = (to != null && !to.isBlank()) ?
+            LocalDateTime.parse(to).atZone(ZoneId.systemDefault()).toOffsetDateTime() :
+            OffsetDateTime.now();
+
+        return ResponseEntity.ok(aggregationService.getLatencyByService(
+            latencyMetric, actualBuyerId, fromDate, toDate, limit));
+    }
+
     /**
      * Get spending by category for charts.
      */
@@ -34,6 +34,21 @@ import java.lang.annotation.Target;
  * - Method execution time as latency
  * - SUCCESS status if method completes normally
  * - UNKNOWN_ERROR status if method throws an exception
+ *
+ * Values known only at call time can be given as SpEL expressions, evaluated after the method
+ * returns. Arguments are available by parameter name and as {@code #p0}, {@code #p1}, ...
+ * (or {@code args[0]}, ...), and the return value as {@code #result} (null if the method threw):
+ * <pre>
+ * {@code
+ * @X402Logged(
+ *     endpoint = "/api/payment",
+ *     amountExpression = "#request.amountAtomic",
+ *     txHashExpression = "#result.txHash"
+ * )
+ * public PaymentResponse processPayment(PaymentRequest request) { ... }
+ * }
+ * </pre>
+ * Expressions are parsed once per method and compiled once they have run a few times.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -95,4 +110,26 @@ public @interface X402Logged {
      * Transaction hash (optional)
      */
     String txHash() default "";
+
+    /**
+     * SpEL expression for the agent ID. Overrides {@link #agentId()} when it yields a value
+     */
+    String agentIdExpression() default "";
+
+    /**
+     * SpEL expression for the billing key. Overrides {@link #billingKey()} when it yields a value
+     */
+    String billingKeyExpression() default "";
+
+    /**
+     * SpEL expression for the amount in atomic units (a number or numeric string).
+     * Overrides {@link #amountAtomic()} when it yields a value
+     */
+    String amountExpression() default "";
+
+    /**
+     * SpEL expression for the transaction hash, e.g. {@code #result.txHash}.
+     * Overrides {@link #txHash()} when it yields a value
+     */
+    String txHashExpression() default "";
 }
@@ -0,0 +1,483 @@
+package io.x402.dashboard.common.archive;
+
+import io.x402.dashboard.buyer.service.X402SpendingAggregationService;
+import io.x402.dashboard.common.cache.X402AggregateCache;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.repository.X402UsageRollupRepository;
+import io.x402.dashboard.seller.service.X402UsageAggregationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Day archive of the event tables (x402_usage_event, x402_spending_event): a background
+ * archive-and-compact job, not declarative partitioning.
+ *
+ * Every insert still goes to the event table, which keeps all its indexes. A background job
+ * copies each day that ended {@code archive-after} ago into a day table of its own,
+ * {@code <table>_archive_<yyyyMMdd>}, with the event table's columns and indexes on created_at
+ * and on the tenant, buyer or service followed by created_at, and deletes it from the event
+ * table. It works in batches of {@code batch-size} events by created_at, each copied and
+ * deleted in one transaction, with {@code batch-pause} between batches. An archived event is
+ * thus written twice and deleted once. A late event for an archived day lands in the event
+ * table like any other and follows on the next run.
+ *
+ * Time-range reads take their FROM clause from {@link #source}: the event table plus the
+ * day tables of the days in the range, and none of the others, so a day over a year of
+ * archived data touches one day table. Day tables of days that ended {@code retention} ago
+ * are detached from reads by one run and dropped by the next, without row deletes. Days not
+ * archived yet are only removed by row deletes (X402RetentionJob).
+ *
+ * Lookups by ID or settlement key take theirs from {@link #lookup}, which probes the event
+ * table and every day table on its index on the column. A buyer's latest spending events walk
+ * back through the day tables, newest first, only as far as needed; the latest usage events
+ * across tenants read the event table only. Moved events are not updated again. With
+ * rollups on, only events below the rollup watermark are moved, as the rollup job reads the
+ * event table.
+ *
+ * A day table's settlement key index is not unique, and the event table's unique index does
+ * not see the day tables. With X402IngestDeduplicator on, {@code archive-after} must therefore
+ * not be shorter than its window: a repeat within the window is found by the lookup, and one
+ * up to {@code archive-after} later by the unique index.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.archive", name = "enabled", havingValue = "true")
+public class X402EventArchive implements SmartLifecycle {
+
+    public static final String USAGE_TABLE = "x402_usage_event";
+    public static final String SPENDING_TABLE = "x402_spending_event";
+
+    private static final Logger log = LoggerFactory.getLogger(X402EventArchive.class);
+
+    /**
+     * Columns indexed together with created_at in each day table, per event table.
+     */
+    private static final Map<String, List<String>> INDEXED_COLUMNS = Map.of(
+            USAGE_TABLE, List.of("tenant_id"),
+            SPENDING_TABLE, List.of("buyer_id", "service_id"));
+
+    private static final String DEDUP_KEY = "dedup_key";
+    private static final String SUFFIX = "_archive_";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final X402DashboardProperties.Archive settings;
+    private final ObjectProvider<X402UsageRollupRepository> rollupRepository;
+    private final X402AggregateCache cache;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Day tables of each table by day; each map is replaced, never modified
+    private final ConcurrentMap<String, NavigableMap<LocalDate, DayTable>> archived = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<String>> columns = new ConcurrentHashMap<>();
+
+    // Detached by the last run and dropped by the next; guarded by this
+    private final List<String> detached = new ArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public X402EventArchive(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties properties,
+            ObjectProvider<X402UsageRollupRepository> rollupRepository,
+            ObjectProvider<X402AggregateCache> cache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = properties.getArchive();
+        // Resolved per run: the rollup repository reads through this class
+        this.rollupRepository = rollupRepository;
+        this.cache = cache.getIfAvailable();
+        if (settings.getRetention() != null && settings.getRetention().compareTo(settings.getArchiveAfter()) < 0) {
+            throw new IllegalArgumentException(
+                    "x402.dashboard.archive.retention must not be shorter than archive-after");
+        }
+        X402DashboardProperties.Dedup dedup = properties.getIngest().getDedup();
+        if (dedup.isEnabled() && settings.getArchiveAfter().compareTo(dedup.getWindow()) < 0) {
+            throw new IllegalArgumentException(
+                    "x402.dashboard.archive.archive-after must not be shorter than x402.dashboard.ingest.dedup.window");
+        }
+    }
+
+    /**
+     * FROM clause for reading {@code table} over [from, to]: the table itself if no day table
+     * covers a day of the range, otherwise a derived table that adds those day tables. Give it
+     * an alias like a table. A null bound leaves that side of the range open.
+     */
+    public String source(String table, OffsetDateTime from, OffsetDateTime to) {
+        NavigableMap<LocalDate, DayTable> days = archived.getOrDefault(table, Collections.emptyNavigableMap());
+        if (days.isEmpty() || (from != null && to != null && to.isBefore(from))) {
+            return table;
+        }
+        LocalDate first = from != null ? day(from) : days.firstKey();
+        LocalDate last = to != null ? day(to) : days.lastKey();
+        if (last.isBefore(first)) {
+            return table;
+        }
+        Collection<DayTable> covered = days.subMap(first, true, last, true).values();
+        if (covered.isEmpty()) {
+            return table;
+        }
+        List<String> tableColumns = columns.get(table);
+        StringJoiner union = new StringJoiner(" UNION ALL ", "(", ")");
+        union.add(select(tableColumns, new HashSet<>(tableColumns), table));
+        for (DayTable dayTable : covered) {
+            union.add(select(tableColumns, dayTable.columns, dayTable.name));
+        }
+        return union.toString();
+    }
+
+    /**
+     * FROM clause for looking up rows of {@code table} by {@code column}: the rows of the
+     * table and of each day table where the column equals the named parameter {@code :value},
+     * each found on that table's index on the column. Give it an alias like a table.
+     */
+    public String lookup(String table, String column) {
+        List<String> tableColumns = columns.get(table);
+        if (tableColumns == null) {
+            return "(SELECT * FROM " + table + " WHERE " + column + " = :value)";
+        }
+        String where = " WHERE " + column + " = :value";
+        StringJoiner union = new StringJoiner(" UNION ALL ", "(", ")");
+        union.add(select(tableColumns, new HashSet<>(tableColumns), table) + where);
+        for (DayTable dayTable : archived.getOrDefault(table, Collections.emptyNavigableMap()).values()) {
+            // A day table created before the column was added to the entity holds no match
+            if (dayTable.columns.contains(column)) {
+                union.add(select(tableColumns, dayTable.columns, dayTable.name) + where);
+            }
+        }
+        return union.toString();
+    }
+
+    /**
+     * Days of {@code table} that have a day table read by {@link #source}, oldest first.
+     */
+    public List<LocalDate> getDays(String table) {
+        return List.copyOf(archived.getOrDefault(table, Collections.emptyNavigableMap()).keySet());
+    }
+
+    /**
+     * Day tables of {@code table} read by {@link #source} for days up to and including
+     * that of {@code to}, oldest first.
+     */
+    public List<String> getTables(String table, OffsetDateTime to) {
+        return archived.getOrDefault(table, Collections.emptyNavigableMap()).headMap(day(to), true).values()
+                .stream().map(dayTable -> dayTable.name).toList();
+    }
+
+    /**
+     * Day table of {@code table} read by {@link #source} for the day of {@code time}, if that
+     * day was archived.
+     */
+    public Optional<String> getTable(String table, OffsetDateTime time) {
+        return Optional.ofNullable(archived.getOrDefault(table, Collections.emptyNavigableMap()).get(day(time)))
+                .map(dayTable -> dayTable.name);
+    }
+
+    /**
+     * Run {@code work} while this node moves, detaches or drops no day table, e.g. to delete
+     * events without racing a move of the same rows.
+     */
+    public synchronized <T> T locked(Supplier<T> work) {
+        return work.get();
+    }
+
+    /**
+     * Move the days that ended {@code archive-after} ago out of the event tables, drop the
+     * day tables detached by the previous run and detach those past {@code retention}.
+     *
+     * @return number of events moved
+     */
+    public synchronized long runOnce() {
+        if (columns.isEmpty()) {
+            load();
+        }
+        long moved = 0;
+        for (String table : INDEXED_COLUMNS.keySet()) {
+            moved += archiveDays(table);
+        }
+        expire();
+        return moved;
+    }
+
+    /**
+     * Drop every day table of {@code table}, detached ones included, e.g. along with a delete
+     * of all its events.
+     */
+    public synchronized void dropAll(String table) {
+        List<String> names = new ArrayList<>();
+        NavigableMap<LocalDate, DayTable> days = archived.put(table, Collections.emptyNavigableMap());
+        if (days != null) {
+            days.values().forEach(dayTable -> names.add(dayTable.name));
+        }
+        detached.removeIf(name -> name.startsWith(table + SUFFIX) && names.add(name));
+        for (String name : names) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+        }
+    }
+
+    private long archiveDays(String table) {
+        OffsetDateTime cutoff = day(OffsetDateTime.now(zone).minus(settings.getArchiveAfter()))
+                .atStartOfDay(zone).toOffsetDateTime();
+        // The rollup job finds new events in the event table by ID; leave it those not rolled up yet
+        X402UsageRollupRepository rollups = USAGE_TABLE.equals(table) ? rollupRepository.getIfAvailable() : null;
+        long maxId = rollups != null ? rollups.getWatermark() : Long.MAX_VALUE;
+        long moved = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<OffsetDateTime> oldest = jdbcTemplate.queryForList(
+                    "SELECT created_at FROM " + table + " WHERE created_at < ? AND id <= ? ORDER BY created_at LIMIT 1",
+                    OffsetDateTime.class, cutoff, maxId);
+            if (oldest.isEmpty()) {
+                break;
+            }
+            LocalDate day = day(oldest.get(0));
+            moved += move(table, dayTable(table, day), day, maxId);
+        }
+        return moved;
+    }
+
+    /**
+     * Move the events of one day into its day table, {@code batch-size} at a time.
+     */
+    private long move(String table, DayTable dayTable, LocalDate day, long maxId) {
+        OffsetDateTime dayStart = day.atStartOfDay(zone).toOffsetDateTime();
+        OffsetDateTime dayEnd = day.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+        // A day table created before a column was added to the entity lacks it
+        String columnList = String.join(", ", columns.get(table).stream().filter(dayTable.columns::contains).toList());
+        long moved = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            // The batch ends at the created_at of its last event, taking along events sharing it
+            List<OffsetDateTime> last = jdbcTemplate.queryForList(
+                    "SELECT created_at FROM " + table + " WHERE created_at >= ? AND created_at < ? AND id <= ?"
+                            + " ORDER BY created_at LIMIT 1 OFFSET ?",
+                    OffsetDateTime.class, dayStart, dayEnd, maxId, settings.getBatchSize() - 1);
+            String range = last.isEmpty()
+                    ? "created_at >= ? AND created_at < ?"
+                    : "created_at >= ? AND created_at <= ?";
+            OffsetDateTime end = last.isEmpty() ? dayEnd : last.get(0);
+            Integer copied = transactionTemplate.execute(status -> {
+                int count = jdbcTemplate.update("INSERT INTO " + dayTable.name + " (" + columnList + ") SELECT "
+                        + columnList + " FROM " + table + " WHERE " + range + " AND id <= ?", dayStart, end, maxId);
+                // Delete what was copied, not what matches now: an event may have been committed since
+                jdbcTemplate.update("DELETE FROM " + table + " WHERE " + range + " AND id IN (SELECT id FROM "
+                        + dayTable.name + " WHERE " + range + ")", dayStart, end, dayStart, end);
+                return count;
+            });
+            moved += copied != null ? copied : 0;
+            if (last.isEmpty()) {
+                break;
+            }
+            pause();
+        }
+        return moved;
+    }
+
+    private void expire() {
+        // Reads planned before the last run may still name these; none planned since do
+        for (String name : detached) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+        }
+        detached.clear();
+        if (settings.getRetention() == null) {
+            return;
+        }
+        LocalDate oldestKept = day(OffsetDateTime.now(zone).minus(settings.getRetention()));
+        for (String table : INDEXED_COLUMNS.keySet()) {
+            NavigableMap<LocalDate, DayTable> days = archived.getOrDefault(table, Collections.emptyNavigableMap());
+            NavigableMap<LocalDate, DayTable> expired = days.headMap(oldestKept, false);
+            if (expired.isEmpty()) {
+                continue;
+            }
+            for (DayTable dayTable : expired.values()) {
+                detached.add(dayTable.name);
+            }
+            archived.put(table, Collections.unmodifiableNavigableMap(new TreeMap<>(days.tailMap(oldestKept, true))));
+            log.info("Detached {} archived days of {} before {}", expired.size(), table, oldestKept);
+        }
+        if (!detached.isEmpty() && cache != null) {
+            cache.clear(X402UsageAggregationService.CACHE_SCOPE);
+            cache.clear(X402SpendingAggregationService.CACHE_SCOPE);
+        }
+    }
+
+    /**
+     * Day table of a day, created and made visible to reads before any event moves into it.
+     */
+    private DayTable dayTable(String table, LocalDate day) {
+        DayTable existing = archived.getOrDefault(table, Collections.emptyNavigableMap()).get(day);
+        if (existing != null) {
+            return existing;
+        }
+        String name = table + SUFFIX + DAY.format(day);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " AS SELECT * FROM " + table + " WITH NO DATA");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + name + "_id ON " + name + " (id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + name + "_created ON " + name + " (created_at)");
+        for (String column : INDEXED_COLUMNS.get(table)) {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + name + "_" + column + "_created ON "
+                    + name + " (" + column + ", created_at)");
+        }
+        DayTable dayTable = new DayTable(name, Set.copyOf(columnsOf(name)));
+        indexDedupKey(dayTable);
+        archived.compute(table, (t, days) -> {
+            NavigableMap<LocalDate, DayTable> copy = days != null ? new TreeMap<>(days) : new TreeMap<>();
+            copy.put(day, dayTable);
+            return Collections.unmodifiableNavigableMap(copy);
+        });
+        return dayTable;
+    }
+
+    /**
+     * Read the event table columns and the existing day tables from the schema.
+     */
+    private synchronized void load() {
+        for (String table : INDEXED_COLUMNS.keySet()) {
+            columns.put(table, columnsOf(table));
+            NavigableMap<LocalDate, DayTable> days = new TreeMap<>();
+            for (String name : jdbcTemplate.queryForList("""
+                    SELECT LOWER(table_name) FROM information_schema.tables
+                    WHERE table_schema = CURRENT_SCHEMA AND LOWER(table_name) LIKE ?
+                    """, String.class, table + SUFFIX + "%")) {
+                try {
+                    LocalDate day = LocalDate.parse(name.substring(table.length() + SUFFIX.length()), DAY);
+                    DayTable dayTable = new DayTable(name, Set.copyOf(columnsOf(name)));
+                    indexDedupKey(dayTable);
+                    days.put(day, dayTable);
+                } catch (DateTimeParseException e) {
+                    // Not a day table of this table
+                }
+            }
+            archived.put(table, Collections.unmodifiableNavigableMap(days));
+        }
+    }
+
+    /**
+     * Index the settlement keys of a day table for {@link #lookup}. Not unique: a repeat
+     * stored after its original was moved follows it into the day table, and must not fail
+     * the move.
+     */
+    private void indexDedupKey(DayTable dayTable) {
+        if (dayTable.columns.contains(DEDUP_KEY)) {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + dayTable.name + "_dedup_key ON "
+                    + dayTable.name + " (" + DEDUP_KEY + ")");
+        }
+    }
+
+    private List<String> columnsOf(String table) {
+        return jdbcTemplate.queryForList("""
+                SELECT LOWER(column_name) FROM information_schema.columns
+                WHERE table_schema = CURRENT_SCHEMA AND LOWER(table_name) = ?
+                ORDER BY ordinal_position
+                """, String.class, table);
+    }
+
+    /**
+     * The event table's columns from {@code from}, NULL for those it lacks (added to the
+     * entity after the day table was created).
+     */
+    private static String select(List<String> tableColumns, Set<String> available, String from) {
+        StringJoiner select = new StringJoiner(", ", "SELECT ", " FROM " + from);
+        for (String column : tableColumns) {
+            select.add(available.contains(column) ? column : "NULL AS " + column);
+        }
+        return select.toString();
+    }
+
+    private LocalDate day(OffsetDateTime time) {
+        return time.atZoneSameInstant(zone).toLocalDate();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(settings.getBatchPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        load();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "x402-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = settings.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                long moved = runOnce();
+                if (moved > 0) {
+                    log.info("Archived {} events into day tables", moved);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Event archive failed, retrying in {}", settings.getInterval(), e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running == null) {
+            return;
+        }
+        // Interrupts a run between batches; the batch in progress commits or rolls back whole
+        running.shutdownNow();
+        try {
+            running.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private static final class DayTable {
+        private final String name;
+        private final Set<String> columns;
+
+        DayTable(String name, Set<String> columns) {
+            this.name = name;
+            this.columns = columns;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package io.x402.dashboard.common.cache;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Cache of aggregation results per local day, in front of the seller and buyer aggregation
+ * services.
+ *
+ * A requested range is split into whole days that are closed (ended at least
+ * {@code settle-time} ago) and the remainder: the unaligned start of the first day, and the
+ * open end up to {@code to}, usually today. Closed days are cached until evicted as least
+ * recently used beyond {@code max-entries}; the remainder is cached for {@code open-ttl}
+ * under its exact bounds. The caller merges the per-segment results, so a 30-day view
+ * refreshed by ten people costs one query over today every {@code open-ttl}.
+ *
+ * Writes and deletes through the event services call {@link #invalidate} for the day and
+ * partition (tenant or buyer) of each event. That drops the cached day, for the partition
+ * and for queries across all partitions, and keeps it uncached for {@code settle-time} so a
+ * write still in flight cannot be cached half-applied. Writes to the remainder are not
+ * tracked; they show up within {@code open-ttl}. Only writes made through this node are
+ * seen: with several nodes, late events written elsewhere reach a cached closed day only
+ * once it is evicted.
+ *
+ * Requests for the same segment that miss at the same time share one load.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.cache", name = "enabled", havingValue = "true")
+public class X402AggregateCache {
+
+    /**
+     * Segment bounds are inclusive, like the repository queries: a segment ends a nanosecond
+     * before the next one starts, which X402UsageRollupPlanner maps back onto the boundary.
+     */
+    private static final long PRECISION_NANOS = 1;
+
+    private final X402DashboardProperties.Cache settings;
+    private final Clock clock;
+    private final ZoneId zone;
+
+    // Closed days, least recently used first; guarded by itself
+    private final LinkedHashMap<Key, Object> closed = new LinkedHashMap<>(256, 0.75f, true);
+    private final ConcurrentMap<Key, FutureTask<Object>> loading = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Key, Open> open = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Key, Long> dirtyUntil = new ConcurrentHashMap<>();
+
+    // Bumped by every invalidation; a load that overlapped one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public X402AggregateCache(X402DashboardProperties properties) {
+        this(properties.getCache(), Clock.systemDefaultZone());
+    }
+
+    public X402AggregateCache(X402DashboardProperties.Cache settings, Clock clock) {
+        this.settings = settings;
+        this.clock = clock;
+        this.zone = clock.getZone();
+    }
+
+    /**
+     * Results of {@code loader} for the segments covering [from, to], in time order.
+     *
+     * {@code scope} and {@code query} identify the aggregation and its parameters other than
+     * the partition and time range; {@code loader} is called with inclusive bounds for the
+     * segments not cached. Cached results are shared: the caller must not modify them.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> List<V> segments(
+            String scope, String partition, List<?> query,
+            OffsetDateTime from, OffsetDateTime to,
+            BiFunction<OffsetDateTime, OffsetDateTime, V> loader) {
+        List<V> results = new ArrayList<>();
+        if (to.isBefore(from)) {
+            return results;
+        }
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime settled = now.minus(settings.getSettleTime());
+        ZonedDateTime end = to.atZoneSameInstant(zone).plusNanos(PRECISION_NANOS);
+        ZonedDateTime start = from.atZoneSameInstant(zone);
+
+        ZonedDateTime day = start.toLocalDate().atStartOfDay(zone);
+        if (day.isBefore(start)) {
+            day = day.toLocalDate().plusDays(1).atStartOfDay(zone);
+        }
+        ZonedDateTime cursor = start;
+        while (true) {
+            ZonedDateTime next = day.toLocalDate().plusDays(1).atStartOfDay(zone);
+            if (next.isAfter(end) || next.isAfter(settled)) {
+                break;
+            }
+            if (cursor.isBefore(day)) {
+                results.add((V) open(scope, partition, query, cursor, inclusiveEnd(day), loader, now));
+            }
+            results.add((V) closedDay(scope, partition, query, day, next, loader));
+            cursor = next;
+            day = next;
+        }
+        if (cursor.isBefore(end)) {
+            results.add((V) open(scope, partition, query, cursor, to.atZoneSameInstant(zone), loader, now));
+        }
+        return results;
+    }
+
+    /**
+     * Drop the cached day of {@code time} for a partition and for queries across all
+     * partitions, and keep it uncached for {@code settle-time}. Times in today or later are
+     * ignored, as is a null time.
+     */
+    public void invalidate(String scope, String partition, OffsetDateTime time) {
+        if (time == null) {
+            return;
+        }
+        LocalDate day = time.atZoneSameInstant(zone).toLocalDate();
+        if (!day.isBefore(LocalDate.now(clock))) {
+            return;
+        }
+        long until = clock.millis() + settings.getSettleTime().toMillis();
+        Key partitionKey = new Key(scope, partition, null, day);
+        Key allKey = new Key(scope, null, null, day);
+        dirtyUntil.merge(partitionKey, until, Math::max);
+        dirtyUntil.merge(allKey, until, Math::max);
+        generation.incrementAndGet();
+        synchronized (closed) {
+            closed.keySet().removeIf(key -> key.scope.equals(scope) && key.day.equals(day)
+                    && (key.partition == null || key.partition.equals(partition)));
+        }
+    }
+
+    /**
+     * Drop everything cached for a scope, e.g. after all its events were deleted.
+     */
+    public void clear(String scope) {
+        generation.incrementAndGet();
+        synchronized (closed) {
+            closed.keySet().removeIf(key -> key.scope.equals(scope));
+        }
+        open.keySet().removeIf(key -> key.scope.equals(scope));
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private <V> Object closedDay(
+            String scope, String partition, List<?> query, ZonedDateTime day, ZonedDateTime next,
+            BiFunction<OffsetDateTime, OffsetDateTime, V> loader) {
+        Key key = new Key(scope, partition, query, day.toLocalDate());
+        if (isDirty(new Key(scope, partition, null, key.day))) {
+            misses.incrementAndGet();
+            return loader.apply(day.toOffsetDateTime(), inclusiveEnd(next).toOffsetDateTime());
+        }
+        synchronized (closed) {
+            Object cached = closed.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        long loadGeneration = generation.get();
+        FutureTask<Object> task = new FutureTask<>(
+                () -> loader.apply(day.toOffsetDateTime(), inclusiveEnd(next).toOffsetDateTime()));
+        FutureTask<Object> running = loading.putIfAbsent(key, task);
+        if (running != null) {
+            hits.incrementAndGet();
+            return await(running);
+        }
+        misses.incrementAndGet();
+        try {
+            task.run();
+            Object result = await(task);
+            if (generation.get() == loadGeneration && result != null) {
+                synchronized (closed) {
+                    closed.put(key, result);
+                    if (closed.size() > settings.getMaxEntries()) {
+                        closed.remove(closed.keySet().iterator().next());
+                    }
+                }
+            }
+            return result;
+        } finally {
+            loading.remove(key, task);
+        }
+    }
+
+    private <V> Object open(
+            String scope, String partition, List<?> query, ZonedDateTime from, ZonedDateTime to,
+            BiFunction<OffsetDateTime, OffsetDateTime, V> loader, ZonedDateTime now) {
+        Key key = new Key(scope, partition, List.of(query, from.toOffsetDateTime(), to.toOffsetDateTime()), null);
+        long nowMillis = now.toInstant().toEpochMilli();
+        Open current = open.get(key);
+        if (current != null && current.expiresAt > nowMillis) {
+            hits.incrementAndGet();
+            return await(current.task);
+        }
+        Open loaded = new Open(nowMillis + settings.getOpenTtl().toMillis(),
+                new FutureTask<>(() -> loader.apply(from.toOffsetDateTime(), to.toOffsetDateTime())));
+        Open winner = open.compute(key, (k, existing) ->
+                existing != null && existing.expiresAt > nowMillis ? existing : loaded);
+        if (winner != loaded) {
+            hits.incrementAndGet();
+            return await(winner.task);
+        }
+        misses.incrementAndGet();
+        if (open.size() > settings.getMaxEntries()) {
+            open.values().removeIf(entry -> entry.expiresAt <= nowMillis);
+        }
+        try {
+            loaded.task.run();
+            return await(loaded.task);
+        } catch (RuntimeException | Error e) {
+            open.remove(key, loaded);
+            throw e;
+        }
+    }
+
+    private boolean isDirty(Key key) {
+        Long until = dirtyUntil.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until > clock.millis()) {
+            return true;
+        }
+        dirtyUntil.remove(key, until);
+        return false;
+    }
+
+    private static ZonedDateTime inclusiveEnd(ZonedDateTime next) {
+        return next.minusNanos(PRECISION_NANOS);
+    }
+
+    private static Object await(FutureTask<Object> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an aggregate", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static final class Open {
+        private final long expiresAt;
+        private final FutureTask<Object> task;
+
+        Open(long expiresAt, FutureTask<Object> task) {
+            this.expiresAt = expiresAt;
+            this.task = task;
+        }
+    }
+
+    private static final class Key {
+        private final String scope;
+        private final String partition;
+        private final Object query;
+        private final LocalDate day;
+        private final int hash;
+
+        Key(String scope, String partition, Object query, LocalDate day) {
+            this.scope = scope;
+            this.partition = partition;
+            this.query = query;
+            this.day = day;
+            this.hash = Objects.hash(scope, partition, query, day);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return hash == other.hash
+                    && scope.equals(other.scope)
+                    && Objects.equals(partition, other.partition)
+                    && Objects.equals(query, other.query)
+                    && Objects.equals(day, other.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package io.x402.dashboard.common.config;
 
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.FilterType;
 
 /**
  * Common auto-configuration for x402 Dashboard.
@@ -11,9 +13,14 @@ import org.springframework.context.annotation.EnableAspectJAutoProxy;
  * - X402Logged annotation
  * - X402LoggingAspect (AOP for @X402Logged)
  * - X402ClientLoggingInterceptor (RestTemplate/RestClient interceptor)
+ * - X402IngestConfiguration (optional asynchronous write-behind ingest)
+ *
+ * X402ReactiveAutoConfiguration is left to the auto-configuration import list, so it is
+ * ordered after the seller beans it needs.
  */
 @Configuration
-@ComponentScan(basePackages = "io.x402.dashboard.common")
+@ComponentScan(basePackages = "io.x402.dashboard.common",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class))
 @EnableAspectJAutoProxy
 public class X402CommonAutoConfiguration {
     // Common beans are auto-scanned from io.x402.dashboard.common package
@@ -0,0 +1,85 @@
+package io.x402.dashboard.common.config;
+
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.buyer.service.X402SpendingEventService;
+import io.x402.dashboard.common.ingest.X402IngestDeduplicator;
+import io.x402.dashboard.common.ingest.X402WriteBehindQueue;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous ingest configuration for x402 Dashboard.
+ *
+ * Enabled with {@code x402.dashboard.ingest.async-enabled=true}. Registers one write-behind
+ * queue per event type; X402UsageLogger and X402SpendingLogger pick them up automatically
+ * and stop persisting on the caller's thread. Load shedding is keyed on the event status, and
+ * a retried batch has its event IDs cleared so they are assigned again at insert.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "x402.dashboard.ingest", name = "async-enabled", havingValue = "true")
+public class X402IngestConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "x402UsageEventWriteBehindQueue")
+    public X402WriteBehindQueue<X402UsageEvent> x402UsageEventWriteBehindQueue(
+            X402UsageEventService eventService,
+            ObjectProvider<X402IngestDeduplicator> deduplicator,
+            X402DashboardProperties properties) {
+        return new X402WriteBehindQueue<>(
+                "x402-usage",
+                properties.getIngest(),
+                event -> event.getStatus() != null ? event.getStatus().name() : null,
+                usageWriter(eventService, deduplicator.getIfAvailable()),
+                event -> event.setId(null));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "x402SpendingEventWriteBehindQueue")
+    public X402WriteBehindQueue<X402SpendingEvent> x402SpendingEventWriteBehindQueue(
+            X402SpendingEventService eventService,
+            ObjectProvider<X402IngestDeduplicator> deduplicator,
+            X402DashboardProperties properties) {
+        return new X402WriteBehindQueue<>(
+                "x402-spending",
+                properties.getIngest(),
+                event -> event.getStatus() != null ? event.getStatus().name() : null,
+                spendingWriter(eventService, deduplicator.getIfAvailable()),
+                event -> event.setId(null));
+    }
+
+    /**
+     * Batch writer for usage events, skipping duplicate settlements when the deduplicator is
+     * enabled.
+     */
+    private static Consumer<List<X402UsageEvent>> usageWriter(
+            X402UsageEventService eventService,
+            X402IngestDeduplicator deduplicator) {
+        if (deduplicator == null) {
+            return eventService::saveAll;
+        }
+        return batch -> deduplicator.saveAll(
+                X402IngestDeduplicator.USAGE, batch, eventService::saveAll, X402UsageEvent::getDedupKey);
+    }
+
+    /**
+     * Batch writer for spending events, as {@link #usageWriter}.
+     */
+    private static Consumer<List<X402SpendingEvent>> spendingWriter(
+            X402SpendingEventService eventService,
+            X402IngestDeduplicator deduplicator) {
+        if (deduplicator == null) {
+            return eventService::saveAll;
+        }
+        return batch -> deduplicator.saveAll(
+                X402IngestDeduplicator.SPENDING, batch, eventService::saveAll, X402SpendingEvent::getDedupKey);
+    }
+}
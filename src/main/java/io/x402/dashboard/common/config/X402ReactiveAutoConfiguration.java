@@ -0,0 +1,110 @@
+package io.x402.dashboard.common.config;
+
+import io.x402.dashboard.common.ingest.X402NonBlockingSink;
+import io.x402.dashboard.common.web.X402ClientLoggingFilter;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.config.X402SellerAutoConfiguration;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.logging.X402UsageLogger;
+import io.x402.dashboard.seller.web.X402UsageLoggingWebFilter;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Reactive capture for x402 Dashboard: a WebClient filter for outgoing requests and a
+ * WebFlux WebFilter for incoming ones.
+ *
+ * Registered as an auto-configuration of its own, after X402SellerAutoConfiguration, so it
+ * applies to WebFlux applications as well as servlet ones using WebClient. Active only when
+ * Reactor is on the classpath and an X402UsageLogger is defined. The client filter is added to
+ * every WebClient.Builder when {@code x402.dashboard.enable-client-auto-logging=true}; the
+ * WebFilter is registered in reactive web applications when
+ * {@code x402.dashboard.enable-auto-logging=true}. Both hand their events to a shared
+ * X402NonBlockingSink instead of calling the blocking X402UsageLogger on the event loop.
+ */
+@Configuration
+@AutoConfigureAfter(X402SellerAutoConfiguration.class)
+@ConditionalOnClass(name = "reactor.core.publisher.Mono")
+@ConditionalOnBean(X402UsageLogger.class)
+public class X402ReactiveAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "x402ReactiveUsageSink")
+    @Conditional(OnReactiveLogging.class)
+    public X402NonBlockingSink<X402UsageEvent> x402ReactiveUsageSink(
+            X402UsageLogger logger,
+            X402DashboardProperties properties) {
+        return new X402NonBlockingSink<>(
+                "x402-reactive-usage",
+                properties.getIngest().getQueueCapacity(),
+                properties.getIngest().getShutdownTimeout(),
+                event -> event.getStatus() != null ? event.getStatus().name() : null,
+                logger::log);
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.web.reactive.function.client.WebClient")
+    @ConditionalOnProperty(prefix = "x402.dashboard", name = "enable-client-auto-logging", havingValue = "true")
+    static class WebClientLoggingConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public X402ClientLoggingFilter x402ClientLoggingFilter(
+                X402UsageLogger logger,
+                X402NonBlockingSink<X402UsageEvent> x402ReactiveUsageSink,
+                X402DashboardProperties properties) {
+            return new X402ClientLoggingFilter(logger, x402ReactiveUsageSink, properties);
+        }
+
+        /**
+         * Customizer to automatically add X402ClientLoggingFilter to all WebClient.Builder beans.
+         */
+        @Bean
+        public WebClientCustomizer x402WebClientCustomizer(X402ClientLoggingFilter filter) {
+            return builder -> builder.filter(filter);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnProperty(prefix = "x402.dashboard", name = "enable-auto-logging", havingValue = "true")
+    static class WebFluxLoggingConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public X402UsageLoggingWebFilter x402UsageLoggingWebFilter(
+                X402UsageLogger logger,
+                X402NonBlockingSink<X402UsageEvent> x402ReactiveUsageSink,
+                X402DashboardProperties properties) {
+            return new X402UsageLoggingWebFilter(logger, x402ReactiveUsageSink, properties);
+        }
+    }
+
+    /**
+     * Whether either auto-logging switch is on, so the sink's worker thread is not started
+     * when nothing can feed it.
+     */
+    static class OnReactiveLogging extends AnyNestedCondition {
+
+        OnReactiveLogging() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "x402.dashboard", name = "enable-client-auto-logging", havingValue = "true")
+        static class ClientAutoLogging {
+        }
+
+        @ConditionalOnProperty(prefix = "x402.dashboard", name = "enable-auto-logging", havingValue = "true")
+        static class ServerAutoLogging {
+        }
+    }
+}
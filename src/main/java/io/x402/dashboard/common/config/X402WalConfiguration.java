@@ -0,0 +1,75 @@
+package io.x402.dashboard.common.config;
+
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.buyer.service.X402SpendingEventService;
+import io.x402.dashboard.common.ingest.X402SpendingEventWalCodec;
+import io.x402.dashboard.common.ingest.X402UsageEventWalCodec;
+import io.x402.dashboard.common.ingest.X402WalStateRepository;
+import io.x402.dashboard.common.ingest.X402WriteAheadLog;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * Write-ahead log configuration for x402 Dashboard.
+ *
+ * Enabled with {@code x402.dashboard.wal.enabled=true}. Registers one log per event type, in
+ * the {@code usage} and {@code spending} subdirectories of {@code x402.dashboard.wal.directory};
+ * X402UsageLogger and X402SpendingLogger pick them up automatically and append to them instead
+ * of using the write-behind queue or persisting on the caller's thread.
+ *
+ * Each batch is persisted in one transaction with the log's applied offset in
+ * x402_wal_state, so replay after a crash never inserts an event twice. Settlement
+ * duplicates that reach the unique dedup_key index are skipped by the log and counted in its
+ * skipped count rather than the deduplicator's.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "x402.dashboard.wal", name = "enabled", havingValue = "true")
+public class X402WalConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "x402UsageEventWal")
+    public X402WriteAheadLog<X402UsageEvent> x402UsageEventWal(
+            X402UsageEventService eventService,
+            X402WalStateRepository walState,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties properties) {
+        return new X402WriteAheadLog<>(
+                "x402-usage",
+                Path.of(properties.getWal().getDirectory(), "usage"),
+                properties.getWal(),
+                properties.getIngest().getShutdownTimeout(),
+                new X402UsageEventWalCodec(),
+                event -> event.getStatus() != null ? event.getStatus().name() : null,
+                eventService::saveAll,
+                new TransactionTemplate(transactionManager),
+                walState);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "x402SpendingEventWal")
+    public X402WriteAheadLog<X402SpendingEvent> x402SpendingEventWal(
+            X402SpendingEventService eventService,
+            X402WalStateRepository walState,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties properties) {
+        return new X402WriteAheadLog<>(
+                "x402-spending",
+                Path.of(properties.getWal().getDirectory(), "spending"),
+                properties.getWal(),
+                properties.getIngest().getShutdownTimeout(),
+                new X402SpendingEventWalCodec(),
+                event -> event.getStatus() != null ? event.getStatus().name() : null,
+                eventService::saveAll,
+                new TransactionTemplate(transactionManager),
+                walState);
+    }
+}
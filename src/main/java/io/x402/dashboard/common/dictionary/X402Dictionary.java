@@ -0,0 +1,214 @@
+package io.x402.dashboard.common.dictionary;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bidirectional dictionary between dimension values (agent IDs, endpoints, user agents, ...)
+ * and the int surrogate keys stored in the event tables (x402_dictionary).
+ *
+ * Both directions are cached in memory, up to {@code x402.dashboard.dictionary.cache-size}
+ * values with the least recently used evicted first, so encoding and decoding a cached value
+ * never touch the database. The cache is loaded with the newest values at startup. An
+ * uncached value is looked up in the caller's transaction, if any. A new value is inserted in
+ * a transaction of its own (REQUIRES_NEW): its ID is then durable even if the event that
+ * introduced it rolls back, and nodes sharing the database agree on IDs through the unique
+ * key.
+ *
+ * That transaction takes a second pool connection for a moment while the caller's write
+ * transaction holds one. Size the connection pool above the number of threads writing events
+ * at once (the write-behind or WAL thread, or request threads when both are off), or a burst of
+ * new values can leave every connection waiting for another until the pool times out.
+ */
+@Component
+public class X402Dictionary implements SmartInitializingSingleton {
+
+    /**
+     * Longest value stored; longer values are truncated before encoding.
+     */
+    public static final int MAX_VALUE_LENGTH = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(X402Dictionary.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Supplier<PlatformTransactionManager> transactionManager;
+    private final int cacheSize;
+    private volatile TransactionTemplate ownTransaction;
+
+    /**
+     * IDs by kind and value, and values by ID, least recently used first; guarded by ids.
+     */
+    private final LinkedHashMap<String, Integer> ids = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<Integer, String> values = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * The transaction manager is resolved on first insert: Hibernate may create the converters,
+     * and so this dictionary, while the entity manager factory behind it is still being built.
+     */
+    @Autowired
+    public X402Dictionary(
+            DataSource dataSource,
+            ObjectProvider<PlatformTransactionManager> transactionManager,
+            X402DashboardProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionManager = transactionManager::getObject;
+        this.cacheSize = properties.getDictionary().getCacheSize();
+    }
+
+    public X402Dictionary(DataSource dataSource, PlatformTransactionManager transactionManager, int cacheSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionManager = () -> transactionManager;
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, kind, value_text FROM x402_dictionary ORDER BY id DESC LIMIT ?", cacheSize);
+            // Oldest first, so the newest are the most recently used
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                Map<String, Object> row = rows.get(i);
+                remember(X402DictionaryKind.valueOf((String) row.get("kind")),
+                        (String) row.get("value_text"), ((Number) row.get("id")).intValue());
+            }
+            log.info("Dictionary cache loaded with {} values", rows.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not load the dictionary cache; values are read as they are seen", e);
+        }
+    }
+
+    /**
+     * ID of a value, adding it to the dictionary if it is new; null for null.
+     */
+    public Integer encode(X402DictionaryKind kind, String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.length() > MAX_VALUE_LENGTH) {
+            value = value.substring(0, MAX_VALUE_LENGTH);
+        }
+        Integer id;
+        synchronized (ids) {
+            id = ids.get(key(kind, value));
+        }
+        if (id != null) {
+            return id;
+        }
+        id = selectId(kind, value);
+        if (id != null) {
+            remember(kind, value, id);
+            return id;
+        }
+        String newValue = value;
+        id = ownTransaction().execute(status -> {
+            try {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            "INSERT INTO x402_dictionary (kind, value_text) VALUES (?, ?)", new String[]{"id"});
+                    ps.setString(1, kind.name());
+                    ps.setString(2, newValue);
+                    return ps;
+                }, keyHolder);
+                return keyHolder.getKey().intValue();
+            } catch (DuplicateKeyException e) {
+                // Inserted concurrently by another thread or node
+                status.setRollbackOnly();
+                return null;
+            }
+        });
+        if (id == null) {
+            id = ownTransaction().execute(status -> selectId(kind, newValue));
+        }
+        remember(kind, value, id);
+        return id;
+    }
+
+    /**
+     * Value of an ID; null for null.
+     *
+     * @throws IllegalStateException if the ID is not in the dictionary
+     */
+    public String decode(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        String value;
+        synchronized (ids) {
+            value = values.get(id);
+        }
+        if (value != null) {
+            return value;
+        }
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT kind, value_text FROM x402_dictionary WHERE id = ?", id);
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("Unknown dictionary ID: " + id);
+        }
+        value = (String) rows.get(0).get("value_text");
+        remember(X402DictionaryKind.valueOf((String) rows.get(0).get("kind")), value, id);
+        return value;
+    }
+
+    /**
+     * Number of cached values.
+     */
+    public int size() {
+        synchronized (ids) {
+            return values.size();
+        }
+    }
+
+    private void remember(X402DictionaryKind kind, String value, Integer id) {
+        synchronized (ids) {
+            ids.put(key(kind, value), id);
+            values.put(id, value);
+            while (ids.size() > cacheSize) {
+                ids.remove(ids.keySet().iterator().next());
+            }
+            while (values.size() > cacheSize) {
+                values.remove(values.keySet().iterator().next());
+            }
+        }
+    }
+
+    private TransactionTemplate ownTransaction() {
+        TransactionTemplate template = ownTransaction;
+        if (template == null) {
+            template = new TransactionTemplate(transactionManager.get());
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            ownTransaction = template;
+        }
+        return template;
+    }
+
+    private Integer selectId(X402DictionaryKind kind, String value) {
+        List<Integer> found = jdbcTemplate.queryForList(
+                "SELECT id FROM x402_dictionary WHERE kind = ? AND value_text = ?", Integer.class, kind.name(), value);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private static String key(X402DictionaryKind kind, String value) {
+        return kind.name() + ':' + value;
+    }
+}
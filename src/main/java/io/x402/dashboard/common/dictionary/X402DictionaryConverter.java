@@ -0,0 +1,84 @@
+package io.x402.dashboard.common.dictionary;
+
+import jakarta.persistence.AttributeConverter;
+
+/**
+ * Stores a String attribute as its X402Dictionary ID.
+ *
+ * Use one of the nested subclasses in {@code @Convert}; Hibernate obtains them from the Spring
+ * bean container, which injects the dictionary.
+ */
+public abstract class X402DictionaryConverter implements AttributeConverter<String, Integer> {
+
+    private final X402Dictionary dictionary;
+    private final X402DictionaryKind kind;
+
+    protected X402DictionaryConverter(X402Dictionary dictionary, X402DictionaryKind kind) {
+        this.dictionary = dictionary;
+        this.kind = kind;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String attribute) {
+        return dictionary.encode(kind, attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer dbData) {
+        return dictionary.decode(dbData);
+    }
+
+    public static class Agent extends X402DictionaryConverter {
+        public Agent(X402Dictionary dictionary) {
+            super(dictionary, X402DictionaryKind.AGENT);
+        }
+    }
+
+    public static class Endpoint extends X402DictionaryConverter {
+        public Endpoint(X402Dictionary dictionary) {
+            super(dictionary, X402DictionaryKind.ENDPOINT);
+        }
+    }
+
+    public static class Method extends X402DictionaryConverter {
+        public Method(X402Dictionary dictionary) {
+            super(dictionary, X402DictionaryKind.METHOD);
+        }
+    }
+
+    public static class Network extends X402DictionaryConverter {
+        public Network(X402Dictionary dictionary) {
+            super(dictionary, X402DictionaryKind.NETWORK);
+        }
+    }
+
+    public static class Asset extends X402DictionaryConverter {
+        public Asset(X402Dictionary dictionary) {
+            super(dictionary, X402DictionaryKind.ASSET);
+        }
+    }
+
+    public static class UserAgent extends X402DictionaryConverter {
+        public UserAgent(X402Dictionary dictionary) {
+            super(dictionary, X402DictionaryKind.USER_AGENT);
+        }
+    }
+
+    public static class BuyerName extends X402DictionaryConverter {
+        public BuyerName(X402Dictionary dictionary) {
+            super(dictionary, X402DictionaryKind.BUYER_NAME);
+        }
+    }
+
+    public static class ServiceName extends X402DictionaryConverter {
+        public ServiceName(X402Dictionary dictionary) {
+            super(dictionary, X402DictionaryKind.SERVICE_NAME);
+        }
+    }
+
+    public static class ServiceUrl extends X402DictionaryConverter {
+        public ServiceUrl(X402Dictionary dictionary) {
+            super(dictionary, X402DictionaryKind.SERVICE_URL);
+        }
+    }
+}
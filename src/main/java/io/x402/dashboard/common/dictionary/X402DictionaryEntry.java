@@ -0,0 +1,41 @@
+package io.x402.dashboard.common.dictionary;
+
+import jakarta.persistence.*;
+
+/**
+ * One dictionary-encoded dimension value.
+ *
+ * Maintained by X402Dictionary; the entity mapping only defines the table. IDs are unique
+ * across all kinds, so event tables can join on the ID alone.
+ */
+@Entity
+@Table(name = "x402_dictionary",
+    uniqueConstraints = @UniqueConstraint(name = "uk_dictionary_value", columnNames = {"kind", "value_text"}))
+public class X402DictionaryEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", length = 20, nullable = false)
+    private X402DictionaryKind kind;
+
+    @Column(name = "value_text", length = X402Dictionary.MAX_VALUE_LENGTH, nullable = false)
+    private String value;
+
+    public X402DictionaryEntry() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public X402DictionaryKind getKind() {
+        return kind;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
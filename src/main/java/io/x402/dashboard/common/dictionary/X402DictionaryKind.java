@@ -0,0 +1,16 @@
+package io.x402.dashboard.common.dictionary;
+
+/**
+ * Dimension whose values are dictionary-encoded in the event tables.
+ */
+public enum X402DictionaryKind {
+    AGENT,
+    ENDPOINT,
+    METHOD,
+    NETWORK,
+    ASSET,
+    USER_AGENT,
+    BUYER_NAME,
+    SERVICE_NAME,
+    SERVICE_URL
+}
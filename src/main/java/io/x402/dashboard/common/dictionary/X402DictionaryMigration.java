@@ -0,0 +1,152 @@
+package io.x402.dashboard.common.dictionary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts the dictionary-encoded columns of event tables created before dictionary encoding
+ * from strings to X402Dictionary IDs. {@code ddl-auto=update} does not change column types, so
+ * without it such a database would keep string columns the entities now write IDs into.
+ *
+ * Runs once at startup, before the entity manager factory is built, and does nothing for
+ * columns that are already integers, including every column of a new database. Each string
+ * column is converted in place, keeping its indexes: its distinct values are added to
+ * x402_dictionary, each value is replaced by its ID in one UPDATE, and the column type is
+ * changed to INTEGER, all in one transaction where the database allows DDL in one (PostgreSQL
+ * does). On a large table the first startup takes as long as those statements; take a backup
+ * first.
+ */
+@Component
+public class X402DictionaryMigration implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(X402DictionaryMigration.class);
+
+    /**
+     * Dictionary-encoded columns and their kinds, per event table.
+     */
+    private static final Map<String, Map<String, X402DictionaryKind>> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        Map<String, X402DictionaryKind> usage = new LinkedHashMap<>();
+        usage.put("agent_id", X402DictionaryKind.AGENT);
+        usage.put("method", X402DictionaryKind.METHOD);
+        usage.put("endpoint", X402DictionaryKind.ENDPOINT);
+        usage.put("network", X402DictionaryKind.NETWORK);
+        usage.put("asset", X402DictionaryKind.ASSET);
+        usage.put("user_agent", X402DictionaryKind.USER_AGENT);
+        COLUMNS.put("x402_usage_event", usage);
+        Map<String, X402DictionaryKind> spending = new LinkedHashMap<>();
+        spending.put("buyer_name", X402DictionaryKind.BUYER_NAME);
+        spending.put("service_name", X402DictionaryKind.SERVICE_NAME);
+        spending.put("service_url", X402DictionaryKind.SERVICE_URL);
+        spending.put("endpoint", X402DictionaryKind.ENDPOINT);
+        spending.put("network", X402DictionaryKind.NETWORK);
+        spending.put("asset", X402DictionaryKind.ASSET);
+        spending.put("method", X402DictionaryKind.METHOD);
+        spending.put("user_agent", X402DictionaryKind.USER_AGENT);
+        COLUMNS.put("x402_spending_event", spending);
+    }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public X402DictionaryMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Runs before the entity manager factory, and so before the application's transaction manager
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate();
+    }
+
+    /**
+     * Convert every dictionary-encoded column still holding strings.
+     *
+     * @return number of columns converted
+     */
+    public int migrate() {
+        int converted = 0;
+        for (Map.Entry<String, Map<String, X402DictionaryKind>> table : COLUMNS.entrySet()) {
+            for (Map.Entry<String, X402DictionaryKind> column : table.getValue().entrySet()) {
+                if (holdsStrings(table.getKey(), column.getKey())) {
+                    createDictionary();
+                    transactionTemplate.executeWithoutResult(
+                            status -> convert(table.getKey(), column.getKey(), column.getValue()));
+                    converted++;
+                }
+            }
+        }
+        return converted;
+    }
+
+    private boolean holdsStrings(String table, String column) {
+        return jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = CURRENT_SCHEMA AND LOWER(table_name) = ? AND LOWER(column_name) = ?
+                AND UPPER(data_type) LIKE '%CHAR%'
+                """, Long.class, table, column) > 0;
+    }
+
+    private void convert(String table, String column, X402DictionaryKind kind) {
+        log.warn("Converting {}.{} from strings to dictionary IDs", table, column);
+        String value = "LEFT(e." + column + ", " + X402Dictionary.MAX_VALUE_LENGTH + ")";
+        int added = jdbcTemplate.update("INSERT INTO x402_dictionary (kind, value_text) SELECT DISTINCT ?, " + value
+                + " FROM " + table + " e WHERE e." + column + " IS NOT NULL AND NOT EXISTS (SELECT 1 FROM"
+                + " x402_dictionary d WHERE d.kind = ? AND d.value_text = " + value + ")", kind.name(), kind.name());
+        // The IDs fit any of the string columns: at most 10 digits
+        int updated = jdbcTemplate.update("UPDATE " + table + " e SET " + column + " = (SELECT CAST(d.id AS VARCHAR(10))"
+                + " FROM x402_dictionary d WHERE d.kind = ? AND d.value_text = " + value + ") WHERE e." + column
+                + " IS NOT NULL", kind.name());
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET DATA TYPE INTEGER"
+                + (isH2() ? "" : " USING CAST(" + column + " AS INTEGER)"));
+        log.warn("Converted {}.{}: {} rows, {} new dictionary values", table, column, updated, added);
+    }
+
+    private void createDictionary() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS x402_dictionary (
+                    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    kind VARCHAR(20) NOT NULL,
+                    value_text VARCHAR(%d) NOT NULL,
+                    CONSTRAINT uk_dictionary_value UNIQUE (kind, value_text)
+                )
+                """.formatted(X402Dictionary.MAX_VALUE_LENGTH));
+    }
+
+    private boolean isH2() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "H2".equals(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Could not read the database product name", e);
+        }
+    }
+
+    /**
+     * Builds the entity manager factory after the migration, so Hibernate sees converted columns.
+     */
+    @Component
+    static class EntityManagerFactoryDependsOn extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOn() {
+            super(X402DictionaryMigration.class);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.x402.dashboard.common.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Application-side generator for time-ordered 64-bit event IDs.
+ *
+ * Layout (Snowflake style), most significant bit first:
+ * <pre>
+ * | 1 bit unused | 41 bits millis since 2024-01-01T00:00Z | 10 bits node | 12 bits sequence |
+ * </pre>
+ *
+ * IDs are unique per node and strictly increasing within a node, so they can be generated
+ * without a database round trip, allow Hibernate to batch inserts, and let several
+ * application nodes write to the same table without contending on an auto-increment counter.
+ * Up to 4096 IDs per millisecond are issued per node; beyond that, and whenever the wall
+ * clock moves backwards, the generator keeps counting on a logical clock slightly ahead of
+ * real time instead of blocking.
+ *
+ * Without a configured node ID, one is derived by hashing the host name and process ID into
+ * the 10 node bits. Two nodes can then draw the same one (with 38 nodes, about half the time)
+ * and issue the same IDs, so a warning is logged; set a distinct node ID on every node sharing
+ * a database.
+ */
+public final class X402EventIdGenerator {
+
+    /**
+     * Custom epoch (2024-01-01T00:00:00Z) in Unix milliseconds.
+     */
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+
+    private static final Logger log = LoggerFactory.getLogger(X402EventIdGenerator.class);
+
+    private static volatile X402EventIdGenerator shared;
+
+    /**
+     * Whether the derived node ID has been logged; guarded by the class.
+     */
+    private static boolean derivedLogged;
+
+    private final int nodeId;
+
+    /**
+     * Packed (timestamp << SEQUENCE_BITS | sequence) of the last issued ID.
+     * A sequence overflow carries straight into the timestamp.
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public X402EventIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Generator used by the JPA ID strategy and the ingest pipeline.
+     */
+    public static X402EventIdGenerator shared() {
+        X402EventIdGenerator generator = shared;
+        if (generator == null) {
+            synchronized (X402EventIdGenerator.class) {
+                generator = shared;
+                if (generator == null) {
+                    generator = new X402EventIdGenerator(deriveNodeId());
+                    shared = generator;
+                }
+            }
+        }
+        return generator;
+    }
+
+    /**
+     * Replace the shared generator with one bound to the given node ID.
+     * A negative node ID derives one from the host name and process ID.
+     */
+    public static synchronized X402EventIdGenerator configureShared(int nodeId) {
+        shared = new X402EventIdGenerator(nodeId >= 0 ? nodeId : deriveNodeId());
+        return shared;
+    }
+
+    /**
+     * Issue the next ID.
+     */
+    public long nextId() {
+        while (true) {
+            long prev = state.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long next = now > (prev >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : prev + 1;
+            if (state.compareAndSet(prev, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << TIMESTAMP_SHIFT) | ((long) nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Time component of an ID.
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS);
+    }
+
+    /**
+     * Node component of an ID.
+     */
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    /**
+     * Smallest ID that can be issued at or after the given instant.
+     */
+    public static long minIdAt(Instant instant) {
+        return Math.max(0L, instant.toEpochMilli() - EPOCH_MILLIS) << TIMESTAMP_SHIFT;
+    }
+
+    /**
+     * Largest ID that can be issued at or before the given instant.
+     */
+    public static long maxIdAt(Instant instant) {
+        return minIdAt(instant.plusMillis(1)) - 1;
+    }
+
+    private static synchronized int deriveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        long pid = ProcessHandle.current().pid();
+        int hash = 31 * host.hashCode() + Long.hashCode(pid);
+        int nodeId = (hash ^ (hash >>> 16)) & MAX_NODE_ID;
+        if (!derivedLogged) {
+            derivedLogged = true;
+            log.warn("x402.dashboard.ingest.node-id is not set: using node ID {} derived from host {} and process {}."
+                    + " Derived node IDs can collide, and nodes sharing a node ID issue duplicate event IDs;"
+                    + " set a distinct node-id (0-{}) on every node writing to the same database", nodeId, host, pid,
+                    MAX_NODE_ID);
+        }
+        return nodeId;
+    }
+}
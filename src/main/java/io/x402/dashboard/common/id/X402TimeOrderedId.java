@@ -0,0 +1,30 @@
+package io.x402.dashboard.common.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ID strategy that assigns time-ordered 64-bit IDs from {@link X402EventIdGenerator}
+ * before the insert is executed.
+ *
+ * Usage:
+ * <pre>
+ * {@code
+ * @Id
+ * @X402TimeOrderedId
+ * private Long id;
+ * }
+ * </pre>
+ *
+ * Unlike {@code GenerationType.IDENTITY}, the ID is known before the row is written, so
+ * Hibernate can group inserts into JDBC batches.
+ */
+@IdGeneratorType(X402TimeOrderedIdGenerator.class)
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface X402TimeOrderedId {
+}
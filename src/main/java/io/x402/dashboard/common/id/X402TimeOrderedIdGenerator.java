@@ -0,0 +1,39 @@
+package io.x402.dashboard.common.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+/**
+ * Hibernate generator behind {@link X402TimeOrderedId}.
+ *
+ * An ID that is already set is kept, so events replayed from write-ahead log records that
+ * carry an ID are inserted under that ID.
+ */
+public class X402TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+
+    public X402TimeOrderedIdGenerator(X402TimeOrderedId config) {
+    }
+
+    @Override
+    public Object generate(
+            SharedSessionContractImplementor session,
+            Object owner,
+            Object currentValue,
+            EventType eventType) {
+        return currentValue != null ? currentValue : X402EventIdGenerator.shared().nextId();
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,16 @@
+package io.x402.dashboard.common.ingest;
+
+/**
+ * Callback invoked for every captured event on the logging thread, before the event is
+ * queued or persisted.
+ *
+ * Implementations must be cheap and thread-safe: they run inline on request threads.
+ * Exceptions are logged and otherwise ignored, so a listener can never fail a capture.
+ *
+ * @param <E> event entity type
+ */
+@FunctionalInterface
+public interface X402CaptureListener<E> {
+
+    void onCapture(E event);
+}
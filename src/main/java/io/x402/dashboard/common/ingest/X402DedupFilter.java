@@ -0,0 +1,103 @@
+package io.x402.dashboard.common.ingest;
+
+import io.x402.dashboard.common.sketch.X402Hashing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-windowed Bloom filter of settlement keys.
+ *
+ * Keys are added to the current generation. Once it is {@code window} old it becomes the
+ * previous generation and a new, empty one starts; lookups check both. A key is therefore
+ * remembered for at least one window and at most two. Each generation is sized for
+ * {@code expectedKeys} keys at the target false positive rate. Bits are set with CAS, so
+ * lookups and inserts do not lock.
+ */
+final class X402DedupFilter {
+
+    private final int bits;
+    private final int hashes;
+    private final long windowMillis;
+    private final LongSupplier clock;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    X402DedupFilter(int expectedKeys, double falsePositiveRate, long windowMillis, LongSupplier clock) {
+        if (expectedKeys <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedKeys must be positive and falsePositiveRate between 0 and 1");
+        }
+        double optimalBits = -expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bits = (int) Math.min(Math.max(Long.SIZE, Math.ceil(optimalBits)), Integer.MAX_VALUE - Long.SIZE);
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedKeys * Math.log(2)));
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+        this.current = new Generation(bits, clock.getAsLong());
+        this.previous = new Generation(bits, clock.getAsLong());
+    }
+
+    /**
+     * Whether the key may have been added within the last one to two windows. False means
+     * it definitely was not.
+     */
+    boolean mightContain(String key) {
+        rotateIfDue();
+        long hash = X402Hashing.hash64(key);
+        return current.contains(hash, bits, hashes) || previous.contains(hash, bits, hashes);
+    }
+
+    void put(String key) {
+        rotateIfDue();
+        current.put(X402Hashing.hash64(key), bits, hashes);
+    }
+
+    private void rotateIfDue() {
+        long now = clock.getAsLong();
+        if (now - current.startMillis < windowMillis) {
+            return;
+        }
+        synchronized (this) {
+            if (now - current.startMillis >= windowMillis) {
+                previous = current;
+                current = new Generation(bits, now);
+            }
+        }
+    }
+
+    private static final class Generation {
+
+        private final AtomicLongArray words;
+        private final long startMillis;
+
+        private Generation(int bits, long startMillis) {
+            this.words = new AtomicLongArray((bits + Long.SIZE - 1) / Long.SIZE);
+            this.startMillis = startMillis;
+        }
+
+        // Double hashing: probe i is h1 + i * h2
+        private boolean contains(long hash, int bits, int hashes) {
+            long h2 = X402Hashing.mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                int bit = (int) Math.floorMod(hash + i * h2, (long) bits);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long hash, int bits, int hashes) {
+            long h2 = X402Hashing.mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                int bit = (int) Math.floorMod(hash + i * h2, (long) bits);
+                int word = bit >>> 6;
+                long mask = 1L << bit;
+                long prev;
+                do {
+                    prev = words.get(word);
+                } while ((prev & mask) == 0 && !words.compareAndSet(word, prev, prev | mask));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.x402.dashboard.common.ingest;
+
+import java.util.Map;
+
+/**
+ * DTO for duplicate settlement filter counters.
+ */
+public class X402DedupStats {
+    private long checked;
+    private long lookups;
+    private long unconfirmed;
+    private long rejected;
+    private Map<String, Long> rejectedByScope;
+
+    public X402DedupStats() {
+    }
+
+    public X402DedupStats(long checked, long lookups, long unconfirmed, long rejected, Map<String, Long> rejectedByScope) {
+        this.checked = checked;
+        this.lookups = lookups;
+        this.unconfirmed = unconfirmed;
+        this.rejected = rejected;
+        this.rejectedByScope = rejectedByScope;
+    }
+
+    public long getChecked() {
+        return checked;
+    }
+
+    public void setChecked(long checked) {
+        this.checked = checked;
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public void setLookups(long lookups) {
+        this.lookups = lookups;
+    }
+
+    public long getUnconfirmed() {
+        return unconfirmed;
+    }
+
+    public void setUnconfirmed(long unconfirmed) {
+        this.unconfirmed = unconfirmed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public Map<String, Long> getRejectedByScope() {
+        return rejectedByScope;
+    }
+
+    public void setRejectedByScope(Map<String, Long> rejectedByScope) {
+        this.rejectedByScope = rejectedByScope;
+    }
+}
@@ -0,0 +1,237 @@
+package io.x402.dashboard.common.ingest;
+
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.buyer.repository.X402SpendingEventRepository;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Idempotent ingest of settlements.
+ *
+ * SUCCESS usage events are keyed on their txHash; spending events on their paymentId, or on
+ * the txHash of a SUCCESS event without one. The key is stored in the event's unique
+ * {@code dedup_key} column.
+ *
+ * At capture, keys are checked against an in-memory X402DedupFilter covering the last
+ * {@code window}. A key the filter has not seen is new, so most events are admitted without
+ * a database lookup. Only a filter hit is confirmed with a lookup on the key, which with
+ * X402EventArchive on also probes the day archive tables. Duplicates that still get
+ * through, such as two retries racing on different nodes or a repeat older than the window,
+ * are rejected by the unique index at insert and skipped by {@link #saveAll} and
+ * {@link #save}. That index covers the event table only, so a repeat of a settlement moved
+ * into a day archive table is caught within the window alone.
+ *
+ * The filter is warmed with the keys stored during the last window on startup.
+ *
+ * Enabled with {@code x402.dashboard.ingest.dedup.enabled=true}; X402UsageLogger and
+ * X402SpendingLogger pick it up automatically.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.ingest.dedup", name = "enabled", havingValue = "true")
+public class X402IngestDeduplicator implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(X402IngestDeduplicator.class);
+
+    public static final String USAGE = "usage";
+    public static final String SPENDING = "spending";
+
+    /**
+     * Length of the dedup_key column; longer keys are stored as a SHA-256 digest.
+     */
+    static final int MAX_KEY_LENGTH = 128;
+
+    private final X402DedupFilter filter;
+    private final Duration window;
+    private final X402UsageEventRepository usageRepository;
+    private final X402SpendingEventRepository spendingRepository;
+
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder unconfirmed = new LongAdder();
+    private final Map<String, LongAdder> rejected = new ConcurrentHashMap<>();
+
+    @Autowired
+    public X402IngestDeduplicator(
+            X402DashboardProperties properties,
+            X402UsageEventRepository usageRepository,
+            X402SpendingEventRepository spendingRepository) {
+        this(properties.getIngest().getDedup(), usageRepository, spendingRepository, System::currentTimeMillis);
+    }
+
+    public X402IngestDeduplicator(
+            X402DashboardProperties.Dedup settings,
+            X402UsageEventRepository usageRepository,
+            X402SpendingEventRepository spendingRepository,
+            LongSupplier clock) {
+        this.filter = new X402DedupFilter(
+                settings.getExpectedKeys(), settings.getFalsePositiveRate(), settings.getWindow().toMillis(), clock);
+        this.window = settings.getWindow();
+        this.usageRepository = usageRepository;
+        this.spendingRepository = spendingRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        OffsetDateTime since = OffsetDateTime.now().minus(window);
+        try {
+            List<String> usageKeys = usageRepository.findDedupKeysSince(since);
+            usageKeys.forEach(key -> filter.put(USAGE + ':' + key));
+            List<String> spendingKeys = spendingRepository.findDedupKeysSince(since);
+            spendingKeys.forEach(key -> filter.put(SPENDING + ':' + key));
+            log.info("Duplicate filter warmed with {} usage and {} spending keys", usageKeys.size(), spendingKeys.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not warm the duplicate filter; duplicates are still rejected at insert", e);
+        }
+    }
+
+    /**
+     * Key a usage event and decide whether to store it.
+     *
+     * @return false if its settlement is already recorded
+     */
+    public boolean admit(X402UsageEvent event) {
+        String key = event.getStatus() == X402UsageStatus.SUCCESS ? normalize(event.getTxHash()) : null;
+        if (key == null) {
+            return true;
+        }
+        event.setDedupKey(key);
+        return admit(USAGE, key, usageRepository::existsByDedupKeyIncludingArchive);
+    }
+
+    /**
+     * Key a spending event and decide whether to store it.
+     *
+     * @return false if its payment is already recorded
+     */
+    public boolean admit(X402SpendingEvent event) {
+        String key = normalize(event.getPaymentId());
+        if (key == null && event.getStatus() == SpendingStatus.SUCCESS) {
+            key = normalize(event.getTxHash());
+        }
+        if (key == null) {
+            return true;
+        }
+        event.setDedupKey(key);
+        return admit(SPENDING, key, spendingRepository::existsByDedupKeyIncludingArchive);
+    }
+
+    /**
+     * Persist one event, treating a unique index violation on its key as a duplicate.
+     */
+    public <E> E save(String scope, E event, UnaryOperator<E> writer, Function<E, String> keyOf) {
+        try {
+            return writer.apply(event);
+        } catch (DataIntegrityViolationException e) {
+            if (keyOf.apply(event) == null) {
+                throw e;
+            }
+            recordRejected(scope);
+            return event;
+        }
+    }
+
+    /**
+     * Persist a batch. If the unique index rejects it, the events are written one at a time
+     * and duplicates are skipped. Each call of the writer must run in its own transaction.
+     */
+    public <E> void saveAll(String scope, List<E> batch, Consumer<List<E>> writer, Function<E, String> keyOf) {
+        try {
+            writer.accept(batch);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            if (batch.stream().allMatch(event -> keyOf.apply(event) == null)) {
+                throw e;
+            }
+        }
+        for (E event : batch) {
+            save(scope, event, single -> {
+                writer.accept(List.of(single));
+                return single;
+            }, keyOf);
+        }
+    }
+
+    /**
+     * Number of duplicates rejected, per scope (usage, spending).
+     */
+    public Map<String, Long> getRejectedCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        rejected.forEach((scope, count) -> counts.put(scope, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Snapshot of the deduplicator's counters.
+     */
+    public X402DedupStats getStats() {
+        Map<String, Long> counts = getRejectedCounts();
+        return new X402DedupStats(
+                checked.sum(),
+                lookups.sum(),
+                unconfirmed.sum(),
+                counts.values().stream().mapToLong(Long::longValue).sum(),
+                counts);
+    }
+
+    private boolean admit(String scope, String key, Predicate<String> stored) {
+        checked.increment();
+        String filterKey = scope + ':' + key;
+        if (filter.mightContain(filterKey)) {
+            lookups.increment();
+            if (stored.test(key)) {
+                recordRejected(scope);
+                return false;
+            }
+            // A false positive, or a duplicate not yet persisted that the unique index will catch
+            unconfirmed.increment();
+        }
+        filter.put(filterKey);
+        return true;
+    }
+
+    private void recordRejected(String scope) {
+        rejected.computeIfAbsent(scope, s -> new LongAdder()).increment();
+    }
+
+    private static String normalize(String key) {
+        if (key == null || key.isBlank()) {
+            return null;
+        }
+        if (key.length() <= MAX_KEY_LENGTH) {
+            return key;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return "sha256:" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
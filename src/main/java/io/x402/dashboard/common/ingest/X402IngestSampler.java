@@ -0,0 +1,200 @@
+package io.x402.dashboard.common.ingest;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Capture-time sampler for usage events.
+ *
+ * SUCCESS events (paid requests, i.e. revenue) are always kept. Other events are kept with
+ * probability 1/N and stored with sample weight N, so that weighted counts and sums are
+ * unbiased estimates of the full traffic. N is the product of two factors:
+ * <ul>
+ *   <li>the rate of the first configured rule matching the event's endpoint and status,
+ *       rounded to 1 in N;</li>
+ *   <li>an adaptive factor, recomputed every second from the traffic offered in the last
+ *       second, that keeps stored events under {@code max-events-per-second}. It rises at
+ *       once when traffic spikes and falls back halfway per second, so a burst does not make
+ *       it oscillate.</li>
+ * </ul>
+ * N never exceeds {@code max-weight}.
+ *
+ * Enabled with {@code x402.dashboard.ingest.sampling.enabled=true}; X402UsageLogger picks it
+ * up automatically.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.ingest.sampling", name = "enabled", havingValue = "true")
+public class X402IngestSampler {
+
+    /**
+     * Status that is never sampled out.
+     */
+    public static final String PROTECTED_STATUS = "SUCCESS";
+
+    private static final long WINDOW_MILLIS = 1_000L;
+    private static final int MAX_CACHED_RULE_KEYS = 10_000;
+
+    private final List<Rule> rules;
+    private final int maxEventsPerSecond;
+    private final int maxWeight;
+    private final LongSupplier clock;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Integer> ruleWeights = new ConcurrentHashMap<>();
+
+    private final LongAdder kept = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+
+    // Events offered in the current window: protected ones, and the others that passed the rules
+    private final LongAdder windowProtected = new LongAdder();
+    private final LongAdder windowSampleable = new LongAdder();
+    private final AtomicLong windowStart;
+    private volatile int adaptiveFactor = 1;
+
+    @Autowired
+    public X402IngestSampler(X402DashboardProperties properties) {
+        this(properties.getIngest().getSampling(), System::currentTimeMillis);
+    }
+
+    public X402IngestSampler(X402DashboardProperties.Sampling settings, LongSupplier clock) {
+        if (settings.getMaxWeight() < 1) {
+            throw new IllegalArgumentException("x402.dashboard.ingest.sampling.max-weight must be at least 1");
+        }
+        this.rules = settings.getRules().stream().map(Rule::new).toList();
+        this.maxEventsPerSecond = settings.getMaxEventsPerSecond();
+        this.maxWeight = settings.getMaxWeight();
+        this.clock = clock;
+        this.windowStart = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Decide whether to keep an event.
+     *
+     * @param endpoint the event's endpoint (may be null)
+     * @param status   the event's status name (may be null)
+     * @return the sample weight to store the event with, or 0 to drop it
+     */
+    public int sample(String endpoint, String status) {
+        if (PROTECTED_STATUS.equals(status)) {
+            if (maxEventsPerSecond > 0) {
+                windowProtected.increment();
+                adapt();
+            }
+            kept.increment();
+            return 1;
+        }
+        int ruleWeight = Math.min(ruleWeight(endpoint, status), maxWeight);
+        if (!keep(ruleWeight)) {
+            sampledOut.increment();
+            return 0;
+        }
+        int weight = ruleWeight;
+        if (maxEventsPerSecond > 0) {
+            windowSampleable.increment();
+            adapt();
+            // Cap the factor rather than the product, so the weight stays exactly 1/probability
+            int factor = Math.min(adaptiveFactor, maxWeight / ruleWeight);
+            if (!keep(factor)) {
+                sampledOut.increment();
+                return 0;
+            }
+            weight = ruleWeight * factor;
+        }
+        kept.increment();
+        return weight;
+    }
+
+    /**
+     * Current adaptive factor (1 when traffic is within budget).
+     */
+    public int getAdaptiveFactor() {
+        return adaptiveFactor;
+    }
+
+    /**
+     * Counters since startup.
+     */
+    public X402SamplingStats getStats() {
+        return new X402SamplingStats(kept.sum(), sampledOut.sum(), adaptiveFactor, maxEventsPerSecond, maxWeight);
+    }
+
+    private static boolean keep(int weight) {
+        return weight <= 1 || ThreadLocalRandom.current().nextInt(weight) == 0;
+    }
+
+    private int ruleWeight(String endpoint, String status) {
+        if (rules.isEmpty()) {
+            return 1;
+        }
+        String key = (status != null ? status : "") + ' ' + (endpoint != null ? endpoint : "");
+        Integer weight = ruleWeights.get(key);
+        if (weight == null) {
+            weight = matchRule(endpoint, status);
+            // Endpoints are templates, but unmatched raw paths could still grow the cache without bound
+            if (ruleWeights.size() < MAX_CACHED_RULE_KEYS) {
+                ruleWeights.put(key, weight);
+            }
+        }
+        return weight;
+    }
+
+    private int matchRule(String endpoint, String status) {
+        for (Rule rule : rules) {
+            if (rule.matches(pathMatcher, endpoint, status)) {
+                return rule.weight;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Recompute the adaptive factor once the current window is over. Only the thread that
+     * advances the window does the work; the others carry on with the current factor.
+     */
+    private void adapt() {
+        long now = clock.getAsLong();
+        long start = windowStart.get();
+        if (now - start < WINDOW_MILLIS || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+        double seconds = (now - start) / 1000.0;
+        double protectedRate = windowProtected.sumThenReset() / seconds;
+        double sampleableRate = windowSampleable.sumThenReset() / seconds;
+        // SUCCESS events are kept regardless, so the others share what is left of the budget
+        double budget = Math.max(1.0, maxEventsPerSecond - protectedRate);
+        int target = (int) Math.min(maxWeight, Math.max(1.0, Math.ceil(sampleableRate / budget)));
+        int current = adaptiveFactor;
+        adaptiveFactor = target >= current ? target : Math.max(target, (current + target) / 2);
+    }
+
+    private static final class Rule {
+        private final String endpoint;
+        private final String status;
+        private final int weight;
+
+        Rule(X402DashboardProperties.Sampling.Rule settings) {
+            if (!(settings.getRate() > 0.0)) {
+                throw new IllegalArgumentException("x402.dashboard.ingest.sampling rule rate must be positive");
+            }
+            this.endpoint = StringUtils.hasText(settings.getEndpoint()) ? settings.getEndpoint() : null;
+            this.status = StringUtils.hasText(settings.getStatus()) ? settings.getStatus() : null;
+            this.weight = (int) Math.max(1L, Math.min(Integer.MAX_VALUE, Math.round(1.0 / settings.getRate())));
+        }
+
+        boolean matches(AntPathMatcher pathMatcher, String endpoint, String status) {
+            return (this.status == null || this.status.equalsIgnoreCase(status))
+                    && (this.endpoint == null || (endpoint != null && pathMatcher.match(this.endpoint, endpoint)));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.x402.dashboard.common.ingest;
+
+import java.util.Map;
+
+/**
+ * DTO for write-behind queue counters.
+ */
+public class X402IngestStats {
+    private String name;
+    private X402OverflowPolicy overflowPolicy;
+    private int capacity;
+    private int queued;
+    private long written;
+    private long failed;
+    private long dropped;
+    private Map<String, Long> droppedByStatus;
+
+    public X402IngestStats() {
+    }
+
+    public X402IngestStats(String name, X402OverflowPolicy overflowPolicy, int capacity, int queued,
+                           long written, long failed, long dropped, Map<String, Long> droppedByStatus) {
+        this.name = name;
+        this.overflowPolicy = overflowPolicy;
+        this.capacity = capacity;
+        this.queued = queued;
+        this.written = written;
+        this.failed = failed;
+        this.dropped = dropped;
+        this.droppedByStatus = droppedByStatus;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public X402OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(X402OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public void setWritten(long written) {
+        this.written = written;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    public Map<String, Long> getDroppedByStatus() {
+        return droppedByStatus;
+    }
+
+    public void setDroppedByStatus(Map<String, Long> droppedByStatus) {
+        this.droppedByStatus = droppedByStatus;
+    }
+}
@@ -0,0 +1,206 @@
+package io.x402.dashboard.common.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bounded hand-off from threads that must never block, such as Netty event loops, to a
+ * single worker thread that runs a consumer which may block (X402UsageLogger persisting an
+ * event, or waiting on a write-behind queue under the BLOCK policy).
+ *
+ * {@link #offer} publishes into a lock-free ring buffer and returns at once. When the buffer
+ * is full it behaves as {@link X402OverflowPolicy#DROP_OLDEST}: the oldest event is evicted
+ * unless it is a SUCCESS event, in which case the incoming event is dropped. Unlike the
+ * write-behind queue, a SUCCESS event is dropped rather than waited for in that case, since
+ * the caller cannot wait; drops are counted per status.
+ *
+ * The sink is started and stopped with the application context and drains what is buffered
+ * on shutdown. Events offered while it is not running go straight to the consumer.
+ *
+ * @param <E> event type
+ */
+public class X402NonBlockingSink<E> implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(X402NonBlockingSink.class);
+
+    /**
+     * Stop after the embedded web server so in-flight exchanges can still hand off their events.
+     */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private static final String PROTECTED_STATUS = "SUCCESS";
+
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final String name;
+    private final X402RingBuffer<E> buffer;
+    private final Duration shutdownTimeout;
+    private final Function<E, String> statusOf;
+    private final Consumer<E> consumer;
+
+    private final AtomicLong consumedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final Map<String, LongAdder> droppedCounts = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * @param name            sink name, used for the worker thread and log messages
+     * @param capacity        ring buffer capacity (rounded up to a power of two)
+     * @param shutdownTimeout how long shutdown waits for buffered events to be consumed
+     * @param statusOf        status name of an event, used for eviction and drop counters
+     * @param consumer        handles one event on the worker thread
+     */
+    public X402NonBlockingSink(
+            String name,
+            int capacity,
+            Duration shutdownTimeout,
+            Function<E, String> statusOf,
+            Consumer<E> consumer) {
+        this.name = name;
+        this.buffer = new X402RingBuffer<>(capacity);
+        this.shutdownTimeout = shutdownTimeout;
+        this.statusOf = statusOf;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Hand an event to the worker thread. Never blocks while the sink is running.
+     */
+    public void offer(E event) {
+        if (!running) {
+            consume(event);
+            return;
+        }
+        if (buffer.offer(event)) {
+            return;
+        }
+        E evicted = buffer.pollIf(e -> !PROTECTED_STATUS.equals(statusOf.apply(e)));
+        if (evicted != null) {
+            recordDrop(statusOf.apply(evicted));
+            if (buffer.offer(event)) {
+                return;
+            }
+        }
+        recordDrop(statusOf.apply(event));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::drainLoop, name + "-sink");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            worker.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            log.warn("{}: sink did not drain within {}, {} events left", name, shutdownTimeout, buffer.size());
+        } else {
+            // Producers that raced with shutdown may have published after the worker exited
+            List<E> rest = new ArrayList<>();
+            buffer.drainTo(rest, Integer.MAX_VALUE);
+            rest.forEach(this::consume);
+        }
+        worker = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Number of events currently buffered.
+     */
+    public int getQueuedCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Number of events dropped because the buffer was full, per status.
+     */
+    public Map<String, Long> getDroppedCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        droppedCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Snapshot of the sink's counters, in the write-behind queue's format.
+     */
+    public X402IngestStats getStats() {
+        Map<String, Long> dropped = getDroppedCounts();
+        return new X402IngestStats(
+                name,
+                X402OverflowPolicy.DROP_OLDEST,
+                buffer.capacity(),
+                buffer.size(),
+                consumedCount.get(),
+                failedCount.get(),
+                dropped.values().stream().mapToLong(Long::longValue).sum(),
+                dropped);
+    }
+
+    private void recordDrop(String status) {
+        droppedCounts.computeIfAbsent(status != null ? status : "UNKNOWN", s -> new LongAdder()).increment();
+    }
+
+    private void drainLoop() {
+        long idleParkNanos = MIN_PARK_NANOS;
+        while (running || !buffer.isEmpty()) {
+            E event = buffer.poll();
+            if (event == null) {
+                LockSupport.parkNanos(idleParkNanos);
+                idleParkNanos = Math.min(idleParkNanos * 2, MAX_PARK_NANOS);
+                continue;
+            }
+            idleParkNanos = MIN_PARK_NANOS;
+            consume(event);
+        }
+    }
+
+    private void consume(E event) {
+        try {
+            consumer.accept(event);
+            consumedCount.incrementAndGet();
+        } catch (RuntimeException e) {
+            failedCount.incrementAndGet();
+            log.error("{}: failed to handle event", name, e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.x402.dashboard.common.ingest;
+
+/**
+ * What the write-behind queue does with an event when its ring buffer is full.
+ *
+ * Revenue-carrying SUCCESS events are never dropped: under every policy they wait for
+ * free space instead.
+ */
+public enum X402OverflowPolicy {
+
+    /**
+     * Producers wait until the writer frees a slot.
+     */
+    BLOCK,
+
+    /**
+     * The incoming event is dropped.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest buffered event is evicted to make room, unless it is a SUCCESS event,
+     * in which case the incoming event is dropped.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Sheddable statuses (PAYMENT_REQUIRED by default) are dropped as soon as the buffer
+     * passes the shed threshold, keeping headroom for everything else; other non-SUCCESS
+     * events are dropped only when the buffer is full.
+     */
+    PRIORITY
+}
@@ -0,0 +1,139 @@
+package io.x402.dashboard.common.ingest;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * Preallocated, lock-free bounded ring buffer (Vyukov-style sequenced slots).
+ *
+ * Any number of producers publish with a single CAS on the tail cursor; the consumer side
+ * claims slots with a CAS on the head cursor. The write-behind queue runs one consumer, but
+ * producers may also claim the oldest slot to evict it under a drop-oldest policy, so the
+ * head is CAS-protected as well. Capacity is rounded up to a power of two.
+ *
+ * @param <E> element type
+ */
+final class X402RingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] items;
+
+    /**
+     * Per-slot sequence: equals the slot's position when free for that position,
+     * position + 1 once published, position + capacity once consumed.
+     */
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    X402RingBuffer(int requestedCapacity) {
+        if (requestedCapacity <= 0 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + requestedCapacity);
+        }
+        int size = 1;
+        while (size < requestedCapacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = capacity - 1;
+        this.items = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Publish an element, or return false if the buffer is full.
+     */
+    boolean offer(E element) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items[index] = element;
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Take the oldest element, or return null if the buffer is empty.
+     */
+    E poll() {
+        return pollIf(null);
+    }
+
+    /**
+     * Take the oldest element only if it matches the predicate (null matches everything).
+     */
+    @SuppressWarnings("unchecked")
+    E pollIf(Predicate<? super E> predicate) {
+        long pos = head.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                E element = (E) items[index];
+                if (predicate != null && !predicate.test(element)) {
+                    return null;
+                }
+                if (head.compareAndSet(pos, pos + 1)) {
+                    items[index] = null;
+                    sequences.set(index, pos + capacity);
+                    return element;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Move up to {@code maxElements} elements into the target collection.
+     */
+    int drainTo(Collection<? super E> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of buffered elements.
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
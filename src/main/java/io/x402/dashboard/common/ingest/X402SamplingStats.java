@@ -0,0 +1,63 @@
+package io.x402.dashboard.common.ingest;
+
+/**
+ * DTO for ingest sampling counters.
+ */
+public class X402SamplingStats {
+    private long kept;
+    private long sampledOut;
+    private int adaptiveFactor;
+    private int maxEventsPerSecond;
+    private int maxWeight;
+
+    public X402SamplingStats() {
+    }
+
+    public X402SamplingStats(long kept, long sampledOut, int adaptiveFactor, int maxEventsPerSecond, int maxWeight) {
+        this.kept = kept;
+        this.sampledOut = sampledOut;
+        this.adaptiveFactor = adaptiveFactor;
+        this.maxEventsPerSecond = maxEventsPerSecond;
+        this.maxWeight = maxWeight;
+    }
+
+    public long getKept() {
+        return kept;
+    }
+
+    public void setKept(long kept) {
+        this.kept = kept;
+    }
+
+    public long getSampledOut() {
+        return sampledOut;
+    }
+
+    public void setSampledOut(long sampledOut) {
+        this.sampledOut = sampledOut;
+    }
+
+    public int getAdaptiveFactor() {
+        return adaptiveFactor;
+    }
+
+    public void setAdaptiveFactor(int adaptiveFactor) {
+        this.adaptiveFactor = adaptiveFactor;
+    }
+
+    public int getMaxEventsPerSecond() {
+        return maxEventsPerSecond;
+    }
+
+    public void setMaxEventsPerSecond(int maxEventsPerSecond) {
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    public void setMaxWeight(int maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+}
@@ -0,0 +1,105 @@
+package io.x402.dashboard.common.ingest;
+
+import io.x402.dashboard.buyer.domain.ServiceCategory;
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+
+import static io.x402.dashboard.common.ingest.X402WalCodec.readEnum;
+import static io.x402.dashboard.common.ingest.X402WalCodec.readLong;
+import static io.x402.dashboard.common.ingest.X402WalCodec.readString;
+import static io.x402.dashboard.common.ingest.X402WalCodec.readTimestamp;
+import static io.x402.dashboard.common.ingest.X402WalCodec.writeEnum;
+import static io.x402.dashboard.common.ingest.X402WalCodec.writeLong;
+import static io.x402.dashboard.common.ingest.X402WalCodec.writeString;
+import static io.x402.dashboard.common.ingest.X402WalCodec.writeTimestamp;
+
+/**
+ * Write-ahead log encoding of X402SpendingEvent. Leaves the ID to the insert, as
+ * X402UsageEventWalCodec does.
+ */
+public class X402SpendingEventWalCodec implements X402WalCodec<X402SpendingEvent> {
+
+    /**
+     * Version 2 added the dedup key, version 3 the latency in microseconds. Version 4 made
+     * the ID optional, as it is assigned at insert.
+     */
+    private static final int VERSION = 4;
+
+    @Override
+    public void write(X402SpendingEvent event, DataOutput out) throws IOException {
+        if (event.getCreatedAt() == null) {
+            event.setCreatedAt(OffsetDateTime.now());
+        }
+        out.writeByte(VERSION);
+        writeLong(out, event.getId());
+        writeString(out, event.getBuyerId());
+        writeString(out, event.getBuyerName());
+        writeString(out, event.getServiceId());
+        writeString(out, event.getServiceName());
+        writeString(out, event.getServiceUrl());
+        writeString(out, event.getEndpoint());
+        writeEnum(out, event.getCategory());
+        writeString(out, event.getNetwork());
+        writeString(out, event.getAsset());
+        writeLong(out, event.getAmountAtomic());
+        writeTimestamp(out, event.getRequestedAt());
+        writeTimestamp(out, event.getSettledAt());
+        writeTimestamp(out, event.getCreatedAt());
+        writeEnum(out, event.getStatus());
+        writeString(out, event.getTxHash());
+        writeString(out, event.getPaymentId());
+        writeString(out, event.getBudgetId());
+        writeString(out, event.getProjectId());
+        writeLong(out, event.getLatencyMs());
+        writeString(out, event.getErrorMessage());
+        writeString(out, event.getMetadata());
+        writeString(out, event.getMethod());
+        writeString(out, event.getClientIp());
+        writeString(out, event.getUserAgent());
+        writeString(out, event.getDedupKey());
+        writeLong(out, event.getLatencyMicros());
+    }
+
+    @Override
+    public X402SpendingEvent read(DataInput in) throws IOException {
+        int version = X402WalCodec.readVersion(in, VERSION);
+        X402SpendingEvent event = new X402SpendingEvent();
+        event.setId(version >= 4 ? readLong(in) : Long.valueOf(in.readLong()));
+        event.setBuyerId(readString(in));
+        event.setBuyerName(readString(in));
+        event.setServiceId(readString(in));
+        event.setServiceName(readString(in));
+        event.setServiceUrl(readString(in));
+        event.setEndpoint(readString(in));
+        event.setCategory(readEnum(in, ServiceCategory.class));
+        event.setNetwork(readString(in));
+        event.setAsset(readString(in));
+        event.setAmountAtomic(readLong(in));
+        event.setRequestedAt(readTimestamp(in));
+        event.setSettledAt(readTimestamp(in));
+        event.setCreatedAt(readTimestamp(in));
+        event.setStatus(readEnum(in, SpendingStatus.class));
+        event.setTxHash(readString(in));
+        event.setPaymentId(readString(in));
+        event.setBudgetId(readString(in));
+        event.setProjectId(readString(in));
+        event.setLatencyMs(readLong(in));
+        event.setErrorMessage(readString(in));
+        event.setMetadata(readString(in));
+        event.setMethod(readString(in));
+        event.setClientIp(readString(in));
+        event.setUserAgent(readString(in));
+        if (version >= 2) {
+            event.setDedupKey(readString(in));
+        }
+        if (version >= 3) {
+            event.setLatencyMicros(readLong(in));
+        }
+        return event;
+    }
+}
@@ -0,0 +1,99 @@
+package io.x402.dashboard.common.ingest;
+
+import io.x402.dashboard.seller.domain.AgentType;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+
+import static io.x402.dashboard.common.ingest.X402WalCodec.readEnum;
+import static io.x402.dashboard.common.ingest.X402WalCodec.readLong;
+import static io.x402.dashboard.common.ingest.X402WalCodec.readString;
+import static io.x402.dashboard.common.ingest.X402WalCodec.readTimestamp;
+import static io.x402.dashboard.common.ingest.X402WalCodec.writeEnum;
+import static io.x402.dashboard.common.ingest.X402WalCodec.writeLong;
+import static io.x402.dashboard.common.ingest.X402WalCodec.writeString;
+import static io.x402.dashboard.common.ingest.X402WalCodec.writeTimestamp;
+
+/**
+ * Write-ahead log encoding of X402UsageEvent.
+ *
+ * The creation timestamp is assigned before the event is encoded, so it records when the
+ * event was captured. The ID is left to the insert: IDs follow insertion order, which the
+ * rollup watermark relies on, and a record can wait in the log for a long time. Records
+ * written before version 4 carry the ID they were given at append and keep it.
+ */
+public class X402UsageEventWalCodec implements X402WalCodec<X402UsageEvent> {
+
+    /**
+     * Version 2 added the dedup key, version 3 the latency in microseconds. Version 4 made
+     * the ID optional, as it is assigned at insert.
+     */
+    private static final int VERSION = 4;
+
+    @Override
+    public void write(X402UsageEvent event, DataOutput out) throws IOException {
+        if (event.getCreatedAt() == null) {
+            event.setCreatedAt(OffsetDateTime.now());
+        }
+        out.writeByte(VERSION);
+        writeLong(out, event.getId());
+        writeString(out, event.getTenantId());
+        writeString(out, event.getAgentId());
+        writeEnum(out, event.getAgentType());
+        writeString(out, event.getMethod());
+        writeString(out, event.getEndpoint());
+        writeString(out, event.getRawPath());
+        writeString(out, event.getBillingKey());
+        writeString(out, event.getNetwork());
+        writeString(out, event.getAsset());
+        writeLong(out, event.getAmountAtomic());
+        writeString(out, event.getTxHash());
+        writeEnum(out, event.getStatus());
+        writeString(out, event.getClientIp());
+        writeString(out, event.getUserAgent());
+        writeLong(out, event.getLatencyMs());
+        out.writeInt(event.getSampleWeight());
+        writeTimestamp(out, event.getCreatedAt());
+        writeTimestamp(out, event.getSettledAt());
+        writeString(out, event.getMetadata());
+        writeString(out, event.getDedupKey());
+        writeLong(out, event.getLatencyMicros());
+    }
+
+    @Override
+    public X402UsageEvent read(DataInput in) throws IOException {
+        int version = X402WalCodec.readVersion(in, VERSION);
+        X402UsageEvent event = new X402UsageEvent();
+        event.setId(version >= 4 ? readLong(in) : Long.valueOf(in.readLong()));
+        event.setTenantId(readString(in));
+        event.setAgentId(readString(in));
+        event.setAgentType(readEnum(in, AgentType.class));
+        event.setMethod(readString(in));
+        event.setEndpoint(readString(in));
+        event.setRawPath(readString(in));
+        event.setBillingKey(readString(in));
+        event.setNetwork(readString(in));
+        event.setAsset(readString(in));
+        event.setAmountAtomic(readLong(in));
+        event.setTxHash(readString(in));
+        event.setStatus(readEnum(in, X402UsageStatus.class));
+        event.setClientIp(readString(in));
+        event.setUserAgent(readString(in));
+        event.setLatencyMs(readLong(in));
+        event.setSampleWeight(in.readInt());
+        event.setCreatedAt(readTimestamp(in));
+        event.setSettledAt(readTimestamp(in));
+        event.setMetadata(readString(in));
+        if (version >= 2) {
+            event.setDedupKey(readString(in));
+        }
+        if (version >= 3) {
+            event.setLatencyMicros(readLong(in));
+        }
+        return event;
+    }
+}
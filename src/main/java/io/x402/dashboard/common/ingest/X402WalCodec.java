@@ -0,0 +1,102 @@
+package io.x402.dashboard.common.ingest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary encoding of one event type in an X402WriteAheadLog record.
+ *
+ * Implementations write a format version first, so records written by an older release can
+ * still be replayed after an upgrade. The static helpers encode the nullable types used by
+ * the event entities.
+ *
+ * @param <E> event entity type
+ */
+public interface X402WalCodec<E> {
+
+    /**
+     * Encode an event. Called once per append, before the record is written.
+     */
+    void write(E event, DataOutput out) throws IOException;
+
+    /**
+     * Decode an event written by {@link #write}.
+     */
+    E read(DataInput in) throws IOException;
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        writeString(out, value != null ? value.name() : null);
+    }
+
+    static <T extends Enum<T>> T readEnum(DataInput in, Class<T> type) throws IOException {
+        String name = readString(in);
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    static void writeTimestamp(DataOutput out, OffsetDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond());
+            out.writeInt(value.getNano());
+            out.writeInt(value.getOffset().getTotalSeconds());
+        }
+    }
+
+    static OffsetDateTime readTimestamp(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long epochSecond = in.readLong();
+        int nano = in.readInt();
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(in.readInt());
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset);
+    }
+
+    /**
+     * Read the format version written at the start of a record, rejecting versions newer
+     * than the codec's current one.
+     */
+    static int readVersion(DataInput in, int current) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > current) {
+            throw new IOException("Unsupported record version " + version);
+        }
+        return version;
+    }
+}
@@ -0,0 +1,23 @@
+package io.x402.dashboard.common.ingest;
+
+/**
+ * Durable record of how far an X402WriteAheadLog has been applied, kept in the same database
+ * as the events.
+ *
+ * The log saves the offset in the transaction that persists the records before it, so a
+ * record is either persisted and covered by the offset, or neither. After a crash the log
+ * resumes from this offset rather than its local checkpoint, and never applies a record twice.
+ */
+public interface X402WalOffsetStore {
+
+    /**
+     * Offset up to which the log has been applied, or -1 if it never was.
+     */
+    long getAppliedOffset(String logId);
+
+    /**
+     * Record that the log has been applied up to the given offset. Called in the transaction
+     * that persisted the records.
+     */
+    void setAppliedOffset(String logId, long offset);
+}
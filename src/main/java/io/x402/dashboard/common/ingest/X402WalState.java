@@ -0,0 +1,43 @@
+package io.x402.dashboard.common.ingest;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Progress of one node's write-ahead log.
+ *
+ * {@code appliedOffset} is the log offset up to which records have been persisted. It is
+ * written in the transaction that persists them, so it never disagrees with the event tables.
+ * Each log directory has its own random {@code logId}, so nodes sharing the database keep
+ * separate rows. Read and written through X402WalStateRepository; the entity mapping only
+ * defines the table.
+ */
+@Entity
+@Table(name = "x402_wal_state")
+public class X402WalState {
+
+    @Id
+    @Column(name = "log_id", length = 50)
+    private String logId;
+
+    @Column(name = "applied_offset", nullable = false)
+    private long appliedOffset;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    public X402WalState() {
+    }
+
+    public String getLogId() {
+        return logId;
+    }
+
+    public long getAppliedOffset() {
+        return appliedOffset;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
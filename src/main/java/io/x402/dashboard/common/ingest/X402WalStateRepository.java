@@ -0,0 +1,40 @@
+package io.x402.dashboard.common.ingest;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * JDBC access to the write-ahead log state table (x402_wal_state).
+ */
+@Repository
+@ConditionalOnProperty(prefix = "x402.dashboard.wal", name = "enabled", havingValue = "true")
+public class X402WalStateRepository implements X402WalOffsetStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public X402WalStateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long getAppliedOffset(String logId) {
+        List<Long> offsets = jdbcTemplate.queryForList(
+                "SELECT applied_offset FROM x402_wal_state WHERE log_id = ?", Long.class, logId);
+        return offsets.isEmpty() ? -1L : offsets.get(0);
+    }
+
+    @Override
+    public void setAppliedOffset(String logId, long offset) {
+        // Only this node's applier writes its row, so there is no concurrent insert to lose to
+        int updated = jdbcTemplate.update("UPDATE x402_wal_state SET applied_offset = ?, updated_at = ? WHERE log_id = ?",
+                offset, OffsetDateTime.now(), logId);
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO x402_wal_state (log_id, applied_offset, updated_at) VALUES (?, ?, ?)",
+                    logId, offset, OffsetDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.x402.dashboard.common.ingest;
+
+/**
+ * DTO for write-ahead log counters.
+ */
+public class X402WalStats {
+    private String name;
+    private int segments;
+    private long appendedOffset;
+    private long appliedOffset;
+    private long pendingBytes;
+    private long appended;
+    private long applied;
+    private long skipped;
+    private long failed;
+
+    public X402WalStats() {
+    }
+
+    public X402WalStats(String name, int segments, long appendedOffset, long appliedOffset, long pendingBytes,
+                        long appended, long applied, long skipped, long failed) {
+        this.name = name;
+        this.segments = segments;
+        this.appendedOffset = appendedOffset;
+        this.appliedOffset = appliedOffset;
+        this.pendingBytes = pendingBytes;
+        this.appended = appended;
+        this.applied = applied;
+        this.skipped = skipped;
+        this.failed = failed;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public void setSegments(int segments) {
+        this.segments = segments;
+    }
+
+    public long getAppendedOffset() {
+        return appendedOffset;
+    }
+
+    public void setAppendedOffset(long appendedOffset) {
+        this.appendedOffset = appendedOffset;
+    }
+
+    public long getAppliedOffset() {
+        return appliedOffset;
+    }
+
+    public void setAppliedOffset(long appliedOffset) {
+        this.appliedOffset = appliedOffset;
+    }
+
+    public long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    public void setPendingBytes(long pendingBytes) {
+        this.pendingBytes = pendingBytes;
+    }
+
+    public long getAppended() {
+        return appended;
+    }
+
+    public void setAppended(long appended) {
+        this.appended = appended;
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    public void setApplied(long applied) {
+        this.applied = applied;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+}
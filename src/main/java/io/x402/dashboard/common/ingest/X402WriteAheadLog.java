@@ -0,0 +1,713 @@
+package io.x402.dashboard.common.ingest;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable local write-ahead log in front of the event tables.
+ *
+ * Captured events are encoded with an {@link X402WalCodec} and appended to memory-mapped
+ * segment files, so an append is a memory copy and survives a JVM crash as soon as it
+ * returns. A single background applier reads the log in batches of up to {@code batchSize}
+ * events, persists them and then advances a checkpoint file. Segments that lie completely
+ * before the checkpoint are deleted.
+ *
+ * Record layout, big-endian:
+ * <pre>
+ * | int payload length | int CRC-32C of payload | payload |
+ * </pre>
+ * The length is written last, and a length of 0 marks the unused rest of a segment. Segment
+ * files are named after the log offset of their first byte, so offsets keep increasing across
+ * segments.
+ *
+ * On start the log is scanned from the checkpoint up to the first record that is missing,
+ * truncated or fails its CRC; everything after the checkpoint is replayed by the applier.
+ * With an {@link X402WalOffsetStore}, each batch is persisted in one transaction with the
+ * offset it reaches, and replay starts from that offset where it is ahead of the checkpoint,
+ * so a batch persisted just before a crash is not applied again. Events are given their ID
+ * when they are inserted, not when they are appended, so IDs keep following insertion order
+ * however long a record waits in the log; the rollup watermark relies on that.
+ *
+ * Appends survive an operating system crash only once the page cache has been written back;
+ * events whose status is listed in {@code syncStatuses} are forced to disk before the append
+ * returns. Events appended while the log is not running are persisted synchronously on the
+ * caller's thread.
+ *
+ * @param <E> event entity type
+ */
+public class X402WriteAheadLog<E> implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(X402WriteAheadLog.class);
+
+    /**
+     * Stop after the embedded web server so in-flight requests can still append their events.
+     */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    static final int HEADER_BYTES = 8;
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("\\d{20}\\.wal");
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String LOG_ID_FILE = "log-id";
+
+    /**
+     * Wait before retrying a batch the database did not accept.
+     */
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    private final Path directory;
+    private final int segmentSize;
+    private final int batchSize;
+    private final long applyIntervalNanos;
+    private final Duration shutdownTimeout;
+    private final Set<String> syncStatuses;
+    private final X402WalCodec<E> codec;
+    private final Function<E, String> statusOf;
+    private final Consumer<List<E>> batchWriter;
+    private final TransactionOperations transactions;
+    private final X402WalOffsetStore offsets;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Object appendLock = new Object();
+
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong appliedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    // Guarded by appendLock
+    private Segment active;
+    private int writePosition;
+
+    /**
+     * Log offset just past the last complete record.
+     */
+    private volatile long appendedOffset;
+
+    /**
+     * Log offset up to which records have been persisted.
+     */
+    private volatile long checkpoint;
+
+    /**
+     * Identifies this log directory in the offset store.
+     */
+    private String logId;
+
+    private volatile boolean running;
+    private Thread applier;
+
+    /**
+     * @param name            log name, used for the applier thread and log messages
+     * @param directory       directory holding this log's segments and checkpoint
+     * @param wal             write-ahead log settings (segment size, batching, sync statuses)
+     * @param shutdownTimeout how long stop() waits for the applier to catch up
+     * @param codec           binary encoding of the events
+     * @param statusOf        status name of an event, matched against the sync statuses
+     * @param batchWriter     persists one batch of events
+     */
+    public X402WriteAheadLog(
+            String name,
+            Path directory,
+            X402DashboardProperties.Wal wal,
+            Duration shutdownTimeout,
+            X402WalCodec<E> codec,
+            Function<E, String> statusOf,
+            Consumer<List<E>> batchWriter) {
+        this(name, directory, wal, shutdownTimeout, codec, statusOf, batchWriter,
+                TransactionOperations.withoutTransaction(), null);
+    }
+
+    /**
+     * @param transactions    runs each batch together with its offset in one transaction
+     * @param offsets         where the applied offset is saved, or null to rely on the
+     *                        checkpoint file alone (at-least-once)
+     */
+    public X402WriteAheadLog(
+            String name,
+            Path directory,
+            X402DashboardProperties.Wal wal,
+            Duration shutdownTimeout,
+            X402WalCodec<E> codec,
+            Function<E, String> statusOf,
+            Consumer<List<E>> batchWriter,
+            TransactionOperations transactions,
+            X402WalOffsetStore offsets) {
+        long segmentBytes = wal.getSegmentSize().toBytes();
+        if (segmentBytes <= HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentSize must be between 9 bytes and 2 GB: " + wal.getSegmentSize());
+        }
+        if (wal.getBatchSize() <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.name = name;
+        this.directory = directory;
+        this.segmentSize = (int) segmentBytes;
+        this.batchSize = wal.getBatchSize();
+        this.applyIntervalNanos = wal.getApplyInterval().toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.syncStatuses = Set.copyOf(wal.getSyncStatuses());
+        this.codec = codec;
+        this.statusOf = statusOf;
+        this.batchWriter = batchWriter;
+        this.transactions = transactions;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Append an event to the log. The event is persisted later by the applier.
+     */
+    public void append(E event) {
+        if (!running) {
+            persistNow(event);
+            return;
+        }
+        try {
+            byte[] payload = encode(event);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            boolean sync = syncStatuses.contains(statusOf.apply(event));
+            synchronized (appendLock) {
+                writeRecord(payload, (int) crc.getValue(), sync);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("{}: append failed, persisting event synchronously", name, e);
+            persistNow(event);
+            return;
+        }
+        appendedCount.incrementAndGet();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(name + ": cannot open write-ahead log in " + directory, e);
+        }
+        running = true;
+        applier = new Thread(this::applyLoop, name + "-wal-applier");
+        applier.setDaemon(true);
+        applier.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            applier.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (applier.isAlive()) {
+            log.warn("{}: applier did not catch up within {}, {} bytes are replayed on the next start",
+                    name, shutdownTimeout, getPendingBytes());
+        }
+        applier = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Number of log bytes appended but not yet persisted.
+     */
+    public long getPendingBytes() {
+        return Math.max(0, appendedOffset - checkpoint);
+    }
+
+    /**
+     * Number of events persisted by the applier.
+     */
+    public long getAppliedCount() {
+        return appliedCount.get();
+    }
+
+    /**
+     * Number of records skipped because the database rejected them (usually replays of
+     * records that were already persisted) or they could not be decoded.
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * Snapshot of the log's counters.
+     */
+    public X402WalStats getStats() {
+        return new X402WalStats(
+                name,
+                segments.size(),
+                appendedOffset,
+                checkpoint,
+                getPendingBytes(),
+                appendedCount.get(),
+                appliedCount.get(),
+                skippedCount.get(),
+                failedCount.get());
+    }
+
+    private byte[] encode(E event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            codec.write(event, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeRecord(byte[] payload, int crc, boolean sync) throws IOException {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (payload.length == 0 || recordBytes > segmentSize) {
+            throw new IllegalArgumentException(name + ": record of " + recordBytes + " bytes does not fit a segment");
+        }
+        if (writePosition + recordBytes > active.capacity) {
+            roll();
+        }
+        MappedByteBuffer buffer = active.buffer;
+        int position = writePosition;
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position + 4, crc);
+        // Written last: a record with a length is complete
+        buffer.putInt(position, payload.length);
+        if (sync) {
+            buffer.force(position, recordBytes);
+        }
+        writePosition = position + recordBytes;
+        appendedOffset = active.base + writePosition;
+    }
+
+    private void roll() throws IOException {
+        Segment next = mapSegment(active.end(), true);
+        // Published before appendedOffset moves into it, so the applier always finds it
+        segments.put(next.base, next);
+        active = next;
+        writePosition = 0;
+    }
+
+    private void open() throws IOException {
+        synchronized (appendLock) {
+            Files.createDirectories(directory);
+            segments.clear();
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    String fileName = file.getFileName().toString();
+                    if (SEGMENT_FILE.matcher(fileName).matches()) {
+                        long base = Long.parseLong(fileName.substring(0, 20));
+                        segments.put(base, mapSegment(base, false));
+                    }
+                }
+            }
+            logId = readLogId();
+            long saved = readCheckpoint();
+            if (segments.isEmpty()) {
+                long base = Math.max(saved, 0);
+                segments.put(base, mapSegment(base, true));
+            }
+            checkpoint = Math.min(Math.max(saved, segments.firstKey()), segments.lastEntry().getValue().end());
+            recover();
+            deleteAppliedSegments(checkpoint);
+            log.info("{}: opened write-ahead log in {}, replaying {} bytes", name, directory, getPendingBytes());
+        }
+    }
+
+    /**
+     * Find the end of the last complete record and clear whatever a torn append left after it.
+     */
+    private void recover() {
+        Segment segment = segments.floorEntry(checkpoint).getValue();
+        int position = (int) (checkpoint - segment.base);
+        while (true) {
+            int length = recordLength(segment.buffer, position);
+            if (length >= 0) {
+                position += HEADER_BYTES + length;
+                continue;
+            }
+            Long next = segments.higherKey(segment.base);
+            if (next == null) {
+                break;
+            }
+            warnIfCorrupt(segment, position);
+            segment = segments.get(next);
+            position = 0;
+        }
+        active = segment;
+        writePosition = position;
+        appendedOffset = segment.base + position;
+        clear(segment.buffer, position);
+    }
+
+    private Segment mapSegment(long base, boolean create) throws IOException {
+        Path path = directory.resolve(String.format("%020d.wal", base));
+        try (FileChannel channel = create
+                ? FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = create ? segmentSize : Math.min(channel.size(), Integer.MAX_VALUE);
+            // The mapping stays valid after the channel is closed
+            return new Segment(base, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private void applyLoop() {
+        if (!resume()) {
+            return;
+        }
+        long cursor = checkpoint;
+        while (true) {
+            List<Record<E>> batch = new ArrayList<>(batchSize);
+            long next = readBatch(cursor, batch);
+            if (batch.isEmpty()) {
+                if (next != cursor) {
+                    cursor = next;
+                    saveCheckpoint(cursor);
+                }
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(applyIntervalNanos);
+                continue;
+            }
+            long reached = apply(batch, cursor);
+            if (reached == batch.get(batch.size() - 1).end) {
+                cursor = next;
+                saveCheckpoint(cursor);
+            } else {
+                // Events persisted before the failure must not be applied again
+                if (reached != cursor) {
+                    cursor = reached;
+                    saveCheckpoint(cursor);
+                }
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(RETRY_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Move the checkpoint up to the offset the database has recorded, if that is further
+     * along: the batch before it committed, but the crash came before the checkpoint file was
+     * written. Retries while the database is unavailable.
+     *
+     * @return false if the log was stopped first
+     */
+    private boolean resume() {
+        if (offsets == null) {
+            return true;
+        }
+        while (true) {
+            try {
+                long applied = offsets.getAppliedOffset(logId);
+                if (applied > checkpoint && applied <= appendedOffset) {
+                    saveCheckpoint(applied);
+                }
+                return true;
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                log.error("{}: cannot read the applied offset, retrying", name, e);
+            }
+            if (!running) {
+                return false;
+            }
+            LockSupport.parkNanos(RETRY_NANOS);
+        }
+    }
+
+    /**
+     * Decode up to batchSize records starting at the given offset.
+     *
+     * @return offset just past the last record read
+     */
+    private long readBatch(long from, List<Record<E>> batch) {
+        long offset = from;
+        long limit = appendedOffset;
+        while (batch.size() < batchSize && offset < limit) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                break;
+            }
+            Segment segment = entry.getValue();
+            int position = (int) (offset - segment.base);
+            int length = recordLength(segment.buffer, position);
+            if (length < 0) {
+                Long next = segments.higherKey(segment.base);
+                if (next == null) {
+                    break;
+                }
+                warnIfCorrupt(segment, position);
+                offset = next;
+                continue;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + HEADER_BYTES, payload);
+            offset += HEADER_BYTES + length;
+            try {
+                batch.add(new Record<>(decode(payload), payload, offset));
+            } catch (RuntimeException e) {
+                skippedCount.incrementAndGet();
+                log.error("{}: skipping undecodable record at offset {}", name, offset - HEADER_BYTES - length, e);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Persist a batch. If the batch is rejected, its events are retried one at a time, so a
+     * duplicate, or an event the database will never accept, does not hold back the rest.
+     * Retried events are decoded again, dropping any ID the rejected batch gave them.
+     *
+     * @param from offset the batch starts at
+     * @return offset just past the last record persisted or skipped; short of the end of the
+     *         batch if the rest has to be retried later
+     */
+    private long apply(List<Record<E>> batch, long from) {
+        long end = batch.get(batch.size() - 1).end;
+        try {
+            persist(batch.stream().map(record -> record.event).toList(), end);
+            appliedCount.addAndGet(batch.size());
+            return end;
+        } catch (RuntimeException e) {
+            log.debug("{}: batch of {} events rejected, applying one at a time", name, batch.size(), e);
+        }
+        long reached = from;
+        for (Record<E> record : batch) {
+            try {
+                persist(List.of(decode(record.payload)), record.end);
+                appliedCount.incrementAndGet();
+            } catch (DuplicateKeyException e) {
+                skippedCount.incrementAndGet();
+            } catch (DataIntegrityViolationException e) {
+                skippedCount.incrementAndGet();
+                log.warn("{}: skipping event rejected by the database: {}", name, e.getMessage());
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                log.error("{}: failed to persist batch of {} events, retrying", name, batch.size(), e);
+                return reached;
+            }
+            reached = record.end;
+        }
+        return reached;
+    }
+
+    private void persist(List<E> events, long end) {
+        transactions.executeWithoutResult(status -> {
+            batchWriter.accept(events);
+            if (offsets != null) {
+                offsets.setAppliedOffset(logId, end);
+            }
+        });
+    }
+
+    /**
+     * Persist an event that is not going through the log.
+     */
+    private void persistNow(E event) {
+        transactions.executeWithoutResult(status -> batchWriter.accept(List.of(event)));
+    }
+
+    private E decode(byte[] payload) {
+        try {
+            return codec.read(new DataInputStream(new ByteArrayInputStream(payload)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * ID of this log directory, created on first use.
+     */
+    private String readLogId() throws IOException {
+        Path file = directory.resolve(LOG_ID_FILE);
+        if (Files.exists(file)) {
+            String id = Files.readString(file, StandardCharsets.UTF_8).trim();
+            if (!id.isEmpty()) {
+                return id;
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id, StandardCharsets.UTF_8);
+        return id;
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (content.remaining() == 12) {
+            long offset = content.getLong();
+            CRC32C crc = new CRC32C();
+            crc.update(content.array(), 0, 8);
+            if ((int) crc.getValue() == content.getInt()) {
+                return offset;
+            }
+        }
+        log.warn("{}: ignoring damaged checkpoint file, replaying the whole log", name);
+        return -1;
+    }
+
+    private void saveCheckpoint(long offset) {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        ByteBuffer content = ByteBuffer.allocate(12).putLong(offset);
+        CRC32C crc = new CRC32C();
+        crc.update(content.array(), 0, 8);
+        content.putInt((int) crc.getValue()).flip();
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(content);
+            channel.force(false);
+        } catch (IOException e) {
+            log.warn("{}: failed to write checkpoint at offset {}", name, offset, e);
+            return;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("{}: failed to write checkpoint at offset {}", name, offset, e);
+            return;
+        }
+        checkpoint = offset;
+        deleteAppliedSegments(offset);
+    }
+
+    /**
+     * Delete every segment that ends at or before the given offset, except the last one.
+     */
+    private void deleteAppliedSegments(long offset) {
+        for (Segment segment : new ArrayList<>(segments.headMap(segments.lastKey()).values())) {
+            if (segment.end() > offset) {
+                break;
+            }
+            segments.remove(segment.base);
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("{}: failed to delete applied segment {}", name, segment.path, e);
+            }
+        }
+    }
+
+    private void warnIfCorrupt(Segment segment, int position) {
+        if (position + HEADER_BYTES <= segment.capacity && segment.buffer.getInt(position) != 0) {
+            log.warn("{}: unreadable record at offset {}, skipping the rest of segment {}",
+                    name, segment.base + position, segment.path.getFileName());
+        }
+    }
+
+    /**
+     * Payload length of the complete record at the given position, or -1 if there is none.
+     */
+    static int recordLength(ByteBuffer buffer, int position) {
+        if (position + HEADER_BYTES > buffer.capacity()) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > buffer.capacity() - position - HEADER_BYTES) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position + HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? length : -1;
+    }
+
+    private static void clear(ByteBuffer buffer, int from) {
+        int position = from;
+        for (; position + Long.BYTES <= buffer.capacity(); position += Long.BYTES) {
+            if (buffer.getLong(position) != 0) {
+                buffer.putLong(position, 0);
+            }
+        }
+        for (; position < buffer.capacity(); position++) {
+            buffer.put(position, (byte) 0);
+        }
+    }
+
+    /**
+     * A decoded record, with its payload and the log offset just past it.
+     */
+    private static final class Record<E> {
+
+        private final E event;
+        private final byte[] payload;
+        private final long end;
+
+        private Record(E event, byte[] payload, long end) {
+            this.event = event;
+            this.payload = payload;
+            this.end = end;
+        }
+    }
+
+    private static final class Segment {
+
+        private final long base;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+
+        private Segment(long base, Path path, MappedByteBuffer buffer) {
+            this.base = base;
+            this.path = path;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        private long end() {
+            return base + capacity;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package io.x402.dashboard.common.ingest;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bounded write-behind queue shared by the seller and buyer loggers.
+ *
+ * Events offered by request threads are published into a preallocated lock-free ring buffer
+ * and persisted by a single background writer in batches of up to {@code flushSize} events.
+ * A batch is flushed as soon as it is full, or once its first event has waited
+ * {@code flushInterval}.
+ *
+ * A batch that fails to persist is retried up to {@code maxRetries} times, waiting
+ * {@code retryBackoff} before the first retry and twice as long before each further one. The
+ * writer drains nothing meanwhile, so events keep buffering up to the queue capacity and the
+ * overflow policy applies from there. The IDs assigned by a failed attempt are cleared first:
+ * events are given theirs when they are written, in insertion order.
+ *
+ * When the buffer is full the configured {@link X402OverflowPolicy} decides whether the
+ * producer waits or an event is shed. SUCCESS events are never shed. Dropped events are
+ * counted per status.
+ *
+ * The queue is started and stopped with the application context. On shutdown it drains
+ * everything that is already buffered before the data source is closed. Events offered while
+ * the queue is not running are written synchronously on the caller's thread.
+ *
+ * @param <E> event entity type
+ */
+public class X402WriteBehindQueue<E> implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(X402WriteBehindQueue.class);
+
+    /**
+     * Stop after the embedded web server so in-flight requests can still enqueue their events.
+     */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    /**
+     * Status that carries revenue and must never be shed.
+     */
+    private static final String PROTECTED_STATUS = "SUCCESS";
+
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Upper bound on a single wait, so the writer notices shutdown promptly.
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Upper bound on the wait between two attempts at a failed batch.
+     */
+    private static final long MAX_RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final String name;
+    private final X402RingBuffer<E> buffer;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final Duration shutdownTimeout;
+    private final X402OverflowPolicy overflowPolicy;
+    private final Set<String> sheddableStatuses;
+    private final int shedWatermark;
+    private final Function<E, String> statusOf;
+    private final Consumer<List<E>> batchWriter;
+    private final Consumer<E> idReset;
+    private final int maxRetries;
+    private final long retryBackoffNanos;
+
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final Map<String, LongAdder> droppedCounts = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * @param name        queue name, used for the writer thread and log messages
+     * @param ingest      ingest settings (capacity, batching, overflow policy)
+     * @param statusOf    status name of an event, used for load shedding and drop counters
+     * @param batchWriter persists one batch of events
+     */
+    public X402WriteBehindQueue(
+            String name,
+            X402DashboardProperties.Ingest ingest,
+            Function<E, String> statusOf,
+            Consumer<List<E>> batchWriter) {
+        this(name, ingest, statusOf, batchWriter, event -> {
+        });
+    }
+
+    /**
+     * @param name        queue name, used for the writer thread and log messages
+     * @param ingest      ingest settings (capacity, batching, overflow policy, retries)
+     * @param statusOf    status name of an event, used for load shedding and drop counters
+     * @param batchWriter persists one batch of events
+     * @param idReset     clears the ID of an event before its batch is retried
+     */
+    public X402WriteBehindQueue(
+            String name,
+            X402DashboardProperties.Ingest ingest,
+            Function<E, String> statusOf,
+            Consumer<List<E>> batchWriter,
+            Consumer<E> idReset) {
+        if (ingest.getFlushSize() <= 0) {
+            throw new IllegalArgumentException("flushSize must be positive");
+        }
+        this.name = name;
+        this.buffer = new X402RingBuffer<>(ingest.getQueueCapacity());
+        this.flushSize = ingest.getFlushSize();
+        this.flushIntervalNanos = ingest.getFlushInterval().toNanos();
+        this.shutdownTimeout = ingest.getShutdownTimeout();
+        this.overflowPolicy = ingest.getOverflowPolicy();
+        this.sheddableStatuses = Set.copyOf(ingest.getSheddableStatuses());
+        this.shedWatermark = (int) Math.ceil(buffer.capacity() * ingest.getShedThreshold());
+        this.statusOf = statusOf;
+        this.batchWriter = batchWriter;
+        this.idReset = idReset;
+        this.maxRetries = Math.max(ingest.getMaxRetries(), 0);
+        this.retryBackoffNanos = ingest.getRetryBackoff().toNanos();
+    }
+
+    /**
+     * Enqueue an event for asynchronous persistence, applying the overflow policy
+     * if the buffer is full.
+     */
+    public void offer(E event) {
+        if (!running) {
+            write(List.of(event));
+            return;
+        }
+        String status = statusOf.apply(event);
+        boolean protectedEvent = PROTECTED_STATUS.equals(status);
+
+        if (overflowPolicy == X402OverflowPolicy.PRIORITY
+                && sheddableStatuses.contains(status)
+                && buffer.size() >= shedWatermark) {
+            recordDrop(status);
+            return;
+        }
+        if (buffer.offer(event)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_NEWEST, PRIORITY -> {
+                if (!protectedEvent) {
+                    recordDrop(status);
+                    return;
+                }
+            }
+            case DROP_OLDEST -> {
+                E evicted = buffer.pollIf(e -> !PROTECTED_STATUS.equals(statusOf.apply(e)));
+                if (evicted != null) {
+                    recordDrop(statusOf.apply(evicted));
+                    if (buffer.offer(event)) {
+                        return;
+                    }
+                }
+                if (!protectedEvent) {
+                    recordDrop(status);
+                    return;
+                }
+            }
+            case BLOCK -> {
+                // wait for a free slot below
+            }
+        }
+        putBlocking(event);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::drainLoop, name + "-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            worker.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            log.warn("{}: writer did not drain within {}, {} events left in queue",
+                    name, shutdownTimeout, buffer.size());
+        } else {
+            // Producers that raced with shutdown may have published after the writer exited
+            List<E> rest = new ArrayList<>();
+            buffer.drainTo(rest, Integer.MAX_VALUE);
+            if (!rest.isEmpty()) {
+                write(rest);
+            }
+        }
+        worker = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Number of events currently buffered.
+     */
+    public int getQueuedCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Number of events persisted by the background writer.
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * Number of events lost because their batch could not be persisted.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Number of times a failed batch was attempted again.
+     */
+    public long getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    /**
+     * Number of events shed by the overflow policy, per status.
+     */
+    public Map<String, Long> getDroppedCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        droppedCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Snapshot of the queue's counters.
+     */
+    public X402IngestStats getStats() {
+        Map<String, Long> dropped = getDroppedCounts();
+        return new X402IngestStats(
+                name,
+                overflowPolicy,
+                buffer.capacity(),
+                buffer.size(),
+                writtenCount.get(),
+                failedCount.get(),
+                dropped.values().stream().mapToLong(Long::longValue).sum(),
+                dropped);
+    }
+
+    private void recordDrop(String status) {
+        droppedCounts.computeIfAbsent(status != null ? status : "UNKNOWN", s -> new LongAdder()).increment();
+    }
+
+    private void putBlocking(E event) {
+        long parkNanos = MIN_PARK_NANOS;
+        while (!buffer.offer(event)) {
+            if (!running) {
+                write(List.of(event));
+                return;
+            }
+            LockSupport.parkNanos(parkNanos);
+            parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+        }
+    }
+
+    private void drainLoop() {
+        List<E> batch = new ArrayList<>(flushSize);
+        long idleParkNanos = MIN_PARK_NANOS;
+        while (running || !buffer.isEmpty()) {
+            E first = buffer.poll();
+            if (first == null) {
+                LockSupport.parkNanos(idleParkNanos);
+                idleParkNanos = Math.min(idleParkNanos * 2, MAX_PARK_NANOS);
+                continue;
+            }
+            idleParkNanos = MIN_PARK_NANOS;
+            batch.add(first);
+            fillBatch(batch, System.nanoTime() + flushIntervalNanos);
+            writeWithRetry(batch);
+            batch = new ArrayList<>(flushSize);
+        }
+    }
+
+    private void fillBatch(List<E> batch, long deadline) {
+        long parkNanos = MIN_PARK_NANOS;
+        while (batch.size() < flushSize && running) {
+            if (buffer.drainTo(batch, flushSize - batch.size()) > 0) {
+                parkNanos = MIN_PARK_NANOS;
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            LockSupport.parkNanos(Math.min(remaining, parkNanos));
+            parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+        }
+        // Shutting down: don't linger, just top up the batch with whatever is left
+        buffer.drainTo(batch, flushSize - batch.size());
+    }
+
+    /**
+     * Write a batch on the writer thread, retrying it with backoff if it fails.
+     */
+    private void writeWithRetry(List<E> batch) {
+        long backoffNanos = retryBackoffNanos;
+        for (int attempt = 0; attempt < maxRetries; attempt++) {
+            try {
+                batchWriter.accept(batch);
+                writtenCount.addAndGet(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                log.warn("{}: failed to persist batch of {} events, retrying in {} ms",
+                        name, batch.size(), TimeUnit.NANOSECONDS.toMillis(backoffNanos), e);
+            }
+            pause(backoffNanos);
+            backoffNanos = Math.min(backoffNanos * 2, MAX_RETRY_BACKOFF_NANOS);
+            batch.forEach(idReset);
+            retriedCount.incrementAndGet();
+        }
+        write(batch);
+    }
+
+    private static void pause(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        for (long left = nanos; left > 0; left = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(left);
+        }
+    }
+
+    private void write(List<E> batch) {
+        try {
+            batchWriter.accept(batch);
+            writtenCount.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            failedCount.addAndGet(batch.size());
+            log.error("{}: failed to persist batch of {} events", name, batch.size(), e);
+        }
+    }
+}
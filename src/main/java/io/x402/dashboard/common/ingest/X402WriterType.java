@@ -0,0 +1,18 @@
+package io.x402.dashboard.common.ingest;
+
+/**
+ * How event inserts reach the database.
+ */
+public enum X402WriterType {
+
+    /**
+     * Multi-row JDBC batch inserts, bypassing the JPA persistence context. Events are
+     * append-only, so there is nothing for Hibernate to track.
+     */
+    JDBC,
+
+    /**
+     * Spring Data {@code save}/{@code saveAll} through the JPA repositories.
+     */
+    JPA
+}
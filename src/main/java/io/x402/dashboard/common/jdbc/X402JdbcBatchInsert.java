@@ -0,0 +1,150 @@
+package io.x402.dashboard.common.jdbc;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Append-only batch insert for one table, bypassing the JPA persistence context.
+ *
+ * Rows are written with multi-row {@code INSERT ... VALUES (...), (...)} statements of
+ * {@code rowsPerStatement} rows each, executed as a single JDBC batch; the remainder of a
+ * batch goes through a single-row statement. Both statements are built once, so every call
+ * reuses the same two SQL strings and drivers with a statement cache prepare them only once
+ * per connection.
+ *
+ * The insert joins the current Spring transaction, if any.
+ *
+ * @param <E> row type
+ */
+public class X402JdbcBatchInsert<E> {
+
+    /**
+     * Binds the columns of one row, starting at parameter index {@code firstIndex}.
+     */
+    @FunctionalInterface
+    public interface RowBinder<E> {
+        void bind(PreparedStatement ps, int firstIndex, E row) throws SQLException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int columnCount;
+    private final int rowsPerStatement;
+    private final String singleRowSql;
+    private final String multiRowSql;
+    private final RowBinder<E> binder;
+
+    public X402JdbcBatchInsert(
+            JdbcTemplate jdbcTemplate,
+            String table,
+            List<String> columns,
+            int rowsPerStatement,
+            RowBinder<E> binder) {
+        if (rowsPerStatement <= 0) {
+            throw new IllegalArgumentException("rowsPerStatement must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.columnCount = columns.size();
+        this.rowsPerStatement = rowsPerStatement;
+        this.singleRowSql = insertSql(table, columns, 1);
+        this.multiRowSql = insertSql(table, columns, rowsPerStatement);
+        this.binder = binder;
+    }
+
+    /**
+     * Insert all rows.
+     */
+    public void insertAll(List<E> rows) {
+        int statements = rows.size() / rowsPerStatement;
+        int multiRowCount = statements * rowsPerStatement;
+
+        if (statements > 0) {
+            jdbcTemplate.batchUpdate(multiRowSql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    int base = i * rowsPerStatement;
+                    for (int r = 0; r < rowsPerStatement; r++) {
+                        binder.bind(ps, r * columnCount + 1, rows.get(base + r));
+                    }
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return statements;
+                }
+            });
+        }
+        if (multiRowCount < rows.size()) {
+            List<E> rest = rows.subList(multiRowCount, rows.size());
+            jdbcTemplate.batchUpdate(singleRowSql, rest, rest.size(), (ps, row) -> binder.bind(ps, 1, row));
+        }
+    }
+
+    /**
+     * Insert a single row.
+     */
+    public void insert(E row) {
+        jdbcTemplate.update(singleRowSql, ps -> binder.bind(ps, 1, row));
+    }
+
+    private static String insertSql(String table, List<String> columns, int rows) {
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < columns.size(); i++) {
+            placeholders.add("?");
+        }
+        String row = placeholders.toString();
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+
+    // Null-safe binding helpers
+
+    public static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    public static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    public static void setString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value != null) {
+            ps.setString(index, value);
+        } else {
+            ps.setNull(index, Types.VARCHAR);
+        }
+    }
+
+    public static void setEnum(PreparedStatement ps, int index, Enum<?> value) throws SQLException {
+        setString(ps, index, value != null ? value.name() : null);
+    }
+
+    public static void setTimestamp(PreparedStatement ps, int index, OffsetDateTime value) throws SQLException {
+        if (value != null) {
+            ps.setObject(index, value);
+        } else {
+            ps.setNull(index, Types.TIMESTAMP_WITH_TIMEZONE);
+        }
+    }
+}
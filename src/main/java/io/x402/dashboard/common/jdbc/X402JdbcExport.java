@@ -0,0 +1,328 @@
+package io.x402.dashboard.common.jdbc;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.IntFunction;
+
+/**
+ * Streaming export of one table as NDJSON or CSV, bypassing the JPA persistence context.
+ *
+ * Rows are read through a forward-only, read-only cursor with a JDBC fetch size and written
+ * to the output as they arrive, so memory use does not depend on the number of rows.
+ * PostgreSQL only honours the fetch size inside a transaction; callers should run the export
+ * in a read-only one.
+ */
+public class X402JdbcExport {
+
+    /**
+     * Rows fetched from the database per round trip.
+     */
+    public static final int FETCH_SIZE = 1_000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Output format.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Parse a format name, case-insensitively.
+         *
+         * @throws IllegalArgumentException if the format is unknown
+         */
+        public static Format parse(String name) {
+            return Format.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * How a column value is read and written.
+     */
+    public enum Type {
+        NUMBER, STRING, TIMESTAMP
+    }
+
+    /**
+     * Exportable column: field name in the output, SQL expression, and type.
+     */
+    public static final class Column {
+        private final String name;
+        private final String sql;
+        private final Type type;
+        private final IntFunction<String> decoder;
+
+        public Column(String name, String sql, Type type) {
+            this(name, sql, type, null);
+        }
+
+        /**
+         * String column stored as an int ID, such as a dictionary-encoded dimension, and
+         * written as {@code decoder.apply(id)}.
+         */
+        public Column(String name, String sql, IntFunction<String> decoder) {
+            this(name, sql, Type.STRING, decoder);
+        }
+
+        private Column(String name, String sql, Type type, IntFunction<String> decoder) {
+            this.name = name;
+            this.sql = sql;
+            this.type = type;
+            this.decoder = decoder;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String from;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    /**
+     * @param from     FROM clause, e.g. a table name
+     * @param columns  exportable columns, in default output order
+     */
+    public X402JdbcExport(JdbcTemplate jdbcTemplate, String from, List<Column> columns) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.from = from;
+        for (Column column : columns) {
+            this.columns.put(column.name, column);
+        }
+    }
+
+    /**
+     * Resolve a comma-separated column selection; null or blank selects every column.
+     *
+     * @throws IllegalArgumentException if a column is unknown
+     */
+    public List<Column> columns(String selection) {
+        if (selection == null || selection.isBlank()) {
+            return List.copyOf(columns.values());
+        }
+        List<Column> selected = new ArrayList<>();
+        for (String name : selection.split(",")) {
+            Column column = columns.get(name.trim());
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown column: " + name.trim());
+            }
+            selected.add(column);
+        }
+        return selected;
+    }
+
+    /**
+     * Write the matching rows to {@code out} and flush it.
+     *
+     * @param where   WHERE clause without the keyword, or null
+     * @param orderBy ORDER BY clause without the keyword, or null
+     * @param args    parameters of the WHERE clause
+     */
+    public void export(
+            OutputStream out,
+            Format format,
+            List<Column> selected,
+            String where,
+            String orderBy,
+            List<Object> args) throws IOException {
+        export(out, format, selected, from, where, orderBy, args);
+    }
+
+    /**
+     * Write the matching rows of {@code from} in place of the FROM clause given at
+     * construction, e.g. a derived table over several tables with the same columns.
+     */
+    public void export(
+            OutputStream out,
+            Format format,
+            List<Column> selected,
+            String from,
+            String where,
+            String orderBy,
+            List<Object> args) throws IOException {
+        StringJoiner select = new StringJoiner(", ", "SELECT ", " FROM " + from);
+        for (Column column : selected) {
+            select.add(column.sql);
+        }
+        StringBuilder sql = new StringBuilder(select.toString());
+        if (where != null) {
+            sql.append(" WHERE ").append(where);
+        }
+        if (orderBy != null) {
+            sql.append(" ORDER BY ").append(orderBy);
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer, selected) : new NdjsonRowWriter(writer, selected);
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(FETCH_SIZE);
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    rows.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Typically the client went away; stop reading and report the write failure
+            throw e.getCause();
+        }
+        rows.finish();
+        writer.flush();
+    }
+
+    private abstract static class RowWriter {
+        protected final Writer writer;
+        protected final List<Column> columns;
+
+        RowWriter(Writer writer, List<Column> columns) {
+            this.writer = writer;
+            this.columns = columns;
+        }
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException {
+        }
+
+        static Object value(ResultSet rs, int index, Column column) throws SQLException {
+            if (column.decoder != null) {
+                int id = rs.getInt(index);
+                return rs.wasNull() ? null : column.decoder.apply(id);
+            }
+            return switch (column.type) {
+                case NUMBER -> {
+                    long value = rs.getLong(index);
+                    yield rs.wasNull() ? null : value;
+                }
+                case TIMESTAMP -> {
+                    OffsetDateTime value = rs.getObject(index, OffsetDateTime.class);
+                    yield value != null ? value.toString() : null;
+                }
+                case STRING -> rs.getString(index);
+            };
+        }
+    }
+
+    /**
+     * One JSON object per line.
+     */
+    private static final class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, List<Column> columns) throws IOException {
+            super(writer, columns);
+            this.generator = new JsonFactory().setRootValueSeparator(null).createGenerator(writer);
+            // The writer is flushed and closed by the caller
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                Column column = columns.get(i);
+                Object value = value(rs, i + 1, column);
+                if (value instanceof Long number) {
+                    generator.writeNumberField(column.name, number);
+                } else if (value != null) {
+                    generator.writeStringField(column.name, (String) value);
+                } else {
+                    generator.writeNullField(column.name);
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row; nulls are written as empty fields.
+     */
+    private static final class CsvRowWriter extends RowWriter {
+
+        CsvRowWriter(Writer writer, List<Column> columns) throws IOException {
+            super(writer, columns);
+            for (int i = 0; i < columns.size(); i++) {
+                field(i, columns.get(i).name);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < columns.size(); i++) {
+                Object value = value(rs, i + 1, columns.get(i));
+                field(i, value != null ? value.toString() : null);
+            }
+            writer.write("\r\n");
+        }
+
+        private void field(int index, String value) throws IOException {
+            if (index > 0) {
+                writer.write(',');
+            }
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package io.x402.dashboard.common.logging;
+
+import io.x402.dashboard.common.annotation.X402Logged;
+import io.x402.dashboard.seller.domain.AgentType;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+
+/**
+ * Everything the logging aspect needs about one {@code @X402Logged} method, resolved once:
+ * the annotation values with their defaults applied, and the parsed SpEL expressions.
+ */
+public final class X402LoggedMethod {
+
+    private final String tenantId;
+    private final String agentId;
+    private final AgentType agentType;
+    private final String method;
+    private final String endpoint;
+    private final String billingKey;
+    private final String network;
+    private final String asset;
+    private final Long amountAtomic;
+    private final String txHash;
+
+    /**
+     * Variable names of each argument: its parameter name (if known), pN and aN.
+     */
+    private final String[][] variableNames;
+    private final Expression agentIdExpression;
+    private final Expression billingKeyExpression;
+    private final Expression amountExpression;
+    private final Expression txHashExpression;
+
+    X402LoggedMethod(X402Logged annotation, Method method, String[] parameterNames, ExpressionParser parser) {
+        this.tenantId = emptyToNull(annotation.tenantId());
+        this.agentId = emptyToNull(annotation.agentId());
+        this.agentType = annotation.agentType();
+        this.method = annotation.method();
+        this.endpoint = annotation.endpoint().isEmpty()
+                ? method.getDeclaringClass().getName() + "." + method.getName()
+                : annotation.endpoint();
+        this.billingKey = emptyToNull(annotation.billingKey());
+        this.network = emptyToNull(annotation.network());
+        this.asset = emptyToNull(annotation.asset());
+        this.amountAtomic = annotation.amountAtomic() == 0L ? null : annotation.amountAtomic();
+        this.txHash = emptyToNull(annotation.txHash());
+
+        this.variableNames = new String[method.getParameterCount()][];
+        for (int i = 0; i < variableNames.length; i++) {
+            variableNames[i] = parameterNames != null && i < parameterNames.length
+                    ? new String[]{parameterNames[i], "p" + i, "a" + i}
+                    : new String[]{"p" + i, "a" + i};
+        }
+        this.agentIdExpression = parse(parser, annotation.agentIdExpression());
+        this.billingKeyExpression = parse(parser, annotation.billingKeyExpression());
+        this.amountExpression = parse(parser, annotation.amountExpression());
+        this.txHashExpression = parse(parser, annotation.txHashExpression());
+    }
+
+    /**
+     * Tenant ID from the annotation, or null to use the default tenant.
+     */
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public AgentType getAgentType() {
+        return agentType;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getNetwork() {
+        return network;
+    }
+
+    public String getAsset() {
+        return asset;
+    }
+
+    /**
+     * Whether any value depends on the invocation.
+     */
+    public boolean hasExpressions() {
+        return agentIdExpression != null || billingKeyExpression != null
+                || amountExpression != null || txHashExpression != null;
+    }
+
+    public String getAgentId(EvaluationContext context) {
+        return evaluate(agentIdExpression, context, String.class, agentId);
+    }
+
+    public String getBillingKey(EvaluationContext context) {
+        return evaluate(billingKeyExpression, context, String.class, billingKey);
+    }
+
+    public Long getAmountAtomic(EvaluationContext context) {
+        return evaluate(amountExpression, context, Long.class, amountAtomic);
+    }
+
+    public String getTxHash(EvaluationContext context) {
+        return evaluate(txHashExpression, context, String.class, txHash);
+    }
+
+    /**
+     * Evaluation context for one invocation, or null if the method has no expressions.
+     */
+    public EvaluationContext createContext(Object[] args, Object result) {
+        if (!hasExpressions()) {
+            return null;
+        }
+        StandardEvaluationContext context = new StandardEvaluationContext(new Invocation(args, result));
+        for (int i = 0; i < args.length && i < variableNames.length; i++) {
+            for (String name : variableNames[i]) {
+                context.setVariable(name, args[i]);
+            }
+        }
+        context.setVariable("result", result);
+        return context;
+    }
+
+    private static <T> T evaluate(Expression expression, EvaluationContext context, Class<T> type, T fallback) {
+        if (expression == null || context == null) {
+            return fallback;
+        }
+        T value = expression.getValue(context, type);
+        return value != null ? value : fallback;
+    }
+
+    private static Expression parse(ExpressionParser parser, String expression) {
+        return expression.isEmpty() ? null : parser.parseExpression(expression);
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Root object of the expressions.
+     */
+    public static final class Invocation {
+        private final Object[] args;
+        private final Object result;
+
+        Invocation(Object[] args, Object result) {
+            this.args = args;
+            this.result = result;
+        }
+
+        public Object[] getArgs() {
+            return args;
+        }
+
+        public Object getResult() {
+            return result;
+        }
+    }
+}
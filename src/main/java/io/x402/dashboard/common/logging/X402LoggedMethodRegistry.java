@@ -0,0 +1,46 @@
+package io.x402.dashboard.common.logging;
+
+import io.x402.dashboard.common.annotation.X402Logged;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of {@link X402LoggedMethod} descriptors, one per {@code @X402Logged} method.
+ *
+ * The annotation is read and its expressions parsed on the first call of a method; later
+ * calls only look the descriptor up. Expressions run in SpEL's mixed compiler mode: they are
+ * interpreted at first and compiled to bytecode once their types are known, falling back to
+ * interpretation if a compiled expression fails.
+ */
+public class X402LoggedMethodRegistry {
+
+    private final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, X402LoggedMethodRegistry.class.getClassLoader()));
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Map<Method, X402LoggedMethod> methods = new ConcurrentHashMap<>();
+
+    /**
+     * Descriptor of an annotated method, or null if the method is not annotated.
+     *
+     * @throws org.springframework.expression.ParseException if an expression is invalid
+     */
+    public X402LoggedMethod get(Method method) {
+        X402LoggedMethod descriptor = methods.get(method);
+        if (descriptor != null) {
+            return descriptor;
+        }
+        X402Logged annotation = method.getAnnotation(X402Logged.class);
+        if (annotation == null) {
+            return null;
+        }
+        return methods.computeIfAbsent(method, m -> new X402LoggedMethod(
+                annotation, m, parameterNameDiscoverer.getParameterNames(m), parser));
+    }
+}
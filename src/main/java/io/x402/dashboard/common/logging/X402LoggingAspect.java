@@ -1,6 +1,5 @@
 package io.x402.dashboard.common.logging;
 
-import io.x402.dashboard.common.annotation.X402Logged;
 import io.x402.dashboard.seller.config.X402DashboardProperties;
 import io.x402.dashboard.seller.domain.X402UsageStatus;
 import io.x402.dashboard.seller.logging.X402UsageLogger;
@@ -8,22 +7,30 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.EvaluationException;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.Method;
-
 /**
  * AOP Aspect for @X402Logged annotation.
  *
  * Automatically logs method executions annotated with @X402Logged to the x402 dashboard.
  * Captures method execution time, success/failure status, and metadata from the annotation.
+ *
+ * Each method's annotation is resolved once into an X402LoggedMethod; per call, the aspect
+ * only looks it up and evaluates the method's SpEL expressions, if any.
  */
 @Aspect
 @Component
 public class X402LoggingAspect {
 
+    private static final Logger log = LoggerFactory.getLogger(X402LoggingAspect.class);
+
     private final X402UsageLogger logger;
     private final X402DashboardProperties properties;
+    private final X402LoggedMethodRegistry registry = new X402LoggedMethodRegistry();
 
     public X402LoggingAspect(X402UsageLogger logger, X402DashboardProperties properties) {
         this.logger = logger;
@@ -32,64 +39,56 @@ public class X402LoggingAspect {
 
     @Around("@annotation(io.x402.dashboard.common.annotation.X402Logged)")
     public Object logMethodExecution(ProceedingJoinPoint joinPoint) throws Throwable {
-        long startTime = System.currentTimeMillis();
+        // Resolved before the call, so an invalid expression fails before the method runs
+        X402LoggedMethod descriptor = registry.get(((MethodSignature) joinPoint.getSignature()).getMethod());
+
+        long startTime = System.nanoTime();
         X402UsageStatus status = X402UsageStatus.SUCCESS;
-        Throwable thrownException = null;
+        Object result = null;
 
         try {
             // Execute the method
-            Object result = joinPoint.proceed();
+            result = joinPoint.proceed();
             return result;
         } catch (Throwable e) {
             status = X402UsageStatus.UNKNOWN_ERROR;
-            thrownException = e;
             throw e;
         } finally {
             // Calculate latency
-            long latency = System.currentTimeMillis() - startTime;
+            long latencyNanos = System.nanoTime() - startTime;
 
-            // Get annotation metadata
-            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-            Method method = signature.getMethod();
-            X402Logged annotation = method.getAnnotation(X402Logged.class);
-
-            if (annotation != null) {
-                logEvent(annotation, method, status, latency);
+            if (descriptor != null) {
+                EvaluationContext context = descriptor.createContext(joinPoint.getArgs(), result);
+                try {
+                    logEvent(descriptor, context, status, latencyNanos);
+                } catch (EvaluationException e) {
+                    log.warn("Could not evaluate @X402Logged expression for {}, logging static values",
+                            descriptor.getEndpoint(), e);
+                    logEvent(descriptor, null, status, latencyNanos);
+                }
             }
         }
     }
 
-    private void logEvent(X402Logged annotation, Method method, X402UsageStatus status, long latency) {
-        // Use annotation values, with defaults
-        String tenantId = annotation.tenantId().isEmpty()
-            ? properties.getDefaultTenantId()
-            : annotation.tenantId();
-
-        String endpoint = annotation.endpoint().isEmpty()
-            ? method.getDeclaringClass().getName() + "." + method.getName()
-            : annotation.endpoint();
-
-        String agentId = annotation.agentId().isEmpty() ? null : annotation.agentId();
-        String billingKey = annotation.billingKey().isEmpty() ? null : annotation.billingKey();
-        String network = annotation.network().isEmpty() ? null : annotation.network();
-        String asset = annotation.asset().isEmpty() ? null : annotation.asset();
-        String txHash = annotation.txHash().isEmpty() ? null : annotation.txHash();
-        Long amountAtomic = annotation.amountAtomic() == 0L ? null : annotation.amountAtomic();
+    private void logEvent(X402LoggedMethod descriptor, EvaluationContext context, X402UsageStatus status, long latencyNanos) {
+        String tenantId = descriptor.getTenantId() != null
+            ? descriptor.getTenantId()
+            : properties.getDefaultTenantId();
 
         // Log the event
         logger.builder()
                 .tenantId(tenantId)
-                .agentId(agentId)
-                .agentType(annotation.agentType())
-                .method(annotation.method())
-                .endpoint(endpoint)
-                .billingKey(billingKey)
-                .network(network)
-                .asset(asset)
-                .amountAtomic(amountAtomic)
-                .txHash(txHash)
+                .agentId(descriptor.getAgentId(context))
+                .agentType(descriptor.getAgentType())
+                .method(descriptor.getMethod())
+                .endpoint(descriptor.getEndpoint())
+                .billingKey(descriptor.getBillingKey(context))
+                .network(descriptor.getNetwork())
+                .asset(descriptor.getAsset())
+                .amountAtomic(descriptor.getAmountAtomic(context))
+                .txHash(descriptor.getTxHash(context))
                 .status(status)
-                .latencyMs(latency)
+                .latencyNanos(latencyNanos)
                 .log();
     }
 }
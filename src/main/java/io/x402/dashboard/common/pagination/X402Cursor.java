@@ -0,0 +1,90 @@
+package io.x402.dashboard.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Keyset position in an event list ordered by {@code (createdAt DESC, id DESC)}.
+ *
+ * A forward cursor continues with the rows after (older than) the position, a backward cursor
+ * with the rows before (newer than) it. Cursors are exchanged with clients as opaque URL-safe
+ * strings, see {@link #encode()} and {@link #decode(String)}.
+ */
+public final class X402Cursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final OffsetDateTime createdAt;
+    private final long id;
+    private final boolean backward;
+
+    private X402Cursor(OffsetDateTime createdAt, long id, boolean backward) {
+        this.createdAt = createdAt;
+        this.id = id;
+        this.backward = backward;
+    }
+
+    /**
+     * Position of the first page of a range ending at {@code to}: before every row in it.
+     */
+    public static X402Cursor first(OffsetDateTime to) {
+        return new X402Cursor(to.plusNanos(1), Long.MAX_VALUE, false);
+    }
+
+    /**
+     * Cursor to the rows older than the given row.
+     */
+    public static X402Cursor after(OffsetDateTime createdAt, long id) {
+        return new X402Cursor(createdAt, id, false);
+    }
+
+    /**
+     * Cursor to the rows newer than the given row.
+     */
+    public static X402Cursor before(OffsetDateTime createdAt, long id) {
+        return new X402Cursor(createdAt, id, true);
+    }
+
+    /**
+     * Parse a cursor produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static X402Cursor decode(String cursor) {
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4 || !(parts[0].equals("f") || parts[0].equals("b"))) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            Instant instant = Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            return new X402Cursor(
+                    OffsetDateTime.ofInstant(instant, ZoneOffset.UTC),
+                    Long.parseLong(parts[3]),
+                    parts[0].equals("b"));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        Instant instant = createdAt.toInstant();
+        String raw = (backward ? "b" : "f") + ":" + instant.getEpochSecond() + ":" + instant.getNano() + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean isBackward() {
+        return backward;
+    }
+}
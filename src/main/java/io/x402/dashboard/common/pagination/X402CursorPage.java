@@ -0,0 +1,98 @@
+package io.x402.dashboard.common.pagination;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated event list, newest first.
+ *
+ * Unlike a {@code Page} there is no total count: the next and previous cursors are null
+ * when there is nothing further in that direction.
+ *
+ * @param <T> row type
+ */
+public class X402CursorPage<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private String prevCursor;
+    private int size;
+
+    public X402CursorPage() {
+    }
+
+    public X402CursorPage(List<T> content, String nextCursor, String prevCursor, int size) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+        this.size = size;
+    }
+
+    /**
+     * Build a page from up to {@code size + 1} rows fetched from {@code position}: in
+     * {@code (createdAt DESC, id DESC)} order for a forward cursor, ascending for a backward one.
+     * The extra row only tells whether there is more in that direction.
+     *
+     * @param first whether {@code position} is the start of the range rather than a client cursor
+     */
+    public static <T> X402CursorPage<T> of(
+            List<T> rows,
+            int size,
+            X402Cursor position,
+            boolean first,
+            Function<T, OffsetDateTime> createdAt,
+            Function<T, Long> id) {
+        boolean more = rows.size() > size;
+        List<T> content = new ArrayList<>(more ? rows.subList(0, size) : rows);
+        if (position.isBackward()) {
+            Collections.reverse(content);
+        }
+        if (content.isEmpty()) {
+            return new X402CursorPage<>(content, null, null, size);
+        }
+        T oldest = content.get(content.size() - 1);
+        T newest = content.get(0);
+        boolean hasOlder = position.isBackward() || more;
+        boolean hasNewer = position.isBackward() ? more : !first;
+        return new X402CursorPage<>(
+                content,
+                hasOlder ? X402Cursor.after(createdAt.apply(oldest), id.apply(oldest)).encode() : null,
+                hasNewer ? X402Cursor.before(createdAt.apply(newest), id.apply(newest)).encode() : null,
+                size);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    public void setPrevCursor(String prevCursor) {
+        this.prevCursor = prevCursor;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,114 @@
+package io.x402.dashboard.common.query;
+
+import jakarta.persistence.Query;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JPQL or SQL statement with only the filters that are actually set.
+ *
+ * Optional filters written as {@code (:tenantId IS NULL OR e.tenantId = :tenantId)} compile
+ * to a single plan that has to work for both cases, so the database cannot use an index on
+ * the filtered column and falls back to scanning the time range, or the whole table. Here a
+ * filter whose value is null is left out of the statement instead, and each combination of
+ * filters becomes its own statement that the database plans against the index matching it.
+ *
+ * <pre>
+ * X402QueryBuilder query = new X402QueryBuilder("SELECT e FROM X402UsageEvent e")
+ *         .equal("e.tenantId", "tenantId", tenantId)
+ *         .between("e.createdAt", from, to)
+ *         .append("ORDER BY e.createdAt DESC");
+ * query.bind(entityManager.createQuery(query.build(), X402UsageEvent.class)).getResultList();
+ * </pre>
+ *
+ * Not thread-safe; build one per query.
+ */
+public final class X402QueryBuilder {
+
+    private final String select;
+    private final StringBuilder where = new StringBuilder();
+    private final StringBuilder tail = new StringBuilder();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    /**
+     * @param select the statement up to and including its FROM clause
+     */
+    public X402QueryBuilder(String select) {
+        this.select = select.strip();
+    }
+
+    /**
+     * {@code path = :name}, or nothing if {@code value} is null.
+     */
+    public X402QueryBuilder equal(String path, String name, Object value) {
+        if (value == null) {
+            return this;
+        }
+        return where(path + " = :" + name).parameter(name, value);
+    }
+
+    /**
+     * {@code path BETWEEN :from AND :to}; both bounds are inclusive.
+     */
+    public X402QueryBuilder between(String path, Object from, Object to) {
+        return where(path + " BETWEEN :from AND :to").parameter("from", from).parameter("to", to);
+    }
+
+    /**
+     * A condition that is always applied; bind its parameters with {@link #parameter}.
+     */
+    public X402QueryBuilder where(String condition) {
+        where.append(where.length() == 0 ? " WHERE " : " AND ").append(condition);
+        return this;
+    }
+
+    public X402QueryBuilder parameter(String name, Object value) {
+        parameters.put(name, value);
+        return this;
+    }
+
+    /**
+     * Clauses after WHERE, such as GROUP BY and ORDER BY.
+     */
+    public X402QueryBuilder append(String clause) {
+        tail.append(' ').append(clause.strip());
+        return this;
+    }
+
+    public String build() {
+        return select + where + tail;
+    }
+
+    /**
+     * Same statement with {@code select} in place of the original select and FROM clause and
+     * without the appended clauses, e.g. the count query of a page.
+     */
+    public X402QueryBuilder withSelect(String select) {
+        X402QueryBuilder copy = new X402QueryBuilder(select);
+        copy.where.append(where);
+        copy.parameters.putAll(parameters);
+        return copy;
+    }
+
+    /**
+     * Parameter values by name, in the order they were added.
+     */
+    public Map<String, Object> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    /**
+     * Bind the parameters of the conditions added so far to {@code query}.
+     */
+    public <Q extends Query> Q bind(Q query) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+
+    @Override
+    public String toString() {
+        return build();
+    }
+}
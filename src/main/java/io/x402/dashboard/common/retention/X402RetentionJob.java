@@ -0,0 +1,268 @@
+package io.x402.dashboard.common.retention;
+
+import io.x402.dashboard.buyer.repository.X402SpendingRollupRepository;
+import io.x402.dashboard.buyer.service.X402SpendingAggregationService;
+import io.x402.dashboard.common.archive.X402EventArchive;
+import io.x402.dashboard.common.cache.X402AggregateCache;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402RollupResolution;
+import io.x402.dashboard.seller.repository.X402UsageRollupRepository;
+import io.x402.dashboard.seller.service.X402UsageAggregationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Background job that deletes raw events past their retention, keeping their aggregates.
+ *
+ * Usage events are already counted in the minute/hour/day rollups, so past the raw retention
+ * those below the rollup watermark are simply deleted, along with the minute rollups; hourly
+ * and daily rollups go once past their own retention. Spending events past the raw retention
+ * are compacted into hourly and daily X402SpendingRollup rows and deleted in the same
+ * transaction. Hourly latency histograms of days past the hourly retention are merged into
+ * one per day. Retention is per tenant or buyer, see X402RetentionPolicy.
+ *
+ * Rows are deleted in batches of {@code batch-size}, one transaction each, with
+ * {@code batch-pause} between batches, so a backlog is worked off without long locks or
+ * starving ingest. With the archive on, events are deleted from the day archive tables as
+ * well; an archive table emptied that way stays until the archive retention drops it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.retention", name = "enabled", havingValue = "true")
+public class X402RetentionJob implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(X402RetentionJob.class);
+
+    private final X402RetentionPolicy policy;
+    private final TransactionTemplate transactionTemplate;
+    private final X402DashboardProperties.Retention settings;
+    private final X402UsageRollupRepository usageRollups;
+    private final X402SpendingRollupRepository spendingRollups;
+    private final X402LatencyHistogramRepository latencyHistograms;
+    private final X402EventArchive archive;
+    private final X402AggregateCache cache;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private ScheduledExecutorService scheduler;
+
+    public X402RetentionJob(
+            X402RetentionPolicy policy,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties properties,
+            ObjectProvider<X402UsageRollupRepository> usageRollups,
+            ObjectProvider<X402SpendingRollupRepository> spendingRollups,
+            ObjectProvider<X402LatencyHistogramRepository> latencyHistograms,
+            ObjectProvider<X402EventArchive> archive,
+            ObjectProvider<X402AggregateCache> cache) {
+        this.policy = policy;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = properties.getRetention();
+        this.usageRollups = usageRollups.getIfAvailable();
+        this.spendingRollups = spendingRollups.getIfAvailable();
+        this.latencyHistograms = latencyHistograms.getIfAvailable();
+        this.archive = archive.getIfAvailable();
+        this.cache = cache.getIfAvailable();
+        if (this.usageRollups == null) {
+            throw new IllegalStateException(
+                    "x402.dashboard.retention requires x402.dashboard.rollup.enabled=true to keep usage aggregates");
+        }
+    }
+
+    /**
+     * Delete or compact everything past its retention.
+     *
+     * @return number of raw events deleted or compacted
+     */
+    public synchronized long runOnce() {
+        long events = 0;
+        long aggregates = 0;
+        for (X402RetentionPolicy.Scope scope : policy.scopes(OffsetDateTime.now(zone))) {
+            events += expireUsage(scope);
+            events += expireSpending(scope);
+            aggregates += expireRollups(scope);
+            aggregates += expireLatency(scope);
+        }
+        // Cached days may have been read from the raw events or finer rollups now gone
+        if (events + aggregates > 0 && cache != null) {
+            cache.clear(X402UsageAggregationService.CACHE_SCOPE);
+            cache.clear(X402SpendingAggregationService.CACHE_SCOPE);
+        }
+        return events;
+    }
+
+    private long expireUsage(X402RetentionPolicy.Scope scope) {
+        // Only events the rollups already count; newer ones are deleted once rolled up
+        long watermark = usageRollups.getWatermark();
+        long deleted = 0;
+        for (String table : tables(X402EventArchive.USAGE_TABLE, scope.getRawBefore())) {
+            deleted += repeat(() -> locked(() ->
+                    usageRollups.deleteEvents(table, scope, scope.getRawBefore(), watermark, settings.getBatchSize())));
+        }
+        return deleted;
+    }
+
+    private long expireSpending(X402RetentionPolicy.Scope scope) {
+        if (spendingRollups == null) {
+            return 0;
+        }
+        long compacted = 0;
+        for (String table : tables(X402EventArchive.SPENDING_TABLE, scope.getRawBefore())) {
+            compacted += repeat(() -> locked(() -> inTransaction(() -> {
+                spendingRollups.lock();
+                return spendingRollups.compact(table, scope, scope.getRawBefore(), settings.getBatchSize(), zone);
+            })));
+        }
+        return compacted;
+    }
+
+    private long expireRollups(X402RetentionPolicy.Scope scope) {
+        long deleted = 0;
+        for (X402RollupResolution resolution : X402RollupResolution.values()) {
+            OffsetDateTime before = switch (resolution) {
+                case MINUTE -> scope.getRawBefore();
+                case HOUR -> scope.getHourlyBefore();
+                case DAY -> scope.getDailyBefore();
+            };
+            if (before == null) {
+                continue;
+            }
+            deleted += repeat(() -> inTransaction(() -> {
+                usageRollups.lockWatermark();
+                return usageRollups.deleteRollups(resolution, scope, before, settings.getBatchSize());
+            }));
+            if (spendingRollups != null && resolution != X402RollupResolution.MINUTE) {
+                deleted += repeat(() -> inTransaction(() -> {
+                    spendingRollups.lock();
+                    return spendingRollups.deleteRollups(resolution, scope, before, settings.getBatchSize());
+                }));
+            }
+        }
+        return deleted;
+    }
+
+    private long expireLatency(X402RetentionPolicy.Scope scope) {
+        if (latencyHistograms == null) {
+            return 0;
+        }
+        long changed = 0;
+        if (scope.getHourlyBefore() != null) {
+            // Whole days only, so a day is never half hourly and half daily
+            OffsetDateTime before = X402RollupResolution.DAY.floor(scope.getHourlyBefore().atZoneSameInstant(zone))
+                    .toOffsetDateTime();
+            changed += repeat(() -> inTransaction(() ->
+                    latencyHistograms.compactDays(scope, before, settings.getBatchSize(), zone)));
+        }
+        if (scope.getDailyBefore() != null) {
+            changed += repeat(() -> inTransaction(() ->
+                    latencyHistograms.deleteDays(scope, scope.getDailyBefore(), settings.getBatchSize())));
+        }
+        return changed;
+    }
+
+    /**
+     * The event table and its day archive tables up to {@code before}.
+     */
+    private List<String> tables(String table, OffsetDateTime before) {
+        List<String> tables = new ArrayList<>(List.of(table));
+        if (archive != null) {
+            tables.addAll(archive.getTables(table, before));
+        }
+        return tables;
+    }
+
+    /**
+     * Run batches until one comes back short, pausing between them.
+     */
+    private long repeat(IntSupplier batch) {
+        long total = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            int count = batch.getAsInt();
+            total += count;
+            if (count < settings.getBatchSize()) {
+                break;
+            }
+            pause();
+        }
+        return total;
+    }
+
+    private int locked(Supplier<Integer> work) {
+        return archive != null ? archive.locked(work) : work.get();
+    }
+
+    private int inTransaction(Supplier<Integer> work) {
+        Integer count = transactionTemplate.execute(status -> work.get());
+        return count != null ? count : 0;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(settings.getBatchPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "x402-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = settings.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                long expired = runOnce();
+                if (expired > 0) {
+                    log.info("Deleted {} events past their retention", expired);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Retention run failed, retrying in {}", settings.getInterval(), e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running == null) {
+            return;
+        }
+        // Interrupts a run between batches; the batch in progress commits or rolls back whole
+        running.shutdownNow();
+        try {
+            running.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+}
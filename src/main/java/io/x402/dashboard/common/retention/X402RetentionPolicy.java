@@ -0,0 +1,174 @@
+package io.x402.dashboard.common.retention;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How long raw events, hourly and daily aggregates are kept, per tenant or buyer.
+ *
+ * Tenants (seller side) and buyers (buyer side) listed under
+ * {@code x402.dashboard.retention.tenants} have their own tiers; all others, and events
+ * without one, share the defaults. Tiers are turned into horizons: the time before which the
+ * data of a tier is deleted, or null if it is kept forever.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.retention", name = "enabled", havingValue = "true")
+public class X402RetentionPolicy {
+
+    private final X402DashboardProperties.Retention settings;
+
+    public X402RetentionPolicy(X402DashboardProperties properties) {
+        this.settings = properties.getRetention();
+        validate("x402.dashboard.retention", settings.getRaw(), settings.getHourly(), settings.getDaily());
+        settings.getTenants().forEach((tenant, tiers) -> validate("x402.dashboard.retention.tenants." + tenant,
+                raw(tiers), hourly(tiers), daily(tiers)));
+    }
+
+    /**
+     * Horizons of one tenant or buyer. For a null {@code partition}, as read by queries across
+     * all tenants, each tier's latest horizon among all of them: before it, at least one
+     * tenant no longer has that tier.
+     */
+    public Horizons horizons(String partition, OffsetDateTime now) {
+        if (partition != null) {
+            return of(settings.getTenants().get(partition), now);
+        }
+        Horizons latest = of(null, now);
+        for (X402DashboardProperties.Retention.Tiers tiers : settings.getTenants().values()) {
+            Horizons tenant = of(tiers, now);
+            latest = new Horizons(
+                    latest(latest.rawBefore, tenant.rawBefore),
+                    latest(latest.hourlyBefore, tenant.hourlyBefore),
+                    latest(latest.dailyBefore, tenant.dailyBefore));
+        }
+        return latest;
+    }
+
+    /**
+     * One scope per tenant with its own tiers, then one for all the others.
+     */
+    public List<Scope> scopes(OffsetDateTime now) {
+        List<Scope> scopes = new ArrayList<>();
+        for (Map.Entry<String, X402DashboardProperties.Retention.Tiers> entry : settings.getTenants().entrySet()) {
+            scopes.add(new Scope(entry.getKey(), List.of(), of(entry.getValue(), now)));
+        }
+        scopes.add(new Scope(null, List.copyOf(settings.getTenants().keySet()), of(null, now)));
+        return scopes;
+    }
+
+    private Horizons of(X402DashboardProperties.Retention.Tiers tiers, OffsetDateTime now) {
+        return new Horizons(before(now, raw(tiers)), before(now, hourly(tiers)), before(now, daily(tiers)));
+    }
+
+    private Duration raw(X402DashboardProperties.Retention.Tiers tiers) {
+        return tiers != null && tiers.getRaw() != null ? tiers.getRaw() : settings.getRaw();
+    }
+
+    private Duration hourly(X402DashboardProperties.Retention.Tiers tiers) {
+        return tiers != null && tiers.getHourly() != null ? tiers.getHourly() : settings.getHourly();
+    }
+
+    private Duration daily(X402DashboardProperties.Retention.Tiers tiers) {
+        return tiers != null && tiers.getDaily() != null ? tiers.getDaily() : settings.getDaily();
+    }
+
+    private static OffsetDateTime before(OffsetDateTime now, Duration retention) {
+        return retention != null ? now.minus(retention) : null;
+    }
+
+    private static OffsetDateTime latest(OffsetDateTime a, OffsetDateTime b) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static void validate(String prefix, Duration raw, Duration hourly, Duration daily) {
+        // Unset is forever; a coarser tier must not be dropped before a finer one
+        if (raw == null || (hourly != null && hourly.compareTo(raw) < 0)
+                || (daily != null && (hourly == null || daily.compareTo(hourly) < 0))) {
+            throw new IllegalArgumentException(
+                    prefix + ": raw must be set and hourly and daily must not be shorter than the tier before");
+        }
+    }
+
+    /**
+     * Deletion horizons of the raw, hourly and daily tiers; null where a tier is kept forever.
+     */
+    public static class Horizons {
+        private final OffsetDateTime rawBefore;
+        private final OffsetDateTime hourlyBefore;
+        private final OffsetDateTime dailyBefore;
+
+        Horizons(OffsetDateTime rawBefore, OffsetDateTime hourlyBefore, OffsetDateTime dailyBefore) {
+            this.rawBefore = rawBefore;
+            this.hourlyBefore = hourlyBefore;
+            this.dailyBefore = dailyBefore;
+        }
+
+        /**
+         * Raw events and minute rollups before this time are deleted.
+         */
+        public OffsetDateTime getRawBefore() {
+            return rawBefore;
+        }
+
+        /**
+         * Hourly rollups and latency histograms before this time are deleted.
+         */
+        public OffsetDateTime getHourlyBefore() {
+            return hourlyBefore;
+        }
+
+        /**
+         * Daily rollups and latency histograms before this time are deleted.
+         */
+        public OffsetDateTime getDailyBefore() {
+            return dailyBefore;
+        }
+    }
+
+    /**
+     * Horizons applied to one tenant, or to every tenant not listed in
+     * {@code x402.dashboard.retention.tenants}.
+     */
+    public static class Scope extends Horizons {
+        private final String partition;
+        private final List<String> excluded;
+
+        Scope(String partition, List<String> excluded, Horizons horizons) {
+            super(horizons.rawBefore, horizons.hourlyBefore, horizons.dailyBefore);
+            this.partition = partition;
+            this.excluded = excluded;
+        }
+
+        /**
+         * Append the condition selecting this scope's rows by their tenant or buyer
+         * {@code column}, if there is one.
+         */
+        public void appendTo(StringBuilder sql, List<Object> args, String column) {
+            if (partition != null) {
+                sql.append(" AND ").append(column).append(" = ?");
+                args.add(partition);
+            } else if (!excluded.isEmpty()) {
+                sql.append(" AND (").append(column).append(" IS NULL OR ").append(column).append(" NOT IN (")
+                        .append(String.join(", ", excluded.stream().map(e -> "?").toList())).append("))");
+                args.addAll(excluded);
+            }
+        }
+
+        /**
+         * The tenant or buyer, or null for the scope of all unlisted ones.
+         */
+        public String getPartition() {
+            return partition;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package io.x402.dashboard.common.sketch;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Unique agents, client IPs, services and buyers from daily HyperLogLog sketches.
+ *
+ * Capture listeners on the seller and buyer side add each event's values to the sketch of
+ * its day, metric and partition (tenant or buyer). Every {@code flush-interval} the sketches
+ * are merged into x402_distinct_sketch and started afresh; a sketch takes at most
+ * {@code 2^precision} bytes however many values it has seen.
+ *
+ * Queries merge the stored sketches of the requested days (and, without a partition, of all
+ * partitions), so distinct counts over weeks never scan raw events. Ranges are widened to
+ * whole days in the dashboard's time zone, and only events captured while the sketches were
+ * enabled are included. Events dropped by ingest sampling are not seen, so values that only
+ * occur in sampled-out events are missed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.distinct", name = "enabled", havingValue = "true")
+public class X402DistinctCounter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(X402DistinctCounter.class);
+
+    private final X402DistinctSketchRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final X402DashboardProperties.Distinct settings;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Updates hold the read lock, so a flush can swap the map without losing one in flight
+    private final ReadWriteLock sketchesLock = new ReentrantReadWriteLock();
+    private ConcurrentHashMap<Key, X402HyperLogLog> sketches = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public X402DistinctCounter(
+            X402DistinctSketchRepository repository,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties properties) {
+        this(repository, transactionManager, properties.getDistinct());
+    }
+
+    public X402DistinctCounter(
+            X402DistinctSketchRepository repository,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties.Distinct settings) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = settings;
+    }
+
+    /**
+     * Count {@code value} for a metric on the day of {@code time}. Null values are ignored.
+     */
+    public void add(X402DistinctMetric metric, String partition, OffsetDateTime time, String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = X402Hashing.hash64(value);
+        Key key = new Key(dayStart(time != null ? time : OffsetDateTime.now()), metric, partition);
+        Lock lock = sketchesLock.readLock();
+        lock.lock();
+        try {
+            X402HyperLogLog sketch = sketches.computeIfAbsent(key, k -> new X402HyperLogLog(settings.getPrecision()));
+            synchronized (sketch) {
+                sketch.addHash(hash);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Merge the sketches captured since the last flush into the stored ones. If the write
+     * fails, they are kept for the next flush.
+     */
+    public synchronized void flush() {
+        Map<Key, X402HyperLogLog> drained;
+        Lock lock = sketchesLock.writeLock();
+        lock.lock();
+        try {
+            drained = sketches;
+            sketches = new ConcurrentHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        List<X402DistinctSketchRepository.Delta> deltas = new ArrayList<>(drained.size());
+        drained.forEach((key, sketch) -> deltas.add(
+                new X402DistinctSketchRepository.Delta(key.dayStart, key.metric, key.partition, sketch)));
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.merge(deltas));
+        } catch (RuntimeException e) {
+            lock = sketchesLock.readLock();
+            lock.lock();
+            try {
+                drained.forEach((key, sketch) -> sketches.merge(key, sketch, (current, failed) -> {
+                    synchronized (current) {
+                        current.merge(failed);
+                    }
+                    return current;
+                }));
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Estimated distinct values of a metric over the days overlapping [from, to), in one
+     * partition or, if {@code partition} is null, in all of them.
+     */
+    public long count(X402DistinctMetric metric, String partition, OffsetDateTime from, OffsetDateTime to) {
+        List<X402HyperLogLog> found = new ArrayList<>();
+        for (X402DistinctSketchRepository.Row row : repository.find(metric, partition, dayStart(from), to)) {
+            found.add(row.getSketch());
+        }
+        return X402HyperLogLog.union(found, settings.getPrecision()).estimate();
+    }
+
+    /**
+     * Estimated distinct values of a metric per day, for the days overlapping [from, to)
+     * that have any. Partitions as in {@link #count}.
+     */
+    public Map<LocalDate, Long> daily(X402DistinctMetric metric, String partition, OffsetDateTime from, OffsetDateTime to) {
+        Map<LocalDate, List<X402HyperLogLog>> byDay = new HashMap<>();
+        for (X402DistinctSketchRepository.Row row : repository.find(metric, partition, dayStart(from), to)) {
+            byDay.computeIfAbsent(row.getBucketStart().atZoneSameInstant(zone).toLocalDate(), d -> new ArrayList<>())
+                    .add(row.getSketch());
+        }
+        Map<LocalDate, Long> daily = new TreeMap<>();
+        byDay.forEach((day, found) -> daily.put(day, X402HyperLogLog.union(found, settings.getPrecision()).estimate()));
+        return daily;
+    }
+
+    private OffsetDateTime dayStart(OffsetDateTime time) {
+        return time.atZoneSameInstant(zone).toLocalDate().atStartOfDay(zone).toOffsetDateTime();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "x402-distinct");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = settings.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Distinct-count sketch flush failed, retrying in {}", settings.getFlushInterval(), e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Final distinct-count sketch flush failed", e);
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private static final class Key {
+        private final OffsetDateTime dayStart;
+        private final X402DistinctMetric metric;
+        private final String partition;
+        private final int hash;
+
+        Key(OffsetDateTime dayStart, X402DistinctMetric metric, String partition) {
+            this.dayStart = dayStart;
+            this.metric = metric;
+            this.partition = partition;
+            this.hash = Objects.hash(dayStart, metric, partition);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return hash == other.hash
+                    && metric == other.metric
+                    && dayStart.equals(other.dayStart)
+                    && Objects.equals(partition, other.partition);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.x402.dashboard.common.sketch;
+
+/**
+ * What a distinct-count sketch counts, and what its sketches are partitioned by.
+ */
+public enum X402DistinctMetric {
+
+    /**
+     * Agents seen on the seller side, per tenant.
+     */
+    AGENT,
+
+    /**
+     * Agents with at least one SUCCESS event, per tenant.
+     */
+    PAYING_AGENT,
+
+    /**
+     * Client IPs seen on the seller side, per tenant.
+     */
+    CLIENT_IP,
+
+    /**
+     * Services a buyer paid or attempted to pay, per buyer.
+     */
+    SERVICE,
+
+    /**
+     * Buyers with at least one spending event, in a single partition.
+     */
+    BUYER
+}
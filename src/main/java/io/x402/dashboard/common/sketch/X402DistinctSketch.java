@@ -0,0 +1,60 @@
+package io.x402.dashboard.common.sketch;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * HyperLogLog sketch of one metric for one day and partition (tenant or buyer).
+ *
+ * Maintained by X402DistinctCounter and read through X402DistinctSketchRepository; the entity
+ * mapping only defines the table. The sketch is a serialized X402HyperLogLog. The day starts
+ * at local midnight in the dashboard's time zone. Null partitions are stored as an empty
+ * string, so the key can be unique.
+ */
+@Entity
+@Table(name = "x402_distinct_sketch",
+    uniqueConstraints = @UniqueConstraint(name = "uk_distinct_sketch_key",
+        columnNames = {"bucket_start", "metric", "partition_key"}),
+    indexes = {
+        @Index(name = "idx_distinct_sketch_bucket", columnList = "metric, bucket_start")
+    })
+public class X402DistinctSketch {
+
+    @Id
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "metric", length = 20, nullable = false)
+    private String metric;
+
+    @Column(name = "partition_key", nullable = false)
+    private String partitionKey;
+
+    @Column(name = "sketch", length = 262_160, nullable = false)
+    private byte[] sketch;
+
+    public X402DistinctSketch() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public OffsetDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+}
@@ -0,0 +1,118 @@
+package io.x402.dashboard.common.sketch;
+
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to the distinct-count sketch table (x402_distinct_sketch).
+ *
+ * Each row holds the sketch of one metric for one day and partition. Nodes merge what they
+ * captured into the stored sketch under a row lock, so several nodes can feed the same day.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "x402.dashboard.distinct", name = "enabled", havingValue = "true")
+public class X402DistinctSketchRepository {
+
+    /**
+     * Stored in place of a null partition, so the key can be unique.
+     */
+    static final String NONE = "";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final X402EventIdGenerator idGenerator;
+
+    public X402DistinctSketchRepository(JdbcTemplate jdbcTemplate, X402EventIdGenerator idGenerator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Merge sketches into the stored ones for their key. Must run in a transaction.
+     */
+    public void merge(List<Delta> deltas) {
+        for (Delta delta : deltas) {
+            String partition = delta.partition != null ? delta.partition : NONE;
+            List<X402HyperLogLog> stored = jdbcTemplate.query("""
+                    SELECT sketch FROM x402_distinct_sketch
+                    WHERE bucket_start = ? AND metric = ? AND partition_key = ?
+                    FOR UPDATE
+                    """, (rs, i) -> X402HyperLogLog.fromBytes(rs.getBytes(1)),
+                    delta.bucketStart, delta.metric.name(), partition);
+            if (stored.isEmpty()) {
+                jdbcTemplate.update("""
+                        INSERT INTO x402_distinct_sketch (id, bucket_start, metric, partition_key, sketch)
+                        VALUES (?, ?, ?, ?, ?)
+                        """, idGenerator.nextId(), delta.bucketStart, delta.metric.name(), partition,
+                        delta.sketch.toBytes());
+                continue;
+            }
+            X402HyperLogLog merged = X402HyperLogLog.union(
+                    List.of(stored.get(0), delta.sketch), delta.sketch.getPrecision());
+            jdbcTemplate.update("""
+                    UPDATE x402_distinct_sketch SET sketch = ?
+                    WHERE bucket_start = ? AND metric = ? AND partition_key = ?
+                    """, merged.toBytes(), delta.bucketStart, delta.metric.name(), partition);
+        }
+    }
+
+    /**
+     * Stored sketches of a metric for the days starting in [from, to), of one partition or,
+     * if {@code partition} is null, of all of them.
+     */
+    public List<Row> find(X402DistinctMetric metric, String partition, OffsetDateTime from, OffsetDateTime to) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT bucket_start, sketch FROM x402_distinct_sketch
+                WHERE metric = ? AND bucket_start >= ? AND bucket_start < ?""");
+        List<Object> args = new ArrayList<>(List.of(metric.name(), from, to));
+        if (partition != null) {
+            sql.append(" AND partition_key = ?");
+            args.add(partition);
+        }
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> new Row(
+                rs.getObject(1, OffsetDateTime.class), X402HyperLogLog.fromBytes(rs.getBytes(2))), args.toArray());
+    }
+
+    /**
+     * Sketch captured for one key since the last flush.
+     */
+    public static final class Delta {
+        private final OffsetDateTime bucketStart;
+        private final X402DistinctMetric metric;
+        private final String partition;
+        private final X402HyperLogLog sketch;
+
+        public Delta(OffsetDateTime bucketStart, X402DistinctMetric metric, String partition, X402HyperLogLog sketch) {
+            this.bucketStart = bucketStart;
+            this.metric = metric;
+            this.partition = partition;
+            this.sketch = sketch;
+        }
+    }
+
+    /**
+     * A stored sketch and the start of its day.
+     */
+    public static final class Row {
+        private final OffsetDateTime bucketStart;
+        private final X402HyperLogLog sketch;
+
+        public Row(OffsetDateTime bucketStart, X402HyperLogLog sketch) {
+            this.bucketStart = bucketStart;
+            this.sketch = sketch;
+        }
+
+        public OffsetDateTime getBucketStart() {
+            return bucketStart;
+        }
+
+        public X402HyperLogLog getSketch() {
+            return sketch;
+        }
+    }
+}
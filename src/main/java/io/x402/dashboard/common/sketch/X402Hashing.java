@@ -0,0 +1,37 @@
+package io.x402.dashboard.common.sketch;
+
+/**
+ * Fast, well-mixed 64-bit hashing of string keys for probabilistic structures.
+ *
+ * Stable across JVMs and releases: hashes end up in persisted sketches, so the function
+ * must never change.
+ */
+public final class X402Hashing {
+
+    private X402Hashing() {
+    }
+
+    /**
+     * 64-bit hash of a key (FNV-1a over the chars, finished with the MurmurHash3 mixer).
+     */
+    public static long hash64(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer.
+     */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
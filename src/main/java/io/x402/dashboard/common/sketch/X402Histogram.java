@@ -0,0 +1,246 @@
+package io.x402.dashboard.common.sketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Log-linear histogram of non-negative long values (HdrHistogram-style bucketing).
+ *
+ * Values below 64 get a bucket each; above, every power of two is split into 32 equal
+ * buckets, so a bucket spans at most 1/32 of its values. Percentiles are reported as the
+ * bucket midpoint, clamped to the exact minimum and maximum, and are within about 1.6% of
+ * the true value. Buckets are allocated up to the largest value seen: a histogram of values
+ * up to ten seconds in microseconds holds about 640 counters.
+ *
+ * Histograms are mergeable: the counts of the same bucket add up, so the percentiles over
+ * any set of time buckets or keys are those of their merged histogram. {@link #toBytes()}
+ * writes only nonzero buckets, delta- and varint-encoded.
+ *
+ * Not thread-safe.
+ */
+public final class X402Histogram {
+
+    private static final int VERSION = 1;
+
+    /**
+     * Buckets per power of two above {@link #LINEAR_LIMIT}.
+     */
+    private static final int SUB_BUCKETS = 32;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+
+    private long[] counts = new long[0];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Record {@code count} occurrences of {@code value}. Negative values are recorded as 0.
+     */
+    public void record(long value, long count) {
+        if (count <= 0) {
+            return;
+        }
+        long v = Math.max(0, value);
+        int index = indexOf(v);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, index + 1);
+        }
+        counts[index] += count;
+        totalCount += count;
+        sum += v * count;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Smallest recorded value, or 0 if empty.
+     */
+    public long getMin() {
+        return totalCount > 0 ? min : 0;
+    }
+
+    /**
+     * Largest recorded value, or 0 if empty.
+     */
+    public long getMax() {
+        return totalCount > 0 ? max : 0;
+    }
+
+    /**
+     * Exact mean of the recorded values, or 0 if empty.
+     */
+    public double getMean() {
+        return totalCount > 0 ? (double) sum / totalCount : 0;
+    }
+
+    /**
+     * Value below which {@code percentile} percent of the recorded values fall, or 0 if empty.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * totalCount));
+        if (rank >= totalCount) {
+            return max;
+        }
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long mid = lowerBound(i) + (upperBound(i) - lowerBound(i)) / 2;
+                return Math.max(min, Math.min(max, mid));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Add all values of {@code other} to this histogram.
+     */
+    public void merge(X402Histogram other) {
+        if (other.totalCount == 0) {
+            return;
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Merged histogram of {@code histograms}.
+     */
+    public static X402Histogram union(Collection<X402Histogram> histograms) {
+        X402Histogram union = new X402Histogram();
+        for (X402Histogram histogram : histograms) {
+            union.merge(histogram);
+        }
+        return union;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + counts.length * 2);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeVarLong(out, totalCount);
+            if (totalCount == 0) {
+                return bytes.toByteArray();
+            }
+            writeVarLong(out, sum);
+            writeVarLong(out, min);
+            writeVarLong(out, max);
+            int nonzero = 0;
+            for (long count : counts) {
+                if (count != 0) {
+                    nonzero++;
+                }
+            }
+            writeVarLong(out, nonzero);
+            int previous = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    writeVarLong(out, i - previous - 1);
+                    writeVarLong(out, counts[i]);
+                    previous = i;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static X402Histogram fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported histogram version " + version);
+            }
+            X402Histogram histogram = new X402Histogram();
+            histogram.totalCount = readVarLong(in);
+            if (histogram.totalCount == 0) {
+                return histogram;
+            }
+            histogram.sum = readVarLong(in);
+            histogram.min = readVarLong(in);
+            histogram.max = readVarLong(in);
+            histogram.counts = new long[indexOf(histogram.max) + 1];
+            long nonzero = readVarLong(in);
+            int index = -1;
+            for (long i = 0; i < nonzero; i++) {
+                index += (int) readVarLong(in) + 1;
+                histogram.counts[index] = readVarLong(in);
+            }
+            return histogram;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long lowerBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (index - shift * SUB_BUCKETS) << shift;
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long next = (long) (index - shift * SUB_BUCKETS + 1) << shift;
+        // The last bucket ends at Long.MAX_VALUE
+        return next > 0 ? next - 1 : Long.MAX_VALUE;
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            out.writeByte((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,234 @@
+package io.x402.dashboard.common.sketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+/**
+ * HyperLogLog distinct-count sketch with {@code 2^precision} one-byte registers.
+ *
+ * The relative standard error of {@link #estimate()} is about {@code 1.04 / sqrt(2^precision)}
+ * (1.6% at the default precision of 12), independent of the cardinality. Small cardinalities
+ * fall back to linear counting, so they are close to exact.
+ *
+ * Sketches are mergeable: the union of two sketches is the register-wise maximum, so the
+ * distinct count over several buckets, tenants or nodes is the estimate of their merged
+ * sketch. A sketch can be reduced to a lower precision, which lets sketches stored before a
+ * precision change still merge with newer ones.
+ *
+ * {@link #toBytes()} stores only the nonzero registers while they are few, so sketches of
+ * quiet days stay small. Not thread-safe. Null values are ignored.
+ */
+public final class X402HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private static final int VERSION = 1;
+    private static final int SPARSE = 0;
+    private static final int DENSE = 1;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public X402HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(
+                    "precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Add a value; adding it again does not change the sketch.
+     */
+    public void add(String value) {
+        if (value != null) {
+            addHash(X402Hashing.hash64(value));
+        }
+    }
+
+    /**
+     * Add a value by its 64-bit hash.
+     */
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // Guard bit: the rank never exceeds 64 - precision + 1
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Whether nothing has been added.
+     */
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimated number of distinct values added.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((long) (1023 - register) << 52);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Add all values of {@code other} to this sketch. {@code other} must have at least this
+     * sketch's precision; a higher one is reduced first.
+     */
+    public void merge(X402HyperLogLog other) {
+        if (other.precision < precision) {
+            throw new IllegalArgumentException(
+                    "Cannot merge a sketch of precision " + other.precision + " into precision " + precision);
+        }
+        X402HyperLogLog source = other.reduce(precision);
+        for (int i = 0; i < registers.length; i++) {
+            if (source.registers[i] > registers[i]) {
+                registers[i] = source.registers[i];
+            }
+        }
+    }
+
+    /**
+     * The same values in a sketch of a lower (or the same) precision.
+     */
+    public X402HyperLogLog reduce(int targetPrecision) {
+        if (targetPrecision > precision) {
+            throw new IllegalArgumentException(
+                    "Cannot raise precision from " + precision + " to " + targetPrecision);
+        }
+        if (targetPrecision == precision) {
+            return this;
+        }
+        X402HyperLogLog reduced = new X402HyperLogLog(targetPrecision);
+        int shift = precision - targetPrecision;
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] == 0) {
+                continue;
+            }
+            // The dropped index bits become the leading bits of the remaining hash
+            int dropped = i & ((1 << shift) - 1);
+            byte rank = dropped != 0
+                    ? (byte) (Integer.numberOfLeadingZeros(dropped) - (Integer.SIZE - shift) + 1)
+                    : (byte) (shift + registers[i]);
+            int index = i >>> shift;
+            if (rank > reduced.registers[index]) {
+                reduced.registers[index] = rank;
+            }
+        }
+        return reduced;
+    }
+
+    /**
+     * Union of {@code sketches}, at the lowest precision among them ({@code precision} if
+     * there are none).
+     */
+    public static X402HyperLogLog union(Collection<X402HyperLogLog> sketches, int precision) {
+        int target = precision;
+        for (X402HyperLogLog sketch : sketches) {
+            target = Math.min(target, sketch.precision);
+        }
+        X402HyperLogLog union = new X402HyperLogLog(target);
+        for (X402HyperLogLog sketch : sketches) {
+            union.merge(sketch);
+        }
+        return union;
+    }
+
+    public byte[] toBytes() {
+        int nonzero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonzero++;
+            }
+        }
+        // A sparse entry takes 3 bytes: the index (up to 18 bits) and the rank (6 bits)
+        boolean sparse = nonzero * 3 < registers.length;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(sparse ? 8 + nonzero * 3 : 3 + registers.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(precision);
+            if (sparse) {
+                out.writeByte(SPARSE);
+                out.writeInt(nonzero);
+                for (int i = 0; i < registers.length; i++) {
+                    if (registers[i] != 0) {
+                        int entry = (i << 6) | registers[i];
+                        out.writeByte(entry >>> 16);
+                        out.writeShort(entry);
+                    }
+                }
+            } else {
+                out.writeByte(DENSE);
+                out.write(registers);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static X402HyperLogLog fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported sketch version " + version);
+            }
+            X402HyperLogLog sketch = new X402HyperLogLog(in.readUnsignedByte());
+            int encoding = in.readUnsignedByte();
+            if (encoding == DENSE) {
+                in.readFully(sketch.registers);
+            } else if (encoding == SPARSE) {
+                int nonzero = in.readInt();
+                for (int i = 0; i < nonzero; i++) {
+                    int entry = (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+                    sketch.registers[entry >>> 6] = (byte) (entry & 0x3f);
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown sketch encoding " + encoding);
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
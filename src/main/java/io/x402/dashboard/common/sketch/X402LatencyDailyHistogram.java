@@ -0,0 +1,74 @@
+package io.x402.dashboard.common.sketch;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Histogram of one metric for one local day, partition and subject, merged from the hourly
+ * X402LatencyHistogram rows of that day once they are past the hourly retention.
+ *
+ * Maintained and read through X402LatencyHistogramRepository; the entity mapping only
+ * defines the table. Keys are stored as in x402_latency_histogram, with the day's start as
+ * {@code bucketStart}.
+ */
+@Entity
+@Table(name = "x402_latency_histogram_day",
+    uniqueConstraints = @UniqueConstraint(name = "uk_latency_histogram_day_key",
+        columnNames = {"bucket_start", "metric", "dimension", "partition_key", "subject"}),
+    indexes = {
+        @Index(name = "idx_latency_histogram_day_bucket", columnList = "metric, dimension, bucket_start")
+    })
+public class X402LatencyDailyHistogram {
+
+    @Id
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "metric", length = 20, nullable = false)
+    private String metric;
+
+    @Column(name = "dimension", length = 20, nullable = false)
+    private String dimension;
+
+    @Column(name = "partition_key", nullable = false)
+    private String partitionKey;
+
+    @Column(name = "subject", length = 500, nullable = false)
+    private String subject;
+
+    @Column(name = "histogram", length = 65_536, nullable = false)
+    private byte[] histogram;
+
+    public X402LatencyDailyHistogram() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public OffsetDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public byte[] getHistogram() {
+        return histogram;
+    }
+}
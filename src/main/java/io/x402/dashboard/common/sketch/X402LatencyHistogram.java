@@ -0,0 +1,75 @@
+package io.x402.dashboard.common.sketch;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Histogram of one metric (latency or settlement delay) for one hour, partition (tenant or
+ * buyer) and subject (endpoint, agent or service).
+ *
+ * Maintained by X402LatencyRecorder and read through X402LatencyHistogramRepository; the
+ * entity mapping only defines the table. The histogram is a serialized X402Histogram of
+ * microsecond values. Null partitions and subjects are stored as an empty string, so the key
+ * can be unique.
+ */
+@Entity
+@Table(name = "x402_latency_histogram",
+    uniqueConstraints = @UniqueConstraint(name = "uk_latency_histogram_key",
+        columnNames = {"bucket_start", "metric", "dimension", "partition_key", "subject"}),
+    indexes = {
+        @Index(name = "idx_latency_histogram_bucket", columnList = "metric, dimension, bucket_start")
+    })
+public class X402LatencyHistogram {
+
+    @Id
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "metric", length = 20, nullable = false)
+    private String metric;
+
+    @Column(name = "dimension", length = 20, nullable = false)
+    private String dimension;
+
+    @Column(name = "partition_key", nullable = false)
+    private String partitionKey;
+
+    @Column(name = "subject", length = 500, nullable = false)
+    private String subject;
+
+    @Column(name = "histogram", length = 65_536, nullable = false)
+    private byte[] histogram;
+
+    public X402LatencyHistogram() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public OffsetDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public byte[] getHistogram() {
+        return histogram;
+    }
+}
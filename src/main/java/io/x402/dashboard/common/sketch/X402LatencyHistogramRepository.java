@@ -0,0 +1,235 @@
+package io.x402.dashboard.common.sketch;
+
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import io.x402.dashboard.common.retention.X402RetentionPolicy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JDBC access to the latency histogram tables (x402_latency_histogram,
+ * x402_latency_histogram_day).
+ *
+ * Each row holds the histogram of one metric for one hour, partition and subject. Nodes merge
+ * what they captured into the stored histogram under a row lock, so several nodes can feed
+ * the same hour. Under a retention policy, hours past the hourly retention are merged into
+ * one row per local day, which reads count if the day starts within the range.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "x402.dashboard.latency", name = "enabled", havingValue = "true")
+public class X402LatencyHistogramRepository {
+
+    /**
+     * Stored in place of a null partition or subject, so the key can be unique.
+     */
+    static final String NONE = "";
+
+    private static final String HOURLY_TABLE = "x402_latency_histogram";
+    private static final String DAILY_TABLE = "x402_latency_histogram_day";
+
+    /**
+     * Measured duration.
+     */
+    public enum Metric {
+        /**
+         * Request latency.
+         */
+        LATENCY,
+
+        /**
+         * Time from capture to settlement ({@code settledAt - createdAt}).
+         */
+        SETTLEMENT_DELAY;
+
+        /**
+         * Parse a metric name, case-insensitive and with {@code -} for {@code _}.
+         */
+        public static Metric parse(String name) {
+            return Metric.valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * What a histogram is kept per.
+     */
+    public enum Dimension {
+        ENDPOINT,
+        AGENT,
+        SERVICE
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final X402EventIdGenerator idGenerator;
+
+    public X402LatencyHistogramRepository(JdbcTemplate jdbcTemplate, X402EventIdGenerator idGenerator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Merge histograms into the stored ones for their key. Must run in a transaction.
+     */
+    public void merge(List<Delta> deltas) {
+        for (Delta delta : deltas) {
+            merge(HOURLY_TABLE, delta);
+        }
+    }
+
+    private void merge(String table, Delta delta) {
+        String partition = delta.partition != null ? delta.partition : NONE;
+        String subject = delta.subject != null ? delta.subject : NONE;
+        List<X402Histogram> stored = jdbcTemplate.query("SELECT histogram FROM " + table + """
+                 WHERE bucket_start = ? AND metric = ? AND dimension = ? AND partition_key = ? AND subject = ?
+                FOR UPDATE
+                """, (rs, i) -> X402Histogram.fromBytes(rs.getBytes(1)),
+                delta.bucketStart, delta.metric.name(), delta.dimension.name(), partition, subject);
+        if (stored.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO " + table + """
+                     (id, bucket_start, metric, dimension, partition_key, subject, histogram)
+                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                    """, idGenerator.nextId(), delta.bucketStart, delta.metric.name(), delta.dimension.name(),
+                    partition, subject, delta.histogram.toBytes());
+            return;
+        }
+        X402Histogram merged = stored.get(0);
+        merged.merge(delta.histogram);
+        jdbcTemplate.update("UPDATE " + table + """
+                 SET histogram = ?
+                WHERE bucket_start = ? AND metric = ? AND dimension = ? AND partition_key = ? AND subject = ?
+                """, merged.toBytes(), delta.bucketStart, delta.metric.name(), delta.dimension.name(),
+                partition, subject);
+    }
+
+    /**
+     * Merge up to {@code limit} hourly histograms of hours starting before {@code before} into
+     * the histograms of their local days, and delete them. Must run in a transaction.
+     *
+     * @return number of hourly histograms compacted
+     */
+    public int compactDays(X402RetentionPolicy.Scope scope, OffsetDateTime before, int limit, ZoneId zone) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, bucket_start, metric, dimension, partition_key, subject, histogram
+                FROM x402_latency_histogram WHERE bucket_start < ?""");
+        List<Object> args = new ArrayList<>(List.of(before));
+        scope.appendTo(sql, args, "partition_key");
+        sql.append(" ORDER BY id LIMIT ? FOR UPDATE");
+        args.add(limit);
+
+        List<Object[]> ids = new ArrayList<>();
+        Map<List<Object>, Delta> days = new LinkedHashMap<>();
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+            ids.add(new Object[]{rs.getLong(1)});
+            OffsetDateTime day = rs.getObject(2, OffsetDateTime.class).atZoneSameInstant(zone)
+                    .truncatedTo(ChronoUnit.DAYS).toOffsetDateTime();
+            Delta hour = new Delta(day, Metric.valueOf(rs.getString(3)), Dimension.valueOf(rs.getString(4)),
+                    rs.getString(5), rs.getString(6), X402Histogram.fromBytes(rs.getBytes(7)));
+            Delta merged = days.putIfAbsent(
+                    List.of(day, hour.metric, hour.dimension, hour.partition, hour.subject), hour);
+            if (merged != null) {
+                merged.histogram.merge(hour.histogram);
+            }
+        }, args.toArray());
+        for (Delta day : days.values()) {
+            merge(DAILY_TABLE, day);
+        }
+        if (!ids.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM x402_latency_histogram WHERE id = ?", ids);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Delete up to {@code limit} daily histograms of days starting before {@code before}.
+     *
+     * @return number of daily histograms deleted
+     */
+    public int deleteDays(X402RetentionPolicy.Scope scope, OffsetDateTime before, int limit) {
+        StringBuilder ids = new StringBuilder("SELECT id FROM x402_latency_histogram_day WHERE bucket_start < ?");
+        List<Object> args = new ArrayList<>(List.of(before));
+        scope.appendTo(ids, args, "partition_key");
+        ids.append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.update("DELETE FROM x402_latency_histogram_day WHERE id IN (" + ids + ")", args.toArray());
+    }
+
+    /**
+     * Stored histograms of a metric and dimension for the hours and days starting in
+     * [from, to), of one partition and subject or, where those are null, of all of them.
+     */
+    public List<Row> find(
+            Metric metric, Dimension dimension, String partition, String subject,
+            OffsetDateTime from, OffsetDateTime to) {
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        for (String table : List.of(HOURLY_TABLE, DAILY_TABLE)) {
+            sql.append(sql.length() > 0 ? " UNION ALL " : "").append("SELECT subject, histogram FROM ").append(table)
+                    .append(" WHERE metric = ? AND dimension = ? AND bucket_start >= ? AND bucket_start < ?");
+            args.addAll(List.of(metric.name(), dimension.name(), from, to));
+            if (partition != null) {
+                sql.append(" AND partition_key = ?");
+                args.add(partition);
+            }
+            if (subject != null) {
+                sql.append(" AND subject = ?");
+                args.add(subject);
+            }
+        }
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> {
+            String stored = rs.getString(1);
+            return new Row(NONE.equals(stored) ? null : stored, X402Histogram.fromBytes(rs.getBytes(2)));
+        }, args.toArray());
+    }
+
+    /**
+     * Histogram captured for one key since the last flush.
+     */
+    public static final class Delta {
+        private final OffsetDateTime bucketStart;
+        private final Metric metric;
+        private final Dimension dimension;
+        private final String partition;
+        private final String subject;
+        private final X402Histogram histogram;
+
+        public Delta(OffsetDateTime bucketStart, Metric metric, Dimension dimension, String partition,
+                     String subject, X402Histogram histogram) {
+            this.bucketStart = bucketStart;
+            this.metric = metric;
+            this.dimension = dimension;
+            this.partition = partition;
+            this.subject = subject;
+            this.histogram = histogram;
+        }
+    }
+
+    /**
+     * A stored histogram and its subject.
+     */
+    public static final class Row {
+        private final String subject;
+        private final X402Histogram histogram;
+
+        public Row(String subject, X402Histogram histogram) {
+            this.subject = subject;
+            this.histogram = histogram;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public X402Histogram getHistogram() {
+            return histogram;
+        }
+    }
+}
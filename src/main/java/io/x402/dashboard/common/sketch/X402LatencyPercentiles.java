@@ -0,0 +1,105 @@
+package io.x402.dashboard.common.sketch;
+
+/**
+ * DTO for latency or settlement delay percentiles, in milliseconds with microsecond
+ * resolution. {@code subject} is the endpoint, agent or service, or null for all of them.
+ */
+public class X402LatencyPercentiles {
+    private String subject;
+    private long count;
+    private double minMs;
+    private double meanMs;
+    private double p50Ms;
+    private double p90Ms;
+    private double p99Ms;
+    private double p999Ms;
+    private double maxMs;
+
+    public X402LatencyPercentiles() {
+    }
+
+    public X402LatencyPercentiles(String subject, long count, double minMs, double meanMs,
+                                  double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs) {
+        this.subject = subject;
+        this.count = count;
+        this.minMs = minMs;
+        this.meanMs = meanMs;
+        this.p50Ms = p50Ms;
+        this.p90Ms = p90Ms;
+        this.p99Ms = p99Ms;
+        this.p999Ms = p999Ms;
+        this.maxMs = maxMs;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMinMs() {
+        return minMs;
+    }
+
+    public void setMinMs(double minMs) {
+        this.minMs = minMs;
+    }
+
+    public double getMeanMs() {
+        return meanMs;
+    }
+
+    public void setMeanMs(double meanMs) {
+        this.meanMs = meanMs;
+    }
+
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    public void setP50Ms(double p50Ms) {
+        this.p50Ms = p50Ms;
+    }
+
+    public double getP90Ms() {
+        return p90Ms;
+    }
+
+    public void setP90Ms(double p90Ms) {
+        this.p90Ms = p90Ms;
+    }
+
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    public void setP99Ms(double p99Ms) {
+        this.p99Ms = p99Ms;
+    }
+
+    public double getP999Ms() {
+        return p999Ms;
+    }
+
+    public void setP999Ms(double p999Ms) {
+        this.p999Ms = p999Ms;
+    }
+
+    public double getMaxMs() {
+        return maxMs;
+    }
+
+    public void setMaxMs(double maxMs) {
+        this.maxMs = maxMs;
+    }
+}
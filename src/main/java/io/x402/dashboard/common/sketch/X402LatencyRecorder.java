@@ -0,0 +1,268 @@
+package io.x402.dashboard.common.sketch;
+
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Dimension;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Metric;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Latency and settlement delay percentiles from hourly mergeable histograms.
+ *
+ * Capture listeners on the seller and buyer side record each event's latency and settlement
+ * delay, in microseconds, into X402Histogram instances per hour, partition (tenant or buyer)
+ * and subject (endpoint, agent or service). Every {@code flush-interval} the histograms are
+ * merged into x402_latency_histogram and started afresh.
+ *
+ * Queries merge the stored histograms of the requested hours, so percentiles over any range
+ * never scan raw events and are within about 1.6% of the exact value. Ranges are widened to
+ * whole hours, and only events captured while the histograms were enabled are included.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.latency", name = "enabled", havingValue = "true")
+public class X402LatencyRecorder implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(X402LatencyRecorder.class);
+
+    private final X402LatencyHistogramRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final X402DashboardProperties.Latency settings;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Updates hold the read lock, so a flush can swap the map without losing one in flight
+    private final ReadWriteLock histogramsLock = new ReentrantReadWriteLock();
+    private ConcurrentHashMap<Key, X402Histogram> histograms = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public X402LatencyRecorder(
+            X402LatencyHistogramRepository repository,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties properties) {
+        this(repository, transactionManager, properties.getLatency());
+    }
+
+    public X402LatencyRecorder(
+            X402LatencyHistogramRepository repository,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties.Latency settings) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = settings;
+    }
+
+    /**
+     * Record {@code count} occurrences of a duration in the hour of {@code time}.
+     */
+    public void record(
+            Metric metric, Dimension dimension, String partition, String subject,
+            OffsetDateTime time, long micros, long count) {
+        Key key = new Key(hourStart(time != null ? time : OffsetDateTime.now()), metric, dimension, partition, subject);
+        Lock lock = histogramsLock.readLock();
+        lock.lock();
+        try {
+            X402Histogram histogram = histograms.computeIfAbsent(key, k -> new X402Histogram());
+            synchronized (histogram) {
+                histogram.record(micros, count);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Merge the histograms captured since the last flush into the stored ones. If the write
+     * fails, they are kept for the next flush.
+     */
+    public synchronized void flush() {
+        Map<Key, X402Histogram> drained;
+        Lock lock = histogramsLock.writeLock();
+        lock.lock();
+        try {
+            drained = histograms;
+            histograms = new ConcurrentHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        List<X402LatencyHistogramRepository.Delta> deltas = new ArrayList<>(drained.size());
+        drained.forEach((key, histogram) -> deltas.add(new X402LatencyHistogramRepository.Delta(
+                key.hourStart, key.metric, key.dimension, key.partition, key.subject, histogram)));
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.merge(deltas));
+        } catch (RuntimeException e) {
+            lock = histogramsLock.readLock();
+            lock.lock();
+            try {
+                drained.forEach((key, histogram) -> histograms.merge(key, histogram, (current, failed) -> {
+                    synchronized (current) {
+                        current.merge(failed);
+                    }
+                    return current;
+                }));
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Percentiles over the hours overlapping [from, to), for one subject or, if
+     * {@code subject} is null, all subjects of the dimension. A null partition covers all
+     * partitions.
+     */
+    public X402LatencyPercentiles percentiles(
+            Metric metric, Dimension dimension, String partition, String subject,
+            OffsetDateTime from, OffsetDateTime to) {
+        List<X402Histogram> found = new ArrayList<>();
+        for (X402LatencyHistogramRepository.Row row : repository.find(
+                metric, dimension, partition, subject, hourStart(from), to)) {
+            found.add(row.getHistogram());
+        }
+        return toPercentiles(subject, X402Histogram.union(found));
+    }
+
+    /**
+     * Percentiles per subject over the hours overlapping [from, to), busiest subjects first.
+     */
+    public List<X402LatencyPercentiles> breakdown(
+            Metric metric, Dimension dimension, String partition,
+            OffsetDateTime from, OffsetDateTime to, Integer limit) {
+        Map<String, X402Histogram> bySubject = new HashMap<>();
+        for (X402LatencyHistogramRepository.Row row : repository.find(
+                metric, dimension, partition, null, hourStart(from), to)) {
+            bySubject.computeIfAbsent(row.getSubject(), s -> new X402Histogram()).merge(row.getHistogram());
+        }
+        return bySubject.entrySet().stream()
+                .map(e -> toPercentiles(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(X402LatencyPercentiles::getCount).reversed())
+                .limit(limit != null && limit > 0 ? limit : settings.getDefaultLimit())
+                .toList();
+    }
+
+    private static X402LatencyPercentiles toPercentiles(String subject, X402Histogram histogram) {
+        return new X402LatencyPercentiles(subject, histogram.getTotalCount(),
+                millis(histogram.getMin()), histogram.getMean() / 1000.0,
+                millis(histogram.valueAtPercentile(50)), millis(histogram.valueAtPercentile(90)),
+                millis(histogram.valueAtPercentile(99)), millis(histogram.valueAtPercentile(99.9)),
+                millis(histogram.getMax()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private OffsetDateTime hourStart(OffsetDateTime time) {
+        return time.atZoneSameInstant(zone).truncatedTo(ChronoUnit.HOURS).toOffsetDateTime();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "x402-latency");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = settings.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Latency histogram flush failed, retrying in {}", settings.getFlushInterval(), e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Final latency histogram flush failed", e);
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private static final class Key {
+        private final OffsetDateTime hourStart;
+        private final Metric metric;
+        private final Dimension dimension;
+        private final String partition;
+        private final String subject;
+        private final int hash;
+
+        Key(OffsetDateTime hourStart, Metric metric, Dimension dimension, String partition, String subject) {
+            this.hourStart = hourStart;
+            this.metric = metric;
+            this.dimension = dimension;
+            this.partition = partition;
+            this.subject = subject;
+            this.hash = Objects.hash(hourStart, metric, dimension, partition, subject);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return hash == other.hash
+                    && metric == other.metric
+                    && dimension == other.dimension
+                    && hourStart.equals(other.hourStart)
+                    && Objects.equals(partition, other.partition)
+                    && Objects.equals(subject, other.subject);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package io.x402.dashboard.common.sketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving heavy-hitter summary of weighted keys, in at most {@code capacity} counters.
+ *
+ * Each tracked key has a count that never underestimates its true weight, and an error: the
+ * true weight lies in {@code [count - error, count]}. Errors are at most
+ * {@code total / capacity}, so every key heavier than that is tracked. A key that is not
+ * tracked weighs at most {@link #getFloor()}.
+ *
+ * Summaries are mergeable: {@link #merge} adds the summaries of disjoint streams (for
+ * example consecutive time buckets) into one with the same guarantees over the combined
+ * total. Counters are kept in an indexed min-heap, so an update costs O(log capacity).
+ *
+ * Not thread-safe. Null keys are allowed and counted like any other key.
+ */
+public final class X402SpaceSaving {
+
+    private static final int VERSION = 1;
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+    private long total;
+
+    /**
+     * Upper bound on the weight of any untracked key before the summary filled up; nonzero
+     * only for merged summaries.
+     */
+    private long floor;
+
+    public X402SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    /**
+     * Add {@code weight} to a key.
+     */
+    public void add(String key, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        total += weight;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.index);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter(key, floor + weight, floor);
+            counters.put(key, counter);
+            counter.index = size;
+            heap[size++] = counter;
+            siftUp(counter.index);
+            return;
+        }
+        // Evict the smallest counter: the new key may have been counted there all along
+        Counter min = heap[0];
+        counters.remove(min.key);
+        min.key = key;
+        min.error = min.count;
+        min.count += weight;
+        counters.put(key, min);
+        siftDown(0);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of tracked keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sum of all weights added.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Upper bound on the weight of a key that is not tracked.
+     */
+    public long getFloor() {
+        return size == capacity ? Math.max(floor, heap[0].count) : floor;
+    }
+
+    /**
+     * Upper bound on the weight of a key.
+     */
+    public long estimate(String key) {
+        Counter counter = counters.get(key);
+        return counter != null ? counter.count : getFloor();
+    }
+
+    /**
+     * How much {@link #estimate} may exceed the key's true weight.
+     */
+    public long error(String key) {
+        Counter counter = counters.get(key);
+        return counter != null ? counter.error : getFloor();
+    }
+
+    /**
+     * The {@code k} heaviest tracked keys, heaviest first.
+     */
+    public List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(heap[i].key, heap[i].count, heap[i].error));
+        }
+        entries.sort(Comparator.comparingLong(Entry::getCount).reversed()
+                .thenComparingLong(Entry::getError));
+        return entries.size() > k ? new ArrayList<>(entries.subList(0, k)) : entries;
+    }
+
+    /**
+     * Summary of the union of the streams summarized by {@code summaries}, keeping the
+     * {@code capacity} heaviest keys.
+     */
+    public static X402SpaceSaving merge(Collection<X402SpaceSaving> summaries, int capacity) {
+        Set<String> keys = new HashSet<>();
+        long total = 0;
+        long floor = 0;
+        for (X402SpaceSaving summary : summaries) {
+            keys.addAll(summary.counters.keySet());
+            total += summary.total;
+            floor += summary.getFloor();
+        }
+        List<Entry> entries = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            long count = 0;
+            long error = 0;
+            for (X402SpaceSaving summary : summaries) {
+                count += summary.estimate(key);
+                error += summary.error(key);
+            }
+            entries.add(new Entry(key, count, error));
+        }
+        entries.sort(Comparator.comparingLong(Entry::getCount).reversed());
+
+        X402SpaceSaving merged = new X402SpaceSaving(capacity);
+        merged.total = total;
+        // A key untracked everywhere weighs at most the sum of the floors, which is also at
+        // most the count of every merged key, so the merged minimum covers dropped keys too
+        merged.floor = floor;
+        for (int i = 0; i < Math.min(capacity, entries.size()); i++) {
+            Entry entry = entries.get(i);
+            merged.put(new Counter(entry.key, entry.count, entry.error));
+        }
+        return merged;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + size * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(capacity);
+            out.writeLong(total);
+            out.writeLong(floor);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                Counter counter = heap[i];
+                out.writeBoolean(counter.key != null);
+                if (counter.key != null) {
+                    out.writeUTF(counter.key);
+                }
+                out.writeLong(counter.count);
+                out.writeLong(counter.error);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static X402SpaceSaving fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported summary version " + version);
+            }
+            X402SpaceSaving summary = new X402SpaceSaving(in.readInt());
+            summary.total = in.readLong();
+            summary.floor = in.readLong();
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String key = in.readBoolean() ? in.readUTF() : null;
+                summary.put(new Counter(key, in.readLong(), in.readLong()));
+            }
+            return summary;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void put(Counter counter) {
+        counters.put(counter.key, counter);
+        counter.index = size;
+        heap[size++] = counter;
+        siftUp(counter.index);
+    }
+
+    private void siftUp(int i) {
+        Counter counter = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            move(heap[parent], i);
+            i = parent;
+        }
+        move(counter, i);
+    }
+
+    private void siftDown(int i) {
+        Counter counter = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            move(heap[child], i);
+            i = child;
+        }
+        move(counter, i);
+    }
+
+    private void move(Counter counter, int i) {
+        heap[i] = counter;
+        counter.index = i;
+    }
+
+    /**
+     * A tracked key: its weight lies in {@code [count - error, count]}.
+     */
+    public static final class Entry {
+        private final String key;
+        private final long count;
+        private final long error;
+
+        public Entry(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+
+    private static final class Counter {
+        private String key;
+        private long count;
+        private long error;
+        private int index;
+
+        Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.x402.dashboard.common.web;
+
+import io.x402.dashboard.common.ingest.X402NonBlockingSink;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.logging.X402UsageLogger;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * WebClient filter for automatic logging of outgoing HTTP requests; the reactive counterpart
+ * of X402ClientLoggingInterceptor, capturing the same fields.
+ *
+ * Latency is measured up to the response status and headers. The event is built on the
+ * calling thread and handed to an X402NonBlockingSink, which logs it on its own thread, so
+ * the exchange never waits for the database or the write-behind queue.
+ *
+ * Usage:
+ * <pre>
+ * {@code
+ * @Bean
+ * public WebClient webClient(WebClient.Builder builder, X402ClientLoggingFilter filter) {
+ *     return builder.filter(filter).build();
+ * }
+ * }
+ * </pre>
+ */
+public class X402ClientLoggingFilter implements ExchangeFilterFunction {
+
+    private final X402UsageLogger logger;
+    private final X402NonBlockingSink<X402UsageEvent> sink;
+    private final X402DashboardProperties properties;
+    private final X402EndpointTemplates endpointTemplates;
+
+    public X402ClientLoggingFilter(
+            X402UsageLogger logger,
+            X402NonBlockingSink<X402UsageEvent> sink,
+            X402DashboardProperties properties) {
+        this.logger = logger;
+        this.sink = sink;
+        this.properties = properties;
+        this.endpointTemplates = new X402EndpointTemplates(properties.getEndpoint());
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            return next.exchange(request)
+                    .doOnSuccess(response -> logRequest(request,
+                            response != null
+                                    ? X402PaymentHeaders.usageStatus(response.statusCode().value())
+                                    : X402UsageStatus.UNKNOWN_ERROR,
+                            startTime))
+                    .doOnError(e -> logRequest(request, X402UsageStatus.UNKNOWN_ERROR, startTime));
+        });
+    }
+
+    private void logRequest(ClientRequest request, X402UsageStatus status, long startTime) {
+        URI uri = request.url();
+        sink.offer(X402PaymentHeaders.apply(request.headers(), logger.builder())
+                .tenantId(properties.getDefaultTenantId())
+                .method(request.method().name())
+                .endpoint(endpointTemplates.endpoint(uri))
+                .rawPath(endpointTemplates.rawPath(uri.getRawPath(), uri.getRawQuery()))
+                .status(status)
+                .latencyNanos(System.nanoTime() - startTime)
+                .build());
+    }
+}
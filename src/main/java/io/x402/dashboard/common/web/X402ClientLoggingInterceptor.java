@@ -9,12 +9,13 @@ import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 
 import java.io.IOException;
+import java.net.URI;
 
 /**
  * RestTemplate/RestClient interceptor for automatic logging of outgoing HTTP requests.
  *
  * This interceptor captures:
- * - HTTP method and URI
+ * - HTTP method and URI (templated and without query string, see X402EndpointTemplates)
  * - Request/response latency
  * - HTTP status code
  * - X-402-* headers (agentId, network, asset, amount, txHash)
@@ -35,10 +36,12 @@ public class X402ClientLoggingInterceptor implements ClientHttpRequestIntercepto
 
     private final X402UsageLogger logger;
     private final X402DashboardProperties properties;
+    private final X402EndpointTemplates endpointTemplates;
 
     public X402ClientLoggingInterceptor(X402UsageLogger logger, X402DashboardProperties properties) {
         this.logger = logger;
         this.properties = properties;
+        this.endpointTemplates = new X402EndpointTemplates(properties.getEndpoint());
     }
 
     @Override
@@ -47,7 +50,7 @@ public class X402ClientLoggingInterceptor implements ClientHttpRequestIntercepto
             byte[] body,
             ClientHttpRequestExecution execution) throws IOException {
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         ClientHttpResponse response = null;
         X402UsageStatus status = X402UsageStatus.UNKNOWN_ERROR;
 
@@ -56,7 +59,7 @@ public class X402ClientLoggingInterceptor implements ClientHttpRequestIntercepto
             response = execution.execute(request, body);
 
             // Map HTTP status to X402UsageStatus
-            status = mapHttpStatusToUsageStatus(response.getRawStatusCode());
+            status = X402PaymentHeaders.usageStatus(response.getRawStatusCode());
 
             return response;
         } catch (IOException e) {
@@ -65,56 +68,22 @@ public class X402ClientLoggingInterceptor implements ClientHttpRequestIntercepto
             throw e;
         } finally {
             // Calculate latency
-            long latency = System.currentTimeMillis() - startTime;
+            long latencyNanos = System.nanoTime() - startTime;
 
             // Log the request
-            logRequest(request, status, latency);
+            logRequest(request, status, latencyNanos);
         }
     }
 
-    private void logRequest(HttpRequest request, X402UsageStatus status, long latency) {
-        String method = request.getMethod().name();
-        String endpoint = request.getURI().toString();
-
-        // Extract X-402-* headers
-        String agentId = request.getHeaders().getFirst("X-402-Agent-Id");
-        String network = request.getHeaders().getFirst("X-402-Network");
-        String asset = request.getHeaders().getFirst("X-402-Asset");
-        String amountStr = request.getHeaders().getFirst("X-402-Amount");
-        String txHash = request.getHeaders().getFirst("X-402-TxHash");
-        String billingKey = request.getHeaders().getFirst("X-402-Billing-Key");
-
-        Long amountAtomic = null;
-        if (amountStr != null && !amountStr.isEmpty()) {
-            try {
-                amountAtomic = Long.parseLong(amountStr);
-            } catch (NumberFormatException e) {
-                // Ignore invalid amount
-            }
-        }
-
-        logger.builder()
+    private void logRequest(HttpRequest request, X402UsageStatus status, long latencyNanos) {
+        URI uri = request.getURI();
+        X402PaymentHeaders.apply(request.getHeaders(), logger.builder())
                 .tenantId(properties.getDefaultTenantId())
-                .agentId(agentId)
-                .method(method)
-                .endpoint(endpoint)
-                .billingKey(billingKey)
-                .network(network)
-                .asset(asset)
-                .amountAtomic(amountAtomic)
-                .txHash(txHash)
+                .method(request.getMethod().name())
+                .endpoint(endpointTemplates.endpoint(uri))
+                .rawPath(endpointTemplates.rawPath(uri.getRawPath(), uri.getRawQuery()))
                 .status(status)
-                .latencyMs(latency)
+                .latencyNanos(latencyNanos)
                 .log();
     }
-
-    private X402UsageStatus mapHttpStatusToUsageStatus(int httpStatus) {
-        if (httpStatus == 402) {
-            return X402UsageStatus.PAYMENT_REQUIRED;
-        } else if (httpStatus >= 200 && httpStatus < 300) {
-            return X402UsageStatus.SUCCESS;
-        } else {
-            return X402UsageStatus.UNKNOWN_ERROR;
-        }
-    }
 }
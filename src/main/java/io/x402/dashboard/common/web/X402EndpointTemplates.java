@@ -0,0 +1,86 @@
+package io.x402.dashboard.common.web;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Maps captured request paths to the endpoint value stored on usage events.
+ *
+ * Paths are matched against the configured templates ({@code x402.dashboard.endpoint.templates},
+ * e.g. {@code /api/v1/items/{id}}) and recorded under the first matching template, so that
+ * aggregates by endpoint group by route rather than by every distinct ID in the path.
+ * Unmatched paths are recorded as-is, without their query string unless
+ * {@code strip-query=false}.
+ */
+public class X402EndpointTemplates {
+
+    /**
+     * Longest raw path stored; longer values are truncated.
+     */
+    public static final int MAX_RAW_PATH_LENGTH = 2048;
+
+    private final List<PathPattern> templates;
+    private final boolean stripQuery;
+    private final boolean captureRawPath;
+
+    public X402EndpointTemplates(X402DashboardProperties.Endpoint settings) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        this.templates = settings.getTemplates().stream()
+                .map(template -> parser.parse(parser.initFullPathPattern(template)))
+                .toList();
+        this.stripQuery = settings.isStripQuery();
+        this.captureRawPath = settings.isCaptureRawPath();
+    }
+
+    /**
+     * Endpoint for a path (without scheme or host) and optional query string.
+     */
+    public String endpoint(String path, String query) {
+        String template = match(path);
+        if (template != null) {
+            return template;
+        }
+        return stripQuery || query == null || query.isEmpty() ? path : path + "?" + query;
+    }
+
+    /**
+     * Endpoint for an absolute URI; the scheme and authority are kept and only the path is
+     * templated.
+     */
+    public String endpoint(URI uri) {
+        if (uri.getRawAuthority() == null) {
+            return endpoint(uri.getRawPath(), uri.getRawQuery());
+        }
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        return uri.getScheme() + "://" + uri.getRawAuthority() + endpoint(path, uri.getRawQuery());
+    }
+
+    /**
+     * Raw path to store alongside the endpoint, or null when raw path capture is disabled.
+     */
+    public String rawPath(String path, String query) {
+        if (!captureRawPath) {
+            return null;
+        }
+        String raw = query == null || query.isEmpty() ? path : path + "?" + query;
+        return raw.length() > MAX_RAW_PATH_LENGTH ? raw.substring(0, MAX_RAW_PATH_LENGTH) : raw;
+    }
+
+    private String match(String path) {
+        if (templates.isEmpty() || path == null) {
+            return null;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        for (PathPattern template : templates) {
+            if (template.matches(container)) {
+                return template.getPatternString();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,85 @@
+package io.x402.dashboard.common.web;
+
+import io.x402.dashboard.common.ingest.X402DedupStats;
+import io.x402.dashboard.common.ingest.X402IngestDeduplicator;
+import io.x402.dashboard.common.ingest.X402IngestSampler;
+import io.x402.dashboard.common.ingest.X402IngestStats;
+import io.x402.dashboard.common.ingest.X402NonBlockingSink;
+import io.x402.dashboard.common.ingest.X402SamplingStats;
+import io.x402.dashboard.common.ingest.X402WalStats;
+import io.x402.dashboard.common.ingest.X402WriteAheadLog;
+import io.x402.dashboard.common.ingest.X402WriteBehindQueue;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * REST API for asynchronous ingest counters (queue depth, written, failed and dropped events)
+ * of the write-behind queues and the reactive capture sink. Returns an empty list while neither
+ * is enabled, and 404 for sampling or duplicate filter counters while those are disabled. Write-ahead log counters
+ * are listed separately.
+ */
+@RestController
+@RequestMapping("${x402.dashboard.api-path:/x402-dashboard/api}/ingest")
+public class X402IngestRestController {
+
+    private final ObjectProvider<X402WriteBehindQueue<?>> queues;
+    private final ObjectProvider<X402NonBlockingSink<?>> sinks;
+    private final ObjectProvider<X402IngestSampler> sampler;
+    private final ObjectProvider<X402WriteAheadLog<?>> writeAheadLogs;
+    private final ObjectProvider<X402IngestDeduplicator> deduplicator;
+
+    public X402IngestRestController(
+            ObjectProvider<X402WriteBehindQueue<?>> queues,
+            ObjectProvider<X402NonBlockingSink<?>> sinks,
+            ObjectProvider<X402IngestSampler> sampler,
+            ObjectProvider<X402WriteAheadLog<?>> writeAheadLogs,
+            ObjectProvider<X402IngestDeduplicator> deduplicator) {
+        this.queues = queues;
+        this.sinks = sinks;
+        this.sampler = sampler;
+        this.writeAheadLogs = writeAheadLogs;
+        this.deduplicator = deduplicator;
+    }
+
+    /**
+     * Get counters for every write-behind queue and sink.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<X402IngestStats>> getStats() {
+        return ResponseEntity.ok(Stream.concat(
+                queues.orderedStream().map(X402WriteBehindQueue::getStats),
+                sinks.orderedStream().map(X402NonBlockingSink::getStats)).toList());
+    }
+
+    /**
+     * Get usage event sampling counters.
+     */
+    @GetMapping("/sampling")
+    public ResponseEntity<X402SamplingStats> getSamplingStats() {
+        X402IngestSampler current = sampler.getIfAvailable();
+        return current != null ? ResponseEntity.ok(current.getStats()) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Get counters for every write-ahead log (empty while the log is disabled).
+     */
+    @GetMapping("/wal")
+    public ResponseEntity<List<X402WalStats>> getWalStats() {
+        return ResponseEntity.ok(writeAheadLogs.orderedStream().map(X402WriteAheadLog::getStats).toList());
+    }
+
+    /**
+     * Get duplicate settlement filter counters.
+     */
+    @GetMapping("/dedup")
+    public ResponseEntity<X402DedupStats> getDedupStats() {
+        X402IngestDeduplicator current = deduplicator.getIfAvailable();
+        return current != null ? ResponseEntity.ok(current.getStats()) : ResponseEntity.notFound().build();
+    }
+}
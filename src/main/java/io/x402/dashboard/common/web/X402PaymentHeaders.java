@@ -0,0 +1,47 @@
+package io.x402.dashboard.common.web;
+
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.logging.X402UsageLogger;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * X-402-* request headers and status mapping shared by the outgoing request interceptors
+ * (RestTemplate/RestClient and WebClient).
+ */
+final class X402PaymentHeaders {
+
+    private X402PaymentHeaders() {
+    }
+
+    /**
+     * Copy agentId, network, asset, amount, txHash and billing key from the headers.
+     */
+    static X402UsageLogger.X402UsageEventBuilder apply(HttpHeaders headers, X402UsageLogger.X402UsageEventBuilder builder) {
+        String amountStr = headers.getFirst("X-402-Amount");
+        Long amountAtomic = null;
+        if (amountStr != null && !amountStr.isEmpty()) {
+            try {
+                amountAtomic = Long.parseLong(amountStr);
+            } catch (NumberFormatException e) {
+                // Ignore invalid amount
+            }
+        }
+        return builder
+                .agentId(headers.getFirst("X-402-Agent-Id"))
+                .billingKey(headers.getFirst("X-402-Billing-Key"))
+                .network(headers.getFirst("X-402-Network"))
+                .asset(headers.getFirst("X-402-Asset"))
+                .amountAtomic(amountAtomic)
+                .txHash(headers.getFirst("X-402-TxHash"));
+    }
+
+    static X402UsageStatus usageStatus(int httpStatus) {
+        if (httpStatus == 402) {
+            return X402UsageStatus.PAYMENT_REQUIRED;
+        } else if (httpStatus >= 200 && httpStatus < 300) {
+            return X402UsageStatus.SUCCESS;
+        } else {
+            return X402UsageStatus.UNKNOWN_ERROR;
+        }
+    }
+}
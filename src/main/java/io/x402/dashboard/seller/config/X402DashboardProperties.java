@@ -1,6 +1,18 @@
 package io.x402.dashboard.seller.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import io.x402.dashboard.common.ingest.X402OverflowPolicy;
+import io.x402.dashboard.common.ingest.X402WriterType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Configuration properties for x402 Dashboard.
@@ -58,6 +70,76 @@ public class X402DashboardProperties {
      */
     private String securityPassword = "admin";
 
+    /**
+     * Largest page size the events API returns; larger requested sizes are capped
+     */
+    private int maxPageSize = 200;
+
+    /**
+     * Event ingest settings shared by the seller and buyer loggers
+     */
+    private final Ingest ingest = new Ingest();
+
+    /**
+     * Pre-aggregated rollup settings for the seller dashboard
+     */
+    private final Rollup rollup = new Rollup();
+
+    /**
+     * In-memory live aggregation settings
+     */
+    private final Live live = new Live();
+
+    /**
+     * How captured request paths are turned into endpoint values
+     */
+    private final Endpoint endpoint = new Endpoint();
+
+    /**
+     * Local write-ahead log settings
+     */
+    private final Wal wal = new Wal();
+
+    /**
+     * Payment funnel correlation settings
+     */
+    private final Funnel funnel = new Funnel();
+
+    /**
+     * Heavy-hitter sketch settings for top agents and endpoints
+     */
+    private final Sketch sketch = new Sketch();
+
+    /**
+     * Distinct-count sketch settings for unique agents, client IPs, services and buyers
+     */
+    private final Distinct distinct = new Distinct();
+
+    /**
+     * Latency and settlement delay histogram settings
+     */
+    private final Latency latency = new Latency();
+
+    /**
+     * Aggregate result cache settings
+     */
+    private final Cache cache = new Cache();
+
+    /**
+     * Day archive settings for the event tables
+     */
+    private final Archive archive = new Archive();
+
+    /**
+     * Raw event retention and downsampling settings
+     */
+    private final Retention retention = new Retention();
+
+    /**
+     * Dictionary encoding settings for repeated event dimensions
+     */
+    private final Dictionary dictionary = new Dictionary();
+
     // Getters and Setters
     public String getPath() {
         return path;
@@ -138,4 +220,1232 @@ public class X402DashboardProperties {
     public void setSecurityPassword(String securityPassword) {
         this.securityPassword = securityPassword;
     }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    public Ingest getIngest() {
+        return ingest;
+    }
+
+    public Rollup getRollup() {
+        return rollup;
+    }
+
+    public Live getLive() {
+        return live;
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public Wal getWal() {
+        return wal;
+    }
+
+    public Funnel getFunnel() {
+        return funnel;
+    }
+
+    public Sketch getSketch() {
+        return sketch;
+    }
+
+    public Distinct getDistinct() {
+        return distinct;
+    }
+
+    public Latency getLatency() {
+        return latency;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public Retention getRetention() {
+        return retention;
+    }
+
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Event ingest settings (x402.dashboard.ingest.*).
+     */
+    public static class Ingest {
+
+        /**
+         * Persist events asynchronously through a bounded write-behind queue
+         * instead of inserting them on the request thread
+         */
+        private boolean asyncEnabled = false;
+
+        /**
+         * How events are inserted: JPA (repository save) or JDBC (multi-row batch inserts)
+         */
+        private X402WriterType writer = X402WriterType.JPA;
+
+        /**
+         * Maximum number of events buffered in memory per event type
+         * (rounded up to a power of two)
+         */
+        private int queueCapacity = 16_384;
+
+        /**
+         * What to do with an event when the buffer is full. SUCCESS events are never dropped
+         */
+        private X402OverflowPolicy overflowPolicy = X402OverflowPolicy.BLOCK;
+
+        /**
+         * Statuses that the PRIORITY policy sheds first
+         */
+        private Set<String> sheddableStatuses = new LinkedHashSet<>(Set.of("PAYMENT_REQUIRED"));
+
+        /**
+         * Buffer fill ratio (0-1) above which the PRIORITY policy sheds sheddable statuses
+         */
+        private double shedThreshold = 0.75;
+
+        /**
+         * Maximum number of events written in one batch
+         */
+        private int flushSize = 500;
+
+        /**
+         * Maximum time an event waits in the queue before its batch is written
+         */
+        private Duration flushInterval = Duration.ofMillis(500);
+
+        /**
+         * Maximum time to wait for queued events to be written on shutdown
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Number of times a batch that failed to persist is retried before its events are
+         * counted as failed; 0 disables retries
+         */
+        private int maxRetries = 5;
+
+        /**
+         * Wait before the first retry of a failed batch, doubled with each further attempt
+         */
+        private Duration retryBackoff = Duration.ofMillis(200);
+
+        /**
+         * Node ID (0-1023) embedded in generated event IDs. Must be unique per application
+         * node writing to the same database; -1 derives one from the host name and process ID,
+         * which can collide with another node's and is only safe for a single node
+         */
+        private int nodeId = -1;
+
+        /**
+         * Capture-time sampling of usage events
+         */
+        private final Sampling sampling = new Sampling();
+
+        /**
+         * Idempotent ingest of settlements keyed on the transaction hash
+         */
+        private final Dedup dedup = new Dedup();
+
+        public boolean isAsyncEnabled() {
+            return asyncEnabled;
+        }
+
+        public void setAsyncEnabled(boolean asyncEnabled) {
+            this.asyncEnabled = asyncEnabled;
+        }
+
+        public X402WriterType getWriter() {
+            return writer;
+        }
+
+        public void setWriter(X402WriterType writer) {
+            this.writer = writer;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public X402OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(X402OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public Set<String> getSheddableStatuses() {
+            return sheddableStatuses;
+        }
+
+        public void setSheddableStatuses(Set<String> sheddableStatuses) {
+            this.sheddableStatuses = sheddableStatuses;
+        }
+
+        public double getShedThreshold() {
+            return shedThreshold;
+        }
+
+        public void setShedThreshold(double shedThreshold) {
+            this.shedThreshold = shedThreshold;
+        }
+
+        public int getFlushSize() {
+            return flushSize;
+        }
+
+        public void setFlushSize(int flushSize) {
+            this.flushSize = flushSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public int getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(int nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public Sampling getSampling() {
+            return sampling;
+        }
+
+        public Dedup getDedup() {
+            return dedup;
+        }
+    }
+
+    /**
+     * Duplicate settlement filter settings (x402.dashboard.ingest.dedup.*).
+     */
+    public static class Dedup {
+
+        /**
+         * Reject events whose settlement was already recorded: SUCCESS usage events by txHash,
+         * spending events by paymentId (or txHash for SUCCESS events without one)
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long keys stay in the in-memory filter. Older duplicates are still rejected by the
+         * unique index, at the cost of a failed insert
+         */
+        private Duration window = Duration.ofHours(24);
+
+        /**
+         * Expected number of keys per window, used to size the filter
+         */
+        private int expectedKeys = 1_000_000;
+
+        /**
+         * Target false positive rate of the filter; each false positive costs one index lookup
+         */
+        private double falsePositiveRate = 0.01;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getExpectedKeys() {
+            return expectedKeys;
+        }
+
+        public void setExpectedKeys(int expectedKeys) {
+            this.expectedKeys = expectedKeys;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+
+    /**
+     * Usage event sampling settings (x402.dashboard.ingest.sampling.*).
+     */
+    public static class Sampling {
+
+        /**
+         * Sample non-SUCCESS usage events at capture time. Kept events carry a weight that
+         * aggregates multiply by, so counts and sums stay unbiased
+         */
+        private boolean enabled = false;
+
+        /**
+         * Sampling rules; the first rule matching an event's endpoint and status sets its rate
+         */
+        private List<Rule> rules = new ArrayList<>();
+
+        /**
+         * Target for stored usage events per second (0 disables adaptive sampling). Above it,
+         * non-SUCCESS events are sampled further, on top of the rules
+         */
+        private int maxEventsPerSecond = 0;
+
+        /**
+         * Largest weight an event can get, which bounds how far adaptive sampling goes
+         */
+        private int maxWeight = 1_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<Rule> getRules() {
+            return rules;
+        }
+
+        public void setRules(List<Rule> rules) {
+            this.rules = rules;
+        }
+
+        public int getMaxEventsPerSecond() {
+            return maxEventsPerSecond;
+        }
+
+        public void setMaxEventsPerSecond(int maxEventsPerSecond) {
+            this.maxEventsPerSecond = maxEventsPerSecond;
+        }
+
+        public int getMaxWeight() {
+            return maxWeight;
+        }
+
+        public void setMaxWeight(int maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        /**
+         * Sample rate for the events matching an endpoint pattern and/or status.
+         */
+        public static class Rule {
+
+            /**
+             * Ant-style endpoint pattern (e.g. /api/items/**); empty matches every endpoint
+             */
+            private String endpoint;
+
+            /**
+             * Usage status (e.g. PAYMENT_REQUIRED); empty matches every non-SUCCESS status
+             */
+            private String status;
+
+            /**
+             * Fraction of matching events to keep (0-1]; rounded to 1 in N
+             */
+            private double rate = 1.0;
+
+            public String getEndpoint() {
+                return endpoint;
+            }
+
+            public void setEndpoint(String endpoint) {
+                this.endpoint = endpoint;
+            }
+
+            public String getStatus() {
+                return status;
+            }
+
+            public void setStatus(String status) {
+                this.status = status;
+            }
+
+            public double getRate() {
+                return rate;
+            }
+
+            public void setRate(double rate) {
+                this.rate = rate;
+            }
+        }
+    }
+
+    /**
+     * Usage rollup settings (x402.dashboard.rollup.*).
+     */
+    public static class Rollup {
+
+        /**
+         * Maintain minute/hour/day rollups and answer seller aggregates from them
+         */
+        private boolean enabled = false;
+
+        /**
+         * Delay between rollup job runs
+         */
+        private Duration interval = Duration.ofSeconds(5);
+
+        /**
+         * Maximum number of events folded into the rollups per transaction
+         */
+        private int batchSize = 50_000;
+
+        /**
+         * How long an insert may take to commit after its event ID was generated. Events are
+         * re-scanned for this long before the watermark moves past them; an insert committing
+         * later is left out of the rollups
+         */
+        private Duration commitLag = Duration.ofMinutes(1);
+
+        /**
+         * Aggregates fall back to the raw table while the rollups lag further behind than this
+         * (e.g. while catching up on existing data)
+         */
+        private Duration maxStaleness = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getCommitLag() {
+            return commitLag;
+        }
+
+        public void setCommitLag(Duration commitLag) {
+            this.commitLag = commitLag;
+        }
+
+        public Duration getMaxStaleness() {
+            return maxStaleness;
+        }
+
+        public void setMaxStaleness(Duration maxStaleness) {
+            this.maxStaleness = maxStaleness;
+        }
+    }
+
+    /**
+     * Live aggregation settings (x402.dashboard.live.*).
+     */
+    public static class Live {
+
+        /**
+         * Count captured events in memory and serve recent windows without querying the database
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of one-second buckets (windows up to this many seconds use second resolution)
+         */
+        private int secondBuckets = 300;
+
+        /**
+         * Number of one-minute buckets; the longest window served from memory
+         */
+        private int minuteBuckets = 60;
+
+        /**
+         * Distinct (tenant, status, agent, endpoint) keys per bucket before further agents and
+         * endpoints are counted as "(other)"
+         */
+        private int maxKeysPerBucket = 10_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSecondBuckets() {
+            return secondBuckets;
+        }
+
+        public void setSecondBuckets(int secondBuckets) {
+            this.secondBuckets = secondBuckets;
+        }
+
+        public int getMinuteBuckets() {
+            return minuteBuckets;
+        }
+
+        public void setMinuteBuckets(int minuteBuckets) {
+            this.minuteBuckets = minuteBuckets;
+        }
+
+        public int getMaxKeysPerBucket() {
+            return maxKeysPerBucket;
+        }
+
+        public void setMaxKeysPerBucket(int maxKeysPerBucket) {
+            this.maxKeysPerBucket = maxKeysPerBucket;
+        }
+    }
+
+    /**
+     * Endpoint capture settings (x402.dashboard.endpoint.*).
+     */
+    public static class Endpoint {
+
+        /**
+         * Record incoming requests under the matched handler pattern (e.g. /api/items/{id})
+         * instead of the request URI
+         */
+        private boolean useHandlerPattern = true;
+
+        /**
+         * Path templates (e.g. /api/v1/items/{id}) that outgoing request paths, and incoming
+         * paths without a matched handler pattern, are recorded under. First match wins
+         */
+        private List<String> templates = new ArrayList<>();
+
+        /**
+         * Drop the query string from recorded endpoints
+         */
+        private boolean stripQuery = true;
+
+        /**
+         * Also record the untemplated path and query string in raw_path
+         */
+        private boolean captureRawPath = false;
+
+        public boolean isUseHandlerPattern() {
+            return useHandlerPattern;
+        }
+
+        public void setUseHandlerPattern(boolean useHandlerPattern) {
+            this.useHandlerPattern = useHandlerPattern;
+        }
+
+        public List<String> getTemplates() {
+            return templates;
+        }
+
+        public void setTemplates(List<String> templates) {
+            this.templates = templates;
+        }
+
+        public boolean isStripQuery() {
+            return stripQuery;
+        }
+
+        public void setStripQuery(boolean stripQuery) {
+            this.stripQuery = stripQuery;
+        }
+
+        public boolean isCaptureRawPath() {
+            return captureRawPath;
+        }
+
+        public void setCaptureRawPath(boolean captureRawPath) {
+            this.captureRawPath = captureRawPath;
+        }
+    }
+
+    /**
+     * Write-ahead log settings (x402.dashboard.wal.*).
+     */
+    public static class Wal {
+
+        /**
+         * Append captured events to a local memory-mapped log and apply it to the database
+         * in the background. Takes precedence over the write-behind queue
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory holding the log segments and checkpoints. Must not be shared between nodes
+         */
+        private String directory = "./x402-wal";
+
+        /**
+         * Size of one log segment file. A new segment is started when a record does not fit
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Maximum number of events applied to the database per batch
+         */
+        private int batchSize = 500;
+
+        /**
+         * How long the applier waits for new records once it has caught up
+         */
+        private Duration applyInterval = Duration.ofMillis(200);
+
+        /**
+         * Statuses whose records are forced to disk before the append returns, so they also
+         * survive an operating system crash. Other records survive a JVM crash only
+         */
+        private Set<String> syncStatuses = new LinkedHashSet<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getApplyInterval() {
+            return applyInterval;
+        }
+
+        public void setApplyInterval(Duration applyInterval) {
+            this.applyInterval = applyInterval;
+        }
+
+        public Set<String> getSyncStatuses() {
+            return syncStatuses;
+        }
+
+        public void setSyncStatuses(Set<String> syncStatuses) {
+            this.syncStatuses = syncStatuses;
+        }
+    }
+
+    /**
+     * Payment funnel settings (x402.dashboard.funnel.*).
+     */
+    public static class Funnel {
+
+        /**
+         * Correlate captured 402 responses with the SUCCESS that pays for them and store
+         * hourly conversion counts and time-to-pay histograms
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long an unpaid 402 waits for its SUCCESS before it counts as abandoned
+         */
+        private Duration conversionWindow = Duration.ofMinutes(15);
+
+        /**
+         * Maximum number of (tenant, agent, endpoint) keys with an unpaid 402 held in memory.
+         * 402s for further keys are counted but not correlated
+         */
+        private int maxPending = 100_000;
+
+        /**
+         * How often the in-memory funnel counts are added to the aggregate tables
+         */
+        private Duration flushInterval = Duration.ofSeconds(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getConversionWindow() {
+            return conversionWindow;
+        }
+
+        public void setConversionWindow(Duration conversionWindow) {
+            this.conversionWindow = conversionWindow;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    /**
+     * Heavy-hitter sketch settings (x402.dashboard.sketch.*).
+     */
+    public static class Sketch {
+
+        /**
+         * Keep hourly Space-Saving summaries of agents and endpoints, and answer top agent and
+         * endpoint queries from them unless an exact answer is requested
+         */
+        private boolean enabled = false;
+
+        /**
+         * Counters per summary. Counts are overestimated by at most 1/capacity of the
+         * summarized total
+         */
+        private int capacity = 500;
+
+        /**
+         * How often the summaries captured in memory are merged into x402_usage_sketch
+         */
+        private Duration flushInterval = Duration.ofMinutes(1);
+
+        /**
+         * Number of agents or endpoints returned when the query sets no limit
+         */
+        private int defaultLimit = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        public void setDefaultLimit(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+    }
+
+    /**
+     * Distinct-count sketch settings (x402.dashboard.distinct.*).
+     */
+    public static class Distinct {
+
+        /**
+         * Keep daily HyperLogLog sketches of agents, paying agents and client IPs per tenant,
+         * and of services and buyers on the buyer side, for the unique-count overview fields
+         * and daily series
+         */
+        private boolean enabled = false;
+
+        /**
+         * Sketch precision (4-18): 2^precision registers of one byte, with a relative error
+         * of about 1.04 / sqrt(2^precision)
+         */
+        private int precision = 12;
+
+        /**
+         * How often the sketches captured in memory are merged into x402_distinct_sketch
+         */
+        private Duration flushInterval = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPrecision() {
+            return precision;
+        }
+
+        public void setPrecision(int precision) {
+            this.precision = precision;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    /**
+     * Latency histogram settings (x402.dashboard.latency.*).
+     */
+    public static class Latency {
+
+        /**
+         * Keep hourly latency and settlement delay histograms per endpoint and agent, and per
+         * service on the buyer side, for the /latency percentile endpoints
+         */
+        private boolean enabled = false;
+
+        /**
+         * How often the histograms captured in memory are merged into x402_latency_histogram
+         */
+        private Duration flushInterval = Duration.ofMinutes(1);
+
+        /**
+         * Number of endpoints, agents or services returned by a breakdown without a limit
+         */
+        private int defaultLimit = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        public void setDefaultLimit(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+    }
+
+    /**
+     * Aggregate result cache settings (x402.dashboard.cache.*).
+     */
+    public static class Cache {
+
+        /**
+         * Cache seller and buyer aggregates per closed day, and recompute only the open rest
+         * of a range
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of cached day results; the least recently used are evicted first
+         */
+        private int maxEntries = 10_000;
+
+        /**
+         * How long results for the open end of a range (usually today) are reused
+         */
+        private Duration openTtl = Duration.ofSeconds(10);
+
+        /**
+         * How long after its end a day is first cached, and how long it stays uncached after a
+         * late write. Should exceed the write delay of the write-behind queue or WAL
+         */
+        private Duration settleTime = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getOpenTtl() {
+            return openTtl;
+        }
+
+        public void setOpenTtl(Duration openTtl) {
+            this.openTtl = openTtl;
+        }
+
+        public Duration getSettleTime() {
+            return settleTime;
+        }
+
+        public void setSettleTime(Duration settleTime) {
+            this.settleTime = settleTime;
+        }
+    }
+
+    /**
+     * Day archive of the event tables (x402.dashboard.archive.*).
+     */
+    public static class Archive {
+
+        /**
+         * Copy closed days of the event tables into one archive table per day in the
+         * background and delete them from the event tables, read only the archived days a
+         * query covers, and drop whole archived days past the retention
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long after its end a day is moved out of the event tables. Must not be shorter
+         * than the duplicate filter window, as settlement keys are unique only within the
+         * event tables
+         */
+        private Duration archiveAfter = Duration.ofDays(2);
+
+        /**
+         * Delay between archive job runs
+         */
+        private Duration interval = Duration.ofMinutes(1);
+
+        /**
+         * Maximum number of events moved per transaction
+         */
+        private int batchSize = 10_000;
+
+        /**
+         * Pause between two moved batches, leaving the database to concurrent writes
+         */
+        private Duration batchPause = Duration.ofMillis(50);
+
+        /**
+         * How long after its end an archived day is dropped; unset keeps every day
+         */
+        private Duration retention;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getArchiveAfter() {
+            return archiveAfter;
+        }
+
+        public void setArchiveAfter(Duration archiveAfter) {
+            this.archiveAfter = archiveAfter;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getBatchPause() {
+            return batchPause;
+        }
+
+        public void setBatchPause(Duration batchPause) {
+            this.batchPause = batchPause;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    /**
+     * Raw event retention and downsampling settings (x402.dashboard.retention.*).
+     */
+    public static class Retention {
+
+        /**
+         * Delete raw usage and spending events past the raw retention once they are rolled
+         * up, and thin the rollups out as they age. Requires x402.dashboard.rollup.enabled
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long raw events, and minute rollups, are kept
+         */
+        private Duration raw = Duration.ofDays(14);
+
+        /**
+         * How long hourly rollups and latency histograms are kept; older ranges read daily ones
+         */
+        private Duration hourly = Duration.ofDays(365);
+
+        /**
+         * How long daily rollups and latency histograms are kept; unset keeps them forever
+         */
+        private Duration daily;
+
+        /**
+         * Delay between retention job runs
+         */
+        private Duration interval = Duration.ofHours(1);
+
+        /**
+         * Maximum number of rows deleted or compacted per transaction
+         */
+        private int batchSize = 5_000;
+
+        /**
+         * Pause between two batches, leaving the database to concurrent writes
+         */
+        private Duration batchPause = Duration.ofMillis(100);
+
+        /**
+         * Retention per tenant (seller side) or buyer (buyer side), by ID. Unset tiers fall
+         * back to the settings above
+         */
+        private Map<String, Tiers> tenants = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getRaw() {
+            return raw;
+        }
+
+        public void setRaw(Duration raw) {
+            this.raw = raw;
+        }
+
+        public Duration getHourly() {
+            return hourly;
+        }
+
+        public void setHourly(Duration hourly) {
+            this.hourly = hourly;
+        }
+
+        public Duration getDaily() {
+            return daily;
+        }
+
+        public void setDaily(Duration daily) {
+            this.daily = daily;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getBatchPause() {
+            return batchPause;
+        }
+
+        public void setBatchPause(Duration batchPause) {
+            this.batchPause = batchPause;
+        }
+
+        public Map<String, Tiers> getTenants() {
+            return tenants;
+        }
+
+        public void setTenants(Map<String, Tiers> tenants) {
+            this.tenants = tenants;
+        }
+
+        /**
+         * Retention of one tenant or buyer.
+         */
+        public static class Tiers {
+
+            /**
+             * How long raw events and minute rollups are kept
+             */
+            private Duration raw;
+
+            /**
+             * How long hourly rollups and latency histograms are kept
+             */
+            private Duration hourly;
+
+            /**
+             * How long daily rollups and latency histograms are kept
+             */
+            private Duration daily;
+
+            public Duration getRaw() {
+                return raw;
+            }
+
+            public void setRaw(Duration raw) {
+                this.raw = raw;
+            }
+
+            public Duration getHourly() {
+                return hourly;
+            }
+
+            public void setHourly(Duration hourly) {
+                this.hourly = hourly;
+            }
+
+            public Duration getDaily() {
+                return daily;
+            }
+
+            public void setDaily(Duration daily) {
+                this.daily = daily;
+            }
+        }
+    }
+
+    /**
+     * Dictionary encoding of repeated event dimensions (x402.dashboard.dictionary.*).
+     */
+    public static class Dictionary {
+
+        /**
+         * Maximum number of values cached in memory per node; the least recently used are
+         * evicted first and read back from x402_dictionary when seen again
+         */
+        private int cacheSize = 100_000;
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+    }
 }
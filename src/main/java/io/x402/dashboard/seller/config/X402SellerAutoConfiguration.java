@@ -1,14 +1,33 @@
 package io.x402.dashboard.seller.config;
 
+import io.x402.dashboard.common.archive.X402EventArchive;
+import io.x402.dashboard.common.cache.X402AggregateCache;
 import io.x402.dashboard.common.config.X402CommonAutoConfiguration;
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import io.x402.dashboard.common.ingest.X402CaptureListener;
+import io.x402.dashboard.common.ingest.X402IngestDeduplicator;
+import io.x402.dashboard.common.ingest.X402IngestSampler;
+import io.x402.dashboard.common.ingest.X402WriteAheadLog;
+import io.x402.dashboard.common.ingest.X402WriteBehindQueue;
+import io.x402.dashboard.common.retention.X402RetentionPolicy;
+import io.x402.dashboard.common.sketch.X402DistinctCounter;
+import io.x402.dashboard.common.sketch.X402LatencyRecorder;
 import io.x402.dashboard.common.web.X402ClientLoggingInterceptor;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
 import io.x402.dashboard.seller.logging.X402UsageLogger;
+import io.x402.dashboard.seller.repository.X402UsageEventExporter;
+import io.x402.dashboard.seller.repository.X402UsageEventJdbcWriter;
 import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.repository.X402UsageRollupRepository;
+import io.x402.dashboard.seller.service.X402HeavyHitterAggregator;
+import io.x402.dashboard.seller.service.X402LiveUsageAggregator;
+import io.x402.dashboard.seller.service.X402PaymentFunnelCorrelator;
 import io.x402.dashboard.seller.service.X402UsageAggregationService;
 import io.x402.dashboard.seller.service.X402UsageEventService;
 import io.x402.dashboard.seller.web.X402DashboardController;
 import io.x402.dashboard.seller.web.X402DashboardRestController;
 import io.x402.dashboard.seller.web.X402UsageLoggingInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -23,6 +42,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -32,16 +52,19 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  *
  * This configuration manages Seller Dashboard components.
  * Common components (AOP, interceptors) are provided by X402CommonAutoConfiguration.
+ * The Spring MVC wiring is only applied in servlet applications, so the logger and services
+ * are also available to X402ReactiveAutoConfiguration in WebFlux ones.
  */
 @Configuration
 @ConditionalOnWebApplication
-@ConditionalOnClass(name = "org.springframework.web.servlet.DispatcherServlet")
 @EnableConfigurationProperties(X402DashboardProperties.class)
 @EnableJpaRepositories(basePackages = {"io.x402.dashboard.seller.repository", "io.x402.dashboard.buyer.repository"})
-@EntityScan(basePackages = {"io.x402.dashboard.seller.domain", "io.x402.dashboard.buyer.domain"})
+@EntityScan(basePackages = {
+        "io.x402.dashboard.seller.domain", "io.x402.dashboard.buyer.domain", "io.x402.dashboard.common.dictionary",
+        "io.x402.dashboard.common.sketch", "io.x402.dashboard.common.ingest"})
 @ComponentScan(basePackages = {"io.x402.dashboard.seller", "io.x402.dashboard.buyer"})
 @Import(X402CommonAutoConfiguration.class)
-public class X402SellerAutoConfiguration implements WebMvcConfigurer {
+public class X402SellerAutoConfiguration {
 
     private final X402DashboardProperties properties;
 
@@ -49,44 +72,70 @@ public class X402SellerAutoConfiguration implements WebMvcConfigurer {
         this.properties = properties;
     }
 
+    /**
+     * Shared time-ordered ID generator, bound to the configured node ID.
+     */
     @Bean
     @ConditionalOnMissingBean
-    public X402UsageEventService x402UsageEventService(X402UsageEventRepository repo) {
-        return new X402UsageEventService(repo);
+    public X402EventIdGenerator x402EventIdGenerator() {
+        return X402EventIdGenerator.configureShared(properties.getIngest().getNodeId());
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public X402UsageAggregationService x402UsageAggregationService(X402UsageEventRepository repo) {
-        return new X402UsageAggregationService(repo);
+    public X402UsageEventService x402UsageEventService(
+            X402UsageEventRepository repo,
+            ObjectProvider<X402UsageEventJdbcWriter> jdbcWriter,
+            ObjectProvider<X402UsageRollupRepository> rollupRepository,
+            ObjectProvider<X402UsageEventExporter> exporter,
+            ObjectProvider<X402AggregateCache> cache,
+            ObjectProvider<X402EventArchive> archive,
+            PlatformTransactionManager transactionManager) {
+        return new X402UsageEventService(repo, jdbcWriter, rollupRepository, exporter, cache, archive, transactionManager);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public X402DashboardController x402DashboardController(
-            X402UsageAggregationService aggregationService,
-            X402UsageEventService eventService) {
-        return new X402DashboardController(aggregationService, eventService, properties);
+    public X402UsageAggregationService x402UsageAggregationService(
+            X402UsageEventRepository repo,
+            ObjectProvider<X402UsageRollupRepository> rollupRepository,
+            ObjectProvider<X402AggregateCache> cache,
+            ObjectProvider<X402RetentionPolicy> retention) {
+        return new X402UsageAggregationService(repo, rollupRepository, cache, retention, properties);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public X402DashboardRestController x402DashboardRestController(
+    public X402DashboardController x402DashboardController(
             X402UsageAggregationService aggregationService,
             X402UsageEventService eventService) {
-        return new X402DashboardRestController(aggregationService, eventService, properties);
+        return new X402DashboardController(aggregationService, eventService, properties);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public X402UsageLogger x402UsageLogger(X402UsageEventService eventService) {
-        return new X402UsageLogger(eventService);
+    public X402DashboardRestController x402DashboardRestController(
+            X402UsageAggregationService aggregationService,
+            X402UsageEventService eventService,
+            ObjectProvider<X402LiveUsageAggregator> liveAggregator,
+            ObjectProvider<X402PaymentFunnelCorrelator> funnelCorrelator,
+            ObjectProvider<X402HeavyHitterAggregator> heavyHitters,
+            ObjectProvider<X402DistinctCounter> distinctCounter,
+            ObjectProvider<X402LatencyRecorder> latencyRecorder) {
+        return new X402DashboardRestController(aggregationService, eventService, properties,
+                liveAggregator, funnelCorrelator, heavyHitters, distinctCounter, latencyRecorder);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public X402UsageLoggingInterceptor x402UsageLoggingInterceptor(X402UsageLogger logger) {
-        return new X402UsageLoggingInterceptor(logger, properties);
+    public X402UsageLogger x402UsageLogger(
+            X402UsageEventService eventService,
+            ObjectProvider<X402WriteBehindQueue<X402UsageEvent>> writeBehindQueue,
+            ObjectProvider<X402WriteAheadLog<X402UsageEvent>> writeAheadLog,
+            ObjectProvider<X402CaptureListener<X402UsageEvent>> captureListeners,
+            ObjectProvider<X402IngestSampler> sampler,
+            ObjectProvider<X402IngestDeduplicator> deduplicator) {
+        return new X402UsageLogger(eventService, writeBehindQueue, writeAheadLog, captureListeners, sampler, deduplicator);
     }
 
     @Bean
@@ -106,23 +155,44 @@ public class X402SellerAutoConfiguration implements WebMvcConfigurer {
         return restTemplate -> restTemplate.getInterceptors().add(interceptor);
     }
 
-    @Override
-    public void addInterceptors(InterceptorRegistry registry) {
-        if (properties.isEnableAutoLogging()) {
-            registry.addInterceptor(x402UsageLoggingInterceptor(null))
-                    .addPathPatterns("/**")
-                    .excludePathPatterns(
-                            properties.getPath() + "/**",
-                            properties.getApiPath() + "/**",
-                            "/h2-console/**",
-                            "/error"
-                    );
+    /**
+     * Spring MVC wiring: the usage logging interceptor and the dashboard's static resources.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(name = "org.springframework.web.servlet.DispatcherServlet")
+    static class WebMvcConfiguration implements WebMvcConfigurer {
+
+        private final X402DashboardProperties properties;
+
+        WebMvcConfiguration(X402DashboardProperties properties) {
+            this.properties = properties;
         }
-    }
 
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler(properties.getPath() + "/static/**")
-                .addResourceLocations("classpath:/static/x402-dashboard/");
+        @Bean
+        @ConditionalOnMissingBean
+        public X402UsageLoggingInterceptor x402UsageLoggingInterceptor(X402UsageLogger logger) {
+            return new X402UsageLoggingInterceptor(logger, properties);
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            if (properties.isEnableAutoLogging()) {
+                registry.addInterceptor(x402UsageLoggingInterceptor(null))
+                        .addPathPatterns("/**")
+                        .excludePathPatterns(
+                                properties.getPath() + "/**",
+                                properties.getApiPath() + "/**",
+                                "/h2-console/**",
+                                "/error"
+                        );
+            }
+        }
+
+        @Override
+        public void addResourceHandlers(ResourceHandlerRegistry registry) {
+            registry.addResourceHandler(properties.getPath() + "/static/**")
+                    .addResourceLocations("classpath:/static/x402-dashboard/");
+        }
     }
 }
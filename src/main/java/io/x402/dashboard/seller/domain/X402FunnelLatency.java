@@ -0,0 +1,72 @@
+package io.x402.dashboard.seller.domain;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * One bucket of the time-to-pay histogram for an hour and (tenant, agent, endpoint).
+ *
+ * {@code upperMs} is the bucket's inclusive upper bound, {@link Long#MAX_VALUE} for the
+ * overflow bucket. Maintained alongside X402FunnelRollup, with the same key columns.
+ */
+@Entity
+@Table(name = "x402_funnel_latency",
+    uniqueConstraints = @UniqueConstraint(name = "uk_funnel_latency_key",
+        columnNames = {"bucket_start", "tenant_id", "agent_id", "endpoint", "upper_ms"}),
+    indexes = {
+        @Index(name = "idx_funnel_latency_bucket", columnList = "bucket_start")
+    })
+public class X402FunnelLatency {
+
+    @Id
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "agent_id", nullable = false)
+    private int agentId;
+
+    @Column(name = "endpoint", nullable = false)
+    private int endpoint;
+
+    @Column(name = "upper_ms", nullable = false)
+    private long upperMs;
+
+    @Column(name = "pay_count", nullable = false)
+    private long payCount;
+
+    public X402FunnelLatency() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public OffsetDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public int getAgentId() {
+        return agentId;
+    }
+
+    public int getEndpoint() {
+        return endpoint;
+    }
+
+    public long getUpperMs() {
+        return upperMs;
+    }
+
+    public long getPayCount() {
+        return payCount;
+    }
+}
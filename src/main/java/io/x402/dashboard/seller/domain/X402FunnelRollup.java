@@ -0,0 +1,117 @@
+package io.x402.dashboard.seller.domain;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Payment funnel counts for one hour and (tenant, agent, endpoint).
+ *
+ * Maintained by X402PaymentFunnelCorrelator and read through X402FunnelRepository; the
+ * entity mapping only defines the table. Agent and endpoint are X402Dictionary IDs, with the
+ * same null placeholders as X402UsageRollup. 402s are counted in the hour they were issued,
+ * conversions in the hour of the paying SUCCESS.
+ */
+@Entity
+@Table(name = "x402_funnel_rollup",
+    uniqueConstraints = @UniqueConstraint(name = "uk_funnel_rollup_key",
+        columnNames = {"bucket_start", "tenant_id", "agent_id", "endpoint"}),
+    indexes = {
+        @Index(name = "idx_funnel_rollup_bucket", columnList = "bucket_start")
+    })
+public class X402FunnelRollup {
+
+    @Id
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "agent_id", nullable = false)
+    private int agentId;
+
+    @Column(name = "endpoint", nullable = false)
+    private int endpoint;
+
+    /**
+     * 402 responses issued, weighted by sample weight.
+     */
+    @Column(name = "required_count", nullable = false)
+    private long requiredCount;
+
+    /**
+     * 402 responses followed by a SUCCESS within the conversion window.
+     */
+    @Column(name = "converted_count", nullable = false)
+    private long convertedCount;
+
+    /**
+     * 402 responses not paid within the conversion window.
+     */
+    @Column(name = "abandoned_count", nullable = false)
+    private long abandonedCount;
+
+    /**
+     * SUCCESS events with no unpaid 402 to match.
+     */
+    @Column(name = "unmatched_count", nullable = false)
+    private long unmatchedCount;
+
+    /**
+     * Paying SUCCESS events; the number of time-to-pay samples.
+     */
+    @Column(name = "paid_count", nullable = false)
+    private long paidCount;
+
+    @Column(name = "time_to_pay_sum_ms", nullable = false)
+    private long timeToPaySumMs;
+
+    public X402FunnelRollup() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public OffsetDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public int getAgentId() {
+        return agentId;
+    }
+
+    public int getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRequiredCount() {
+        return requiredCount;
+    }
+
+    public long getConvertedCount() {
+        return convertedCount;
+    }
+
+    public long getAbandonedCount() {
+        return abandonedCount;
+    }
+
+    public long getUnmatchedCount() {
+        return unmatchedCount;
+    }
+
+    public long getPaidCount() {
+        return paidCount;
+    }
+
+    public long getTimeToPaySumMs() {
+        return timeToPaySumMs;
+    }
+}
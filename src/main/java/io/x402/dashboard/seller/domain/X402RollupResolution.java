@@ -0,0 +1,44 @@
+package io.x402.dashboard.seller.domain;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket width of a usage rollup row.
+ *
+ * Buckets are aligned in the dashboard's time zone, so a DAY bucket is a local calendar day.
+ */
+public enum X402RollupResolution {
+
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    X402RollupResolution(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Start of the bucket containing {@code time}.
+     */
+    public ZonedDateTime floor(ZonedDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * Start of the first bucket at or after {@code time}.
+     */
+    public ZonedDateTime ceil(ZonedDateTime time) {
+        ZonedDateTime floor = floor(time);
+        return floor.equals(time) ? floor : next(floor);
+    }
+
+    /**
+     * Start of the bucket following the one starting at {@code bucketStart}.
+     */
+    public ZonedDateTime next(ZonedDateTime bucketStart) {
+        return unit == ChronoUnit.DAYS ? bucketStart.plusDays(1).truncatedTo(unit) : bucketStart.plus(1, unit);
+    }
+}
@@ -0,0 +1,41 @@
+package io.x402.dashboard.seller.domain;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Progress of a rollup job.
+ *
+ * {@code watermarkId} is the ID up to which every event is folded into the rollups. Event IDs
+ * are time-ordered by insertion, so an event with a higher ID has to be read raw, whatever its
+ * {@code createdAt}, unless it is listed in x402_usage_rollup_applied.
+ */
+@Entity
+@Table(name = "x402_rollup_state")
+public class X402RollupState {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "watermark_id", nullable = false)
+    private long watermarkId;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    public X402RollupState() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getWatermarkId() {
+        return watermarkId;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,22 +1,33 @@
 package io.x402.dashboard.seller.domain;
 
+import io.x402.dashboard.common.dictionary.X402DictionaryConverter;
+import io.x402.dashboard.common.id.X402TimeOrderedId;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.OffsetDateTime;
 
 /**
  * Entity representing an x402 usage event.
+ *
+ * Agent, method, endpoint, network, asset and user agent are stored as int X402Dictionary IDs
+ * and converted back to strings on load.
  */
 @Entity
 @Table(name = "x402_usage_event", indexes = {
     @Index(name = "idx_tenant_created", columnList = "tenant_id, created_at"),
+    @Index(name = "idx_created", columnList = "created_at"),
     @Index(name = "idx_agent_created", columnList = "agent_id, created_at"),
     @Index(name = "idx_endpoint_created", columnList = "endpoint, created_at"),
-    @Index(name = "idx_status", columnList = "status")
+    @Index(name = "idx_status", columnList = "status"),
+    @Index(name = "uk_usage_dedup_key", columnList = "dedup_key", unique = true)
 })
 public class X402UsageEvent {
 
+    /**
+     * Time-ordered ID assigned by the application (see X402EventIdGenerator).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @X402TimeOrderedId
     private Long id;
 
     /**
@@ -28,6 +39,7 @@ public class X402UsageEvent {
     /**
      * AI agent identifier.
      */
+    @Convert(converter = X402DictionaryConverter.Agent.class)
     @Column(name = "agent_id")
     private String agentId;
 
@@ -41,15 +53,24 @@ public class X402UsageEvent {
     /**
      * HTTP method (GET, POST, etc.)
      */
-    @Column(name = "method", length = 10)
+    @Convert(converter = X402DictionaryConverter.Method.class)
+    @Column(name = "method")
     private String method;
 
     /**
-     * Request endpoint/URI.
+     * Request endpoint: the matched route or URI template (e.g. /api/items/{id}) when known,
+     * otherwise the request path.
      */
+    @Convert(converter = X402DictionaryConverter.Endpoint.class)
     @Column(name = "endpoint")
     private String endpoint;
 
+    /**
+     * Untemplated request path and query string, when raw path capture is enabled.
+     */
+    @Column(name = "raw_path", length = 2048)
+    private String rawPath;
+
     /**
      * Billing key for logical billing unit.
      */
@@ -59,12 +80,14 @@ public class X402UsageEvent {
     /**
      * Blockchain network in CAIP-2 format (e.g., eip155:84532 for Base Sepolia, eip155:1 for Ethereum Mainnet).
      */
+    @Convert(converter = X402DictionaryConverter.Network.class)
     @Column(name = "network")
     private String network;
 
     /**
      * Asset type (e.g., USDC, ETH).
      */
+    @Convert(converter = X402DictionaryConverter.Asset.class)
     @Column(name = "asset")
     private String asset;
 
@@ -96,7 +119,8 @@ public class X402UsageEvent {
     /**
      * User-Agent header value.
      */
-    @Column(name = "user_agent", length = 500)
+    @Convert(converter = X402DictionaryConverter.UserAgent.class)
+    @Column(name = "user_agent")
     private String userAgent;
 
     /**
@@ -105,6 +129,22 @@ public class X402UsageEvent {
     @Column(name = "latency_ms")
     private Long latencyMs;
 
+    /**
+     * Request latency in microseconds, when it was measured with sub-millisecond precision.
+     * latencyMs is then this value in whole milliseconds.
+     */
+    @Column(name = "latency_us")
+    private Long latencyMicros;
+
+    /**
+     * Number of captured events this event stands for: 1 unless it was kept by ingest
+     * sampling at a rate of 1 in N, in which case N. Counts and sums multiply by it. The column
+     * default lets schema updates add it to tables that already hold events.
+     */
+    @ColumnDefault("1")
+    @Column(name = "sample_weight", nullable = false)
+    private int sampleWeight = 1;
+
     /**
      * Event creation timestamp.
      */
@@ -123,6 +163,13 @@ public class X402UsageEvent {
     @Column(name = "metadata", columnDefinition = "TEXT")
     private String metadata;
 
+    /**
+     * Settlement key (the transaction hash) of a SUCCESS event, set only while duplicate
+     * filtering is enabled. Unique, so a settlement is stored once.
+     */
+    @Column(name = "dedup_key", length = 128)
+    private String dedupKey;
+
     // Constructors
     public X402UsageEvent() {
     }
@@ -176,6 +223,14 @@ public class X402UsageEvent {
         this.endpoint = endpoint;
     }
 
+    public String getRawPath() {
+        return rawPath;
+    }
+
+    public void setRawPath(String rawPath) {
+        this.rawPath = rawPath;
+    }
+
     public String getBillingKey() {
         return billingKey;
     }
@@ -248,6 +303,22 @@ public class X402UsageEvent {
         this.latencyMs = latencyMs;
     }
 
+    public Long getLatencyMicros() {
+        return latencyMicros;
+    }
+
+    public void setLatencyMicros(Long latencyMicros) {
+        this.latencyMicros = latencyMicros;
+    }
+
+    public int getSampleWeight() {
+        return sampleWeight;
+    }
+
+    public void setSampleWeight(int sampleWeight) {
+        this.sampleWeight = sampleWeight;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
@@ -272,6 +343,14 @@ public class X402UsageEvent {
         this.metadata = metadata;
     }
 
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    public void setDedupKey(String dedupKey) {
+        this.dedupKey = dedupKey;
+    }
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
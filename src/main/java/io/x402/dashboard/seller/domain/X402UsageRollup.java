@@ -0,0 +1,90 @@
+package io.x402.dashboard.seller.domain;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Pre-aggregated usage counts for one time bucket and dimension combination.
+ *
+ * Maintained by X402UsageRollupJob and read through X402UsageRollupRepository; the entity
+ * mapping only defines the table. Agent and endpoint are X402Dictionary IDs. Null tenants
+ * are stored as an empty string, and null agents and endpoints as 0, so the natural key can be
+ * unique.
+ */
+@Entity
+@Table(name = "x402_usage_rollup",
+    uniqueConstraints = @UniqueConstraint(name = "uk_rollup_key",
+        columnNames = {"resolution", "bucket_start", "tenant_id", "status", "agent_id", "endpoint"}),
+    indexes = {
+        @Index(name = "idx_rollup_bucket", columnList = "resolution, bucket_start")
+    })
+public class X402UsageRollup {
+
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", length = 10, nullable = false)
+    private X402RollupResolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 30, nullable = false)
+    private X402UsageStatus status;
+
+    @Column(name = "agent_id", nullable = false)
+    private int agentId;
+
+    @Column(name = "endpoint", nullable = false)
+    private int endpoint;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    @Column(name = "amount_sum", nullable = false)
+    private long amountSum;
+
+    public X402UsageRollup() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public X402RollupResolution getResolution() {
+        return resolution;
+    }
+
+    public OffsetDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public X402UsageStatus getStatus() {
+        return status;
+    }
+
+    public int getAgentId() {
+        return agentId;
+    }
+
+    public int getEndpoint() {
+        return endpoint;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getAmountSum() {
+        return amountSum;
+    }
+}
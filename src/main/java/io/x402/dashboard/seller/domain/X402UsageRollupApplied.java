@@ -0,0 +1,27 @@
+package io.x402.dashboard.seller.domain;
+
+import jakarta.persistence.*;
+
+/**
+ * A usage event above the rollup watermark that is already folded into the rollups.
+ *
+ * X402UsageRollupJob re-scans events for {@code commit-lag} before moving the watermark past
+ * them, so that inserts committing late are still picked up; these rows keep it from counting
+ * an event twice meanwhile. They are deleted once the watermark has passed them. The entity
+ * mapping only defines the table.
+ */
+@Entity
+@Table(name = "x402_usage_rollup_applied")
+public class X402UsageRollupApplied {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    public X402UsageRollupApplied() {
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+}
@@ -0,0 +1,76 @@
+package io.x402.dashboard.seller.domain;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Heavy-hitter summaries of one dimension (agent or endpoint) for one hour, tenant and
+ * status.
+ *
+ * Maintained by X402HeavyHitterAggregator and read through X402UsageSketchRepository; the
+ * entity mapping only defines the table. The sketches are serialized X402SpaceSaving
+ * summaries, one weighted by event count and one by amount. Null tenants are stored as an
+ * empty string, so the key can be unique.
+ */
+@Entity
+@Table(name = "x402_usage_sketch",
+    uniqueConstraints = @UniqueConstraint(name = "uk_usage_sketch_key",
+        columnNames = {"bucket_start", "tenant_id", "status", "dimension"}),
+    indexes = {
+        @Index(name = "idx_usage_sketch_bucket", columnList = "dimension, bucket_start")
+    })
+public class X402UsageSketch {
+
+    @Id
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 30, nullable = false)
+    private X402UsageStatus status;
+
+    @Column(name = "dimension", length = 20, nullable = false)
+    private String dimension;
+
+    @Column(name = "count_sketch", length = 4_194_304, nullable = false)
+    private byte[] countSketch;
+
+    @Column(name = "amount_sketch", length = 4_194_304, nullable = false)
+    private byte[] amountSketch;
+
+    public X402UsageSketch() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public OffsetDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public X402UsageStatus getStatus() {
+        return status;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public byte[] getCountSketch() {
+        return countSketch;
+    }
+
+    public byte[] getAmountSketch() {
+        return amountSketch;
+    }
+}
@@ -1,12 +1,22 @@
 package io.x402.dashboard.seller.logging;
 
+import io.x402.dashboard.common.ingest.X402CaptureListener;
+import io.x402.dashboard.common.ingest.X402IngestDeduplicator;
+import io.x402.dashboard.common.ingest.X402IngestSampler;
+import io.x402.dashboard.common.ingest.X402WriteAheadLog;
+import io.x402.dashboard.common.ingest.X402WriteBehindQueue;
 import io.x402.dashboard.seller.domain.AgentType;
 import io.x402.dashboard.seller.domain.X402UsageEvent;
 import io.x402.dashboard.seller.domain.X402UsageStatus;
 import io.x402.dashboard.seller.service.X402UsageEventService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 
 /**
  * Logger for x402 usage events.
@@ -37,14 +47,60 @@ import java.time.OffsetDateTime;
  *     );
  * }
  * </pre>
+ *
+ * When {@code x402.dashboard.ingest.async-enabled=true}, events are handed to a write-behind
+ * queue and persisted in batches by a background writer. The returned event is then not yet
+ * persisted and has no ID.
+ *
+ * When {@code x402.dashboard.wal.enabled=true}, events are appended to a local write-ahead log
+ * instead and applied to the database in the background; this takes precedence over the
+ * write-behind queue. The returned event is then not yet persisted and has no ID.
+ *
+ * Every captured event is also passed to the registered X402CaptureListener beans (such as
+ * the live aggregator) before it is queued or persisted.
+ *
+ * When {@code x402.dashboard.ingest.sampling.enabled=true}, non-SUCCESS events are sampled
+ * first: dropped events are returned unsaved and not passed to the listeners, kept events carry
+ * their sample weight.
+ *
+ * When {@code x402.dashboard.ingest.dedup.enabled=true}, a SUCCESS event whose txHash is
+ * already recorded is returned unsaved and not passed to the listeners.
  */
 @Component
 public class X402UsageLogger {
 
+    private static final Logger logger = LoggerFactory.getLogger(X402UsageLogger.class);
+
     private final X402UsageEventService eventService;
+    private final X402WriteBehindQueue<X402UsageEvent> writeBehindQueue;
+    private final X402WriteAheadLog<X402UsageEvent> writeAheadLog;
+    private final List<X402CaptureListener<X402UsageEvent>> captureListeners;
+    private final X402IngestSampler sampler;
+    private final X402IngestDeduplicator deduplicator;
 
     public X402UsageLogger(X402UsageEventService eventService) {
         this.eventService = eventService;
+        this.writeBehindQueue = null;
+        this.writeAheadLog = null;
+        this.captureListeners = List.of();
+        this.sampler = null;
+        this.deduplicator = null;
+    }
+
+    @Autowired
+    public X402UsageLogger(
+            X402UsageEventService eventService,
+            ObjectProvider<X402WriteBehindQueue<X402UsageEvent>> writeBehindQueue,
+            ObjectProvider<X402WriteAheadLog<X402UsageEvent>> writeAheadLog,
+            ObjectProvider<X402CaptureListener<X402UsageEvent>> captureListeners,
+            ObjectProvider<X402IngestSampler> sampler,
+            ObjectProvider<X402IngestDeduplicator> deduplicator) {
+        this.eventService = eventService;
+        this.writeBehindQueue = writeBehindQueue.getIfAvailable();
+        this.writeAheadLog = writeAheadLog.getIfAvailable();
+        this.captureListeners = captureListeners.orderedStream().toList();
+        this.sampler = sampler.getIfAvailable();
+        this.deduplicator = deduplicator.getIfAvailable();
     }
 
     /**
@@ -68,24 +124,8 @@ public class X402UsageLogger {
             OffsetDateTime createdAt,
             OffsetDateTime settledAt
     ) {
-        X402UsageEvent event = new X402UsageEvent();
-        event.setTenantId(tenantId);
-        event.setAgentId(agentId);
-        event.setAgentType(agentType);
-        event.setMethod(method);
-        event.setEndpoint(endpoint);
-        event.setBillingKey(billingKey);
-        event.setNetwork(network);
-        event.setAsset(asset);
-        event.setAmountAtomic(amountAtomic);
-        event.setTxHash(txHash);
-        event.setStatus(status);
-        event.setClientIp(clientIp);
-        event.setUserAgent(userAgent);
-        event.setLatencyMs(latencyMs);
-        event.setCreatedAt(createdAt != null ? createdAt : OffsetDateTime.now());
-        event.setSettledAt(settledAt);
-        return eventService.save(event);
+        return capture(newEvent(tenantId, agentId, agentType, method, endpoint, billingKey, network, asset,
+                amountAtomic, txHash, status, clientIp, userAgent, latencyMs, createdAt, settledAt));
     }
 
     /**
@@ -160,6 +200,83 @@ public class X402UsageLogger {
                 X402UsageStatus.SETTLE_FAILED, null, null, latencyMs, null, null);
     }
 
+    /**
+     * Log an event prepared with {@link X402UsageEventBuilder#build()}.
+     */
+    public X402UsageEvent log(X402UsageEvent event) {
+        return capture(event);
+    }
+
+    private X402UsageEvent capture(X402UsageEvent event) {
+        if (sampler != null) {
+            int weight = sampler.sample(event.getEndpoint(), event.getStatus() != null ? event.getStatus().name() : null);
+            if (weight == 0) {
+                return event;
+            }
+            event.setSampleWeight(weight);
+        }
+        if (deduplicator != null && !deduplicator.admit(event)) {
+            return event;
+        }
+        for (X402CaptureListener<X402UsageEvent> listener : captureListeners) {
+            try {
+                listener.onCapture(event);
+            } catch (RuntimeException e) {
+                logger.warn("Capture listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+        if (writeAheadLog != null) {
+            writeAheadLog.append(event);
+            return event;
+        }
+        if (writeBehindQueue != null) {
+            writeBehindQueue.offer(event);
+            return event;
+        }
+        if (deduplicator != null) {
+            return deduplicator.save(X402IngestDeduplicator.USAGE, event, eventService::save, X402UsageEvent::getDedupKey);
+        }
+        return eventService.save(event);
+    }
+
+    private static X402UsageEvent newEvent(
+            String tenantId,
+            String agentId,
+            AgentType agentType,
+            String method,
+            String endpoint,
+            String billingKey,
+            String network,
+            String asset,
+            Long amountAtomic,
+            String txHash,
+            X402UsageStatus status,
+            String clientIp,
+            String userAgent,
+            Long latencyMs,
+            OffsetDateTime createdAt,
+            OffsetDateTime settledAt
+    ) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setTenantId(tenantId);
+        event.setAgentId(agentId);
+        event.setAgentType(agentType);
+        event.setMethod(method);
+        event.setEndpoint(endpoint);
+        event.setBillingKey(billingKey);
+        event.setNetwork(network);
+        event.setAsset(asset);
+        event.setAmountAtomic(amountAtomic);
+        event.setTxHash(txHash);
+        event.setStatus(status);
+        event.setClientIp(clientIp);
+        event.setUserAgent(userAgent);
+        event.setLatencyMs(latencyMs);
+        event.setCreatedAt(createdAt != null ? createdAt : OffsetDateTime.now());
+        event.setSettledAt(settledAt);
+        return event;
+    }
+
     /**
      * Create a builder for more flexible event logging.
      */
@@ -177,6 +294,7 @@ public class X402UsageLogger {
         private AgentType agentType;
         private String method;
         private String endpoint;
+        private String rawPath;
         private String billingKey;
         private String network;
         private String asset;
@@ -186,6 +304,7 @@ public class X402UsageLogger {
         private String clientIp;
         private String userAgent;
         private Long latencyMs;
+        private Long latencyMicros;
         private OffsetDateTime createdAt;
         private OffsetDateTime settledAt;
 
@@ -218,6 +337,11 @@ public class X402UsageLogger {
             return this;
         }
 
+        public X402UsageEventBuilder rawPath(String rawPath) {
+            this.rawPath = rawPath;
+            return this;
+        }
+
         public X402UsageEventBuilder billingKey(String billingKey) {
             this.billingKey = billingKey;
             return this;
@@ -260,6 +384,17 @@ public class X402UsageLogger {
 
         public X402UsageEventBuilder latencyMs(Long latencyMs) {
             this.latencyMs = latencyMs;
+            this.latencyMicros = null;
+            return this;
+        }
+
+        /**
+         * Latency measured with {@link System#nanoTime()}; kept in microseconds as well as
+         * whole milliseconds.
+         */
+        public X402UsageEventBuilder latencyNanos(long latencyNanos) {
+            this.latencyMs = latencyNanos / 1_000_000;
+            this.latencyMicros = latencyNanos / 1_000;
             return this;
         }
 
@@ -273,9 +408,19 @@ public class X402UsageLogger {
             return this;
         }
 
-        public X402UsageEvent log() {
-            return logger.log(tenantId, agentId, agentType, method, endpoint, billingKey,
+        /**
+         * Build the event without logging it, e.g. to log it later on another thread.
+         */
+        public X402UsageEvent build() {
+            X402UsageEvent event = newEvent(tenantId, agentId, agentType, method, endpoint, billingKey,
                     network, asset, amountAtomic, txHash, status, clientIp, userAgent, latencyMs, createdAt, settledAt);
+            event.setRawPath(rawPath);
+            event.setLatencyMicros(latencyMicros);
+            return event;
+        }
+
+        public X402UsageEvent log() {
+            return logger.capture(build());
         }
     }
 }
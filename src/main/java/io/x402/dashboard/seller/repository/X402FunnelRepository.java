@@ -0,0 +1,230 @@
+package io.x402.dashboard.seller.repository;
+
+import io.x402.dashboard.common.dictionary.X402Dictionary;
+import io.x402.dashboard.common.dictionary.X402DictionaryKind;
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to the payment funnel tables (x402_funnel_rollup, x402_funnel_latency).
+ *
+ * Rows are only ever incremented, by X402PaymentFunnelCorrelator's periodic flush, so
+ * several nodes can add to the same hour. Agent and endpoint are stored as X402Dictionary
+ * IDs and decoded only for the result rows.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "x402.dashboard.funnel", name = "enabled", havingValue = "true")
+public class X402FunnelRepository {
+
+    /**
+     * Stored in place of a null tenant, so the key can be unique.
+     */
+    static final String NONE = "";
+
+    /**
+     * Stored in place of a null agent or endpoint ID; dictionary IDs start at 1.
+     */
+    static final int NO_ID = 0;
+
+    /**
+     * Grouping dimension of a funnel aggregation.
+     */
+    public enum Dimension {
+        AGENT("agent_id"),
+        ENDPOINT("endpoint");
+
+        private final String column;
+
+        Dimension(String column) {
+            this.column = column;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final X402EventIdGenerator idGenerator;
+    private final X402Dictionary dictionary;
+
+    public X402FunnelRepository(
+            JdbcTemplate jdbcTemplate, X402EventIdGenerator idGenerator, X402Dictionary dictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Add funnel counts to their hours. Should run in a transaction, so a failed flush adds
+     * nothing and can be retried.
+     */
+    public void add(List<Counts> counts) {
+        List<Object[]> rollupKeys = new ArrayList<>();
+        List<Object[]> rollupUpdates = new ArrayList<>();
+        List<Object[]> latencyKeys = new ArrayList<>();
+        List<Object[]> latencyUpdates = new ArrayList<>();
+        for (Counts c : counts) {
+            Object[] key = {c.bucketStart, c.tenantId != null ? c.tenantId : NONE,
+                    id(X402DictionaryKind.AGENT, c.agentId), id(X402DictionaryKind.ENDPOINT, c.endpoint)};
+            rollupKeys.add(key);
+            rollupUpdates.add(new Object[]{c.required, c.converted, c.abandoned, c.unmatched, c.paid,
+                    c.timeToPaySumMs, key[0], key[1], key[2], key[3]});
+            c.timeToPay.forEach((upperMs, count) -> {
+                latencyKeys.add(new Object[]{key[0], key[1], key[2], key[3], upperMs});
+                latencyUpdates.add(new Object[]{count, key[0], key[1], key[2], key[3], upperMs});
+            });
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate("""
+                UPDATE x402_funnel_rollup
+                SET required_count = required_count + ?, converted_count = converted_count + ?,
+                    abandoned_count = abandoned_count + ?, unmatched_count = unmatched_count + ?,
+                    paid_count = paid_count + ?, time_to_pay_sum_ms = time_to_pay_sum_ms + ?
+                WHERE bucket_start = ? AND tenant_id = ? AND agent_id = ? AND endpoint = ?
+                """, rollupUpdates);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Object[] key = rollupKeys.get(i);
+                Object[] update = rollupUpdates.get(i);
+                inserts.add(new Object[]{idGenerator.nextId(), key[0], key[1], key[2], key[3],
+                        update[0], update[1], update[2], update[3], update[4], update[5]});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO x402_funnel_rollup
+                        (id, bucket_start, tenant_id, agent_id, endpoint, required_count, converted_count,
+                         abandoned_count, unmatched_count, paid_count, time_to_pay_sum_ms)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """, inserts);
+        }
+
+        if (latencyUpdates.isEmpty()) {
+            return;
+        }
+        updated = jdbcTemplate.batchUpdate("""
+                UPDATE x402_funnel_latency
+                SET pay_count = pay_count + ?
+                WHERE bucket_start = ? AND tenant_id = ? AND agent_id = ? AND endpoint = ? AND upper_ms = ?
+                """, latencyUpdates);
+        inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Object[] key = latencyKeys.get(i);
+                inserts.add(new Object[]{idGenerator.nextId(), key[0], key[1], key[2], key[3], key[4],
+                        latencyUpdates.get(i)[0]});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO x402_funnel_latency
+                        (id, bucket_start, tenant_id, agent_id, endpoint, upper_ms, pay_count)
+                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                    """, inserts);
+        }
+    }
+
+    /**
+     * Funnel counts per agent or endpoint for the hours starting in [from, to).
+     * Returns: [key, required, converted, abandoned, unmatched, paid, timeToPaySumMs].
+     */
+    public List<Object[]> aggregate(Dimension dimension, String tenantId, OffsetDateTime from, OffsetDateTime to) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(dimension.column).append("""
+                , SUM(required_count), SUM(converted_count), SUM(abandoned_count), SUM(unmatched_count),
+                  SUM(paid_count), SUM(time_to_pay_sum_ms)
+                FROM x402_funnel_rollup
+                WHERE bucket_start >= ? AND bucket_start < ?""");
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        appendFilters(sql, args, tenantId, null, null);
+        sql.append(" GROUP BY ").append(dimension.column);
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> {
+            int id = rs.getInt(1);
+            return new Object[]{id == NO_ID ? null : dictionary.decode(id),
+                    rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7)};
+        }, args.toArray());
+    }
+
+    /**
+     * Time-to-pay histogram for the hours starting in [from, to), optionally for one agent
+     * and/or endpoint.
+     * Returns: [upperMs, count], by ascending upper bound.
+     */
+    public List<Object[]> timeToPay(
+            String tenantId, String agentId, String endpoint, OffsetDateTime from, OffsetDateTime to) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT upper_ms, SUM(pay_count)
+                FROM x402_funnel_latency
+                WHERE bucket_start >= ? AND bucket_start < ?""");
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        appendFilters(sql, args, tenantId, agentId, endpoint);
+        sql.append(" GROUP BY upper_ms ORDER BY upper_ms");
+        return jdbcTemplate.query(sql.toString(),
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getLong(2)}, args.toArray());
+    }
+
+    private static void appendFilters(
+            StringBuilder sql, List<Object> args, String tenantId, String agentId, String endpoint) {
+        if (tenantId != null) {
+            sql.append(" AND tenant_id = ?");
+            args.add(tenantId);
+        }
+        // Look the IDs up in SQL, so filtering on an unknown value does not add it to the dictionary
+        if (agentId != null) {
+            sql.append(" AND agent_id = (SELECT id FROM x402_dictionary WHERE kind = ? AND value_text = ?)");
+            args.add(X402DictionaryKind.AGENT.name());
+            args.add(agentId);
+        }
+        if (endpoint != null) {
+            sql.append(" AND endpoint = (SELECT id FROM x402_dictionary WHERE kind = ? AND value_text = ?)");
+            args.add(X402DictionaryKind.ENDPOINT.name());
+            args.add(endpoint);
+        }
+    }
+
+    private int id(X402DictionaryKind kind, String value) {
+        Integer id = dictionary.encode(kind, value);
+        return id != null ? id : NO_ID;
+    }
+
+    /**
+     * Funnel counts to add to one hour and (tenant, agent, endpoint).
+     */
+    public static final class Counts {
+        private final OffsetDateTime bucketStart;
+        private final String tenantId;
+        private final String agentId;
+        private final String endpoint;
+        private final long required;
+        private final long converted;
+        private final long abandoned;
+        private final long unmatched;
+        private final long paid;
+        private final long timeToPaySumMs;
+        private final Map<Long, Long> timeToPay;
+
+        /**
+         * @param timeToPay paying SUCCESS events per histogram bucket, keyed by the bucket's
+         *                  inclusive upper bound in milliseconds
+         */
+        public Counts(OffsetDateTime bucketStart, String tenantId, String agentId, String endpoint,
+                      long required, long converted, long abandoned, long unmatched, long paid,
+                      long timeToPaySumMs, Map<Long, Long> timeToPay) {
+            this.bucketStart = bucketStart;
+            this.tenantId = tenantId;
+            this.agentId = agentId;
+            this.endpoint = endpoint;
+            this.required = required;
+            this.converted = converted;
+            this.abandoned = abandoned;
+            this.unmatched = unmatched;
+            this.paid = paid;
+            this.timeToPaySumMs = timeToPaySumMs;
+            this.timeToPay = timeToPay;
+        }
+    }
+}
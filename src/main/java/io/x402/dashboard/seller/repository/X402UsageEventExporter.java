@@ -0,0 +1,98 @@
+package io.x402.dashboard.seller.repository;
+
+import io.x402.dashboard.common.archive.X402EventArchive;
+import io.x402.dashboard.common.dictionary.X402Dictionary;
+import io.x402.dashboard.common.jdbc.X402JdbcExport.Column;
+import io.x402.dashboard.common.jdbc.X402JdbcExport.Format;
+import io.x402.dashboard.common.jdbc.X402JdbcExport;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static io.x402.dashboard.common.jdbc.X402JdbcExport.Type.NUMBER;
+import static io.x402.dashboard.common.jdbc.X402JdbcExport.Type.STRING;
+import static io.x402.dashboard.common.jdbc.X402JdbcExport.Type.TIMESTAMP;
+
+/**
+ * Streaming NDJSON/CSV export of x402_usage_event, oldest first, including its day archive
+ * tables in range when X402EventArchive is on.
+ * Dictionary-encoded columns are written as their original strings.
+ */
+@Repository
+public class X402UsageEventExporter {
+
+    private final X402JdbcExport export;
+    private final X402EventArchive archive;
+
+    public X402UsageEventExporter(
+            JdbcTemplate jdbcTemplate, X402Dictionary dictionary, ObjectProvider<X402EventArchive> archive) {
+        IntFunction<String> decoder = dictionary::decode;
+        this.archive = archive.getIfAvailable();
+        this.export = new X402JdbcExport(jdbcTemplate, X402EventArchive.USAGE_TABLE, List.of(
+                new Column("id", "id", NUMBER),
+                new Column("tenantId", "tenant_id", STRING),
+                new Column("agentId", "agent_id", decoder),
+                new Column("agentType", "agent_type", STRING),
+                new Column("method", "method", decoder),
+                new Column("endpoint", "endpoint", decoder),
+                new Column("rawPath", "raw_path", STRING),
+                new Column("billingKey", "billing_key", STRING),
+                new Column("network", "network", decoder),
+                new Column("asset", "asset", decoder),
+                new Column("amountAtomic", "amount_atomic", NUMBER),
+                new Column("txHash", "tx_hash", STRING),
+                new Column("status", "status", STRING),
+                new Column("clientIp", "client_ip", STRING),
+                new Column("userAgent", "user_agent", decoder),
+                new Column("latencyMs", "latency_ms", NUMBER),
+                new Column("latencyMicros", "latency_us", NUMBER),
+                new Column("sampleWeight", "sample_weight", NUMBER),
+                new Column("createdAt", "created_at", TIMESTAMP),
+                new Column("settledAt", "settled_at", TIMESTAMP),
+                new Column("metadata", "metadata", STRING)));
+    }
+
+    /**
+     * Resolve a comma-separated column selection; null or blank selects every column.
+     *
+     * @throws IllegalArgumentException if a column is unknown
+     */
+    public List<Column> columns(String selection) {
+        return export.columns(selection);
+    }
+
+    /**
+     * Write the events matching the filters to {@code out}.
+     */
+    public void export(
+            OutputStream out,
+            Format format,
+            List<Column> columns,
+            String tenantId,
+            X402UsageStatus status,
+            OffsetDateTime from,
+            OffsetDateTime to) throws IOException {
+        StringBuilder where = new StringBuilder("created_at >= ? AND created_at <= ?");
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        if (tenantId != null) {
+            where.append(" AND tenant_id = ?");
+            args.add(tenantId);
+        }
+        if (status != null) {
+            where.append(" AND status = ?");
+            args.add(status.name());
+        }
+        String source = archive != null
+                ? archive.source(X402EventArchive.USAGE_TABLE, from, to) + " e"
+                : X402EventArchive.USAGE_TABLE;
+        export.export(out, format, columns, source, where.toString(), "created_at, id", args);
+    }
+}
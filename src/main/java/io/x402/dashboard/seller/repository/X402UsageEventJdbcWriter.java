@@ -0,0 +1,108 @@
+package io.x402.dashboard.seller.repository;
+
+import io.x402.dashboard.common.dictionary.X402Dictionary;
+import io.x402.dashboard.common.dictionary.X402DictionaryKind;
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import io.x402.dashboard.common.jdbc.X402JdbcBatchInsert;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static io.x402.dashboard.common.jdbc.X402JdbcBatchInsert.setEnum;
+import static io.x402.dashboard.common.jdbc.X402JdbcBatchInsert.setInteger;
+import static io.x402.dashboard.common.jdbc.X402JdbcBatchInsert.setLong;
+import static io.x402.dashboard.common.jdbc.X402JdbcBatchInsert.setString;
+import static io.x402.dashboard.common.jdbc.X402JdbcBatchInsert.setTimestamp;
+
+/**
+ * Insert-only JDBC writer for x402_usage_event.
+ *
+ * Used instead of the JPA repository for writes when {@code x402.dashboard.ingest.writer=jdbc}.
+ * Assigns the time-ordered ID and creation timestamp itself, as the entity's ID generator and
+ * {@code @PrePersist} callback would.
+ *
+ * Dictionary-encoded columns are bound as X402Dictionary IDs, as the entity's converters
+ * would.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "x402.dashboard.ingest", name = "writer", havingValue = "jdbc")
+public class X402UsageEventJdbcWriter {
+
+    private static final int ROWS_PER_STATEMENT = 32;
+
+    private static final List<String> COLUMNS = List.of(
+            "id", "tenant_id", "agent_id", "agent_type", "method", "endpoint", "raw_path", "billing_key",
+            "network", "asset", "amount_atomic", "tx_hash", "status", "client_ip", "user_agent",
+            "latency_ms", "sample_weight", "created_at", "settled_at", "metadata", "dedup_key", "latency_us");
+
+    private final X402JdbcBatchInsert<X402UsageEvent> insert;
+    private final X402EventIdGenerator idGenerator;
+    private final X402Dictionary dictionary;
+
+    public X402UsageEventJdbcWriter(JdbcTemplate jdbcTemplate, X402EventIdGenerator idGenerator, X402Dictionary dictionary) {
+        this.insert = new X402JdbcBatchInsert<>(
+                jdbcTemplate, "x402_usage_event", COLUMNS, ROWS_PER_STATEMENT, this::bind);
+        this.idGenerator = idGenerator;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Insert a single event.
+     */
+    public X402UsageEvent insert(X402UsageEvent event) {
+        prepare(event);
+        insert.insert(event);
+        return event;
+    }
+
+    /**
+     * Insert a batch of events.
+     */
+    public List<X402UsageEvent> insertAll(List<X402UsageEvent> events) {
+        for (X402UsageEvent event : events) {
+            prepare(event);
+        }
+        insert.insertAll(events);
+        return events;
+    }
+
+    private void prepare(X402UsageEvent event) {
+        if (event.getId() == null) {
+            event.setId(idGenerator.nextId());
+        }
+        if (event.getCreatedAt() == null) {
+            event.setCreatedAt(OffsetDateTime.now());
+        }
+    }
+
+    private void bind(PreparedStatement ps, int i, X402UsageEvent e) throws SQLException {
+        ps.setLong(i, e.getId());
+        setString(ps, i + 1, e.getTenantId());
+        setInteger(ps, i + 2, dictionary.encode(X402DictionaryKind.AGENT, e.getAgentId()));
+        setEnum(ps, i + 3, e.getAgentType());
+        setInteger(ps, i + 4, dictionary.encode(X402DictionaryKind.METHOD, e.getMethod()));
+        setInteger(ps, i + 5, dictionary.encode(X402DictionaryKind.ENDPOINT, e.getEndpoint()));
+        setString(ps, i + 6, e.getRawPath());
+        setString(ps, i + 7, e.getBillingKey());
+        setInteger(ps, i + 8, dictionary.encode(X402DictionaryKind.NETWORK, e.getNetwork()));
+        setInteger(ps, i + 9, dictionary.encode(X402DictionaryKind.ASSET, e.getAsset()));
+        setLong(ps, i + 10, e.getAmountAtomic());
+        setString(ps, i + 11, e.getTxHash());
+        setEnum(ps, i + 12, e.getStatus());
+        setString(ps, i + 13, e.getClientIp());
+        setInteger(ps, i + 14, dictionary.encode(X402DictionaryKind.USER_AGENT, e.getUserAgent()));
+        setLong(ps, i + 15, e.getLatencyMs());
+        ps.setInt(i + 16, e.getSampleWeight());
+        setTimestamp(ps, i + 17, e.getCreatedAt());
+        setTimestamp(ps, i + 18, e.getSettledAt());
+        setString(ps, i + 19, e.getMetadata());
+        setString(ps, i + 20, e.getDedupKey());
+        setLong(ps, i + 21, e.getLatencyMicros());
+    }
+}
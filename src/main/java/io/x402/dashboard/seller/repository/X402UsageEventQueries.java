@@ -0,0 +1,111 @@
+package io.x402.dashboard.seller.repository;
+
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Usage event queries with optional tenant and status filters, built per call with only the
+ * filters that are set (see X402QueryBuilder).
+ *
+ * Each combination is covered by an index on the filtered column followed by created_at:
+ * idx_tenant_created when a tenant is given, idx_created otherwise. A null tenant or status
+ * matches all tenants or statuses. Time ranges are inclusive.
+ */
+public interface X402UsageEventQueries {
+
+    /**
+     * Find events by tenant and time range, newest first.
+     */
+    List<X402UsageEvent> findByTenantAndTimeRange(String tenantId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Find events with pagination, newest first. The sort of {@code pageable} is ignored.
+     */
+    Page<X402UsageEvent> findEvents(
+            String tenantId, X402UsageStatus status, OffsetDateTime from, OffsetDateTime to, Pageable pageable);
+
+    /**
+     * Keyset page: events older than the cursor row, newest first.
+     * Pass a Pageable of page 0 to limit the rows; no count query is run.
+     */
+    List<X402UsageEvent> findEventsAfterCursor(
+            String tenantId, X402UsageStatus status, OffsetDateTime from, OffsetDateTime to,
+            OffsetDateTime cursorCreatedAt, Long cursorId, Pageable pageable);
+
+    /**
+     * Keyset page: events newer than the cursor row, oldest first.
+     * Pass a Pageable of page 0 to limit the rows; no count query is run.
+     */
+    List<X402UsageEvent> findEventsBeforeCursor(
+            String tenantId, X402UsageStatus status, OffsetDateTime from, OffsetDateTime to,
+            OffsetDateTime cursorCreatedAt, Long cursorId, Pageable pageable);
+
+    /**
+     * Aggregate by agent.
+     * Returns: [agentId, count, sumAmount]
+     */
+    List<Object[]> aggregateByAgent(String tenantId, OffsetDateTime from, OffsetDateTime to, X402UsageStatus status);
+
+    /**
+     * Aggregate by endpoint.
+     * Returns: [endpoint, count, sumAmount]
+     */
+    List<Object[]> aggregateByEndpoint(String tenantId, OffsetDateTime from, OffsetDateTime to, X402UsageStatus status);
+
+    /**
+     * Aggregate by status.
+     * Returns: [status, count, sumAmount]
+     */
+    List<Object[]> aggregateByStatus(String tenantId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Aggregate by date (daily).
+     * Returns: [date, count, sumAmount]
+     */
+    List<Object[]> aggregateByDate(String tenantId, OffsetDateTime from, OffsetDateTime to, String status);
+
+    /**
+     * Aggregate by date and status in one scan; enough to derive totals, the status breakdown
+     * and the daily series.
+     * Returns: [date, status, count, sumAmount]
+     */
+    List<Object[]> aggregateByDateAndStatus(String tenantId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Get total counts and amounts.
+     * Returns: [[totalCount, totalAmount, successCount, successAmount]], one row wrapped in a
+     * one-element array.
+     */
+    Object[] getTotals(String tenantId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Count events by status in time range.
+     */
+    Long countByStatusAndTimeRange(String tenantId, X402UsageStatus status, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Find an event by ID in the event table or, when X402EventArchive is on, the day
+     * archive table it was moved into.
+     */
+    Optional<X402UsageEvent> findByIdIncludingArchive(Long id);
+
+    /**
+     * Delete an event created at {@code createdAt} by ID from the event table and, when
+     * X402EventArchive is on, the day archive table of its day.
+     *
+     * @return number of events deleted
+     */
+    int deleteByIdIncludingArchive(Long id, OffsetDateTime createdAt);
+
+    /**
+     * Whether an event with the given settlement key is stored in the event table or, when
+     * X402EventArchive is on, a day archive table.
+     */
+    boolean existsByDedupKeyIncludingArchive(String dedupKey);
+}
@@ -0,0 +1,245 @@
+package io.x402.dashboard.seller.repository;
+
+import io.x402.dashboard.common.archive.X402EventArchive;
+import io.x402.dashboard.common.dictionary.X402Dictionary;
+import io.x402.dashboard.common.query.X402QueryBuilder;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of X402UsageEventQueries, picked up by X402UsageEventRepository.
+ *
+ * Queries are native SQL over the event table, or over it and the day archive tables in
+ * range when X402EventArchive is on. Agents and endpoints are read as X402Dictionary IDs and
+ * decoded for the result rows.
+ *
+ * Aggregates count each event by its sample weight and multiply its amount by it, so they
+ * estimate the captured traffic when ingest sampling is on.
+ */
+public class X402UsageEventQueriesImpl implements X402UsageEventQueries {
+
+    private static final String SUMS = "SUM(e.sample_weight), COALESCE(SUM(e.amount_atomic * e.sample_weight), 0)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private X402Dictionary dictionary;
+
+    @Autowired
+    private ObjectProvider<X402EventArchive> archive;
+
+    @Override
+    public List<X402UsageEvent> findByTenantAndTimeRange(String tenantId, OffsetDateTime from, OffsetDateTime to) {
+        X402QueryBuilder query = new X402QueryBuilder("SELECT e.* FROM " + source(from, to) + " e")
+                .equal("e.tenant_id", "tenantId", tenantId)
+                .between("e.created_at", from, to)
+                .append("ORDER BY e.created_at DESC");
+        return events(query, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Page<X402UsageEvent> findEvents(
+            String tenantId, X402UsageStatus status, OffsetDateTime from, OffsetDateTime to, Pageable pageable) {
+        String source = source(from, to);
+        X402QueryBuilder query = filter("SELECT e.* FROM " + source + " e", tenantId, status, from, to)
+                .append("ORDER BY e.created_at DESC");
+        List<X402UsageEvent> content = events(query, (int) pageable.getOffset(), pageable.getPageSize());
+        X402QueryBuilder count = query.withSelect("SELECT COUNT(*) FROM " + source + " e");
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> ((Number) count.bind(entityManager.createNativeQuery(count.build())).getSingleResult()).longValue());
+    }
+
+    @Override
+    public List<X402UsageEvent> findEventsAfterCursor(
+            String tenantId, X402UsageStatus status, OffsetDateTime from, OffsetDateTime to,
+            OffsetDateTime cursorCreatedAt, Long cursorId, Pageable pageable) {
+        X402QueryBuilder query = filter("SELECT e.* FROM " + source(from, to) + " e", tenantId, status, from, to)
+                .where("(e.created_at < :cursorCreatedAt OR (e.created_at = :cursorCreatedAt AND e.id < :cursorId))")
+                .parameter("cursorCreatedAt", cursorCreatedAt)
+                .parameter("cursorId", cursorId)
+                .append("ORDER BY e.created_at DESC, e.id DESC");
+        return events(query, 0, pageable.getPageSize());
+    }
+
+    @Override
+    public List<X402UsageEvent> findEventsBeforeCursor(
+            String tenantId, X402UsageStatus status, OffsetDateTime from, OffsetDateTime to,
+            OffsetDateTime cursorCreatedAt, Long cursorId, Pageable pageable) {
+        X402QueryBuilder query = filter("SELECT e.* FROM " + source(from, to) + " e", tenantId, status, from, to)
+                .where("(e.created_at > :cursorCreatedAt OR (e.created_at = :cursorCreatedAt AND e.id > :cursorId))")
+                .parameter("cursorCreatedAt", cursorCreatedAt)
+                .parameter("cursorId", cursorId)
+                .append("ORDER BY e.created_at ASC, e.id ASC");
+        return events(query, 0, pageable.getPageSize());
+    }
+
+    @Override
+    public List<Object[]> aggregateByAgent(
+            String tenantId, OffsetDateTime from, OffsetDateTime to, X402UsageStatus status) {
+        return decode(rows(filter("SELECT e.agent_id, " + SUMS + " FROM " + source(from, to) + " e",
+                tenantId, status, from, to)
+                .append("GROUP BY e.agent_id ORDER BY SUM(e.sample_weight) DESC")));
+    }
+
+    @Override
+    public List<Object[]> aggregateByEndpoint(
+            String tenantId, OffsetDateTime from, OffsetDateTime to, X402UsageStatus status) {
+        return decode(rows(filter("SELECT e.endpoint, " + SUMS + " FROM " + source(from, to) + " e",
+                tenantId, status, from, to)
+                .append("GROUP BY e.endpoint ORDER BY SUM(e.sample_weight) DESC")));
+    }
+
+    @Override
+    public List<Object[]> aggregateByStatus(String tenantId, OffsetDateTime from, OffsetDateTime to) {
+        List<Object[]> rows = rows(filter("SELECT e.status, " + SUMS + " FROM " + source(from, to) + " e",
+                tenantId, null, from, to)
+                .append("GROUP BY e.status ORDER BY SUM(e.sample_weight) DESC"));
+        for (Object[] row : rows) {
+            row[0] = row[0] != null ? X402UsageStatus.valueOf(row[0].toString()) : null;
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> aggregateByDate(String tenantId, OffsetDateTime from, OffsetDateTime to, String status) {
+        return rows(new X402QueryBuilder(
+                "SELECT CAST(e.created_at AS DATE) AS event_date, " + SUMS + " FROM " + source(from, to) + " e")
+                .equal("e.tenant_id", "tenantId", tenantId)
+                .equal("e.status", "status", status)
+                .between("e.created_at", from, to)
+                .append("GROUP BY CAST(e.created_at AS DATE) ORDER BY CAST(e.created_at AS DATE)"));
+    }
+
+    @Override
+    public List<Object[]> aggregateByDateAndStatus(String tenantId, OffsetDateTime from, OffsetDateTime to) {
+        return rows(new X402QueryBuilder(
+                "SELECT CAST(e.created_at AS DATE) AS event_date, e.status, " + SUMS + " FROM " + source(from, to) + " e")
+                .equal("e.tenant_id", "tenantId", tenantId)
+                .between("e.created_at", from, to)
+                .append("GROUP BY CAST(e.created_at AS DATE), e.status ORDER BY CAST(e.created_at AS DATE)"));
+    }
+
+    @Override
+    public Object[] getTotals(String tenantId, OffsetDateTime from, OffsetDateTime to) {
+        X402QueryBuilder query = filter("""
+                SELECT
+                    SUM(e.sample_weight),
+                    COALESCE(SUM(e.amount_atomic * e.sample_weight), 0),
+                    SUM(CASE WHEN e.status = 'SUCCESS' THEN e.sample_weight ELSE 0 END),
+                    SUM(CASE WHEN e.status = 'SUCCESS' THEN COALESCE(e.amount_atomic, 0) * e.sample_weight ELSE 0 END)
+                FROM\s""" + source(from, to) + " e", tenantId, null, from, to);
+        return new Object[]{query.bind(entityManager.createNativeQuery(query.build())).getSingleResult()};
+    }
+
+    @Override
+    public Long countByStatusAndTimeRange(
+            String tenantId, X402UsageStatus status, OffsetDateTime from, OffsetDateTime to) {
+        if (status == null) {
+            // e.status = NULL matches nothing
+            return 0L;
+        }
+        X402QueryBuilder query = new X402QueryBuilder(
+                "SELECT COALESCE(SUM(e.sample_weight), 0) FROM " + source(from, to) + " e")
+                .equal("e.tenant_id", "tenantId", tenantId)
+                .equal("e.status", "status", status.name())
+                .between("e.created_at", from, to);
+        return ((Number) query.bind(entityManager.createNativeQuery(query.build())).getSingleResult()).longValue();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<X402UsageEvent> findByIdIncludingArchive(Long id) {
+        List<X402UsageEvent> events = entityManager.createNativeQuery(
+                        "SELECT e.* FROM " + lookup("id") + " e", X402UsageEvent.class)
+                .setParameter("value", id)
+                .setMaxResults(1)
+                .getResultList();
+        return events.stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    public int deleteByIdIncludingArchive(Long id, OffsetDateTime createdAt) {
+        List<String> tables = new ArrayList<>(List.of(X402EventArchive.USAGE_TABLE));
+        X402EventArchive eventArchive = archive.getIfAvailable();
+        if (eventArchive != null) {
+            // A late event of an archived day may still be in the event table
+            eventArchive.getTable(X402EventArchive.USAGE_TABLE, createdAt).ifPresent(tables::add);
+        }
+        int deleted = 0;
+        for (String table : tables) {
+            deleted += entityManager.createNativeQuery("DELETE FROM " + table + " WHERE id = :id")
+                        .setParameter("id", id)
+                        .executeUpdate();
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean existsByDedupKeyIncludingArchive(String dedupKey) {
+        return !entityManager.createNativeQuery("SELECT 1 FROM " + lookup("dedup_key") + " e")
+                .setParameter("value", dedupKey)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    private static X402QueryBuilder filter(
+            String select, String tenantId, X402UsageStatus status, OffsetDateTime from, OffsetDateTime to) {
+        return new X402QueryBuilder(select)
+                .equal("e.tenant_id", "tenantId", tenantId)
+                .equal("e.status", "status", status != null ? status.name() : null)
+                .between("e.created_at", from, to);
+    }
+
+    private String source(OffsetDateTime from, OffsetDateTime to) {
+        X402EventArchive eventArchive = archive.getIfAvailable();
+        return eventArchive != null
+                ? eventArchive.source(X402EventArchive.USAGE_TABLE, from, to)
+                : X402EventArchive.USAGE_TABLE;
+    }
+
+    private String lookup(String column) {
+        X402EventArchive eventArchive = archive.getIfAvailable();
+        return eventArchive != null
+                ? eventArchive.lookup(X402EventArchive.USAGE_TABLE, column)
+                : "(SELECT * FROM " + X402EventArchive.USAGE_TABLE + " WHERE " + column + " = :value)";
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<X402UsageEvent> events(X402QueryBuilder query, int offset, int limit) {
+        return query.bind(entityManager.createNativeQuery(query.build(), X402UsageEvent.class))
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> rows(X402QueryBuilder query) {
+        return query.bind(entityManager.createNativeQuery(query.build())).getResultList();
+    }
+
+    /**
+     * Replace the dictionary ID in the first column of each row by its value.
+     */
+    private List<Object[]> decode(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            row[0] = row[0] != null ? dictionary.decode(((Number) row[0]).intValue()) : null;
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,174 @@
+package io.x402.dashboard.seller.repository;
+
+import io.x402.dashboard.seller.domain.X402RollupResolution;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a dashboard time range into rollup segments of the coarsest resolution that fits,
+ * plus the sub-minute edges that have to be read from the raw event table.
+ *
+ * A 90-day range aligned on local days becomes a single DAY segment. An unaligned range
+ * becomes DAY buckets in the middle, HOUR and MINUTE buckets towards the edges, and at most
+ * two raw slivers of less than a minute.
+ *
+ * The requested {@code to} is inclusive. A whole-second {@code to} such as 23:59:59 covers
+ * that entire second, so an end-of-day bound lines up with the next day's bucket.
+ *
+ * Under a retention policy, the part of a range whose raw events and minute rollups are gone
+ * is read from HOUR buckets only, and the part whose hourly rollups are gone from DAY buckets
+ * only. There a bucket counts if it starts within the range, so such ranges are widened or
+ * narrowed to whole hours or days.
+ */
+public final class X402UsageRollupPlanner {
+
+    private X402UsageRollupPlanner() {
+    }
+
+    /**
+     * Plan the half-open range covering [from, to].
+     */
+    public static Plan plan(OffsetDateTime from, OffsetDateTime to, ZoneId zone) {
+        return plan(from, to, zone, null, null);
+    }
+
+    /**
+     * Plan the half-open range covering [from, to], reading only HOUR buckets before
+     * {@code rawBefore} and only DAY buckets before {@code hourlyBefore}. Null horizons
+     * impose nothing.
+     */
+    public static Plan plan(
+            OffsetDateTime from,
+            OffsetDateTime to,
+            ZoneId zone,
+            OffsetDateTime rawBefore,
+            OffsetDateTime hourlyBefore) {
+        ZonedDateTime start = from.atZoneSameInstant(zone);
+        ZonedDateTime end = (to.getNano() == 0 ? to.plusSeconds(1) : to.plusNanos(1)).atZoneSameInstant(zone);
+
+        Plan plan = new Plan(start.toOffsetDateTime(), end.toOffsetDateTime());
+        ZonedDateTime cursor = start;
+        // Each region ends on a boundary of its resolution, so the next one starts where it stops
+        if (hourlyBefore != null) {
+            cursor = coverCoarse(plan, cursor, end,
+                    X402RollupResolution.DAY.ceil(hourlyBefore.atZoneSameInstant(zone)), X402RollupResolution.DAY);
+        }
+        if (rawBefore != null) {
+            cursor = coverCoarse(plan, cursor, end,
+                    X402RollupResolution.HOUR.ceil(rawBefore.atZoneSameInstant(zone)), X402RollupResolution.HOUR);
+        }
+        if (cursor.isBefore(end)) {
+            cover(plan, cursor, end, X402RollupResolution.DAY);
+        }
+        return plan;
+    }
+
+    /**
+     * Cover [start, min(end, until)) with the buckets of {@code resolution} starting in it;
+     * returns where the rest of the range starts.
+     */
+    private static ZonedDateTime coverCoarse(
+            Plan plan,
+            ZonedDateTime start,
+            ZonedDateTime end,
+            ZonedDateTime until,
+            X402RollupResolution resolution) {
+        if (!start.isBefore(end) || !start.isBefore(until)) {
+            return start;
+        }
+        ZonedDateTime regionEnd = end.isBefore(until) ? end : until;
+        ZonedDateTime first = resolution.ceil(start);
+        ZonedDateTime last = resolution.ceil(regionEnd);
+        if (first.isBefore(last)) {
+            plan.segments.add(new Segment(resolution, first.toOffsetDateTime(), last.toOffsetDateTime()));
+        }
+        return regionEnd;
+    }
+
+    private static void cover(Plan plan, ZonedDateTime start, ZonedDateTime end, X402RollupResolution resolution) {
+        ZonedDateTime firstFull = resolution.ceil(start);
+        ZonedDateTime lastFull = resolution.floor(end);
+
+        if (!firstFull.isBefore(lastFull)) {
+            // No complete bucket at this resolution
+            coverFiner(plan, start, end, resolution);
+            return;
+        }
+        if (start.isBefore(firstFull)) {
+            coverFiner(plan, start, firstFull, resolution);
+        }
+        plan.segments.add(new Segment(resolution, firstFull.toOffsetDateTime(), lastFull.toOffsetDateTime()));
+        if (lastFull.isBefore(end)) {
+            coverFiner(plan, lastFull, end, resolution);
+        }
+    }
+
+    private static void coverFiner(Plan plan, ZonedDateTime start, ZonedDateTime end, X402RollupResolution resolution) {
+        switch (resolution) {
+            case DAY -> cover(plan, start, end, X402RollupResolution.HOUR);
+            case HOUR -> cover(plan, start, end, X402RollupResolution.MINUTE);
+            case MINUTE -> plan.rawRanges.add(new Range(start.toOffsetDateTime(), end.toOffsetDateTime()));
+        }
+    }
+
+    /**
+     * Half-open time range [start, end).
+     */
+    public static class Range {
+        private final OffsetDateTime start;
+        private final OffsetDateTime end;
+
+        Range(OffsetDateTime start, OffsetDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public OffsetDateTime getStart() {
+            return start;
+        }
+
+        public OffsetDateTime getEnd() {
+            return end;
+        }
+    }
+
+    /**
+     * Consecutive rollup buckets of one resolution, [start, end).
+     */
+    public static class Segment extends Range {
+        private final X402RollupResolution resolution;
+
+        Segment(X402RollupResolution resolution, OffsetDateTime start, OffsetDateTime end) {
+            super(start, end);
+            this.resolution = resolution;
+        }
+
+        public X402RollupResolution getResolution() {
+            return resolution;
+        }
+    }
+
+    /**
+     * Rollup segments and raw ranges that together cover the requested range exactly once.
+     */
+    public static class Plan extends Range {
+        private final List<Segment> segments = new ArrayList<>();
+        private final List<Range> rawRanges = new ArrayList<>();
+
+        Plan(OffsetDateTime start, OffsetDateTime end) {
+            super(start, end);
+        }
+
+        public List<Segment> getSegments() {
+            return segments;
+        }
+
+        public List<Range> getRawRanges() {
+            return rawRanges;
+        }
+    }
+}
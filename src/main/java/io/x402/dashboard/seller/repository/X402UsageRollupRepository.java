@@ -0,0 +1,468 @@
+package io.x402.dashboard.seller.repository;
+
+import io.x402.dashboard.common.archive.X402EventArchive;
+import io.x402.dashboard.common.dictionary.X402Dictionary;
+import io.x402.dashboard.common.dictionary.X402DictionaryKind;
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import io.x402.dashboard.common.retention.X402RetentionPolicy;
+import io.x402.dashboard.seller.domain.X402RollupResolution;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * JDBC access to the usage rollup tables (x402_usage_rollup, x402_rollup_state).
+ *
+ * Aggregations combine two sources: rollup buckets for every event folded in, and the raw
+ * event table for the planner's sub-minute edges plus every event not folded in yet. An event
+ * is folded in if its ID is up to the watermark or listed in x402_usage_rollup_applied. The
+ * two sources never overlap, so results match a full raw scan. Counts and amounts are
+ * weighted by each event's sample weight, on both sides. Under a retention policy, events
+ * and minute rollups past the raw retention are deleted by X402RetentionJob, and the
+ * rollups are all that is left of them.
+ *
+ * Agent and endpoint are grouped by their X402Dictionary IDs, in the rollups as in the raw
+ * table, and decoded only for the result rows.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "x402.dashboard.rollup", name = "enabled", havingValue = "true")
+public class X402UsageRollupRepository {
+
+    /**
+     * Name of the usage rollup's row in x402_rollup_state.
+     */
+    static final String STATE_NAME = "usage";
+
+    /**
+     * Stored in place of a null tenant, so the rollup key can be unique.
+     */
+    static final String NONE = "";
+
+    /**
+     * Stored in place of a null agent or endpoint ID; dictionary IDs start at 1.
+     */
+    static final int NO_ID = 0;
+
+    /**
+     * Raw predicates on an event's ID, bound to the watermark.
+     */
+    private static final String FOLDED_IN =
+            "(id <= ? OR id IN (SELECT event_id FROM x402_usage_rollup_applied))";
+    private static final String NOT_FOLDED_IN =
+            "id > ? AND id NOT IN (SELECT event_id FROM x402_usage_rollup_applied)";
+
+    /**
+     * Grouping dimension of an aggregation.
+     */
+    public enum Dimension {
+        AGENT("agent_id", "agent_id"),
+        ENDPOINT("endpoint", "endpoint"),
+        STATUS("status", "status"),
+        DATE("bucket_start", "CAST(created_at AS DATE)"),
+        /**
+         * Date and status together; keys are {@code List.of(date, status)}.
+         */
+        DATE_STATUS("bucket_start, status", "CAST(created_at AS DATE), status", 2);
+
+        private final String rollupColumn;
+        private final String rawColumn;
+        private final int keyColumns;
+
+        Dimension(String rollupColumn, String rawColumn) {
+            this(rollupColumn, rawColumn, 1);
+        }
+
+        Dimension(String rollupColumn, String rawColumn, int keyColumns) {
+            this.rollupColumn = rollupColumn;
+            this.rawColumn = rawColumn;
+            this.keyColumns = keyColumns;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final X402EventIdGenerator idGenerator;
+    private final X402Dictionary dictionary;
+    private final X402EventArchive archive;
+
+    public X402UsageRollupRepository(
+            JdbcTemplate jdbcTemplate,
+            X402EventIdGenerator idGenerator,
+            X402Dictionary dictionary,
+            ObjectProvider<X402EventArchive> archive) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+        this.dictionary = dictionary;
+        this.archive = archive.getIfAvailable();
+    }
+
+    // ========================================
+    // Watermark
+    // ========================================
+
+    /**
+     * ID up to which every event is folded into the rollups, or 0 if none.
+     */
+    public long getWatermark() {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT watermark_id FROM x402_rollup_state WHERE name = ?", Long.class, STATE_NAME);
+        return ids.isEmpty() ? 0L : ids.get(0);
+    }
+
+    /**
+     * Lock the state row for the current transaction and return the watermark. Rollup
+     * updates are serialized on this lock, across nodes as well.
+     */
+    public long lockWatermark() {
+        ensureState();
+        return jdbcTemplate.queryForObject(
+                "SELECT watermark_id FROM x402_rollup_state WHERE name = ? FOR UPDATE", Long.class, STATE_NAME);
+    }
+
+    /**
+     * Move the watermark, forgetting the applied events it passes. Must run in a transaction
+     * holding {@link #lockWatermark()}.
+     */
+    public void setWatermark(long watermarkId) {
+        jdbcTemplate.update("UPDATE x402_rollup_state SET watermark_id = ?, updated_at = ? WHERE name = ?",
+                watermarkId, OffsetDateTime.now(), STATE_NAME);
+        jdbcTemplate.update("DELETE FROM x402_usage_rollup_applied WHERE event_id <= ?", watermarkId);
+    }
+
+    /**
+     * Whether an event is folded into the rollups. Must run in a transaction holding
+     * {@link #lockWatermark()}.
+     */
+    public boolean isFoldedIn(long eventId, long watermark) {
+        return eventId <= watermark || jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM x402_usage_rollup_applied WHERE event_id = ?", Long.class, eventId) > 0;
+    }
+
+    private void ensureState() {
+        if (jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM x402_rollup_state WHERE name = ?", Long.class, STATE_NAME) == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO x402_rollup_state (name, watermark_id, updated_at) VALUES (?, 0, ?)",
+                        STATE_NAME, OffsetDateTime.now());
+            } catch (DuplicateKeyException e) {
+                // Created concurrently by another node
+            }
+        }
+    }
+
+    /**
+     * Drop all rollups and start over from the first event.
+     */
+    public void reset() {
+        lockWatermark();
+        jdbcTemplate.update("DELETE FROM x402_usage_rollup");
+        jdbcTemplate.update("DELETE FROM x402_usage_rollup_applied");
+        setWatermark(0L);
+    }
+
+    // ========================================
+    // Maintenance
+    // ========================================
+
+    /**
+     * Events above the watermark not folded in yet, in ID order, with only the rolled-up
+     * columns set.
+     */
+    public List<X402UsageEvent> findEventsToRollUp(long watermark, int limit) {
+        return jdbcTemplate.query("SELECT id, tenant_id, agent_id, endpoint, status, amount_atomic, sample_weight,"
+                + " created_at FROM x402_usage_event WHERE " + NOT_FOLDED_IN + " ORDER BY id LIMIT ?", (rs, i) -> {
+                    X402UsageEvent event = new X402UsageEvent();
+                    event.setId(rs.getLong(1));
+                    event.setTenantId(rs.getString(2));
+                    event.setAgentId(dictionary.decode(rs.getObject(3, Integer.class)));
+                    event.setEndpoint(dictionary.decode(rs.getObject(4, Integer.class)));
+                    event.setStatus(X402UsageStatus.valueOf(rs.getString(5)));
+                    long amount = rs.getLong(6);
+                    event.setAmountAtomic(rs.wasNull() ? null : amount);
+                    event.setSampleWeight(rs.getInt(7));
+                    event.setCreatedAt(rs.getObject(8, OffsetDateTime.class));
+                    return event;
+                }, watermark, limit);
+    }
+
+    /**
+     * Record events above the watermark as folded in. Must run in a transaction holding
+     * {@link #lockWatermark()}.
+     */
+    public void markApplied(List<X402UsageEvent> events, long watermark) {
+        List<Object[]> ids = new ArrayList<>();
+        for (X402UsageEvent event : events) {
+            if (event.getId() > watermark) {
+                ids.add(new Object[]{event.getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO x402_usage_rollup_applied (event_id) VALUES (?)", ids);
+    }
+
+    /**
+     * Forget an event removed from the rollups. Must run in a transaction holding
+     * {@link #lockWatermark()}.
+     */
+    public void unmarkApplied(long eventId) {
+        jdbcTemplate.update("DELETE FROM x402_usage_rollup_applied WHERE event_id = ?", eventId);
+    }
+
+    /**
+     * Add the events to (or, with {@code sign = -1}, subtract them from) every resolution.
+     * Must run in a transaction holding {@link #lockWatermark()}.
+     */
+    public void apply(List<X402UsageEvent> events, int sign, ZoneId zone) {
+        Map<Key, long[]> deltas = new LinkedHashMap<>();
+        for (X402UsageEvent event : events) {
+            for (X402RollupResolution resolution : X402RollupResolution.values()) {
+                Key key = new Key(resolution,
+                        resolution.floor(event.getCreatedAt().atZoneSameInstant(zone)).toOffsetDateTime(),
+                        event.getTenantId(), event.getStatus(),
+                        dictionary.encode(X402DictionaryKind.AGENT, event.getAgentId()),
+                        dictionary.encode(X402DictionaryKind.ENDPOINT, event.getEndpoint()));
+                long[] delta = deltas.computeIfAbsent(key, k -> new long[2]);
+                delta[0] += sign * event.getSampleWeight();
+                delta[1] += sign * event.getSampleWeight() * (event.getAmountAtomic() != null ? event.getAmountAtomic() : 0L);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Key> keys = new ArrayList<>(deltas.keySet());
+        List<Object[]> updates = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            long[] delta = deltas.get(key);
+            updates.add(new Object[]{delta[0], delta[1], key.resolution.name(), key.bucketStart,
+                    key.tenantId, key.status.name(), key.agentId, key.endpoint});
+        }
+        int[] updated = jdbcTemplate.batchUpdate("""
+                UPDATE x402_usage_rollup
+                SET event_count = event_count + ?, amount_sum = amount_sum + ?
+                WHERE resolution = ? AND bucket_start = ? AND tenant_id = ? AND status = ?
+                  AND agent_id = ? AND endpoint = ?
+                """, updates);
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (updated[i] == 0) {
+                Key key = keys.get(i);
+                long[] delta = deltas.get(key);
+                inserts.add(new Object[]{idGenerator.nextId(), key.resolution.name(), key.bucketStart,
+                        key.tenantId, key.status.name(), key.agentId, key.endpoint, delta[0], delta[1]});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO x402_usage_rollup
+                        (id, resolution, bucket_start, tenant_id, status, agent_id, endpoint, event_count, amount_sum)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """, inserts);
+        }
+    }
+
+    // ========================================
+    // Retention
+    // ========================================
+
+    /**
+     * Delete up to {@code limit} events of {@code table}, the event table or one of its day
+     * archive tables, that were created before {@code before} and are folded into the rollups.
+     *
+     * @return number of events deleted
+     */
+    public int deleteEvents(
+            String table,
+            X402RetentionPolicy.Scope scope,
+            OffsetDateTime before,
+            long watermark,
+            int limit) {
+        StringBuilder ids = new StringBuilder("SELECT id FROM ").append(table)
+                .append(" WHERE created_at < ? AND id <= ?");
+        List<Object> args = new ArrayList<>(List.of(before, watermark));
+        scope.appendTo(ids, args, "tenant_id");
+        ids.append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.update("DELETE FROM " + table + " WHERE id IN (" + ids + ")", args.toArray());
+    }
+
+    /**
+     * Delete up to {@code limit} rollups of a resolution whose buckets start before
+     * {@code before}. Must run in a transaction holding {@link #lockWatermark()}.
+     *
+     * @return number of rollups deleted
+     */
+    public int deleteRollups(
+            X402RollupResolution resolution,
+            X402RetentionPolicy.Scope scope,
+            OffsetDateTime before,
+            int limit) {
+        StringBuilder ids = new StringBuilder(
+                "SELECT id FROM x402_usage_rollup WHERE resolution = ? AND bucket_start < ?");
+        List<Object> args = new ArrayList<>(List.of(resolution.name(), before));
+        scope.appendTo(ids, args, "tenant_id");
+        ids.append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.update("DELETE FROM x402_usage_rollup WHERE id IN (" + ids + ")", args.toArray());
+    }
+
+    // ========================================
+    // Aggregation
+    // ========================================
+
+    /**
+     * Aggregate the rollup segments of a plan.
+     * Returns: [key, count, sumAmount], with DATE keys (and the date of DATE_STATUS keys) as
+     * bucket start OffsetDateTime.
+     */
+    public List<Object[]> aggregateRollups(
+            Dimension dimension,
+            X402UsageRollupPlanner.Plan plan,
+            String tenantId,
+            X402UsageStatus status) {
+        if (plan.getSegments().isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder("SELECT ").append(dimension.rollupColumn)
+                .append(", SUM(event_count), SUM(amount_sum) FROM x402_usage_rollup WHERE (");
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < plan.getSegments().size(); i++) {
+            X402UsageRollupPlanner.Segment segment = plan.getSegments().get(i);
+            sql.append(i > 0 ? " OR " : "").append("(resolution = ? AND bucket_start >= ? AND bucket_start < ?)");
+            args.add(segment.getResolution().name());
+            args.add(segment.getStart());
+            args.add(segment.getEnd());
+        }
+        sql.append(")");
+        appendFilters(sql, args, tenantId, status);
+        sql.append(" GROUP BY ").append(dimension.rollupColumn);
+        return jdbcTemplate.query(sql.toString(), rowMapper(dimension, true), args.toArray());
+    }
+
+    /**
+     * Aggregate the raw events a plan does not cover with rollups: its raw edges, and every
+     * event not folded in yet.
+     * Returns: [key, count, sumAmount], with DATE keys as a date string.
+     */
+    public List<Object[]> aggregateRaw(
+            Dimension dimension,
+            X402UsageRollupPlanner.Plan plan,
+            long watermark,
+            String tenantId,
+            X402UsageStatus status) {
+        List<Object[]> rows = new ArrayList<>(rawQuery(dimension, NOT_FOLDED_IN, watermark,
+                plan.getStart(), plan.getEnd(), tenantId, status));
+        for (X402UsageRollupPlanner.Range range : plan.getRawRanges()) {
+            rows.addAll(rawQuery(dimension, FOLDED_IN, watermark, range.getStart(), range.getEnd(), tenantId, status));
+        }
+        return rows;
+    }
+
+    private List<Object[]> rawQuery(
+            Dimension dimension,
+            String idPredicate,
+            long watermark,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            String tenantId,
+            X402UsageStatus status) {
+        String source = archive != null
+                ? archive.source(X402EventArchive.USAGE_TABLE, start, end) + " e"
+                : X402EventArchive.USAGE_TABLE;
+        StringBuilder sql = new StringBuilder("SELECT ").append(dimension.rawColumn)
+                .append(", SUM(sample_weight), COALESCE(SUM(amount_atomic * sample_weight), 0) FROM ")
+                .append(source).append(" WHERE ")
+                .append(idPredicate).append(" AND created_at >= ? AND created_at < ?");
+        List<Object> args = new ArrayList<>(List.of(watermark, start, end));
+        appendFilters(sql, args, tenantId, status);
+        sql.append(" GROUP BY ").append(dimension.rawColumn);
+        return jdbcTemplate.query(sql.toString(), rowMapper(dimension, false), args.toArray());
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> args, String tenantId, X402UsageStatus status) {
+        if (tenantId != null) {
+            sql.append(" AND tenant_id = ?");
+            args.add(tenantId);
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.name());
+        }
+    }
+
+    private RowMapper<Object[]> rowMapper(Dimension dimension, boolean rollup) {
+        int countColumn = dimension.keyColumns + 1;
+        return (rs, i) -> new Object[]{key(rs, dimension, rollup), rs.getLong(countColumn), rs.getLong(countColumn + 1)};
+    }
+
+    private Object key(ResultSet rs, Dimension dimension, boolean rollup) throws SQLException {
+        return switch (dimension) {
+            case DATE -> rollup ? rs.getObject(1, OffsetDateTime.class) : String.valueOf(rs.getObject(1));
+            case DATE_STATUS -> List.of(
+                    rollup ? rs.getObject(1, OffsetDateTime.class) : String.valueOf(rs.getObject(1)),
+                    X402UsageStatus.valueOf(rs.getString(2)));
+            case STATUS -> X402UsageStatus.valueOf(rs.getString(1));
+            default -> {
+                int id = rs.getInt(1);
+                yield rs.wasNull() || id == NO_ID ? null : dictionary.decode(id);
+            }
+        };
+    }
+
+    /**
+     * Natural key of a rollup row.
+     */
+    private static final class Key {
+        private final X402RollupResolution resolution;
+        private final OffsetDateTime bucketStart;
+        private final String tenantId;
+        private final X402UsageStatus status;
+        private final int agentId;
+        private final int endpoint;
+
+        Key(X402RollupResolution resolution, OffsetDateTime bucketStart, String tenantId,
+            X402UsageStatus status, Integer agentId, Integer endpoint) {
+            this.resolution = resolution;
+            this.bucketStart = bucketStart;
+            this.tenantId = tenantId != null ? tenantId : NONE;
+            this.status = status;
+            this.agentId = agentId != null ? agentId : NO_ID;
+            this.endpoint = endpoint != null ? endpoint : NO_ID;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return resolution == other.resolution
+                    && bucketStart.equals(other.bucketStart)
+                    && tenantId.equals(other.tenantId)
+                    && status == other.status
+                    && agentId == other.agentId
+                    && endpoint == other.endpoint;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resolution, bucketStart, tenantId, status, agentId, endpoint);
+        }
+    }
+}
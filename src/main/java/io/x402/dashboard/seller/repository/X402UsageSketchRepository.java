@@ -0,0 +1,122 @@
+package io.x402.dashboard.seller.repository;
+
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import io.x402.dashboard.common.sketch.X402SpaceSaving;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to the heavy-hitter summary table (x402_usage_sketch).
+ *
+ * Each row holds the summaries of one hour, tenant, status and dimension. Nodes merge what
+ * they captured into the stored summaries under a row lock, so several nodes can feed the
+ * same hour.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "x402.dashboard.sketch", name = "enabled", havingValue = "true")
+public class X402UsageSketchRepository {
+
+    /**
+     * Stored in place of a null tenant, so the key can be unique.
+     */
+    static final String NONE = "";
+
+    /**
+     * Summarized dimension.
+     */
+    public enum Dimension {
+        AGENT,
+        ENDPOINT
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final X402EventIdGenerator idGenerator;
+
+    public X402UsageSketchRepository(JdbcTemplate jdbcTemplate, X402EventIdGenerator idGenerator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Merge summaries into the stored ones for their key, keeping {@code capacity} counters.
+     * Must run in a transaction.
+     */
+    public void merge(List<Delta> deltas, int capacity) {
+        for (Delta delta : deltas) {
+            String tenantId = delta.tenantId != null ? delta.tenantId : NONE;
+            List<X402SpaceSaving[]> stored = jdbcTemplate.query("""
+                    SELECT count_sketch, amount_sketch FROM x402_usage_sketch
+                    WHERE bucket_start = ? AND tenant_id = ? AND status = ? AND dimension = ?
+                    FOR UPDATE
+                    """, (rs, i) -> new X402SpaceSaving[]{
+                            X402SpaceSaving.fromBytes(rs.getBytes(1)), X402SpaceSaving.fromBytes(rs.getBytes(2))},
+                    delta.bucketStart, tenantId, delta.status.name(), delta.dimension.name());
+            if (stored.isEmpty()) {
+                jdbcTemplate.update("""
+                        INSERT INTO x402_usage_sketch
+                            (id, bucket_start, tenant_id, status, dimension, count_sketch, amount_sketch)
+                        VALUES (?, ?, ?, ?, ?, ?, ?)
+                        """, idGenerator.nextId(), delta.bucketStart, tenantId, delta.status.name(),
+                        delta.dimension.name(), delta.counts.toBytes(), delta.amounts.toBytes());
+                continue;
+            }
+            X402SpaceSaving counts = X402SpaceSaving.merge(List.of(stored.get(0)[0], delta.counts), capacity);
+            X402SpaceSaving amounts = X402SpaceSaving.merge(List.of(stored.get(0)[1], delta.amounts), capacity);
+            jdbcTemplate.update("""
+                    UPDATE x402_usage_sketch SET count_sketch = ?, amount_sketch = ?
+                    WHERE bucket_start = ? AND tenant_id = ? AND status = ? AND dimension = ?
+                    """, counts.toBytes(), amounts.toBytes(),
+                    delta.bucketStart, tenantId, delta.status.name(), delta.dimension.name());
+        }
+    }
+
+    /**
+     * Stored summaries of a dimension for the hours starting in [from, to).
+     * Returns: [countSketch, amountSketch] per row.
+     */
+    public List<X402SpaceSaving[]> find(
+            Dimension dimension, String tenantId, X402UsageStatus status, OffsetDateTime from, OffsetDateTime to) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT count_sketch, amount_sketch FROM x402_usage_sketch
+                WHERE dimension = ? AND bucket_start >= ? AND bucket_start < ?""");
+        List<Object> args = new ArrayList<>(List.of(dimension.name(), from, to));
+        if (tenantId != null) {
+            sql.append(" AND tenant_id = ?");
+            args.add(tenantId);
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.name());
+        }
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> new X402SpaceSaving[]{
+                X402SpaceSaving.fromBytes(rs.getBytes(1)), X402SpaceSaving.fromBytes(rs.getBytes(2))}, args.toArray());
+    }
+
+    /**
+     * Summaries captured for one key since the last flush.
+     */
+    public static final class Delta {
+        private final OffsetDateTime bucketStart;
+        private final String tenantId;
+        private final X402UsageStatus status;
+        private final Dimension dimension;
+        private final X402SpaceSaving counts;
+        private final X402SpaceSaving amounts;
+
+        public Delta(OffsetDateTime bucketStart, String tenantId, X402UsageStatus status, Dimension dimension,
+                     X402SpaceSaving counts, X402SpaceSaving amounts) {
+            this.bucketStart = bucketStart;
+            this.tenantId = tenantId;
+            this.status = status;
+            this.dimension = dimension;
+            this.counts = counts;
+            this.amounts = amounts;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package io.x402.dashboard.seller.service;
+
+import io.x402.dashboard.common.ingest.X402CaptureListener;
+import io.x402.dashboard.common.sketch.X402SpaceSaving;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402RollupResolution;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageSketchRepository;
+import io.x402.dashboard.seller.repository.X402UsageSketchRepository.Dimension;
+import io.x402.dashboard.seller.service.dto.AgentAggregation;
+import io.x402.dashboard.seller.service.dto.EndpointAggregation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Top agents and endpoints from bounded-memory heavy-hitter summaries.
+ *
+ * Every event passing through X402UsageLogger is added to X402SpaceSaving summaries for its
+ * hour, tenant and status: per agent and per endpoint, each weighted once by event count and
+ * once by amount (both times sample weight). Every {@code flush-interval} the summaries are
+ * merged into x402_usage_sketch and started afresh, so memory stays at a few summaries per
+ * active (hour, tenant, status) however many agents there are.
+ *
+ * Queries merge the stored summaries of the requested hours and return the top K keys with
+ * guaranteed error bounds: each reported count or amount is an upper bound, at most
+ * {@code countError} or {@code amountError} above the true value, and the error is at most
+ * 1/capacity of the total. Ranges are widened to whole hours, and only events captured while
+ * the sketches were enabled are included.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.sketch", name = "enabled", havingValue = "true")
+public class X402HeavyHitterAggregator implements X402CaptureListener<X402UsageEvent>, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(X402HeavyHitterAggregator.class);
+
+    private final X402UsageSketchRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final X402DashboardProperties.Sketch settings;
+    private final LongSupplier clock;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Updates hold the read lock, so a flush can swap the map without losing one in flight
+    private final ReadWriteLock summariesLock = new ReentrantReadWriteLock();
+    private ConcurrentHashMap<Key, Summaries> summaries = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public X402HeavyHitterAggregator(
+            X402UsageSketchRepository repository,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties properties) {
+        this(repository, transactionManager, properties.getSketch(), System::currentTimeMillis);
+    }
+
+    public X402HeavyHitterAggregator(
+            X402UsageSketchRepository repository,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties.Sketch settings,
+            LongSupplier clock) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    @Override
+    public void onCapture(X402UsageEvent event) {
+        if (event.getStatus() == null) {
+            return;
+        }
+        long timestamp = event.getCreatedAt() != null
+                ? event.getCreatedAt().toInstant().toEpochMilli()
+                : clock.getAsLong();
+        long bucketStart = X402RollupResolution.HOUR
+                .floor(Instant.ofEpochMilli(timestamp).atZone(zone)).toInstant().toEpochMilli();
+        int weight = event.getSampleWeight();
+        long amount = event.getAmountAtomic() != null ? event.getAmountAtomic() * weight : 0L;
+        update(new Key(bucketStart, event.getTenantId(), event.getStatus(), Dimension.AGENT),
+                s -> s.add(event.getAgentId(), weight, amount));
+        update(new Key(bucketStart, event.getTenantId(), event.getStatus(), Dimension.ENDPOINT),
+                s -> s.add(event.getEndpoint(), weight, amount));
+    }
+
+    /**
+     * Merge the summaries captured since the last flush into the stored ones. If the write
+     * fails, they are kept for the next flush.
+     */
+    public synchronized void flush() {
+        Map<Key, Summaries> drained;
+        Lock lock = summariesLock.writeLock();
+        lock.lock();
+        try {
+            drained = summaries;
+            summaries = new ConcurrentHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        List<X402UsageSketchRepository.Delta> deltas = new ArrayList<>(drained.size());
+        drained.forEach((key, s) -> deltas.add(new X402UsageSketchRepository.Delta(
+                OffsetDateTime.ofInstant(Instant.ofEpochMilli(key.bucketStartMillis), zone),
+                key.tenantId, key.status, key.dimension, s.counts, s.amounts)));
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.merge(deltas, settings.getCapacity()));
+        } catch (RuntimeException e) {
+            drained.forEach((key, s) -> update(key, existing -> existing.absorb(s, settings.getCapacity())));
+            throw e;
+        }
+    }
+
+    /**
+     * Top agents for the hours overlapping [from, to), by count or by amount.
+     */
+    public List<AgentAggregation> topAgents(
+            String tenantId, OffsetDateTime from, OffsetDateTime to, X402UsageStatus status,
+            Integer limit, boolean byAmount) {
+        List<AgentAggregation> result = new ArrayList<>();
+        top(Dimension.AGENT, tenantId, from, to, status, limit, byAmount, (key, estimates) ->
+                result.add(new AgentAggregation(key, estimates[0], estimates[1], estimates[2], estimates[3])));
+        return result;
+    }
+
+    /**
+     * Top endpoints for the hours overlapping [from, to), by count or by amount.
+     */
+    public List<EndpointAggregation> topEndpoints(
+            String tenantId, OffsetDateTime from, OffsetDateTime to, X402UsageStatus status,
+            Integer limit, boolean byAmount) {
+        List<EndpointAggregation> result = new ArrayList<>();
+        top(Dimension.ENDPOINT, tenantId, from, to, status, limit, byAmount, (key, estimates) ->
+                result.add(new EndpointAggregation(key, estimates[0], estimates[1], estimates[2], estimates[3])));
+        return result;
+    }
+
+    private void top(
+            Dimension dimension, String tenantId, OffsetDateTime from, OffsetDateTime to,
+            X402UsageStatus status, Integer limit, boolean byAmount, EntryConsumer consumer) {
+        OffsetDateTime start = X402RollupResolution.HOUR.floor(from.atZoneSameInstant(zone)).toOffsetDateTime();
+        List<X402SpaceSaving> counts = new ArrayList<>();
+        List<X402SpaceSaving> amounts = new ArrayList<>();
+        for (X402SpaceSaving[] row : repository.find(dimension, tenantId, status, start, to)) {
+            counts.add(row[0]);
+            amounts.add(row[1]);
+        }
+        int capacity = settings.getCapacity();
+        X402SpaceSaving mergedCounts = X402SpaceSaving.merge(counts, capacity);
+        X402SpaceSaving mergedAmounts = X402SpaceSaving.merge(amounts, capacity);
+        int k = Math.min(limit != null && limit > 0 ? limit : settings.getDefaultLimit(), capacity);
+        for (X402SpaceSaving.Entry entry : (byAmount ? mergedAmounts : mergedCounts).top(k)) {
+            String key = entry.getKey();
+            consumer.accept(key, new long[]{
+                    mergedCounts.estimate(key), mergedAmounts.estimate(key),
+                    mergedCounts.error(key), mergedAmounts.error(key)});
+        }
+    }
+
+    private void update(Key key, Consumer<Summaries> update) {
+        Lock lock = summariesLock.readLock();
+        lock.lock();
+        try {
+            Summaries s = summaries.computeIfAbsent(key, k -> new Summaries(settings.getCapacity()));
+            synchronized (s) {
+                update.accept(s);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "x402-sketch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = settings.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Heavy-hitter sketch flush failed, retrying in {}", settings.getFlushInterval(), e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Final heavy-hitter sketch flush failed", e);
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @FunctionalInterface
+    private interface EntryConsumer {
+        /**
+         * @param estimates count, amount, count error, amount error
+         */
+        void accept(String key, long[] estimates);
+    }
+
+    /**
+     * Count- and amount-weighted summaries of one key; guarded by its own monitor.
+     */
+    private static final class Summaries {
+        private X402SpaceSaving counts;
+        private X402SpaceSaving amounts;
+
+        Summaries(int capacity) {
+            this.counts = new X402SpaceSaving(capacity);
+            this.amounts = new X402SpaceSaving(capacity);
+        }
+
+        void add(String value, int weight, long amount) {
+            counts.add(value, weight);
+            amounts.add(value, amount);
+        }
+
+        void absorb(Summaries other, int capacity) {
+            counts = X402SpaceSaving.merge(List.of(counts, other.counts), capacity);
+            amounts = X402SpaceSaving.merge(List.of(amounts, other.amounts), capacity);
+        }
+    }
+
+    private static final class Key {
+        private final long bucketStartMillis;
+        private final String tenantId;
+        private final X402UsageStatus status;
+        private final Dimension dimension;
+        private final int hash;
+
+        Key(long bucketStartMillis, String tenantId, X402UsageStatus status, Dimension dimension) {
+            this.bucketStartMillis = bucketStartMillis;
+            this.tenantId = tenantId;
+            this.status = status;
+            this.dimension = dimension;
+            this.hash = Objects.hash(bucketStartMillis, tenantId, status, dimension);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return hash == other.hash
+                    && bucketStartMillis == other.bucketStartMillis
+                    && status == other.status
+                    && dimension == other.dimension
+                    && Objects.equals(tenantId, other.tenantId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
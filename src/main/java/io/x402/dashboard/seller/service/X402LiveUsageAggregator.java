@@ -0,0 +1,334 @@
+package io.x402.dashboard.seller.service;
+
+import io.x402.dashboard.common.ingest.X402CaptureListener;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.service.dto.AgentAggregation;
+import io.x402.dashboard.seller.service.dto.EndpointAggregation;
+import io.x402.dashboard.seller.service.dto.LiveUsageStats;
+import io.x402.dashboard.seller.service.dto.OverviewTotals;
+import io.x402.dashboard.seller.service.dto.StatusAggregation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory aggregates of recently captured usage events, for live dashboard tiles.
+ *
+ * Every event passing through X402UsageLogger is counted in two rings of rotating buckets:
+ * one bucket per second for short windows and one per minute for windows up to an hour (by
+ * default). Each bucket maps (tenant, status, agent, endpoint) to {@link LongAdder} counters,
+ * so concurrent request threads update striped cells instead of contending on one value.
+ * Queries sum the buckets of the requested window without touching the database. Events kept
+ * by ingest sampling count with their sample weight.
+ *
+ * Counts reflect what this node captured since it started; events written by other nodes or
+ * inserted directly into the database are not included.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.live", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class X402LiveUsageAggregator implements X402CaptureListener<X402UsageEvent> {
+
+    /**
+     * Agent and endpoint value that absorbs new keys once a bucket is full.
+     */
+    public static final String OTHER = "(other)";
+
+    private final Ring seconds;
+    private final Ring minutes;
+    private final int maxKeysPerBucket;
+    private final LongSupplier clock;
+
+    @Autowired
+    public X402LiveUsageAggregator(X402DashboardProperties properties) {
+        this(properties.getLive(), System::currentTimeMillis);
+    }
+
+    public X402LiveUsageAggregator(X402DashboardProperties.Live settings, LongSupplier clock) {
+        this.seconds = new Ring(1_000L, settings.getSecondBuckets());
+        this.minutes = new Ring(60_000L, settings.getMinuteBuckets());
+        this.maxKeysPerBucket = settings.getMaxKeysPerBucket();
+        this.clock = clock;
+    }
+
+    @Override
+    public void onCapture(X402UsageEvent event) {
+        long now = clock.getAsLong();
+        // Bucket by the event's own timestamp, so backdated events don't show up as live traffic
+        long timestamp = event.getCreatedAt() != null ? event.getCreatedAt().toInstant().toEpochMilli() : now;
+        Key key = new Key(event.getTenantId(), event.getStatus(), event.getAgentId(), event.getEndpoint());
+        long amount = event.getAmountAtomic() != null ? event.getAmountAtomic() : 0L;
+        int weight = event.getSampleWeight();
+        seconds.add(timestamp, now, key, weight, amount);
+        minutes.add(timestamp, now, key, weight, amount);
+    }
+
+    /**
+     * Longest window this aggregator can answer.
+     */
+    public Duration getMaxWindow() {
+        return Duration.ofMillis(minutes.span());
+    }
+
+    /**
+     * Whether {@code window} can be answered from memory.
+     */
+    public boolean supports(Duration window) {
+        return !window.isNegative() && !window.isZero() && window.toMillis() <= minutes.span();
+    }
+
+    /**
+     * Overview totals over the last {@code window}.
+     */
+    public OverviewTotals getOverviewTotals(String tenantId, Duration window) {
+        long[] total = new long[2];
+        long[] success = new long[2];
+        collect(tenantId, null, window).forEach((key, cell) -> {
+            total[0] += cell[0];
+            total[1] += cell[1];
+            if (key.status == X402UsageStatus.SUCCESS) {
+                success[0] += cell[0];
+                success[1] += cell[1];
+            }
+        });
+        return new OverviewTotals(total[0], total[1], success[0], success[1]);
+    }
+
+    /**
+     * Counts per status over the last {@code window}.
+     */
+    public List<StatusAggregation> aggregateByStatus(String tenantId, Duration window) {
+        return group(collect(tenantId, null, window), k -> k.status).entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .map(e -> new StatusAggregation(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Counts per agent over the last {@code window}.
+     */
+    public List<AgentAggregation> aggregateByAgent(String tenantId, Duration window, X402UsageStatus status) {
+        return group(collect(tenantId, status, window), k -> k.agentId).entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .map(e -> new AgentAggregation(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Counts per endpoint over the last {@code window}.
+     */
+    public List<EndpointAggregation> aggregateByEndpoint(String tenantId, Duration window, X402UsageStatus status) {
+        return group(collect(tenantId, status, window), k -> k.endpoint).entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .map(e -> new EndpointAggregation(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Live KPIs (request rate, revenue rate, error rate) over the last {@code window}.
+     */
+    public LiveUsageStats getLiveStats(String tenantId, Duration window) {
+        long requests = 0;
+        long success = 0;
+        long revenue = 0;
+        long errors = 0;
+        for (Map.Entry<Key, long[]> entry : collect(tenantId, null, window).entrySet()) {
+            long count = entry.getValue()[0];
+            requests += count;
+            X402UsageStatus status = entry.getKey().status;
+            if (status == null) {
+                continue;
+            }
+            switch (status) {
+                case SUCCESS -> {
+                    success += count;
+                    revenue += entry.getValue()[1];
+                }
+                case VERIFY_FAILED, SETTLE_FAILED, UNKNOWN_ERROR -> errors += count;
+                default -> {
+                    // PAYMENT_REQUIRED is the normal first leg of a payment, not an error
+                }
+            }
+        }
+        double windowSeconds = window.toMillis() / 1000.0;
+        return new LiveUsageStats(
+                window.toSeconds(),
+                requests,
+                requests / windowSeconds,
+                success,
+                revenue,
+                revenue / (windowSeconds / 60.0),
+                errors,
+                requests > 0 ? errors * 100.0 / requests : 0.0);
+    }
+
+    private Map<Key, long[]> collect(String tenantId, X402UsageStatus status, Duration window) {
+        if (!supports(window)) {
+            throw new IllegalArgumentException("Window " + window + " exceeds live aggregation span " + getMaxWindow());
+        }
+        Ring ring = window.toMillis() <= seconds.span() ? seconds : minutes;
+        int buckets = (int) Math.min(ring.length(), (window.toMillis() + ring.widthMillis - 1) / ring.widthMillis);
+        Map<Key, long[]> totals = new HashMap<>();
+        ring.collect(clock.getAsLong(), buckets, (key, cell) -> {
+            if ((tenantId == null || tenantId.equals(key.tenantId)) && (status == null || status == key.status)) {
+                long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+                total[0] += cell.count.sum();
+                total[1] += cell.amount.sum();
+            }
+        });
+        return totals;
+    }
+
+    private static <T> Map<T, long[]> group(Map<Key, long[]> totals, Function<Key, T> dimension) {
+        Map<T, long[]> grouped = new HashMap<>();
+        totals.forEach((key, cell) -> {
+            long[] total = grouped.computeIfAbsent(dimension.apply(key), k -> new long[2]);
+            total[0] += cell[0];
+            total[1] += cell[1];
+        });
+        return grouped;
+    }
+
+    /**
+     * Fixed ring of buckets of equal width; slot {@code epoch % length} holds the bucket for
+     * {@code epoch} and is replaced when a later epoch comes around.
+     */
+    private final class Ring {
+        private final long widthMillis;
+        private final AtomicReferenceArray<Bucket> slots;
+
+        Ring(long widthMillis, int length) {
+            this.widthMillis = widthMillis;
+            this.slots = new AtomicReferenceArray<>(length);
+        }
+
+        int length() {
+            return slots.length();
+        }
+
+        long span() {
+            return widthMillis * slots.length();
+        }
+
+        void add(long timestamp, long now, Key key, int weight, long amount) {
+            long current = now / widthMillis;
+            // Clamp small clock skew into the current bucket
+            long epoch = Math.min(timestamp / widthMillis, current);
+            if (epoch <= current - slots.length()) {
+                return;
+            }
+            Bucket bucket = bucket(epoch);
+            if (bucket != null) {
+                bucket.cell(key, maxKeysPerBucket).add(weight, amount);
+            }
+        }
+
+        private Bucket bucket(long epoch) {
+            int slot = (int) Math.floorMod(epoch, (long) slots.length());
+            while (true) {
+                Bucket bucket = slots.get(slot);
+                if (bucket != null && bucket.epoch >= epoch) {
+                    // Already rotated past this epoch: the event is too old to count
+                    return bucket.epoch == epoch ? bucket : null;
+                }
+                Bucket fresh = new Bucket(epoch);
+                if (slots.compareAndSet(slot, bucket, fresh)) {
+                    return fresh;
+                }
+            }
+        }
+
+        void collect(long now, int buckets, BiConsumer<Key, Cell> consumer) {
+            long current = now / widthMillis;
+            for (long epoch = current - buckets + 1; epoch <= current; epoch++) {
+                Bucket bucket = slots.get((int) Math.floorMod(epoch, (long) slots.length()));
+                if (bucket != null && bucket.epoch == epoch) {
+                    bucket.cells.forEach(consumer);
+                }
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final ConcurrentHashMap<Key, Cell> cells = new ConcurrentHashMap<>();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+
+        Cell cell(Key key, int maxKeys) {
+            Cell cell = cells.get(key);
+            if (cell != null) {
+                return cell;
+            }
+            if (cells.size() >= maxKeys) {
+                // Keep tenant and status exact; collapse high-cardinality dimensions
+                key = new Key(key.tenantId, key.status, OTHER, OTHER);
+            }
+            return cells.computeIfAbsent(key, k -> new Cell());
+        }
+    }
+
+    private static final class Cell {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder amount = new LongAdder();
+
+        void add(int weight, long amountAtomic) {
+            count.add(weight);
+            if (amountAtomic != 0) {
+                amount.add(amountAtomic * weight);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String tenantId;
+        private final X402UsageStatus status;
+        private final String agentId;
+        private final String endpoint;
+        private final int hash;
+
+        Key(String tenantId, X402UsageStatus status, String agentId, String endpoint) {
+            this.tenantId = tenantId;
+            this.status = status;
+            this.agentId = agentId;
+            this.endpoint = endpoint;
+            this.hash = Objects.hash(tenantId, status, agentId, endpoint);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return hash == other.hash
+                    && status == other.status
+                    && Objects.equals(tenantId, other.tenantId)
+                    && Objects.equals(agentId, other.agentId)
+                    && Objects.equals(endpoint, other.endpoint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
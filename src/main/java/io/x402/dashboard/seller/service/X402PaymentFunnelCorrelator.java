@@ -0,0 +1,464 @@
+package io.x402.dashboard.seller.service;
+
+import io.x402.dashboard.common.ingest.X402CaptureListener;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402RollupResolution;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402FunnelRepository;
+import io.x402.dashboard.seller.service.dto.FunnelAggregation;
+import io.x402.dashboard.seller.service.dto.TimeToPayBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Streaming correlation of 402 responses with the SUCCESS that pays for them.
+ *
+ * Every PAYMENT_REQUIRED event passing through X402UsageLogger opens (or extends) a pending
+ * entry for its (tenant, agent, endpoint). The next SUCCESS for the same key converts all of
+ * the entry's 402s, and the time from the first of them to the SUCCESS goes into a
+ * time-to-pay histogram. 402s left unpaid for {@code conversion-window} count as abandoned;
+ * a SUCCESS with nothing pending (the agent paid up front, or its 402 was sampled out or
+ * expired) counts as unmatched. Events without an agent cannot be attributed to a payer and
+ * are counted but not correlated.
+ *
+ * At most {@code max-pending} keys are held; 402s for further keys are counted but not
+ * correlated. Counts are kept in memory per hour and added to x402_funnel_rollup and
+ * x402_funnel_latency every {@code flush-interval}, so queries lag capture by up to one
+ * interval. Like the live aggregator, a node only correlates the events it captured itself,
+ * so both legs of a payment must reach the same node.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.funnel", name = "enabled", havingValue = "true")
+public class X402PaymentFunnelCorrelator implements X402CaptureListener<X402UsageEvent>, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(X402PaymentFunnelCorrelator.class);
+
+    /**
+     * Inclusive upper bounds of the time-to-pay histogram buckets, in milliseconds.
+     */
+    static final long[] TIME_TO_PAY_BOUNDS_MS = {
+            250, 500, 1_000, 2_000, 5_000, 10_000, 30_000, 60_000, 300_000, 900_000, Long.MAX_VALUE};
+
+    private final X402FunnelRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final X402DashboardProperties.Funnel settings;
+    private final long conversionWindowMillis;
+    private final LongSupplier clock;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final ConcurrentHashMap<PendingKey, Pending> pending = new ConcurrentHashMap<>();
+    private final LongAdder untracked = new LongAdder();
+
+    // Updates hold the read lock, so a flush can swap the map without losing one in flight
+    private final ReadWriteLock cellsLock = new ReentrantReadWriteLock();
+    private ConcurrentHashMap<CellKey, Cell> cells = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public X402PaymentFunnelCorrelator(
+            X402FunnelRepository repository,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties properties) {
+        this(repository, transactionManager, properties.getFunnel(), System::currentTimeMillis);
+    }
+
+    public X402PaymentFunnelCorrelator(
+            X402FunnelRepository repository,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties.Funnel settings,
+            LongSupplier clock) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = settings;
+        this.conversionWindowMillis = settings.getConversionWindow().toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public void onCapture(X402UsageEvent event) {
+        X402UsageStatus status = event.getStatus();
+        if (status != X402UsageStatus.PAYMENT_REQUIRED && status != X402UsageStatus.SUCCESS) {
+            return;
+        }
+        long timestamp = event.getCreatedAt() != null
+                ? event.getCreatedAt().toInstant().toEpochMilli()
+                : clock.getAsLong();
+        PendingKey key = new PendingKey(event.getTenantId(), event.getAgentId(), event.getEndpoint());
+        if (status == X402UsageStatus.PAYMENT_REQUIRED) {
+            onPaymentRequired(key, timestamp, event.getSampleWeight());
+        } else {
+            onSuccess(key, timestamp);
+        }
+    }
+
+    private void onPaymentRequired(PendingKey key, long timestamp, int weight) {
+        update(timestamp, key, cell -> cell.required.add(weight));
+        if (key.agentId == null) {
+            return;
+        }
+        if (pending.size() >= settings.getMaxPending() && !pending.containsKey(key)) {
+            untracked.add(weight);
+            return;
+        }
+        pending.compute(key, (k, current) -> {
+            if (current != null && timestamp - current.firstMillis > conversionWindowMillis) {
+                abandon(k, current);
+                current = null;
+            }
+            return current == null
+                    ? new Pending(timestamp, weight)
+                    : new Pending(Math.min(current.firstMillis, timestamp), current.count + weight);
+        });
+    }
+
+    private void onSuccess(PendingKey key, long timestamp) {
+        Pending paid = key.agentId != null ? pending.remove(key) : null;
+        if (paid != null && timestamp - paid.firstMillis > conversionWindowMillis) {
+            abandon(key, paid);
+            paid = null;
+        }
+        if (paid == null) {
+            update(timestamp, key, cell -> cell.unmatched.increment());
+            return;
+        }
+        long timeToPay = Math.max(0L, timestamp - paid.firstMillis);
+        long converted = paid.count;
+        update(timestamp, key, cell -> {
+            cell.converted.add(converted);
+            cell.paid.increment();
+            cell.timeToPaySum.add(timeToPay);
+            cell.timeToPay[bucketOf(timeToPay)].increment();
+        });
+    }
+
+    private void abandon(PendingKey key, Pending expired) {
+        update(expired.firstMillis, key, cell -> cell.abandoned.add(expired.count));
+    }
+
+    /**
+     * Count 402s that have waited longer than the conversion window as abandoned.
+     */
+    public void expirePending() {
+        long now = clock.getAsLong();
+        pending.forEach((key, entry) -> {
+            if (now - entry.firstMillis > conversionWindowMillis && pending.remove(key, entry)) {
+                abandon(key, entry);
+            }
+        });
+    }
+
+    /**
+     * Expire pending 402s and add the counts gathered since the last flush to the aggregate
+     * tables. If the write fails, the counts are kept for the next flush.
+     */
+    public synchronized void flush() {
+        expirePending();
+        Map<CellKey, Cell> drained;
+        Lock lock = cellsLock.writeLock();
+        lock.lock();
+        try {
+            drained = cells;
+            cells = new ConcurrentHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        List<X402FunnelRepository.Counts> counts = new ArrayList<>(drained.size());
+        drained.forEach((key, cell) -> counts.add(cell.toCounts(key, zone)));
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.add(counts));
+        } catch (RuntimeException e) {
+            drained.forEach((key, cell) -> update(key, existing -> existing.addAll(cell)));
+            throw e;
+        }
+    }
+
+    /**
+     * Funnel per agent for the hours overlapping [from, to), by 402 count. Conversions are
+     * counted in the hour of the SUCCESS, so a 402 issued just before {@code from} can make
+     * the conversion rate of a short range exceed 1.
+     */
+    public List<FunnelAggregation> aggregateByAgent(String tenantId, OffsetDateTime from, OffsetDateTime to) {
+        return aggregate(X402FunnelRepository.Dimension.AGENT, tenantId, from, to);
+    }
+
+    /**
+     * Funnel per endpoint for the hours overlapping [from, to), by 402 count.
+     */
+    public List<FunnelAggregation> aggregateByEndpoint(String tenantId, OffsetDateTime from, OffsetDateTime to) {
+        return aggregate(X402FunnelRepository.Dimension.ENDPOINT, tenantId, from, to);
+    }
+
+    /**
+     * Time-to-pay histogram for the hours overlapping [from, to). Empty buckets are included.
+     */
+    public List<TimeToPayBucket> getTimeToPay(
+            String tenantId, String agentId, String endpoint, OffsetDateTime from, OffsetDateTime to) {
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        for (long bound : TIME_TO_PAY_BOUNDS_MS) {
+            counts.put(bound, 0L);
+        }
+        OffsetDateTime start = X402RollupResolution.HOUR.floor(from.atZoneSameInstant(zone)).toOffsetDateTime();
+        for (Object[] row : repository.timeToPay(tenantId, agentId, endpoint, start, to)) {
+            counts.merge((Long) row[0], (Long) row[1], Long::sum);
+        }
+        List<TimeToPayBucket> buckets = new ArrayList<>(counts.size());
+        counts.forEach((upperMs, count) ->
+                buckets.add(new TimeToPayBucket(upperMs == Long.MAX_VALUE ? null : upperMs, count)));
+        return buckets;
+    }
+
+    /**
+     * Number of (tenant, agent, endpoint) keys with unpaid 402s.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 402s not correlated because {@code max-pending} keys were already held.
+     */
+    public long getUntrackedCount() {
+        return untracked.sum();
+    }
+
+    private List<FunnelAggregation> aggregate(
+            X402FunnelRepository.Dimension dimension, String tenantId, OffsetDateTime from, OffsetDateTime to) {
+        // Counts are only kept per hour: include the hour containing from
+        OffsetDateTime start = X402RollupResolution.HOUR.floor(from.atZoneSameInstant(zone)).toOffsetDateTime();
+        List<FunnelAggregation> result = new ArrayList<>();
+        for (Object[] row : repository.aggregate(dimension, tenantId, start, to)) {
+            String key = (String) row[0];
+            long required = (Long) row[1];
+            long converted = (Long) row[2];
+            long paid = (Long) row[5];
+            long timeToPaySum = (Long) row[6];
+            result.add(new FunnelAggregation(
+                    dimension == X402FunnelRepository.Dimension.AGENT ? key : null,
+                    dimension == X402FunnelRepository.Dimension.ENDPOINT ? key : null,
+                    required,
+                    converted,
+                    (Long) row[3],
+                    (Long) row[4],
+                    required > 0 ? (double) converted / required : null,
+                    paid > 0 ? (double) timeToPaySum / paid : null));
+        }
+        result.sort(Comparator.comparing(FunnelAggregation::getPaymentRequired).reversed());
+        return result;
+    }
+
+    private void update(long timestamp, PendingKey key, Consumer<Cell> update) {
+        long bucketStart = X402RollupResolution.HOUR
+                .floor(Instant.ofEpochMilli(timestamp).atZone(zone)).toInstant().toEpochMilli();
+        update(new CellKey(bucketStart, key), update);
+    }
+
+    private void update(CellKey key, Consumer<Cell> update) {
+        Lock lock = cellsLock.readLock();
+        lock.lock();
+        try {
+            update.accept(cells.computeIfAbsent(key, k -> new Cell()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int bucketOf(long timeToPayMs) {
+        int i = 0;
+        while (timeToPayMs > TIME_TO_PAY_BOUNDS_MS[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "x402-funnel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = settings.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Payment funnel flush failed, retrying in {}", settings.getFlushInterval(), e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Final payment funnel flush failed", e);
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Unpaid 402s for one key: when the first was issued and how many (weighted) there are.
+     * Replaced rather than mutated, so {@code pending.remove(key, entry)} only removes the
+     * entry that was checked.
+     */
+    private static final class Pending {
+        private final long firstMillis;
+        private final long count;
+
+        Pending(long firstMillis, long count) {
+            this.firstMillis = firstMillis;
+            this.count = count;
+        }
+    }
+
+    private static final class Cell {
+        private final LongAdder required = new LongAdder();
+        private final LongAdder converted = new LongAdder();
+        private final LongAdder abandoned = new LongAdder();
+        private final LongAdder unmatched = new LongAdder();
+        private final LongAdder paid = new LongAdder();
+        private final LongAdder timeToPaySum = new LongAdder();
+        private final LongAdder[] timeToPay = new LongAdder[TIME_TO_PAY_BOUNDS_MS.length];
+
+        Cell() {
+            for (int i = 0; i < timeToPay.length; i++) {
+                timeToPay[i] = new LongAdder();
+            }
+        }
+
+        void addAll(Cell other) {
+            required.add(other.required.sum());
+            converted.add(other.converted.sum());
+            abandoned.add(other.abandoned.sum());
+            unmatched.add(other.unmatched.sum());
+            paid.add(other.paid.sum());
+            timeToPaySum.add(other.timeToPaySum.sum());
+            for (int i = 0; i < timeToPay.length; i++) {
+                timeToPay[i].add(other.timeToPay[i].sum());
+            }
+        }
+
+        X402FunnelRepository.Counts toCounts(CellKey key, ZoneId zone) {
+            Map<Long, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < timeToPay.length; i++) {
+                long count = timeToPay[i].sum();
+                if (count > 0) {
+                    histogram.put(TIME_TO_PAY_BOUNDS_MS[i], count);
+                }
+            }
+            return new X402FunnelRepository.Counts(
+                    OffsetDateTime.ofInstant(Instant.ofEpochMilli(key.bucketStartMillis), zone),
+                    key.key.tenantId, key.key.agentId, key.key.endpoint,
+                    required.sum(), converted.sum(), abandoned.sum(), unmatched.sum(), paid.sum(),
+                    timeToPaySum.sum(), histogram);
+        }
+    }
+
+    private static final class PendingKey {
+        private final String tenantId;
+        private final String agentId;
+        private final String endpoint;
+        private final int hash;
+
+        PendingKey(String tenantId, String agentId, String endpoint) {
+            this.tenantId = tenantId;
+            this.agentId = agentId;
+            this.endpoint = endpoint;
+            this.hash = Objects.hash(tenantId, agentId, endpoint);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PendingKey other)) {
+                return false;
+            }
+            return hash == other.hash
+                    && Objects.equals(tenantId, other.tenantId)
+                    && Objects.equals(agentId, other.agentId)
+                    && Objects.equals(endpoint, other.endpoint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class CellKey {
+        private final long bucketStartMillis;
+        private final PendingKey key;
+
+        CellKey(long bucketStartMillis, PendingKey key) {
+            this.bucketStartMillis = bucketStartMillis;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CellKey other)) {
+                return false;
+            }
+            return bucketStartMillis == other.bucketStartMillis && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(bucketStartMillis) + key.hashCode();
+        }
+    }
+}
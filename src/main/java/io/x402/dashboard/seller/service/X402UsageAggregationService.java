@@ -1,24 +1,81 @@
 package io.x402.dashboard.seller.service;
 
+import io.x402.dashboard.common.cache.X402AggregateCache;
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import io.x402.dashboard.common.retention.X402RetentionPolicy;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
 import io.x402.dashboard.seller.domain.X402UsageStatus;
 import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.repository.X402UsageRollupPlanner;
+import io.x402.dashboard.seller.repository.X402UsageRollupRepository;
+import io.x402.dashboard.seller.repository.X402UsageRollupRepository.Dimension;
 import io.x402.dashboard.seller.service.dto.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for aggregating X402UsageEvent data for dashboard.
+ *
+ * When rollups are enabled and up to date, aggregates are answered from the minute/hour/day
+ * rollup tables at the coarsest resolution that fits the range (see X402UsageRollupPlanner),
+ * topped up with the raw events the rollups do not cover yet. Otherwise they scan the raw
+ * event table.
+ *
+ * With {@code x402.dashboard.retention.enabled=true}, raw events past the retention are gone,
+ * so the rollups are read however far behind they are, and ranges past the raw or hourly
+ * retention from HOUR or DAY buckets only.
+ *
+ * With {@code x402.dashboard.cache.enabled=true}, either source is read per day through
+ * X402AggregateCache: closed days come from memory and only the open rest of the range is
+ * queried.
  */
 @Service
 public class X402UsageAggregationService {
 
+    /**
+     * Cache scope of usage aggregates, invalidated by X402UsageEventService.
+     */
+    public static final String CACHE_SCOPE = "usage";
+
     private final X402UsageEventRepository repository;
+    private final X402UsageRollupRepository rollupRepository;
+    private final Duration rollupMaxStaleness;
+    private final X402AggregateCache cache;
+    private final X402RetentionPolicy retention;
 
     public X402UsageAggregationService(X402UsageEventRepository repository) {
         this.repository = repository;
+        this.rollupRepository = null;
+        this.rollupMaxStaleness = null;
+        this.cache = null;
+        this.retention = null;
+    }
+
+    @Autowired
+    public X402UsageAggregationService(
+            X402UsageEventRepository repository,
+            ObjectProvider<X402UsageRollupRepository> rollupRepository,
+            ObjectProvider<X402AggregateCache> cache,
+            ObjectProvider<X402RetentionPolicy> retention,
+            X402DashboardProperties properties) {
+        this.repository = repository;
+        this.rollupRepository = rollupRepository.getIfAvailable();
+        this.rollupMaxStaleness = properties.getRollup().getMaxStaleness();
+        this.cache = cache.getIfAvailable();
+        this.retention = retention.getIfAvailable();
     }
 
     /**
@@ -29,6 +86,12 @@ public class X402UsageAggregationService {
             OffsetDateTime from,
             OffsetDateTime to,
             X402UsageStatus status) {
+        Map<Object, long[]> totals = aggregate(Dimension.AGENT, tenantId, from, to, status);
+        if (totals != null) {
+            return sortByCountDesc(totals)
+                    .map(e -> new AgentAggregation((String) e.getKey(), e.getValue()[0], e.getValue()[1]))
+                    .collect(Collectors.toList());
+        }
         List<Object[]> rows = repository.aggregateByAgent(tenantId, from, to, status);
         return rows.stream()
                 .map(r -> new AgentAggregation(
@@ -47,6 +110,12 @@ public class X402UsageAggregationService {
             OffsetDateTime from,
             OffsetDateTime to,
             X402UsageStatus status) {
+        Map<Object, long[]> totals = aggregate(Dimension.ENDPOINT, tenantId, from, to, status);
+        if (totals != null) {
+            return sortByCountDesc(totals)
+                    .map(e -> new EndpointAggregation((String) e.getKey(), e.getValue()[0], e.getValue()[1]))
+                    .collect(Collectors.toList());
+        }
         List<Object[]> rows = repository.aggregateByEndpoint(tenantId, from, to, status);
         return rows.stream()
                 .map(r -> new EndpointAggregation(
@@ -64,6 +133,12 @@ public class X402UsageAggregationService {
             String tenantId,
             OffsetDateTime from,
             OffsetDateTime to) {
+        Map<Object, long[]> totals = aggregate(Dimension.STATUS, tenantId, from, to, null);
+        if (totals != null) {
+            return sortByCountDesc(totals)
+                    .map(e -> new StatusAggregation((X402UsageStatus) e.getKey(), e.getValue()[0], e.getValue()[1]))
+                    .collect(Collectors.toList());
+        }
         List<Object[]> rows = repository.aggregateByStatus(tenantId, from, to);
         return rows.stream()
                 .map(r -> new StatusAggregation(
@@ -82,6 +157,14 @@ public class X402UsageAggregationService {
             OffsetDateTime from,
             OffsetDateTime to,
             X402UsageStatus status) {
+        Map<Object, long[]> totals = aggregate(Dimension.DATE, tenantId, from, to, status);
+        if (totals != null) {
+            return totals.entrySet().stream()
+                    .filter(e -> e.getValue()[0] != 0)
+                    .sorted(Map.Entry.comparingByKey(Comparator.comparing(Object::toString)))
+                    .map(e -> new DateAggregation((String) e.getKey(), e.getValue()[0], e.getValue()[1]))
+                    .collect(Collectors.toList());
+        }
         String statusStr = status != null ? status.name() : null;
         List<Object[]> rows = repository.aggregateByDate(tenantId, from, to, statusStr);
         return rows.stream()
@@ -100,6 +183,16 @@ public class X402UsageAggregationService {
             String tenantId,
             OffsetDateTime from,
             OffsetDateTime to) {
+        Map<Object, long[]> byStatus = aggregate(Dimension.STATUS, tenantId, from, to, null);
+        if (byStatus != null) {
+            long[] success = byStatus.getOrDefault(X402UsageStatus.SUCCESS, new long[2]);
+            return new OverviewTotals(
+                    byStatus.values().stream().mapToLong(v -> v[0]).sum(),
+                    byStatus.values().stream().mapToLong(v -> v[1]).sum(),
+                    success[0],
+                    success[1]
+            );
+        }
         Object[] result = repository.getTotals(tenantId, from, to);
         if (result == null || result.length == 0) {
             return new OverviewTotals(0L, 0L, 0L, 0L);
@@ -116,4 +209,177 @@ public class X402UsageAggregationService {
                 row[3] != null ? ((Number) row[3]).longValue() : 0L
         );
     }
+
+    /**
+     * Get overview totals, status breakdown and daily series of a range in one pass.
+     *
+     * Everything is derived from a single aggregate by (date, status), so the three views
+     * come from the same read and always add up, and the page costs one scan instead of three.
+     */
+    public UsageSnapshot getSnapshot(
+            String tenantId,
+            OffsetDateTime from,
+            OffsetDateTime to) {
+        Map<Object, long[]> cells = aggregate(Dimension.DATE_STATUS, tenantId, from, to, null);
+        if (cells == null) {
+            cells = scanRaw(Dimension.DATE_STATUS, tenantId, from, to, null);
+        }
+
+        long[] total = new long[2];
+        Map<Object, long[]> byStatus = new LinkedHashMap<>();
+        Map<Object, long[]> byDate = new LinkedHashMap<>();
+        cells.forEach((key, cell) -> {
+            List<?> dateStatus = (List<?>) key;
+            addTo(total, cell);
+            addTo(byDate.computeIfAbsent(dateStatus.get(0), k -> new long[2]), cell);
+            addTo(byStatus.computeIfAbsent(dateStatus.get(1), k -> new long[2]), cell);
+        });
+        long[] success = byStatus.getOrDefault(X402UsageStatus.SUCCESS, new long[2]);
+
+        return new UsageSnapshot(
+                new OverviewTotals(total[0], total[1], success[0], success[1]),
+                sortByCountDesc(byStatus)
+                        .map(e -> new StatusAggregation((X402UsageStatus) e.getKey(), e.getValue()[0], e.getValue()[1]))
+                        .collect(Collectors.toList()),
+                byDate.entrySet().stream()
+                        .filter(e -> e.getValue()[0] != 0)
+                        .sorted(Map.Entry.comparingByKey(Comparator.comparing(Object::toString)))
+                        .map(e -> new DateAggregation((String) e.getKey(), e.getValue()[0], e.getValue()[1]))
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * [count, sumAmount] per key through the cache or from the rollups, or null if neither is
+     * enabled and the caller has to scan the raw table. Keys as in {@link #aggregateFromRollups}.
+     */
+    private Map<Object, long[]> aggregate(
+            Dimension dimension,
+            String tenantId,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            X402UsageStatus status) {
+        if (cache != null) {
+            Map<Object, long[]> totals = new LinkedHashMap<>();
+            // Cached segments are shared, so they are summed into a fresh map
+            for (Map<Object, long[]> segment : cache.segments(CACHE_SCOPE, tenantId, Arrays.asList(dimension, status),
+                    from, to, (segmentFrom, segmentTo) -> aggregateUncached(dimension, tenantId, segmentFrom, segmentTo, status))) {
+                segment.forEach((key, cell) -> addTo(totals.computeIfAbsent(key, k -> new long[2]), cell));
+            }
+            return totals;
+        }
+        long watermark = rollupWatermark();
+        return watermark > 0 ? aggregateFromRollups(dimension, tenantId, from, to, status, watermark) : null;
+    }
+
+    private Map<Object, long[]> aggregateUncached(
+            Dimension dimension,
+            String tenantId,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            X402UsageStatus status) {
+        long watermark = rollupWatermark();
+        if (watermark > 0) {
+            return aggregateFromRollups(dimension, tenantId, from, to, status, watermark);
+        }
+        return scanRaw(dimension, tenantId, from, to, status);
+    }
+
+    /**
+     * [count, sumAmount] per key from the raw table, keyed as the rollups are.
+     */
+    private Map<Object, long[]> scanRaw(
+            Dimension dimension,
+            String tenantId,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            X402UsageStatus status) {
+        Map<Object, long[]> totals = new LinkedHashMap<>();
+        if (dimension == Dimension.DATE_STATUS) {
+            for (Object[] r : repository.aggregateByDateAndStatus(tenantId, from, to)) {
+                totals.put(
+                        List.of(r[0].toString(), X402UsageStatus.valueOf((String) r[1])),
+                        new long[]{((Number) r[2]).longValue(), ((Number) r[3]).longValue()});
+            }
+            return totals;
+        }
+        List<Object[]> rows = switch (dimension) {
+            case AGENT -> repository.aggregateByAgent(tenantId, from, to, status);
+            case ENDPOINT -> repository.aggregateByEndpoint(tenantId, from, to, status);
+            case STATUS -> repository.aggregateByStatus(tenantId, from, to);
+            default -> repository.aggregateByDate(tenantId, from, to, status != null ? status.name() : null);
+        };
+        for (Object[] r : rows) {
+            Object key = dimension == Dimension.DATE && r[0] != null ? r[0].toString() : r[0];
+            totals.put(key, new long[]{((Number) r[1]).longValue(), ((Number) r[2]).longValue()});
+        }
+        return totals;
+    }
+
+    /**
+     * Current rollup watermark, or 0 if aggregates have to be read from the raw table.
+     */
+    private long rollupWatermark() {
+        if (rollupRepository == null) {
+            return 0L;
+        }
+        long watermark = rollupRepository.getWatermark();
+        // Under retention the raw table no longer has the whole range to fall back on
+        if (watermark == 0 || (retention == null && X402EventIdGenerator.timestampOf(watermark)
+                .isBefore(Instant.now().minus(rollupMaxStaleness)))) {
+            return 0L;
+        }
+        return watermark;
+    }
+
+    /**
+     * Merge the rollup segments and raw remainder of a range into [count, sumAmount] per key.
+     * DATE keys are local date strings, DATE_STATUS keys {@code List.of(date string, status)}.
+     */
+    private Map<Object, long[]> aggregateFromRollups(
+            Dimension dimension,
+            String tenantId,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            X402UsageStatus status,
+            long watermark) {
+        ZoneId zone = ZoneId.systemDefault();
+        X402UsageRollupPlanner.Plan plan;
+        if (retention != null) {
+            X402RetentionPolicy.Horizons horizons = retention.horizons(tenantId, OffsetDateTime.now(zone));
+            plan = X402UsageRollupPlanner.plan(from, to, zone, horizons.getRawBefore(), horizons.getHourlyBefore());
+        } else {
+            plan = X402UsageRollupPlanner.plan(from, to, zone);
+        }
+        Map<Object, long[]> totals = new LinkedHashMap<>();
+        for (List<Object[]> rows : List.of(
+                rollupRepository.aggregateRollups(dimension, plan, tenantId, status),
+                rollupRepository.aggregateRaw(dimension, plan, watermark, tenantId, status))) {
+            for (Object[] row : rows) {
+                Object key = row[0] instanceof List<?> dateStatus
+                        ? List.of(dateKey(dateStatus.get(0), zone), dateStatus.get(1))
+                        : dateKey(row[0], zone);
+                long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+                total[0] += (Long) row[1];
+                total[1] += (Long) row[2];
+            }
+        }
+        return totals;
+    }
+
+    private static void addTo(long[] sum, long[] cell) {
+        sum[0] += cell[0];
+        sum[1] += cell[1];
+    }
+
+    private static Object dateKey(Object key, ZoneId zone) {
+        return key instanceof OffsetDateTime bucketStart
+                ? bucketStart.atZoneSameInstant(zone).toLocalDate().toString()
+                : key;
+    }
+
+    private static Stream<Map.Entry<Object, long[]>> sortByCountDesc(Map<Object, long[]> totals) {
+        return totals.entrySet().stream()
+                .filter(e -> e.getValue()[0] != 0)
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+    }
 }
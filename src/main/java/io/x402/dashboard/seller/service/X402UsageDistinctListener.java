@@ -0,0 +1,34 @@
+package io.x402.dashboard.seller.service;
+
+import io.x402.dashboard.common.ingest.X402CaptureListener;
+import io.x402.dashboard.common.sketch.X402DistinctCounter;
+import io.x402.dashboard.common.sketch.X402DistinctMetric;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds captured usage events into the distinct-count sketches: agents and client IPs per
+ * tenant, and agents with a SUCCESS as paying agents.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.distinct", name = "enabled", havingValue = "true")
+public class X402UsageDistinctListener implements X402CaptureListener<X402UsageEvent> {
+
+    private final X402DistinctCounter counter;
+
+    public X402UsageDistinctListener(X402DistinctCounter counter) {
+        this.counter = counter;
+    }
+
+    @Override
+    public void onCapture(X402UsageEvent event) {
+        String tenantId = event.getTenantId();
+        counter.add(X402DistinctMetric.AGENT, tenantId, event.getCreatedAt(), event.getAgentId());
+        counter.add(X402DistinctMetric.CLIENT_IP, tenantId, event.getCreatedAt(), event.getClientIp());
+        if (event.getStatus() == X402UsageStatus.SUCCESS) {
+            counter.add(X402DistinctMetric.PAYING_AGENT, tenantId, event.getCreatedAt(), event.getAgentId());
+        }
+    }
+}
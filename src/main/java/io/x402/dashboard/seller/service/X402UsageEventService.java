@@ -1,28 +1,82 @@
 package io.x402.dashboard.seller.service;
 
+import io.x402.dashboard.common.archive.X402EventArchive;
+import io.x402.dashboard.common.cache.X402AggregateCache;
+import io.x402.dashboard.common.jdbc.X402JdbcExport;
+import io.x402.dashboard.common.pagination.X402Cursor;
+import io.x402.dashboard.common.pagination.X402CursorPage;
 import io.x402.dashboard.seller.domain.X402UsageEvent;
 import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventExporter;
+import io.x402.dashboard.seller.repository.X402UsageEventJdbcWriter;
 import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.repository.X402UsageRollupRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Service for managing X402UsageEvent entities.
+ *
+ * Reads go through the JPA repository. Writes go through X402UsageEventJdbcWriter when one
+ * is configured, and through the repository otherwise. Deletes keep the usage rollups,
+ * if enabled, in step, and writes and deletes invalidate the days they touch in the
+ * aggregate cache. With X402EventArchive on, time-range reads also cover the day
+ * archive tables, as do lookups and deletes by ID, while the latest events are read from
+ * the event table only.
  */
 @Service
 public class X402UsageEventService {
 
     private final X402UsageEventRepository repository;
+    private final X402UsageEventJdbcWriter jdbcWriter;
+    private final X402UsageRollupRepository rollupRepository;
+    private final X402UsageEventExporter exporter;
+    private final X402AggregateCache cache;
+    private final X402EventArchive archive;
+    private final TransactionTemplate transactionTemplate;
 
     public X402UsageEventService(X402UsageEventRepository repository) {
         this.repository = repository;
+        this.jdbcWriter = null;
+        this.rollupRepository = null;
+        this.exporter = null;
+        this.cache = null;
+        this.archive = null;
+        this.transactionTemplate = null;
+    }
+
+    @Autowired
+    public X402UsageEventService(
+            X402UsageEventRepository repository,
+            ObjectProvider<X402UsageEventJdbcWriter> jdbcWriter,
+            ObjectProvider<X402UsageRollupRepository> rollupRepository,
+            ObjectProvider<X402UsageEventExporter> exporter,
+            ObjectProvider<X402AggregateCache> cache,
+            ObjectProvider<X402EventArchive> archive,
+            PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.jdbcWriter = jdbcWriter.getIfAvailable();
+        this.rollupRepository = rollupRepository.getIfAvailable();
+        this.exporter = exporter.getIfAvailable();
+        this.cache = cache.getIfAvailable();
+        this.archive = archive.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -30,17 +84,38 @@ public class X402UsageEventService {
      */
     @Transactional
     public X402UsageEvent save(X402UsageEvent event) {
+        invalidate(event);
+        if (jdbcWriter != null) {
+            return jdbcWriter.insert(event);
+        }
         if (event.getCreatedAt() == null) {
             event.setCreatedAt(OffsetDateTime.now());
         }
         return repository.save(event);
     }
 
+    /**
+     * Save a batch of events in a single transaction.
+     */
+    @Transactional
+    public List<X402UsageEvent> saveAll(List<X402UsageEvent> events) {
+        events.forEach(this::invalidate);
+        if (jdbcWriter != null) {
+            return jdbcWriter.insertAll(events);
+        }
+        for (X402UsageEvent event : events) {
+            if (event.getCreatedAt() == null) {
+                event.setCreatedAt(OffsetDateTime.now());
+            }
+        }
+        return repository.saveAll(events);
+    }
+
     /**
      * Find event by ID.
      */
     public Optional<X402UsageEvent> findById(Long id) {
-        return repository.findById(id);
+        return repository.findByIdIncludingArchive(id);
     }
 
     /**
@@ -75,6 +150,58 @@ public class X402UsageEventService {
         return repository.findEvents(tenantId, status, from, to, pageable);
     }
 
+    /**
+     * Get events with keyset pagination, newest first.
+     *
+     * @param cursor cursor from a previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public X402CursorPage<X402UsageEvent> findEvents(
+            String tenantId,
+            X402UsageStatus status,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            String cursor,
+            int size) {
+        X402Cursor position = cursor != null ? X402Cursor.decode(cursor) : X402Cursor.first(to);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<X402UsageEvent> rows = position.isBackward()
+                ? repository.findEventsBeforeCursor(tenantId, status, from, to, position.getCreatedAt(), position.getId(), limit)
+                : repository.findEventsAfterCursor(tenantId, status, from, to, position.getCreatedAt(), position.getId(), limit);
+        return X402CursorPage.of(rows, size, position, cursor == null, X402UsageEvent::getCreatedAt, X402UsageEvent::getId);
+    }
+
+    /**
+     * Resolve a comma-separated export column selection; null or blank selects every column.
+     *
+     * @throws IllegalArgumentException if a column is unknown
+     */
+    public List<X402JdbcExport.Column> exportColumns(String selection) {
+        return requireExporter().columns(selection);
+    }
+
+    /**
+     * Stream the matching events to {@code out}, oldest first, without loading them into memory.
+     */
+    @Transactional(readOnly = true)
+    public void exportEvents(
+            OutputStream out,
+            X402JdbcExport.Format format,
+            List<X402JdbcExport.Column> columns,
+            String tenantId,
+            X402UsageStatus status,
+            OffsetDateTime from,
+            OffsetDateTime to) throws IOException {
+        requireExporter().export(out, format, columns, tenantId, status, from, to);
+    }
+
+    private X402UsageEventExporter requireExporter() {
+        if (exporter == null) {
+            throw new IllegalStateException("Event export is not configured");
+        }
+        return exporter;
+    }
+
     /**
      * Count events by status in time range.
      */
@@ -87,18 +214,67 @@ public class X402UsageEventService {
     }
 
     /**
-     * Delete event by ID.
+     * Delete event by ID, from the event table or the day archive table holding it.
+     *
+     * Runs in a transaction of its own, suspending any of the caller's: with X402EventArchive
+     * on, this node moves no day until the delete commits, so a move cannot copy the event
+     * back into a day table first.
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteById(Long id) {
-        repository.deleteById(id);
+        if (archive != null) {
+            archive.locked(() -> inTransaction(() -> delete(id)));
+        } else {
+            inTransaction(() -> delete(id));
+        }
+    }
+
+    private int delete(Long id) {
+        long watermark = rollupRepository != null ? rollupRepository.lockWatermark() : 0;
+        Optional<X402UsageEvent> found = repository.findByIdIncludingArchive(id);
+        if (found.isEmpty()) {
+            return 0;
+        }
+        X402UsageEvent event = found.get();
+        invalidate(event);
+        if (rollupRepository != null && rollupRepository.isFoldedIn(event.getId(), watermark)) {
+            rollupRepository.apply(List.of(event), -1, ZoneId.systemDefault());
+            rollupRepository.unmarkApplied(event.getId());
+        }
+        return repository.deleteByIdIncludingArchive(id, event.getCreatedAt());
     }
 
     /**
-     * Delete all events.
+     * Delete all events, including the day archive tables.
+     *
+     * The events are deleted in a transaction of its own, suspending any of the caller's, and
+     * the day tables are dropped once it has committed.
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteAll() {
-        repository.deleteAll();
+        inTransaction(() -> {
+            repository.deleteAll();
+            if (rollupRepository != null) {
+                rollupRepository.reset();
+            }
+            return null;
+        });
+        if (cache != null) {
+            cache.clear(X402UsageAggregationService.CACHE_SCOPE);
+        }
+        if (archive != null) {
+            // After the commit: dropping a table would commit the transaction half way
+            archive.dropAll(X402EventArchive.USAGE_TABLE);
+        }
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate != null ? transactionTemplate.execute(status -> work.get()) : work.get();
+    }
+
+    private void invalidate(X402UsageEvent event) {
+        if (cache != null) {
+            cache.invalidate(X402UsageAggregationService.CACHE_SCOPE, event.getTenantId(), event.getCreatedAt());
+        }
     }
 }
@@ -0,0 +1,49 @@
+package io.x402.dashboard.seller.service;
+
+import io.x402.dashboard.common.ingest.X402CaptureListener;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Dimension;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Metric;
+import io.x402.dashboard.common.sketch.X402LatencyRecorder;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Feeds captured usage events into the latency histograms: request latency and settlement
+ * delay per endpoint and per agent, partitioned by tenant. Sampled events count with their
+ * sample weight.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.latency", name = "enabled", havingValue = "true")
+public class X402UsageLatencyListener implements X402CaptureListener<X402UsageEvent> {
+
+    private final X402LatencyRecorder recorder;
+
+    public X402UsageLatencyListener(X402LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void onCapture(X402UsageEvent event) {
+        long weight = Math.max(1, event.getSampleWeight());
+        Long latencyMicros = event.getLatencyMicros() != null ? event.getLatencyMicros()
+                : event.getLatencyMs() != null ? event.getLatencyMs() * 1000 : null;
+        if (latencyMicros != null) {
+            record(Metric.LATENCY, event, latencyMicros, weight);
+        }
+        if (event.getSettledAt() != null && event.getCreatedAt() != null) {
+            long delayMicros = Duration.between(event.getCreatedAt(), event.getSettledAt()).toNanos() / 1000;
+            record(Metric.SETTLEMENT_DELAY, event, delayMicros, weight);
+        }
+    }
+
+    private void record(Metric metric, X402UsageEvent event, long micros, long weight) {
+        String tenantId = event.getTenantId();
+        recorder.record(metric, Dimension.ENDPOINT, tenantId, event.getEndpoint(), event.getCreatedAt(), micros, weight);
+        if (event.getAgentId() != null) {
+            recorder.record(metric, Dimension.AGENT, tenantId, event.getAgentId(), event.getCreatedAt(), micros, weight);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.x402.dashboard.seller.service;
+
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.repository.X402UsageRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that folds new usage events into the minute/hour/day rollups.
+ *
+ * Progress is tracked by event ID rather than {@code createdAt}: IDs are time-ordered by
+ * insertion, so a late-arriving event with an old {@code createdAt} is still picked up and
+ * added to its (old) bucket. IDs are generated before their insert commits, though, so an
+ * event can become visible after events with higher IDs. Each run therefore folds in every
+ * event above the watermark not folded in yet, recording its ID, and only moves the watermark
+ * up to IDs generated {@code commitLag} ago: an insert committing later than that is missed.
+ *
+ * Each run locks the watermark row, so several application nodes can run the job against
+ * the same database without double counting.
+ */
+@Component
+@ConditionalOnProperty(prefix = "x402.dashboard.rollup", name = "enabled", havingValue = "true")
+public class X402UsageRollupJob implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(X402UsageRollupJob.class);
+
+    private final X402UsageRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final X402DashboardProperties.Rollup settings;
+
+    private ScheduledExecutorService scheduler;
+
+    public X402UsageRollupJob(
+            X402UsageRollupRepository rollupRepository,
+            PlatformTransactionManager transactionManager,
+            X402DashboardProperties properties) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = properties.getRollup();
+    }
+
+    /**
+     * Roll up the next chunk of events.
+     *
+     * @return number of events rolled up
+     */
+    public int runOnce() {
+        long settled = X402EventIdGenerator.maxIdAt(Instant.now().minus(settings.getCommitLag()));
+        Integer count = transactionTemplate.execute(status -> {
+            long watermark = rollupRepository.lockWatermark();
+            List<X402UsageEvent> events = rollupRepository.findEventsToRollUp(watermark, settings.getBatchSize());
+            rollupRepository.apply(events, 1, ZoneId.systemDefault());
+            rollupRepository.markApplied(events, watermark);
+            // A short chunk means every committed event has been seen
+            long upTo = events.size() < settings.getBatchSize()
+                    ? settled
+                    : Math.min(settled, events.get(events.size() - 1).getId());
+            if (upTo > watermark) {
+                rollupRepository.setWatermark(upTo);
+            }
+            return events.size();
+        });
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Run until the rollups have caught up.
+     */
+    public void catchUp() {
+        while (runOnce() >= settings.getBatchSize()) {
+            // keep going
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "x402-rollup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = settings.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                catchUp();
+            } catch (RuntimeException e) {
+                log.warn("Usage rollup failed, retrying in {}", settings.getInterval(), e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -2,11 +2,17 @@ package io.x402.dashboard.seller.service.dto;
 
 /**
  * DTO for agent aggregation results.
+ *
+ * {@code countError} and {@code amountError} are set for approximate results from the
+ * heavy-hitter sketches: the true values lie within that much below {@code count} and
+ * {@code amountAtomic}. They are null for exact results.
  */
 public class AgentAggregation {
     private String agentId;
     private Long count;
     private Long amountAtomic;
+    private Long countError;
+    private Long amountError;
 
     public AgentAggregation() {
     }
@@ -17,6 +23,12 @@ public class AgentAggregation {
         this.amountAtomic = amountAtomic;
     }
 
+    public AgentAggregation(String agentId, Long count, Long amountAtomic, Long countError, Long amountError) {
+        this(agentId, count, amountAtomic);
+        this.countError = countError;
+        this.amountError = amountError;
+    }
+
     public String getAgentId() {
         return agentId;
     }
@@ -40,4 +52,20 @@ public class AgentAggregation {
     public void setAmountAtomic(Long amountAtomic) {
         this.amountAtomic = amountAtomic;
     }
+
+    public Long getCountError() {
+        return countError;
+    }
+
+    public void setCountError(Long countError) {
+        this.countError = countError;
+    }
+
+    public Long getAmountError() {
+        return amountError;
+    }
+
+    public void setAmountError(Long amountError) {
+        this.amountError = amountError;
+    }
 }
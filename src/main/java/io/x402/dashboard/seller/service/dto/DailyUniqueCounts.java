@@ -0,0 +1,53 @@
+package io.x402.dashboard.seller.service.dto;
+
+/**
+ * DTO for estimated distinct agents, paying agents and client IPs of one day.
+ */
+public class DailyUniqueCounts {
+    private String date;
+    private Long uniqueAgents;
+    private Long uniquePayingAgents;
+    private Long uniqueClientIps;
+
+    public DailyUniqueCounts() {
+    }
+
+    public DailyUniqueCounts(String date, Long uniqueAgents, Long uniquePayingAgents, Long uniqueClientIps) {
+        this.date = date;
+        this.uniqueAgents = uniqueAgents;
+        this.uniquePayingAgents = uniquePayingAgents;
+        this.uniqueClientIps = uniqueClientIps;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public Long getUniqueAgents() {
+        return uniqueAgents;
+    }
+
+    public void setUniqueAgents(Long uniqueAgents) {
+        this.uniqueAgents = uniqueAgents;
+    }
+
+    public Long getUniquePayingAgents() {
+        return uniquePayingAgents;
+    }
+
+    public void setUniquePayingAgents(Long uniquePayingAgents) {
+        this.uniquePayingAgents = uniquePayingAgents;
+    }
+
+    public Long getUniqueClientIps() {
+        return uniqueClientIps;
+    }
+
+    public void setUniqueClientIps(Long uniqueClientIps) {
+        this.uniqueClientIps = uniqueClientIps;
+    }
+}
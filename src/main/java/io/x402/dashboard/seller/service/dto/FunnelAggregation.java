@@ -0,0 +1,97 @@
+package io.x402.dashboard.seller.service.dto;
+
+/**
+ * DTO for payment funnel results per agent or endpoint.
+ *
+ * {@code agentId} or {@code endpoint} is set depending on the grouping. 402 counts are
+ * weighted by sample weight.
+ */
+public class FunnelAggregation {
+    private String agentId;
+    private String endpoint;
+    private Long paymentRequired;
+    private Long converted;
+    private Long abandoned;
+    private Long unmatched;
+    private Double conversionRate;
+    private Double avgTimeToPayMs;
+
+    public FunnelAggregation() {
+    }
+
+    public FunnelAggregation(String agentId, String endpoint, Long paymentRequired, Long converted,
+                             Long abandoned, Long unmatched, Double conversionRate, Double avgTimeToPayMs) {
+        this.agentId = agentId;
+        this.endpoint = endpoint;
+        this.paymentRequired = paymentRequired;
+        this.converted = converted;
+        this.abandoned = abandoned;
+        this.unmatched = unmatched;
+        this.conversionRate = conversionRate;
+        this.avgTimeToPayMs = avgTimeToPayMs;
+    }
+
+    public String getAgentId() {
+        return agentId;
+    }
+
+    public void setAgentId(String agentId) {
+        this.agentId = agentId;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public Long getPaymentRequired() {
+        return paymentRequired;
+    }
+
+    public void setPaymentRequired(Long paymentRequired) {
+        this.paymentRequired = paymentRequired;
+    }
+
+    public Long getConverted() {
+        return converted;
+    }
+
+    public void setConverted(Long converted) {
+        this.converted = converted;
+    }
+
+    public Long getAbandoned() {
+        return abandoned;
+    }
+
+    public void setAbandoned(Long abandoned) {
+        this.abandoned = abandoned;
+    }
+
+    public Long getUnmatched() {
+        return unmatched;
+    }
+
+    public void setUnmatched(Long unmatched) {
+        this.unmatched = unmatched;
+    }
+
+    public Double getConversionRate() {
+        return conversionRate;
+    }
+
+    public void setConversionRate(Double conversionRate) {
+        this.conversionRate = conversionRate;
+    }
+
+    public Double getAvgTimeToPayMs() {
+        return avgTimeToPayMs;
+    }
+
+    public void setAvgTimeToPayMs(Double avgTimeToPayMs) {
+        this.avgTimeToPayMs = avgTimeToPayMs;
+    }
+}
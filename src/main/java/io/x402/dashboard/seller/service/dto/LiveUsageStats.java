@@ -0,0 +1,97 @@
+package io.x402.dashboard.seller.service.dto;
+
+/**
+ * DTO for live KPI tiles, computed in memory over a recent window.
+ */
+public class LiveUsageStats {
+    private Long windowSeconds;
+    private Long requestCount;
+    private Double requestsPerSecond;
+    private Long successCount;
+    private Long revenueAtomic;
+    private Double revenuePerMinute;
+    private Long errorCount;
+    private Double errorRate;
+
+    public LiveUsageStats() {
+    }
+
+    public LiveUsageStats(Long windowSeconds, Long requestCount, Double requestsPerSecond, Long successCount,
+                          Long revenueAtomic, Double revenuePerMinute, Long errorCount, Double errorRate) {
+        this.windowSeconds = windowSeconds;
+        this.requestCount = requestCount;
+        this.requestsPerSecond = requestsPerSecond;
+        this.successCount = successCount;
+        this.revenueAtomic = revenueAtomic;
+        this.revenuePerMinute = revenuePerMinute;
+        this.errorCount = errorCount;
+        this.errorRate = errorRate;
+    }
+
+    public Long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(Long windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    public Long getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(Long requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public Double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public void setRequestsPerSecond(Double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public Long getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(Long successCount) {
+        this.successCount = successCount;
+    }
+
+    public Long getRevenueAtomic() {
+        return revenueAtomic;
+    }
+
+    public void setRevenueAtomic(Long revenueAtomic) {
+        this.revenueAtomic = revenueAtomic;
+    }
+
+    public Double getRevenuePerMinute() {
+        return revenuePerMinute;
+    }
+
+    public void setRevenuePerMinute(Double revenuePerMinute) {
+        this.revenuePerMinute = revenuePerMinute;
+    }
+
+    public Long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(Long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    /**
+     * Share of requests that failed verification or settlement, in percent.
+     */
+    public Double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(Double errorRate) {
+        this.errorRate = errorRate;
+    }
+}
@@ -8,6 +8,9 @@ public class OverviewTotals {
     private Long totalAmount;
     private Long successCount;
     private Long successAmount;
+    private Long uniqueAgents;
+    private Long uniquePayingAgents;
+    private Long uniqueClientIps;
 
     public OverviewTotals() {
     }
@@ -51,6 +54,39 @@ public class OverviewTotals {
         this.successAmount = successAmount;
     }
 
+    /**
+     * Estimated distinct agents; null unless distinct-count sketches are enabled.
+     */
+    public Long getUniqueAgents() {
+        return uniqueAgents;
+    }
+
+    public void setUniqueAgents(Long uniqueAgents) {
+        this.uniqueAgents = uniqueAgents;
+    }
+
+    /**
+     * Estimated distinct agents with a SUCCESS; null unless distinct-count sketches are enabled.
+     */
+    public Long getUniquePayingAgents() {
+        return uniquePayingAgents;
+    }
+
+    public void setUniquePayingAgents(Long uniquePayingAgents) {
+        this.uniquePayingAgents = uniquePayingAgents;
+    }
+
+    /**
+     * Estimated distinct client IPs; null unless distinct-count sketches are enabled.
+     */
+    public Long getUniqueClientIps() {
+        return uniqueClientIps;
+    }
+
+    public void setUniqueClientIps(Long uniqueClientIps) {
+        this.uniqueClientIps = uniqueClientIps;
+    }
+
     public Double getSuccessRate() {
         if (totalCount == null || totalCount == 0) {
             return 0.0;
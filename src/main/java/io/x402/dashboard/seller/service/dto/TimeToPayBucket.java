@@ -0,0 +1,35 @@
+package io.x402.dashboard.seller.service.dto;
+
+/**
+ * DTO for one time-to-pay histogram bucket.
+ *
+ * {@code upperMs} is the inclusive upper bound, null for the overflow bucket.
+ */
+public class TimeToPayBucket {
+    private Long upperMs;
+    private Long count;
+
+    public TimeToPayBucket() {
+    }
+
+    public TimeToPayBucket(Long upperMs, Long count) {
+        this.upperMs = upperMs;
+        this.count = count;
+    }
+
+    public Long getUpperMs() {
+        return upperMs;
+    }
+
+    public void setUpperMs(Long upperMs) {
+        this.upperMs = upperMs;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
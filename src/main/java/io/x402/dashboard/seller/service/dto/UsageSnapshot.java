@@ -0,0 +1,46 @@
+package io.x402.dashboard.seller.service.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the dashboard index page: totals, status breakdown and daily series of one range,
+ * computed from the same scan.
+ */
+public class UsageSnapshot {
+    private OverviewTotals totals;
+    private List<StatusAggregation> statusAggregations;
+    private List<DateAggregation> dailyData;
+
+    public UsageSnapshot() {
+    }
+
+    public UsageSnapshot(OverviewTotals totals, List<StatusAggregation> statusAggregations, List<DateAggregation> dailyData) {
+        this.totals = totals;
+        this.statusAggregations = statusAggregations;
+        this.dailyData = dailyData;
+    }
+
+    public OverviewTotals getTotals() {
+        return totals;
+    }
+
+    public void setTotals(OverviewTotals totals) {
+        this.totals = totals;
+    }
+
+    public List<StatusAggregation> getStatusAggregations() {
+        return statusAggregations;
+    }
+
+    public void setStatusAggregations(List<StatusAggregation> statusAggregations) {
+        this.statusAggregations = statusAggregations;
+    }
+
+    public List<DateAggregation> getDailyData() {
+        return dailyData;
+    }
+
+    public void setDailyData(List<DateAggregation> dailyData) {
+        this.dailyData = dailyData;
+    }
+}
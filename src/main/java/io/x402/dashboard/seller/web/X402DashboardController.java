@@ -1,10 +1,12 @@
 package io.x402.dashboard.seller.web;
 
+import io.x402.dashboard.common.pagination.X402CursorPage;
 import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
 import io.x402.dashboard.seller.domain.X402UsageStatus;
 import io.x402.dashboard.seller.service.X402UsageAggregationService;
 import io.x402.dashboard.seller.service.X402UsageEventService;
-import io.x402.dashboard.seller.service.dto.OverviewTotals;
+import io.x402.dashboard.seller.service.dto.UsageSnapshot;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -50,16 +52,16 @@ public class X402DashboardController {
                         .atZone(java.time.ZoneId.systemDefault())
                         .toOffsetDateTime());
 
-        OverviewTotals totals = aggregationService.getOverviewTotals(tenantId, fromTime, toTime);
+        UsageSnapshot snapshot = aggregationService.getSnapshot(tenantId, fromTime, toTime);
 
         model.addAttribute("apiPath", props.getApiPath());
         model.addAttribute("basePath", props.getPath());
         model.addAttribute("activePage", "overview");
-        model.addAttribute("totals", totals);
+        model.addAttribute("totals", snapshot.getTotals());
         model.addAttribute("fromDate", fromTime.toLocalDate().toString());
         model.addAttribute("toDate", toTime.toLocalDate().toString());
-        model.addAttribute("statusAggregations", aggregationService.aggregateByStatus(tenantId, fromTime, toTime));
-        model.addAttribute("dailyData", aggregationService.aggregateByDate(tenantId, fromTime, toTime, null));
+        model.addAttribute("statusAggregations", snapshot.getStatusAggregations());
+        model.addAttribute("dailyData", snapshot.getDailyData());
 
         return "x402-dashboard/index";
     }
@@ -128,6 +130,7 @@ public class X402DashboardController {
             @RequestParam(required = false) String to,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor,
             Model model) {
 
         OffsetDateTime fromTime = parseStartDateTime(from,
@@ -142,15 +145,33 @@ public class X402DashboardController {
                         .toOffsetDateTime());
         X402UsageStatus usageStatus = (status != null && !status.isEmpty()) ? X402UsageStatus.valueOf(status) : null;
 
-        var eventsPage = eventService.findEvents(tenantId, usageStatus, fromTime, toTime, page, size);
+        int pageSize = Math.max(1, Math.min(size, props.getMaxPageSize()));
 
         model.addAttribute("apiPath", props.getApiPath());
         model.addAttribute("basePath", props.getPath());
         model.addAttribute("activePage", "events");
-        model.addAttribute("events", eventsPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", eventsPage.getTotalPages());
-        model.addAttribute("totalElements", eventsPage.getTotalElements());
+        if (cursor != null) {
+            // Keyset mode: Older/Newer links, no page count
+            X402CursorPage<X402UsageEvent> eventsPage;
+            try {
+                eventsPage = eventService.findEvents(tenantId, usageStatus, fromTime, toTime,
+                        cursor.isEmpty() ? null : cursor, pageSize);
+            } catch (IllegalArgumentException e) {
+                // Invalid cursor, start from the first page
+                eventsPage = eventService.findEvents(tenantId, usageStatus, fromTime, toTime, null, pageSize);
+            }
+            model.addAttribute("cursorMode", true);
+            model.addAttribute("events", eventsPage.getContent());
+            model.addAttribute("nextCursor", eventsPage.getNextCursor());
+            model.addAttribute("prevCursor", eventsPage.getPrevCursor());
+        } else {
+            var eventsPage = eventService.findEvents(tenantId, usageStatus, fromTime, toTime, page, pageSize);
+            model.addAttribute("cursorMode", false);
+            model.addAttribute("events", eventsPage.getContent());
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", eventsPage.getTotalPages());
+            model.addAttribute("totalElements", eventsPage.getTotalElements());
+        }
         model.addAttribute("fromDate", fromTime.toLocalDate().toString());
         model.addAttribute("toDate", toTime.toLocalDate().toString());
         model.addAttribute("selectedStatus", status);
@@ -0,0 +1,75 @@
+package io.x402.dashboard.seller.web;
+
+import io.x402.dashboard.common.jdbc.X402JdbcExport;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * REST API controller for the event export, next to X402DashboardRestController.
+ *
+ * The export streams into the servlet response (StreamingResponseBody), which only Spring MVC
+ * supports, so this controller is registered in servlet web applications only.
+ */
+@RestController
+@RequestMapping("${x402.dashboard.api-path:/x402-dashboard/api}")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class X402DashboardExportController {
+
+    private final X402UsageEventService eventService;
+
+    public X402DashboardExportController(X402UsageEventService eventService) {
+        this.eventService = eventService;
+    }
+
+    /**
+     * Export events as NDJSON or CSV, oldest first.
+     *
+     * Rows are streamed from a database cursor straight into the response, so the export
+     * size is not limited by heap. {@code columns} selects and orders the fields
+     * (comma-separated), all by default.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEvents(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String columns) {
+
+        X402TimeRange range = X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+
+        X402UsageStatus usageStatus;
+        X402JdbcExport.Format exportFormat;
+        List<X402JdbcExport.Column> exportColumns;
+        try {
+            usageStatus = (status != null && !status.isEmpty()) ? X402UsageStatus.valueOf(status) : null;
+            exportFormat = X402JdbcExport.Format.parse(format);
+            exportColumns = eventService.exportColumns(columns);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> eventService.exportEvents(
+                out, exportFormat, exportColumns, tenantId, usageStatus, fromTime, toTime);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"x402-usage-events." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+}
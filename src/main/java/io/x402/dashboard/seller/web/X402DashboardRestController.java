@@ -1,22 +1,55 @@
 package io.x402.dashboard.seller.web;
 
+import io.x402.dashboard.common.sketch.X402DistinctCounter;
+import io.x402.dashboard.common.sketch.X402DistinctMetric;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Dimension;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Metric;
+import io.x402.dashboard.common.sketch.X402LatencyPercentiles;
+import io.x402.dashboard.common.sketch.X402LatencyRecorder;
 import io.x402.dashboard.seller.config.X402DashboardProperties;
 import io.x402.dashboard.seller.domain.X402UsageEvent;
 import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.service.X402HeavyHitterAggregator;
+import io.x402.dashboard.seller.service.X402LiveUsageAggregator;
+import io.x402.dashboard.seller.service.X402PaymentFunnelCorrelator;
 import io.x402.dashboard.seller.service.X402UsageAggregationService;
 import io.x402.dashboard.seller.service.X402UsageEventService;
 import io.x402.dashboard.seller.service.dto.*;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * REST API controller for dashboard data.
+ *
+ * The overview, status, top-agent and top-endpoint endpoints accept a {@code window}
+ * (e.g. {@code 5m}, {@code 1h}) instead of {@code from}/{@code to}. Windows the live
+ * aggregator covers are answered from memory; longer ones query the database. A malformed or
+ * non-positive window is rejected with 400.
+ *
+ * The funnel endpoints report how many 402s convert to a paid SUCCESS, per agent or
+ * endpoint, and how long payment takes. They respond 404 unless
+ * {@code x402.dashboard.funnel.enabled=true}.
+ *
+ * With {@code x402.dashboard.distinct.enabled=true}, the overview carries estimated unique
+ * agents, paying agents and client IPs, and {@code /daily/unique} serves them per day.
+ *
+ * The latency endpoints report latency or settlement delay percentiles from hourly
+ * histograms. They respond 404 unless {@code x402.dashboard.latency.enabled=true}.
  */
 @RestController
 @RequestMapping("${x402.dashboard.api-path:/x402-dashboard/api}")
@@ -25,6 +58,11 @@ public class X402DashboardRestController {
     private final X402UsageAggregationService aggregationService;
     private final X402UsageEventService eventService;
     private final X402DashboardProperties props;
+    private final X402LiveUsageAggregator liveAggregator;
+    private final X402PaymentFunnelCorrelator funnelCorrelator;
+    private final X402HeavyHitterAggregator heavyHitters;
+    private final X402DistinctCounter distinctCounter;
+    private final X402LatencyRecorder latencyRecorder;
 
     public X402DashboardRestController(
             X402UsageAggregationService aggregationService,
@@ -33,79 +71,200 @@ public class X402DashboardRestController {
         this.aggregationService = aggregationService;
         this.eventService = eventService;
         this.props = props;
+        this.liveAggregator = null;
+        this.funnelCorrelator = null;
+        this.heavyHitters = null;
+        this.distinctCounter = null;
+        this.latencyRecorder = null;
+    }
+
+    @Autowired
+    public X402DashboardRestController(
+            X402UsageAggregationService aggregationService,
+            X402UsageEventService eventService,
+            X402DashboardProperties props,
+            ObjectProvider<X402LiveUsageAggregator> liveAggregator,
+            ObjectProvider<X402PaymentFunnelCorrelator> funnelCorrelator,
+            ObjectProvider<X402HeavyHitterAggregator> heavyHitters,
+            ObjectProvider<X402DistinctCounter> distinctCounter,
+            ObjectProvider<X402LatencyRecorder> latencyRecorder) {
+        this.aggregationService = aggregationService;
+        this.eventService = eventService;
+        this.props = props;
+        this.liveAggregator = liveAggregator.getIfAvailable();
+        this.funnelCorrelator = funnelCorrelator.getIfAvailable();
+        this.heavyHitters = heavyHitters.getIfAvailable();
+        this.distinctCounter = distinctCounter.getIfAvailable();
+        this.latencyRecorder = latencyRecorder.getIfAvailable();
     }
 
     /**
      * Get overview totals.
+     *
+     * Unique counts are only filled in outside live windows, for the whole days the range
+     * touches.
      */
     @GetMapping("/overview")
     public ResponseEntity<OverviewTotals> getOverview(
             @RequestParam(required = false) String tenantId,
             @RequestParam(required = false) String from,
-            @RequestParam(required = false) String to) {
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String window) {
 
-        OffsetDateTime fromTime = parseStartDateTime(from,
-                java.time.LocalDate.now().minusDays(7)
-                        .atStartOfDay()
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
-        OffsetDateTime toTime = parseEndDateTime(to,
-                java.time.LocalDate.now()
-                        .atTime(23, 59, 59)
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
-
-        return ResponseEntity.ok(aggregationService.getOverviewTotals(tenantId, fromTime, toTime));
+        Duration liveWindow;
+        try {
+            liveWindow = parseWindow(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isLive(liveWindow)) {
+            return ResponseEntity.ok(liveAggregator.getOverviewTotals(tenantId, liveWindow));
+        }
+        X402TimeRange range = liveWindow != null ? X402TimeRange.last(liveWindow) : X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+
+        return ResponseEntity.ok(withUniqueCounts(
+                aggregationService.getOverviewTotals(tenantId, fromTime, toTime), tenantId, fromTime, toTime));
     }
 
     /**
-     * Get top agents by request count.
+     * Get top agents by request count, or by amount with {@code sort=amount}.
+     *
+     * With heavy-hitter sketches enabled, answered from the sketches unless {@code exact=true};
+     * the response then carries the error bounds of each count and amount.
      */
     @GetMapping("/agents/top")
     public ResponseEntity<List<AgentAggregation>> getTopAgents(
             @RequestParam(required = false) String tenantId,
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String window,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "count") String sort,
+            @RequestParam(defaultValue = "false") boolean exact) {
 
-        OffsetDateTime fromTime = parseStartDateTime(from,
-                java.time.LocalDate.now().minusDays(7)
-                        .atStartOfDay()
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
-        OffsetDateTime toTime = parseEndDateTime(to,
-                java.time.LocalDate.now()
-                        .atTime(23, 59, 59)
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
         X402UsageStatus usageStatus = status != null ? X402UsageStatus.valueOf(status) : X402UsageStatus.SUCCESS;
+        boolean byAmount = "amount".equalsIgnoreCase(sort);
+        Duration liveWindow;
+        try {
+            liveWindow = parseWindow(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isLive(liveWindow)) {
+            return ResponseEntity.ok(top(liveAggregator.aggregateByAgent(tenantId, liveWindow, usageStatus),
+                    byAmount ? AgentAggregation::getAmountAtomic : AgentAggregation::getCount, limit));
+        }
+        X402TimeRange range = liveWindow != null ? X402TimeRange.last(liveWindow) : X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+        if (heavyHitters != null && !exact) {
+            return ResponseEntity.ok(heavyHitters.topAgents(tenantId, fromTime, toTime, usageStatus, limit, byAmount));
+        }
 
-        return ResponseEntity.ok(aggregationService.aggregateByAgent(tenantId, fromTime, toTime, usageStatus));
+        return ResponseEntity.ok(top(aggregationService.aggregateByAgent(tenantId, fromTime, toTime, usageStatus),
+                byAmount ? AgentAggregation::getAmountAtomic : AgentAggregation::getCount, limit));
     }
 
     /**
-     * Get top endpoints by request count.
+     * Get top endpoints by request count, or by amount with {@code sort=amount}.
+     *
+     * With heavy-hitter sketches enabled, answered from the sketches unless {@code exact=true};
+     * the response then carries the error bounds of each count and amount.
      */
     @GetMapping("/endpoints/top")
     public ResponseEntity<List<EndpointAggregation>> getTopEndpoints(
             @RequestParam(required = false) String tenantId,
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String window,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "count") String sort,
+            @RequestParam(defaultValue = "false") boolean exact) {
 
-        OffsetDateTime fromTime = parseStartDateTime(from,
-                java.time.LocalDate.now().minusDays(7)
-                        .atStartOfDay()
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
-        OffsetDateTime toTime = parseEndDateTime(to,
-                java.time.LocalDate.now()
-                        .atTime(23, 59, 59)
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
         X402UsageStatus usageStatus = status != null ? X402UsageStatus.valueOf(status) : X402UsageStatus.SUCCESS;
+        boolean byAmount = "amount".equalsIgnoreCase(sort);
+        Duration liveWindow;
+        try {
+            liveWindow = parseWindow(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isLive(liveWindow)) {
+            return ResponseEntity.ok(top(liveAggregator.aggregateByEndpoint(tenantId, liveWindow, usageStatus),
+                    byAmount ? EndpointAggregation::getAmountAtomic : EndpointAggregation::getCount, limit));
+        }
+        X402TimeRange range = liveWindow != null ? X402TimeRange.last(liveWindow) : X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+        if (heavyHitters != null && !exact) {
+            return ResponseEntity.ok(heavyHitters.topEndpoints(tenantId, fromTime, toTime, usageStatus, limit, byAmount));
+        }
+
+        return ResponseEntity.ok(top(aggregationService.aggregateByEndpoint(tenantId, fromTime, toTime, usageStatus),
+                byAmount ? EndpointAggregation::getAmountAtomic : EndpointAggregation::getCount, limit));
+    }
+
+    /**
+     * Get the payment funnel (402s issued, converted, abandoned) per agent.
+     */
+    @GetMapping("/funnel/agents")
+    public ResponseEntity<List<FunnelAggregation>> getAgentFunnel(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+
+        if (funnelCorrelator == null) {
+            return ResponseEntity.notFound().build();
+        }
+        X402TimeRange range = X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+
+        return ResponseEntity.ok(funnelCorrelator.aggregateByAgent(tenantId, fromTime, toTime));
+    }
+
+    /**
+     * Get the payment funnel (402s issued, converted, abandoned) per endpoint.
+     */
+    @GetMapping("/funnel/endpoints")
+    public ResponseEntity<List<FunnelAggregation>> getEndpointFunnel(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
 
-        return ResponseEntity.ok(aggregationService.aggregateByEndpoint(tenantId, fromTime, toTime, usageStatus));
+        if (funnelCorrelator == null) {
+            return ResponseEntity.notFound().build();
+        }
+        X402TimeRange range = X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+
+        return ResponseEntity.ok(funnelCorrelator.aggregateByEndpoint(tenantId, fromTime, toTime));
+    }
+
+    /**
+     * Get the time-to-pay histogram, optionally for one agent and/or endpoint.
+     */
+    @GetMapping("/funnel/time-to-pay")
+    public ResponseEntity<List<TimeToPayBucket>> getTimeToPay(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String agentId,
+            @RequestParam(required = false) String endpoint,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+
+        if (funnelCorrelator == null) {
+            return ResponseEntity.notFound().build();
+        }
+        X402TimeRange range = X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+
+        return ResponseEntity.ok(funnelCorrelator.getTimeToPay(tenantId, agentId, endpoint, fromTime, toTime));
     }
 
     /**
@@ -115,22 +274,65 @@ public class X402DashboardRestController {
     public ResponseEntity<List<StatusAggregation>> getStatusAggregation(
             @RequestParam(required = false) String tenantId,
             @RequestParam(required = false) String from,
-            @RequestParam(required = false) String to) {
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String window) {
 
-        OffsetDateTime fromTime = parseStartDateTime(from,
-                java.time.LocalDate.now().minusDays(7)
-                        .atStartOfDay()
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
-        OffsetDateTime toTime = parseEndDateTime(to,
-                java.time.LocalDate.now()
-                        .atTime(23, 59, 59)
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
+        Duration liveWindow;
+        try {
+            liveWindow = parseWindow(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isLive(liveWindow)) {
+            return ResponseEntity.ok(liveAggregator.aggregateByStatus(tenantId, liveWindow));
+        }
+        X402TimeRange range = liveWindow != null ? X402TimeRange.last(liveWindow) : X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
 
         return ResponseEntity.ok(aggregationService.aggregateByStatus(tenantId, fromTime, toTime));
     }
 
+    /**
+     * Get live KPIs (request rate, revenue per minute, error rate) over a recent window,
+     * computed in memory.
+     */
+    @GetMapping("/live")
+    public ResponseEntity<LiveUsageStats> getLiveStats(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(defaultValue = "60s") String window) {
+
+        Duration liveWindow;
+        try {
+            liveWindow = parseWindow(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (liveAggregator == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isLive(liveWindow)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(liveAggregator.getLiveStats(tenantId, liveWindow));
+    }
+
+    /**
+     * Get overview totals, status breakdown and daily series in one call, from one scan.
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<UsageSnapshot> getSnapshot(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+
+        X402TimeRange range = X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+
+        return ResponseEntity.ok(aggregationService.getSnapshot(tenantId, fromTime, toTime));
+    }
+
     /**
      * Get daily aggregation for charts.
      */
@@ -141,46 +343,160 @@ public class X402DashboardRestController {
             @RequestParam(required = false) String to,
             @RequestParam(required = false) String status) {
 
-        OffsetDateTime fromTime = parseStartDateTime(from,
-                java.time.LocalDate.now().minusDays(30)
-                        .atStartOfDay()
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
-        OffsetDateTime toTime = parseEndDateTime(to,
-                java.time.LocalDate.now()
-                        .atTime(23, 59, 59)
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
+        X402TimeRange range = X402TimeRange.parse(from, to, 30);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
         X402UsageStatus usageStatus = status != null ? X402UsageStatus.valueOf(status) : null;
 
         return ResponseEntity.ok(aggregationService.aggregateByDate(tenantId, fromTime, toTime, usageStatus));
     }
 
+    /**
+     * Get estimated unique agents, paying agents and client IPs per day.
+     */
+    @GetMapping("/daily/unique")
+    public ResponseEntity<List<DailyUniqueCounts>> getDailyUniqueCounts(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+
+        if (distinctCounter == null) {
+            return ResponseEntity.notFound().build();
+        }
+        X402TimeRange range = X402TimeRange.parse(from, to, 30);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+
+        Map<LocalDate, Long> agents = distinctCounter.daily(X402DistinctMetric.AGENT, tenantId, fromTime, toTime);
+        Map<LocalDate, Long> payingAgents =
+                distinctCounter.daily(X402DistinctMetric.PAYING_AGENT, tenantId, fromTime, toTime);
+        Map<LocalDate, Long> clientIps = distinctCounter.daily(X402DistinctMetric.CLIENT_IP, tenantId, fromTime, toTime);
+        TreeSet<LocalDate> days = new TreeSet<>(agents.keySet());
+        days.addAll(clientIps.keySet());
+        List<DailyUniqueCounts> result = new ArrayList<>(days.size());
+        for (LocalDate day : days) {
+            result.add(new DailyUniqueCounts(day.toString(), agents.getOrDefault(day, 0L),
+                    payingAgents.getOrDefault(day, 0L), clientIps.getOrDefault(day, 0L)));
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Get latency ({@code metric=latency}) or settlement delay ({@code metric=settlement-delay})
+     * percentiles, for one endpoint, one agent or, without either, all requests.
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<X402LatencyPercentiles> getLatency(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String endpoint,
+            @RequestParam(required = false) String agentId,
+            @RequestParam(defaultValue = "latency") String metric,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+
+        if (latencyRecorder == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Metric latencyMetric = parseLatencyMetric(metric);
+        if (latencyMetric == null || (endpoint != null && agentId != null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        X402TimeRange range = X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+
+        if (agentId != null) {
+            return ResponseEntity.ok(latencyRecorder.percentiles(
+                    latencyMetric, Dimension.AGENT, tenantId, agentId, fromTime, toTime));
+        }
+        return ResponseEntity.ok(latencyRecorder.percentiles(
+                latencyMetric, Dimension.ENDPOINT, tenantId, endpoint, fromTime, toTime));
+    }
+
+    /**
+     * Get latency or settlement delay percentiles per endpoint, busiest first.
+     */
+    @GetMapping("/latency/endpoints")
+    public ResponseEntity<List<X402LatencyPercentiles>> getEndpointLatency(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(defaultValue = "latency") String metric,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) Integer limit) {
+
+        return latencyBreakdown(Dimension.ENDPOINT, tenantId, metric, from, to, limit);
+    }
+
+    /**
+     * Get latency or settlement delay percentiles per agent, busiest first.
+     */
+    @GetMapping("/latency/agents")
+    public ResponseEntity<List<X402LatencyPercentiles>> getAgentLatency(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(defaultValue = "latency") String metric,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) Integer limit) {
+
+        return latencyBreakdown(Dimension.AGENT, tenantId, metric, from, to, limit);
+    }
+
+    private ResponseEntity<List<X402LatencyPercentiles>> latencyBreakdown(
+            Dimension dimension, String tenantId, String metric, String from, String to, Integer limit) {
+        if (latencyRecorder == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Metric latencyMetric = parseLatencyMetric(metric);
+        if (latencyMetric == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        X402TimeRange range = X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
+
+        return ResponseEntity.ok(latencyRecorder.breakdown(latencyMetric, dimension, tenantId, fromTime, toTime, limit));
+    }
+
+    private static Metric parseLatencyMetric(String metric) {
+        try {
+            return Metric.parse(metric);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Get events with pagination.
+     *
+     * Passing {@code cursor} (empty for the first page) switches to keyset pagination: the
+     * response carries {@code nextCursor}/{@code prevCursor} instead of page numbers and
+     * skips the total count, so deep pages cost the same as the first one.
      */
     @GetMapping("/events")
-    public ResponseEntity<Page<X402UsageEvent>> getEvents(
+    public ResponseEntity<?> getEvents(
             @RequestParam(required = false) String tenantId,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
-
-        OffsetDateTime fromTime = parseStartDateTime(from,
-                java.time.LocalDate.now().minusDays(7)
-                        .atStartOfDay()
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
-        OffsetDateTime toTime = parseEndDateTime(to,
-                java.time.LocalDate.now()
-                        .atTime(23, 59, 59)
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime());
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor) {
+
+        X402TimeRange range = X402TimeRange.parse(from, to, 7);
+        OffsetDateTime fromTime = range.getFrom();
+        OffsetDateTime toTime = range.getTo();
         X402UsageStatus usageStatus = (status != null && !status.isEmpty()) ? X402UsageStatus.valueOf(status) : null;
+        int pageSize = Math.max(1, Math.min(size, props.getMaxPageSize()));
 
-        return ResponseEntity.ok(eventService.findEvents(tenantId, usageStatus, fromTime, toTime, page, size));
+        if (cursor != null) {
+            try {
+                return ResponseEntity.ok(eventService.findEvents(
+                        tenantId, usageStatus, fromTime, toTime, cursor.isEmpty() ? null : cursor, pageSize));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok(eventService.findEvents(tenantId, usageStatus, fromTime, toTime, page, pageSize));
     }
 
     /**
@@ -202,55 +518,56 @@ public class X402DashboardRestController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    private OffsetDateTime parseDateTime(String dateStr, OffsetDateTime defaultValue) {
-        if (dateStr == null || dateStr.isEmpty()) {
-            return defaultValue;
-        }
-        try {
-            return OffsetDateTime.parse(dateStr);
-        } catch (Exception e) {
-            try {
-                return OffsetDateTime.parse(dateStr + "T00:00:00Z");
-            } catch (Exception ex) {
-                return defaultValue;
-            }
+    /**
+     * Sort exact aggregation rows by a measure, largest first, and keep the first {@code limit}.
+     */
+    private static <T> List<T> top(List<T> rows, Function<T, Long> measure, Integer limit) {
+        Comparator<T> order = Comparator.comparing(measure, Comparator.nullsFirst(Comparator.naturalOrder()));
+        return rows.stream()
+                .sorted(order.reversed())
+                .limit(limit != null && limit > 0 ? limit : Long.MAX_VALUE)
+                .collect(Collectors.toList());
+    }
+
+    private OverviewTotals withUniqueCounts(
+            OverviewTotals totals, String tenantId, OffsetDateTime from, OffsetDateTime to) {
+        if (distinctCounter != null) {
+            totals.setUniqueAgents(distinctCounter.count(X402DistinctMetric.AGENT, tenantId, from, to));
+            totals.setUniquePayingAgents(distinctCounter.count(X402DistinctMetric.PAYING_AGENT, tenantId, from, to));
+            totals.setUniqueClientIps(distinctCounter.count(X402DistinctMetric.CLIENT_IP, tenantId, from, to));
         }
+        return totals;
     }
 
-    private OffsetDateTime parseStartDateTime(String dateStr, OffsetDateTime defaultValue) {
-        if (dateStr == null || dateStr.isEmpty()) {
-            return defaultValue;
+    private boolean isLive(Duration window) {
+        return window != null && liveAggregator != null && liveAggregator.supports(window);
+    }
+
+    /**
+     * A window such as {@code 5m} or {@code 1h}, or null if none is given.
+     *
+     * @throws IllegalArgumentException if the window is malformed or not positive
+     */
+    private static Duration parseWindow(String window) {
+        if (window == null || window.isEmpty()) {
+            return null;
         }
-        try {
-            // Try ISO format first
-            return OffsetDateTime.parse(dateStr);
-        } catch (Exception e) {
-            try {
-                // Try date-only format - start of day in system timezone
-                return java.time.LocalDate.parse(dateStr)
-                        .atStartOfDay()
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime();
-            } catch (Exception ex) {
-                return defaultValue;
-            }
+        Duration duration = DurationStyle.detectAndParse(window);
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
         }
+        return duration;
     }
 
-    private OffsetDateTime parseEndDateTime(String dateStr, OffsetDateTime defaultValue) {
+    private OffsetDateTime parseDateTime(String dateStr, OffsetDateTime defaultValue) {
         if (dateStr == null || dateStr.isEmpty()) {
             return defaultValue;
         }
         try {
-            // Try ISO format first
             return OffsetDateTime.parse(dateStr);
         } catch (Exception e) {
             try {
-                // Try date-only format - end of day in system timezone
-                return java.time.LocalDate.parse(dateStr)
-                        .atTime(23, 59, 59)
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toOffsetDateTime();
+                return OffsetDateTime.parse(dateStr + "T00:00:00Z");
             } catch (Exception ex) {
                 return defaultValue;
             }
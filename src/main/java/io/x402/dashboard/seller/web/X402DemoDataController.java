@@ -180,7 +180,7 @@ public class X402DemoDataController {
 
         return ResponseEntity.ok(Map.of(
                 "message", "Event created successfully",
-                "eventId", event.getId(),
+                "eventId", event.getId() != null ? event.getId() : "queued",
                 "status", event.getStatus().name()
         ));
     }
@@ -0,0 +1,92 @@
+package io.x402.dashboard.seller.web;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+/**
+ * Time range of a dashboard API request.
+ *
+ * {@code from} and {@code to} are ISO date-times, or dates meaning the start and the end of
+ * that day in the system time zone. A missing or unparseable bound falls back to the default
+ * range: from the start of the day {@code defaultDays} ago to the end of today.
+ */
+final class X402TimeRange {
+
+    private final OffsetDateTime from;
+    private final OffsetDateTime to;
+
+    private X402TimeRange(OffsetDateTime from, OffsetDateTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    static X402TimeRange parse(String from, String to, int defaultDays) {
+        return new X402TimeRange(
+                parseStart(from, LocalDate.now().minusDays(defaultDays)
+                        .atStartOfDay()
+                        .atZone(ZoneId.systemDefault())
+                        .toOffsetDateTime()),
+                parseEnd(to, LocalDate.now()
+                        .atTime(23, 59, 59)
+                        .atZone(ZoneId.systemDefault())
+                        .toOffsetDateTime()));
+    }
+
+    /**
+     * The last {@code window} up to now.
+     */
+    static X402TimeRange last(Duration window) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new X402TimeRange(now.minus(window), now);
+    }
+
+    OffsetDateTime getFrom() {
+        return from;
+    }
+
+    OffsetDateTime getTo() {
+        return to;
+    }
+
+    private static OffsetDateTime parseStart(String dateStr, OffsetDateTime defaultValue) {
+        if (dateStr == null || dateStr.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            // Try ISO format first
+            return OffsetDateTime.parse(dateStr);
+        } catch (Exception e) {
+            try {
+                // Try date-only format - start of day in system timezone
+                return LocalDate.parse(dateStr)
+                        .atStartOfDay()
+                        .atZone(ZoneId.systemDefault())
+                        .toOffsetDateTime();
+            } catch (Exception ex) {
+                return defaultValue;
+            }
+        }
+    }
+
+    private static OffsetDateTime parseEnd(String dateStr, OffsetDateTime defaultValue) {
+        if (dateStr == null || dateStr.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            // Try ISO format first
+            return OffsetDateTime.parse(dateStr);
+        } catch (Exception e) {
+            try {
+                // Try date-only format - end of day in system timezone
+                return LocalDate.parse(dateStr)
+                        .atTime(23, 59, 59)
+                        .atZone(ZoneId.systemDefault())
+                        .toOffsetDateTime();
+            } catch (Exception ex) {
+                return defaultValue;
+            }
+        }
+    }
+}
@@ -1,33 +1,41 @@
 package io.x402.dashboard.seller.web;
 
+import io.x402.dashboard.common.web.X402EndpointTemplates;
 import io.x402.dashboard.seller.config.X402DashboardProperties;
 import io.x402.dashboard.seller.domain.X402UsageStatus;
 import io.x402.dashboard.seller.logging.X402UsageLogger;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
 /**
  * Interceptor for automatic request logging.
  * Logs all requests with their status codes and latency.
+ *
+ * Requests are recorded under the handler mapping pattern they matched (e.g.
+ * {@code /api/items/{id}}) rather than their URI, so the number of distinct endpoints stays
+ * bounded by the number of routes.
+ *
+ * Registered by X402SellerAutoConfiguration in servlet applications only.
  */
-@Component
 public class X402UsageLoggingInterceptor implements HandlerInterceptor {
 
     private final X402UsageLogger logger;
     private final X402DashboardProperties properties;
+    private final X402EndpointTemplates endpointTemplates;
 
     private static final String START_TIME_ATTR = "X402_START_TIME";
 
     public X402UsageLoggingInterceptor(X402UsageLogger logger, X402DashboardProperties properties) {
         this.logger = logger;
         this.properties = properties;
+        this.endpointTemplates = new X402EndpointTemplates(properties.getEndpoint());
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        request.setAttribute(START_TIME_ATTR, System.currentTimeMillis());
+        request.setAttribute(START_TIME_ATTR, System.nanoTime());
         return true;
     }
 
@@ -46,12 +54,12 @@ public class X402UsageLoggingInterceptor implements HandlerInterceptor {
 
         int status = response.getStatus();
         Long startTime = (Long) request.getAttribute(START_TIME_ATTR);
-        long latency = startTime != null ? System.currentTimeMillis() - startTime : 0;
+        long latencyNanos = startTime != null ? System.nanoTime() - startTime : 0;
 
         X402UsageStatus usageStatus = mapHttpStatusToUsageStatus(status);
 
         String method = request.getMethod();
-        String endpoint = uri;
+        String endpoint = resolveEndpoint(request);
         String clientIp = getClientIp(request);
         String userAgent = request.getHeader("User-Agent");
 
@@ -65,15 +73,27 @@ public class X402UsageLoggingInterceptor implements HandlerInterceptor {
                 .agentId(agentId)
                 .method(method)
                 .endpoint(endpoint)
+                .rawPath(endpointTemplates.rawPath(uri, request.getQueryString()))
                 .network(network)
                 .asset(asset)
                 .status(usageStatus)
                 .clientIp(clientIp)
                 .userAgent(userAgent != null && userAgent.length() > 500 ? userAgent.substring(0, 500) : userAgent)
-                .latencyMs(latency)
+                .latencyNanos(latencyNanos)
                 .log();
     }
 
+    private String resolveEndpoint(HttpServletRequest request) {
+        if (properties.getEndpoint().isUseHandlerPattern()) {
+            // A String or a PathPattern, depending on the handler mapping
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                return request.getContextPath() + pattern;
+            }
+        }
+        return endpointTemplates.endpoint(request.getRequestURI(), request.getQueryString());
+    }
+
     private X402UsageStatus mapHttpStatusToUsageStatus(int httpStatus) {
         if (httpStatus == 402) {
             return X402UsageStatus.PAYMENT_REQUIRED;
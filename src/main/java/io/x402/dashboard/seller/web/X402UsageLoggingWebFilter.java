@@ -0,0 +1,127 @@
+package io.x402.dashboard.seller.web;
+
+import io.x402.dashboard.common.ingest.X402NonBlockingSink;
+import io.x402.dashboard.common.web.X402EndpointTemplates;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.logging.X402UsageLogger;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+
+/**
+ * WebFlux filter for automatic request logging; the reactive counterpart of
+ * X402UsageLoggingInterceptor, capturing the same fields.
+ *
+ * Requests are recorded under the handler mapping pattern they matched, as with Spring MVC.
+ * The event is built when the exchange completes and handed to an X402NonBlockingSink, so
+ * the event loop never waits for the database or the write-behind queue.
+ */
+public class X402UsageLoggingWebFilter implements WebFilter, Ordered {
+
+    private final X402UsageLogger logger;
+    private final X402NonBlockingSink<X402UsageEvent> sink;
+    private final X402DashboardProperties properties;
+    private final X402EndpointTemplates endpointTemplates;
+
+    public X402UsageLoggingWebFilter(
+            X402UsageLogger logger,
+            X402NonBlockingSink<X402UsageEvent> sink,
+            X402DashboardProperties properties) {
+        this.logger = logger;
+        this.sink = sink;
+        this.properties = properties;
+        this.endpointTemplates = new X402EndpointTemplates(properties.getEndpoint());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        // Skip logging for dashboard endpoints
+        String uri = exchange.getRequest().getPath().value();
+        if (uri.startsWith(properties.getPath()) || uri.startsWith(properties.getApiPath())) {
+            return chain.filter(exchange);
+        }
+        long startTime = System.nanoTime();
+        // Hand the event off before the terminal signal reaches the server
+        return chain.filter(exchange)
+                .doOnSuccess(v -> logExchange(exchange, SignalType.ON_COMPLETE, startTime))
+                .doOnError(e -> logExchange(exchange, SignalType.ON_ERROR, startTime))
+                .doOnCancel(() -> logExchange(exchange, SignalType.CANCEL, startTime));
+    }
+
+    @Override
+    public int getOrder() {
+        // Outermost, so the latency covers every other filter
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private void logExchange(ServerWebExchange exchange, SignalType signal, long startTime) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        X402UsageStatus usageStatus = signal == SignalType.ON_COMPLETE
+                ? mapHttpStatusToUsageStatus(status != null ? status.value() : 200)
+                : X402UsageStatus.UNKNOWN_ERROR;
+
+        String userAgent = request.getHeaders().getFirst("User-Agent");
+
+        sink.offer(logger.builder()
+                .tenantId(properties.getDefaultTenantId())
+                .agentId(request.getHeaders().getFirst("X-402-Agent-Id"))
+                .method(request.getMethod().name())
+                .endpoint(resolveEndpoint(exchange))
+                .rawPath(endpointTemplates.rawPath(request.getPath().value(), request.getURI().getRawQuery()))
+                .network(request.getHeaders().getFirst("X-402-Network"))
+                .asset(request.getHeaders().getFirst("X-402-Asset"))
+                .status(usageStatus)
+                .clientIp(getClientIp(request))
+                .userAgent(userAgent != null && userAgent.length() > 500 ? userAgent.substring(0, 500) : userAgent)
+                .latencyNanos(System.nanoTime() - startTime)
+                .build());
+    }
+
+    private String resolveEndpoint(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (properties.getEndpoint().isUseHandlerPattern()) {
+            PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                return request.getPath().contextPath().value() + pattern.getPatternString();
+            }
+        }
+        return endpointTemplates.endpoint(request.getPath().value(), request.getURI().getRawQuery());
+    }
+
+    private X402UsageStatus mapHttpStatusToUsageStatus(int httpStatus) {
+        if (httpStatus == 402) {
+            return X402UsageStatus.PAYMENT_REQUIRED;
+        } else if (httpStatus >= 200 && httpStatus < 300) {
+            return X402UsageStatus.SUCCESS;
+        } else {
+            return X402UsageStatus.UNKNOWN_ERROR;
+        }
+    }
+
+    private String getClientIp(ServerHttpRequest request) {
+        String ip = request.getHeaders().getFirst("X-Forwarded-For");
+        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
+            InetSocketAddress remoteAddress = request.getRemoteAddress();
+            ip = remoteAddress != null && remoteAddress.getAddress() != null
+                    ? remoteAddress.getAddress().getHostAddress()
+                    : null;
+        }
+        // Handle multiple IPs (take the first one)
+        if (ip != null && ip.contains(",")) {
+            ip = ip.split(",")[0].trim();
+        }
+        return ip;
+    }
+}
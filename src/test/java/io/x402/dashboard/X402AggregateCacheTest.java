@@ -0,0 +1,263 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.buyer.domain.ServiceCategory;
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.buyer.logging.X402SpendingLogger;
+import io.x402.dashboard.buyer.repository.X402SpendingEventRepository;
+import io.x402.dashboard.buyer.service.X402SpendingAggregationService;
+import io.x402.dashboard.buyer.service.X402SpendingEventService;
+import io.x402.dashboard.common.cache.X402AggregateCache;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.service.X402UsageAggregationService;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import io.x402.dashboard.seller.service.dto.OverviewTotals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402AggregateCache and the cached aggregation services.
+ */
+@SpringBootTest(properties = {
+        "x402.dashboard.cache.enabled=true",
+        "x402.dashboard.cache.settle-time=0s"
+})
+class X402AggregateCacheTest {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    @Autowired
+    private X402AggregateCache cache;
+
+    @Autowired
+    private X402UsageEventService usageEventService;
+
+    @Autowired
+    private X402UsageAggregationService usageAggregationService;
+
+    @Autowired
+    private X402UsageEventRepository usageRepository;
+
+    @Autowired
+    private X402SpendingEventService spendingEventService;
+
+    @Autowired
+    private X402SpendingAggregationService spendingAggregationService;
+
+    @Autowired
+    private X402SpendingEventRepository spendingRepository;
+
+    @Autowired
+    private X402SpendingLogger spendingLogger;
+
+    private final Random random = new Random(42);
+    private String partition;
+
+    @BeforeEach
+    void setUp() {
+        partition = "cache-" + UUID.randomUUID();
+    }
+
+    @Test
+    void testSegmentsSplitIntoClosedDaysAndOpenRest() {
+        LocalDate today = LocalDate.of(2025, 6, 10);
+        MutableClock clock = new MutableClock(today.atTime(15, 0).atZone(ZONE).toInstant());
+        X402DashboardProperties.Cache settings = new X402DashboardProperties.Cache();
+        X402AggregateCache segmentCache = new X402AggregateCache(settings, clock);
+        List<String> loads = new ArrayList<>();
+        OffsetDateTime from = today.minusDays(3).atTime(10, 0).atZone(ZONE).toOffsetDateTime();
+        OffsetDateTime to = today.atTime(12, 0).atZone(ZONE).toOffsetDateTime();
+
+        List<String> segments = segmentCache.segments("test", partition, List.of("q"), from, to, (f, t) -> {
+            loads.add(f.toLocalDate() + "/" + f.toLocalTime() + "-" + t.toLocalTime());
+            return f.toLocalDate().toString();
+        });
+
+        assertThat(segments).containsExactly(
+                today.minusDays(3).toString(), today.minusDays(2).toString(),
+                today.minusDays(1).toString(), today.toString());
+        assertThat(loads).containsExactly(
+                today.minusDays(3) + "/10:00-23:59:59.999999999",
+                today.minusDays(2) + "/00:00-23:59:59.999999999",
+                today.minusDays(1) + "/00:00-23:59:59.999999999",
+                today + "/00:00-12:00");
+
+        // Everything cached; after open-ttl only the open rest is loaded again
+        loads.clear();
+        segmentCache.segments("test", partition, List.of("q"), from, to, (f, t) -> loads.add(f.toString()));
+        assertThat(loads).isEmpty();
+        clock.advance(settings.getOpenTtl().plusSeconds(1));
+        segmentCache.segments("test", partition, List.of("q"), from, to, (f, t) -> loads.add(f.toLocalDate().toString()));
+        assertThat(loads).containsExactly(today.minusDays(3).toString(), today.toString());
+
+        // A late write reloads its day only, and keeps it uncached for settle-time
+        segmentCache.invalidate("test", partition, today.minusDays(2).atTime(8, 0).atZone(ZONE).toOffsetDateTime());
+        segmentCache.invalidate("test", partition, today.atTime(8, 0).atZone(ZONE).toOffsetDateTime());
+        loads.clear();
+        segmentCache.segments("test", partition, List.of("q"), from, to, (f, t) -> loads.add(f.toLocalDate().toString()));
+        segmentCache.segments("test", partition, List.of("q"), from, to, (f, t) -> loads.add(f.toLocalDate().toString()));
+        assertThat(loads).containsExactly(today.minusDays(2).toString(), today.minusDays(2).toString());
+        clock.advance(settings.getSettleTime().plusSeconds(1));
+        loads.clear();
+        segmentCache.segments("test", partition, List.of("q"), from, to, (f, t) -> loads.add(f.toLocalDate().toString()));
+        segmentCache.segments("test", partition, List.of("q"), from, to, (f, t) -> loads.add(f.toLocalDate().toString()));
+        assertThat(loads).containsExactly(
+                today.minusDays(3).toString(), today.minusDays(2).toString(), today.toString());
+    }
+
+    @Test
+    void testCachedUsageAggregatesMatchRawScanAndSeeLateEvents() {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        usageEventService.saveAll(usageEvents(500, now.minusDays(20), now));
+        OffsetDateTime from = LocalDate.now().minusDays(30).atStartOfDay(ZONE).toOffsetDateTime();
+        OffsetDateTime to = LocalDate.now().atTime(23, 59, 59).atZone(ZONE).toOffsetDateTime();
+
+        assertUsageMatchesRawScan(from, to);
+        long misses = cache.getMissCount();
+        assertUsageMatchesRawScan(from, to);
+        // Only the open rest of the range, once per aggregate, at most
+        assertThat(cache.getMissCount() - misses).isLessThanOrEqualTo(4);
+
+        X402UsageEvent late = usageEvents(1, now.minusDays(5), now.minusDays(5).plusHours(1)).get(0);
+        late.setStatus(X402UsageStatus.SUCCESS);
+        late.setAmountAtomic(123_456L);
+        usageEventService.saveAll(List.of(late));
+        assertUsageMatchesRawScan(from, to);
+        assertUsageMatchesRawScan(now.minusDays(12).minusHours(7), now.minusHours(3));
+    }
+
+    @Test
+    void testCachedSpendingAggregatesMatchUncachedService() {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        spendingEventService.saveAll(spendingEvents(300, now.minusDays(15), now));
+        X402SpendingAggregationService uncached = new X402SpendingAggregationService(spendingRepository);
+        OffsetDateTime from = now.minusDays(30);
+
+        for (int pass = 0; pass < 2; pass++) {
+            assertThat(spendingAggregationService.getOverview(partition, from, now))
+                    .usingRecursiveComparison().isEqualTo(uncached.getOverview(partition, from, now));
+            assertThat(spendingAggregationService.getTopServices(partition, from, now, 3))
+                    .usingRecursiveComparison()
+                    .withComparatorForType((a, b) -> Math.abs(a - b) < 1e-9 ? 0 : Double.compare(a, b), Double.class)
+                    .isEqualTo(uncached.getTopServices(partition, from, now, 3));
+            assertThat(spendingAggregationService.getSpendingByCategory(partition, from, now))
+                    .containsExactlyEntriesOf(uncached.getSpendingByCategory(partition, from, now));
+            assertThat(spendingAggregationService.getDailySpending(partition, from, now))
+                    .containsExactlyEntriesOf(uncached.getDailySpending(partition, from, now));
+            spendingEventService.saveAll(spendingEvents(1, now.minusDays(3), now.minusDays(3).plusHours(1)));
+        }
+    }
+
+    @Test
+    void testSpendingLoggedIntoCachedDayIsSeen() {
+        OffsetDateTime day = LocalDate.now().minusDays(4).atTime(12, 0).atZone(ZONE).toOffsetDateTime();
+        spendingEventService.saveAll(spendingEvents(20, day.minusHours(2), day));
+        OffsetDateTime from = LocalDate.now().minusDays(10).atStartOfDay(ZONE).toOffsetDateTime();
+        OffsetDateTime now = OffsetDateTime.now();
+        long spent = spendingAggregationService.getOverview(partition, from, now).getTotalSpentAtomic();
+
+        // Backfilled into the closed, cached day through the logger
+        spendingLogger.log(partition, null, "service-1", "Service 1", null, "/backfill", ServiceCategory.DATA_API,
+                "eip155:8453", "USDC", 5_000L, "0xbackfill-" + partition, null, SpendingStatus.SUCCESS,
+                null, null, 10L, null, null, null, null, null, null, day.minusHours(1));
+
+        assertThat(spendingAggregationService.getOverview(partition, from, now).getTotalSpentAtomic())
+                .isEqualTo(spent + 5_000L);
+    }
+
+    private void assertUsageMatchesRawScan(OffsetDateTime from, OffsetDateTime to) {
+        X402UsageAggregationService raw = new X402UsageAggregationService(usageRepository);
+        OverviewTotals totals = usageAggregationService.getOverviewTotals(partition, from, to);
+        assertThat(totals).usingRecursiveComparison().isEqualTo(raw.getOverviewTotals(partition, from, to));
+        assertThat(usageAggregationService.aggregateByAgent(partition, from, to, X402UsageStatus.SUCCESS))
+                .usingRecursiveComparison().ignoringCollectionOrder()
+                .isEqualTo(raw.aggregateByAgent(partition, from, to, X402UsageStatus.SUCCESS));
+        assertThat(usageAggregationService.aggregateByDate(partition, from, to, null))
+                .usingRecursiveComparison().isEqualTo(raw.aggregateByDate(partition, from, to, null));
+        assertThat(usageAggregationService.getSnapshot(partition, from, to).getTotals())
+                .usingRecursiveComparison().isEqualTo(totals);
+    }
+
+    private List<X402UsageEvent> usageEvents(int count, OffsetDateTime from, OffsetDateTime to) {
+        long spanSeconds = ChronoUnit.SECONDS.between(from, to);
+        X402UsageStatus[] statuses = X402UsageStatus.values();
+        List<X402UsageEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            X402UsageEvent event = new X402UsageEvent();
+            event.setTenantId(partition);
+            event.setAgentId("agent-" + random.nextInt(5));
+            event.setMethod("GET");
+            event.setEndpoint("/api/resource/" + random.nextInt(4));
+            event.setStatus(statuses[random.nextInt(statuses.length)]);
+            event.setAmountAtomic((long) random.nextInt(1_000_000));
+            event.setCreatedAt(from.plusSeconds((long) (random.nextDouble() * spanSeconds)));
+            events.add(event);
+        }
+        return events;
+    }
+
+    private List<X402SpendingEvent> spendingEvents(int count, OffsetDateTime from, OffsetDateTime to) {
+        long spanSeconds = ChronoUnit.SECONDS.between(from, to);
+        ServiceCategory[] categories = ServiceCategory.values();
+        List<X402SpendingEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int service = random.nextInt(6);
+            X402SpendingEvent event = new X402SpendingEvent();
+            event.setBuyerId(partition);
+            event.setServiceId(service == 0 ? null : "service-" + service);
+            event.setServiceName(service == 0 ? null : "Service " + service);
+            event.setCategory(categories[service]);
+            event.setStatus(random.nextInt(4) == 0 ? SpendingStatus.FAILED : SpendingStatus.SUCCESS);
+            event.setAmountAtomic((long) random.nextInt(1_000_000));
+            event.setCreatedAt(from.plusSeconds((long) (random.nextDouble() * spanSeconds)));
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
 
@@ -29,7 +30,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @TestPropertySource(properties = {
     "x402.dashboard.in-memory=true",
-    "x402.dashboard.enable-client-auto-logging=true"
+    "x402.dashboard.enable-client-auto-logging=true",
+    "x402.dashboard.endpoint.templates=/test/items/{id}",
+    "x402.dashboard.endpoint.capture-raw-path=true"
 })
 public class X402ClientLoggingInterceptorTest {
 
@@ -121,6 +124,26 @@ public class X402ClientLoggingInterceptorTest {
         assertThat(event.getStatus()).isEqualTo(X402UsageStatus.SUCCESS);
     }
 
+    @Test
+    void testEndpointIsTemplatedWithoutQueryString() {
+        // Given
+        String base = "http://localhost:" + port;
+
+        // When
+        restTemplate.getForEntity(base + "/test/items/42?expand=true", String.class);
+        restTemplate.getForEntity(base + "/test/items/43", String.class);
+        restTemplate.getForEntity(base + "/test/success?page=2", String.class);
+
+        // Then
+        List<X402UsageEvent> events = repository.findAll();
+        assertThat(events)
+                .extracting(X402UsageEvent::getEndpoint)
+                .containsExactlyInAnyOrder(base + "/test/items/{id}", base + "/test/items/{id}", base + "/test/success");
+        assertThat(events)
+                .extracting(X402UsageEvent::getRawPath)
+                .containsExactlyInAnyOrder("/test/items/42?expand=true", "/test/items/43", "/test/success?page=2");
+    }
+
     /**
      * Test controller
      */
@@ -132,6 +155,11 @@ public class X402ClientLoggingInterceptorTest {
             return ResponseEntity.ok("Success");
         }
 
+        @GetMapping("/test/items/{id}")
+        public ResponseEntity<String> item(@PathVariable("id") String id) {
+            return ResponseEntity.ok("Item " + id);
+        }
+
         @GetMapping("/test/payment-required")
         public ResponseEntity<String> paymentRequired() {
             return ResponseEntity.status(402).body("Payment Required");
@@ -0,0 +1,125 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.pagination.X402Cursor;
+import io.x402.dashboard.common.pagination.X402CursorPage;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test keyset pagination of usage events.
+ */
+@SpringBootTest
+class X402CursorPaginationTest {
+
+    @Autowired
+    private X402UsageEventService eventService;
+
+    @BeforeEach
+    void setUp() {
+        eventService.deleteAll();
+    }
+
+    @Test
+    void testPagesForwardAndBackThroughTies() {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<X402UsageEvent> events = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Groups of three events share a timestamp, so pages must break ties by ID
+            events.add(event(now.minusSeconds(i / 3)));
+        }
+        List<Long> expected = eventService.saveAll(events).stream()
+                .sorted(Comparator.comparing(X402UsageEvent::getCreatedAt)
+                        .thenComparing(X402UsageEvent::getId)
+                        .reversed())
+                .map(X402UsageEvent::getId)
+                .toList();
+
+        OffsetDateTime from = now.minusHours(1);
+        OffsetDateTime to = now.plusHours(1);
+        List<X402CursorPage<X402UsageEvent>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            X402CursorPage<X402UsageEvent> page = eventService.findEvents(null, null, from, to, cursor, 10);
+            pages.add(page);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(pages).hasSize(3);
+        assertThat(pages.get(0).getPrevCursor()).isNull();
+        assertThat(pages.stream().flatMap(p -> p.getContent().stream()).map(X402UsageEvent::getId))
+                .containsExactlyElementsOf(expected);
+
+        // Walk back from the last page to the first
+        List<Long> backward = new ArrayList<>(ids(pages.get(2)));
+        cursor = pages.get(2).getPrevCursor();
+        while (cursor != null) {
+            X402CursorPage<X402UsageEvent> page = eventService.findEvents(null, null, from, to, cursor, 10);
+            backward.addAll(0, ids(page));
+            cursor = page.getPrevCursor();
+        }
+        assertThat(backward).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void testFiltersApplyToEveryPage() {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<X402UsageEvent> events = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            X402UsageEvent event = event(now.minusMinutes(i));
+            event.setStatus(i % 2 == 0 ? X402UsageStatus.SUCCESS : X402UsageStatus.PAYMENT_REQUIRED);
+            events.add(event);
+        }
+        eventService.saveAll(events);
+
+        X402CursorPage<X402UsageEvent> first = eventService.findEvents(
+                null, X402UsageStatus.SUCCESS, now.minusHours(1), now, null, 4);
+        X402CursorPage<X402UsageEvent> second = eventService.findEvents(
+                null, X402UsageStatus.SUCCESS, now.minusHours(1), now, first.getNextCursor(), 4);
+
+        assertThat(first.getContent()).hasSize(4);
+        assertThat(second.getContent()).hasSize(2);
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getContent())
+                .allSatisfy(e -> assertThat(e.getStatus()).isEqualTo(X402UsageStatus.SUCCESS));
+    }
+
+    @Test
+    void testCursorRoundTrip() {
+        OffsetDateTime createdAt = OffsetDateTime.parse("2025-06-01T12:00:00.123456+02:00");
+        X402Cursor cursor = X402Cursor.decode(X402Cursor.before(createdAt, 42L).encode());
+
+        assertThat(cursor.getCreatedAt().isEqual(createdAt)).isTrue();
+        assertThat(cursor.getId()).isEqualTo(42L);
+        assertThat(cursor.isBackward()).isTrue();
+        assertThatThrownBy(() -> X402Cursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Long> ids(X402CursorPage<X402UsageEvent> page) {
+        return page.getContent().stream().map(X402UsageEvent::getId).toList();
+    }
+
+    private static X402UsageEvent event(OffsetDateTime createdAt) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setMethod("GET");
+        event.setEndpoint("/api/resource");
+        event.setStatus(X402UsageStatus.SUCCESS);
+        event.setAmountAtomic(1L);
+        event.setCreatedAt(createdAt);
+        return event;
+    }
+}
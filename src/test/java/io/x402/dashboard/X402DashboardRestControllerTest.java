@@ -0,0 +1,40 @@
+package io.x402.dashboard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test the request parameter handling of X402DashboardRestController.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class X402DashboardRestControllerTest {
+
+    private static final String API = "/x402-dashboard/api";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testInvalidWindowIsRejected() throws Exception {
+        for (String path : new String[]{"/overview", "/agents/top", "/endpoints/top", "/status", "/live"}) {
+            mockMvc.perform(get(API + path).param("window", "5 minutes")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(API + path).param("window", "0s")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(API + path).param("window", "-5m")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(API + path).param("window", "5m")).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void testMissingWindowUsesTheRange() throws Exception {
+        mockMvc.perform(get(API + "/overview").param("from", "2026-01-01").param("to", "2026-01-31"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(API + "/status").param("window", "")).andExpect(status().isOk());
+    }
+}
@@ -110,6 +110,18 @@ class X402DemoDataTest {
 
         var endpointStats = aggregationService.aggregateByEndpoint(null, from, to, X402UsageStatus.SUCCESS);
         System.out.println("Endpoint stats count: " + endpointStats.size());
+
+        var snapshot = aggregationService.getSnapshot(null, from, to);
+        assertThat(snapshot.getTotals().getTotalCount()).isEqualTo(totals.getTotalCount());
+        assertThat(snapshot.getTotals().getSuccessAmount()).isEqualTo(totals.getSuccessAmount());
+        assertThat(snapshot.getStatusAggregations())
+                .singleElement()
+                .satisfies(s -> assertThat(s.getCount()).isEqualTo(10L));
+        assertThat(snapshot.getDailyData())
+                .extracting(d -> d.getDate() + "=" + d.getCount())
+                .containsExactlyElementsOf(aggregationService.aggregateByDate(null, from, to, null).stream()
+                        .map(d -> d.getDate() + "=" + d.getCount())
+                        .toList());
     }
 
     @Test
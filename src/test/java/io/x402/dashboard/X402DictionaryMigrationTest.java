@@ -0,0 +1,81 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.dictionary.X402DictionaryMigration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test X402DictionaryMigration on event tables as created before dictionary encoding.
+ */
+class X402DictionaryMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:x402-migration-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE x402_usage_event (
+                    id BIGINT PRIMARY KEY, agent_id VARCHAR(255), method VARCHAR(10), endpoint VARCHAR(255),
+                    network VARCHAR(255), asset VARCHAR(255), user_agent VARCHAR(500))
+                """);
+        jdbcTemplate.execute("CREATE INDEX idx_agent ON x402_usage_event (agent_id)");
+        jdbcTemplate.execute("""
+                CREATE TABLE x402_spending_event (
+                    id BIGINT PRIMARY KEY, buyer_name VARCHAR(255), service_name VARCHAR(255),
+                    service_url VARCHAR(255), endpoint VARCHAR(255), network VARCHAR(255), asset VARCHAR(255),
+                    method VARCHAR(10), user_agent VARCHAR(500))
+                """);
+        jdbcTemplate.update("INSERT INTO x402_usage_event VALUES (1, 'agent-1', 'GET', '/api/a', 'base', 'USDC', NULL)");
+        jdbcTemplate.update("INSERT INTO x402_usage_event VALUES (2, 'agent-1', 'POST', '/api/a', 'base', 'USDC', 'curl')");
+        jdbcTemplate.update("INSERT INTO x402_spending_event VALUES "
+                + "(1, 'Buyer', 'Service', 'https://s', '/api/a', 'base', 'USDC', 'GET', NULL)");
+    }
+
+    @Test
+    void testStringColumnsBecomeDictionaryIds() {
+        X402DictionaryMigration migration = new X402DictionaryMigration(dataSource);
+
+        assertThat(migration.migrate()).isEqualTo(14);
+
+        Map<String, Object> usage = jdbcTemplate.queryForMap(
+                "SELECT agent_id, method, endpoint, user_agent FROM x402_usage_event WHERE id = 1");
+        assertThat(usage.get("agent_id")).isInstanceOf(Integer.class);
+        assertThat(usage.get("user_agent")).isNull();
+        assertThat(value(usage.get("agent_id"))).isEqualTo("agent-1");
+        assertThat(value(usage.get("method"))).isEqualTo("GET");
+        Integer endpoint = jdbcTemplate.queryForObject("SELECT endpoint FROM x402_spending_event WHERE id = 1", Integer.class);
+        // Shared with the usage table: same kind, same value
+        assertThat(endpoint).isEqualTo(usage.get("endpoint"));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM x402_usage_event WHERE agent_id = ?", Long.class, usage.get("agent_id")))
+                .isEqualTo(2L);
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.indexes WHERE LOWER(index_name) = 'idx_agent'
+                """, Long.class)).isPositive();
+
+        assertThat(migration.migrate()).isZero();
+    }
+
+    @Test
+    void testNewDatabaseIsLeftAlone() {
+        jdbcTemplate.execute("DROP TABLE x402_usage_event");
+        jdbcTemplate.execute("DROP TABLE x402_spending_event");
+
+        assertThat(new X402DictionaryMigration(dataSource).migrate()).isZero();
+    }
+
+    private String value(Object id) {
+        return jdbcTemplate.queryForObject("SELECT value_text FROM x402_dictionary WHERE id = ?", String.class, id);
+    }
+}
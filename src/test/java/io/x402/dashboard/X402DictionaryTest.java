@@ -0,0 +1,129 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.dictionary.X402Dictionary;
+import io.x402.dashboard.common.dictionary.X402DictionaryKind;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test dictionary encoding of event dimensions.
+ */
+@SpringBootTest
+class X402DictionaryTest {
+
+    @Autowired
+    private X402Dictionary dictionary;
+
+    @Autowired
+    private X402UsageEventService eventService;
+
+    @Autowired
+    private X402UsageEventRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        eventService.deleteAll();
+    }
+
+    @Test
+    void testEncodeDecode() {
+        Integer id = dictionary.encode(X402DictionaryKind.AGENT, "dict-agent");
+
+        assertThat(dictionary.encode(X402DictionaryKind.AGENT, "dict-agent")).isEqualTo(id);
+        assertThat(dictionary.encode(X402DictionaryKind.ENDPOINT, "dict-agent")).isNotEqualTo(id);
+        assertThat(dictionary.decode(id)).isEqualTo("dict-agent");
+        assertThat(dictionary.encode(X402DictionaryKind.AGENT, null)).isNull();
+        assertThat(dictionary.decode(null)).isNull();
+        assertThatThrownBy(() -> dictionary.decode(Integer.MAX_VALUE)).isInstanceOf(IllegalStateException.class);
+
+        // Another node sharing the database agrees on the IDs
+        X402Dictionary other = new X402Dictionary(dataSource, transactionManager, 100);
+        assertThat(other.decode(id)).isEqualTo("dict-agent");
+        assertThat(other.encode(X402DictionaryKind.AGENT, "dict-agent")).isEqualTo(id);
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        X402Dictionary small = new X402Dictionary(dataSource, transactionManager, 2);
+        Integer first = small.encode(X402DictionaryKind.USER_AGENT, "bounded-1");
+        small.encode(X402DictionaryKind.USER_AGENT, "bounded-2");
+        small.encode(X402DictionaryKind.USER_AGENT, "bounded-3");
+
+        assertThat(small.size()).isEqualTo(2);
+        // Evicted values are read back from the table
+        assertThat(small.decode(first)).isEqualTo("bounded-1");
+        assertThat(small.encode(X402DictionaryKind.USER_AGENT, "bounded-1")).isEqualTo(first);
+    }
+
+    @Test
+    void testNewValueOutlivesRolledBackEvent() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer[] id = new Integer[1];
+        transaction.executeWithoutResult(status -> {
+            id[0] = dictionary.encode(X402DictionaryKind.AGENT, "rolled-back-agent");
+            status.setRollbackOnly();
+        });
+
+        X402Dictionary other = new X402Dictionary(dataSource, transactionManager, 100);
+        assertThat(other.decode(id[0])).isEqualTo("rolled-back-agent");
+    }
+
+    @Test
+    void testEventsStoreIdsAndLoadStrings() {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setAgentId("agent-1");
+        event.setMethod("POST");
+        event.setEndpoint("/api/items/{id}");
+        event.setNetwork("eip155:84532");
+        event.setAsset("USDC");
+        event.setUserAgent("Mozilla/5.0");
+        event.setStatus(X402UsageStatus.SUCCESS);
+        event.setAmountAtomic(1_000L);
+        event.setCreatedAt(OffsetDateTime.now());
+        Long id = eventService.save(event).getId();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT agent_id, endpoint, user_agent FROM x402_usage_event WHERE id = ?", id);
+        assertThat(row.values()).allSatisfy(value -> assertThat(value).isInstanceOf(Integer.class));
+        assertThat(dictionary.decode((Integer) row.get("endpoint"))).isEqualTo("/api/items/{id}");
+
+        X402UsageEvent loaded = repository.findById(id).orElseThrow();
+        assertThat(loaded.getAgentId()).isEqualTo("agent-1");
+        assertThat(loaded.getMethod()).isEqualTo("POST");
+        assertThat(loaded.getEndpoint()).isEqualTo("/api/items/{id}");
+        assertThat(loaded.getNetwork()).isEqualTo("eip155:84532");
+        assertThat(loaded.getAsset()).isEqualTo("USDC");
+        assertThat(loaded.getUserAgent()).isEqualTo("Mozilla/5.0");
+
+        List<Object[]> byEndpoint = repository.aggregateByEndpoint(
+                null, OffsetDateTime.now().minusDays(1), OffsetDateTime.now().plusDays(1), null);
+        assertThat(byEndpoint).hasSize(1);
+        assertThat(byEndpoint.get(0)[0]).isEqualTo("/api/items/{id}");
+    }
+}
@@ -0,0 +1,111 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.sketch.X402DistinctCounter;
+import io.x402.dashboard.common.sketch.X402DistinctMetric;
+import io.x402.dashboard.common.sketch.X402DistinctSketchRepository;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.service.X402UsageDistinctListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402DistinctCounter and X402UsageDistinctListener.
+ */
+@SpringBootTest(properties = {
+        "x402.dashboard.distinct.enabled=true",
+        "x402.dashboard.distinct.flush-interval=1h"
+})
+class X402DistinctCounterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 1);
+
+    @Autowired
+    private X402DistinctSketchRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String tenantId;
+    private X402DistinctCounter counter;
+    private X402UsageDistinctListener listener;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = "tenant-" + UUID.randomUUID();
+        counter = new X402DistinctCounter(repository, transactionManager, new X402DashboardProperties.Distinct());
+        listener = new X402UsageDistinctListener(counter);
+    }
+
+    @Test
+    void testUniqueCountsPerDayAndAcrossDays() {
+        // Agents 0-59 on day one, 40-99 on day two; only even agents pay
+        for (int day = 0; day < 2; day++) {
+            for (int i = day * 40; i < day * 40 + 60; i++) {
+                for (int repeat = 0; repeat < 3; repeat++) {
+                    X402UsageStatus status = i % 2 == 0 ? X402UsageStatus.SUCCESS : X402UsageStatus.PAYMENT_REQUIRED;
+                    listener.onCapture(event("agent-" + i, "10.0.0." + (i % 10), status, day));
+                }
+            }
+            counter.flush();
+        }
+
+        Map<LocalDate, Long> daily = counter.daily(X402DistinctMetric.AGENT, tenantId, from(), to());
+        assertThat(daily).containsOnlyKeys(DAY, DAY.plusDays(1));
+        assertThat(daily.get(DAY)).isBetween(58L, 62L);
+        assertThat(counter.count(X402DistinctMetric.AGENT, tenantId, from(), to())).isBetween(98L, 102L);
+        assertThat(counter.count(X402DistinctMetric.PAYING_AGENT, tenantId, from(), to())).isBetween(49L, 51L);
+        assertThat(counter.count(X402DistinctMetric.CLIENT_IP, tenantId, from(), to())).isEqualTo(10L);
+    }
+
+    @Test
+    void testFlushesMergeIntoTheSameDayAndAcrossPartitions() {
+        String otherTenant = tenantId + "-other";
+        for (int i = 0; i < 30; i++) {
+            listener.onCapture(event("agent-" + i, null, X402UsageStatus.SUCCESS, 0));
+        }
+        counter.flush();
+        for (int i = 20; i < 50; i++) {
+            listener.onCapture(event("agent-" + i, null, X402UsageStatus.SUCCESS, 0));
+            X402UsageEvent other = event("agent-" + i, null, X402UsageStatus.SUCCESS, 0);
+            other.setTenantId(otherTenant);
+            listener.onCapture(other);
+        }
+        counter.flush();
+
+        assertThat(counter.count(X402DistinctMetric.AGENT, tenantId, from(), to())).isBetween(49L, 51L);
+        assertThat(counter.count(X402DistinctMetric.AGENT, otherTenant, from(), to())).isBetween(29L, 31L);
+        assertThat(counter.count(X402DistinctMetric.CLIENT_IP, tenantId, from(), to())).isZero();
+    }
+
+    private X402UsageEvent event(String agentId, String clientIp, X402UsageStatus status, int dayOffset) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setTenantId(tenantId);
+        event.setAgentId(agentId);
+        event.setClientIp(clientIp);
+        event.setEndpoint("/api/items");
+        event.setStatus(status);
+        event.setCreatedAt(DAY.plusDays(dayOffset).atTime(12, 0).atZone(ZoneId.systemDefault()).toOffsetDateTime());
+        return event;
+    }
+
+    private static OffsetDateTime from() {
+        return DAY.atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+
+    private static OffsetDateTime to() {
+        return DAY.plusDays(2).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+}
@@ -0,0 +1,298 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.buyer.domain.ServiceCategory;
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.buyer.service.X402SpendingAggregationService;
+import io.x402.dashboard.buyer.service.X402SpendingEventService;
+import io.x402.dashboard.common.archive.X402EventArchive;
+import io.x402.dashboard.common.ingest.X402IngestDeduplicator;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.logging.X402UsageLogger;
+import io.x402.dashboard.seller.service.X402UsageAggregationService;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402EventArchive and the queries reading through it.
+ *
+ * The job's own schedule is pushed out of the test run; each test moves events with
+ * {@link X402EventArchive#runOnce}.
+ */
+@SpringBootTest(properties = {
+        "x402.dashboard.archive.enabled=true",
+        "x402.dashboard.archive.interval=1d",
+        "x402.dashboard.archive.batch-size=7",
+        "x402.dashboard.archive.batch-pause=0s",
+        "x402.dashboard.archive.retention=30d",
+        "x402.dashboard.ingest.dedup.enabled=true"
+})
+class X402EventArchiveTest {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    @Autowired
+    private X402EventArchive archive;
+
+    @Autowired
+    private X402UsageEventService usageEventService;
+
+    @Autowired
+    private X402UsageAggregationService usageAggregationService;
+
+    @Autowired
+    private X402SpendingEventService spendingEventService;
+
+    @Autowired
+    private X402SpendingAggregationService spendingAggregationService;
+
+    @Autowired
+    private X402UsageLogger usageLogger;
+
+    @Autowired
+    private X402IngestDeduplicator deduplicator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private OffsetDateTime now;
+    private String tenant;
+
+    @BeforeEach
+    void setUp() {
+        usageEventService.deleteAll();
+        spendingEventService.deleteAll();
+        now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        tenant = "archive-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        archive.dropAll(X402EventArchive.USAGE_TABLE);
+        archive.dropAll(X402EventArchive.SPENDING_TABLE);
+    }
+
+    @Test
+    void testMovedDaysReadAsBefore() {
+        usageEventService.saveAll(usageEvents(120, 20));
+        spendingEventService.saveAll(spendingEvents(120, 20));
+        OffsetDateTime from = now.minusDays(25);
+        Snapshot before = snapshot(from, now);
+
+        long moved = archive.runOnce();
+
+        OffsetDateTime cutoff = LocalDate.now().minusDays(2).atStartOfDay(ZONE).toOffsetDateTime();
+        assertThat(moved).isPositive();
+        assertThat(archive.getDays(X402EventArchive.USAGE_TABLE))
+                .isNotEmpty()
+                .allMatch(day -> day.atStartOfDay(ZONE).toOffsetDateTime().isBefore(cutoff));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM x402_usage_event WHERE created_at < ?", Long.class, cutoff)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM x402_spending_event WHERE created_at < ?", Long.class, cutoff)).isZero();
+        assertThat(snapshot(from, now)).usingRecursiveComparison().ignoringCollectionOrder().isEqualTo(before);
+        assertThat(archive.runOnce()).isZero();
+    }
+
+    @Test
+    void testSourceCoversOnlyDaysInRange() {
+        usageEventService.saveAll(usageEvents(60, 10));
+        archive.runOnce();
+
+        LocalDate day = now.minusDays(5).atZoneSameInstant(ZONE).toLocalDate();
+        String name = X402EventArchive.USAGE_TABLE + "_archive_" + day.toString().replace("-", "");
+        String oneDay = archive.source(X402EventArchive.USAGE_TABLE, now.minusDays(5), now.minusDays(5));
+        assertThat(oneDay).contains(name);
+        assertThat(oneDay.split(X402EventArchive.USAGE_TABLE + "_archive_", -1)).hasSize(2);
+        assertThat(archive.source(X402EventArchive.USAGE_TABLE, now.minusHours(1), now))
+                .isEqualTo(X402EventArchive.USAGE_TABLE);
+    }
+
+    @Test
+    void testLateEventForMovedDayIsReadAndMovedNextRun() {
+        usageEventService.saveAll(usageEvents(40, 10));
+        archive.runOnce();
+        OffsetDateTime from = now.minusDays(15);
+        long count = usageAggregationService.getOverviewTotals(tenant, from, now).getTotalCount();
+
+        X402UsageEvent late = usageEvent(now.minusDays(7), X402UsageStatus.SUCCESS, 5_000L);
+        usageEventService.saveAll(List.of(late));
+        assertThat(usageAggregationService.getOverviewTotals(tenant, from, now).getTotalCount()).isEqualTo(count + 1);
+
+        assertThat(archive.runOnce()).isEqualTo(1);
+        assertThat(usageAggregationService.getOverviewTotals(tenant, from, now).getTotalCount()).isEqualTo(count + 1);
+    }
+
+    @Test
+    void testLatestSpendingWalksBackThroughMovedDays() {
+        List<X402SpendingEvent> events = spendingEvents(30, 6);
+        events.forEach(event -> event.setCreatedAt(event.getCreatedAt().minusDays(3)));
+        spendingEventService.saveAll(events);
+        List<Long> before = spendingEventService.findRecent(tenant).stream().map(X402SpendingEvent::getId).toList();
+
+        archive.runOnce();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM x402_spending_event WHERE buyer_id = ?", Long.class, tenant)).isZero();
+        assertThat(spendingEventService.findRecent(tenant)).extracting(X402SpendingEvent::getId)
+                .hasSize(10)
+                .containsExactlyElementsOf(before);
+        assertThat(spendingEventService.countByBuyer(tenant, now.minusDays(30), now)).isEqualTo(30L);
+        assertThat(spendingEventService.findByBuyerAndTimeRange(tenant, now.minusDays(30), now)).hasSize(30);
+    }
+
+    @Test
+    void testDeleteByIdFindsMovedEvents() {
+        List<X402UsageEvent> usage = usageEventService.saveAll(List.of(
+                usageEvent(now.minusDays(5), X402UsageStatus.SUCCESS, 1_000L),
+                usageEvent(now.minusDays(5).plusMinutes(1), X402UsageStatus.SUCCESS, 1_000L)));
+        X402SpendingEvent payment = spendingEvents(1, 0).get(0);
+        payment.setCreatedAt(now.minusDays(5));
+        X402SpendingEvent spending = spendingEventService.save(payment);
+        archive.runOnce();
+        X402UsageEvent late = usageEventService.save(usageEvent(now.minusDays(5), X402UsageStatus.SUCCESS, 1_000L));
+
+        usageEventService.deleteById(usage.get(0).getId());
+        usageEventService.deleteById(late.getId());
+        spendingEventService.deleteById(spending.getId());
+
+        assertThat(usageEventService.findById(usage.get(0).getId())).isEmpty();
+        assertThat(usageEventService.findById(late.getId())).isEmpty();
+        assertThat(spendingEventService.findById(spending.getId())).isEmpty();
+        assertThat(usageAggregationService.getOverviewTotals(tenant, now.minusDays(10), now).getTotalCount())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void testRetentionDetachesThenDropsWholeDays() {
+        usageEventService.saveAll(List.of(
+                usageEvent(now.minusDays(40), X402UsageStatus.SUCCESS, 1_000L),
+                usageEvent(now.minusDays(35), X402UsageStatus.SUCCESS, 1_000L),
+                usageEvent(now.minusDays(5), X402UsageStatus.SUCCESS, 1_000L)));
+        String expired = X402EventArchive.USAGE_TABLE + "_archive_"
+                + now.minusDays(40).atZoneSameInstant(ZONE).toLocalDate().toString().replace("-", "");
+
+        archive.runOnce();
+
+        // Detached from reads first, dropped by the next run
+        assertThat(archive.getDays(X402EventArchive.USAGE_TABLE))
+                .containsExactly(now.minusDays(5).atZoneSameInstant(ZONE).toLocalDate());
+        assertThat(usageAggregationService.getOverviewTotals(tenant, now.minusDays(60), now).getTotalCount())
+                .isEqualTo(1L);
+        assertThat(tableExists(expired)).isTrue();
+        archive.runOnce();
+        assertThat(tableExists(expired)).isFalse();
+    }
+
+    @Test
+    void testSettlementReingestedAfterItsDayIsArchivedIsRejected() {
+        String txHash = "0x" + UUID.randomUUID().toString().replace("-", "");
+        X402UsageEvent first = usageLogger.logSuccess(
+                "agent-1", "GET", "/api/archive", "eip155:84532", "USDC", 1_000L, txHash, 10L);
+        jdbcTemplate.update("UPDATE x402_usage_event SET created_at = ? WHERE id = ?", now.minusDays(5), first.getId());
+        long rejectedBefore = deduplicator.getRejectedCounts().getOrDefault(X402IngestDeduplicator.USAGE, 0L);
+
+        assertThat(archive.runOnce()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM x402_usage_event WHERE tx_hash = ?", Long.class, txHash)).isZero();
+        assertThat(usageEventService.findById(first.getId())).isPresent();
+
+        X402UsageEvent retry = usageLogger.logSuccess(
+                "agent-1", "GET", "/api/archive", "eip155:84532", "USDC", 1_000L, txHash, 12L);
+
+        assertThat(retry.getId()).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM "
+                + archive.source(X402EventArchive.USAGE_TABLE, null, null) + " e WHERE e.tx_hash = ?",
+                Long.class, txHash)).isEqualTo(1L);
+        assertThat(deduplicator.getRejectedCounts().get(X402IngestDeduplicator.USAGE)).isEqualTo(rejectedBefore + 1);
+    }
+
+    private boolean tableExists(String name) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = ?", Long.class, name) > 0;
+    }
+
+    private Snapshot snapshot(OffsetDateTime from, OffsetDateTime to) {
+        Snapshot snapshot = new Snapshot();
+        snapshot.totals = usageAggregationService.getOverviewTotals(tenant, from, to);
+        snapshot.agents = usageAggregationService.aggregateByAgent(tenant, from, to, X402UsageStatus.SUCCESS);
+        snapshot.endpoints = usageAggregationService.aggregateByEndpoint(tenant, from, to, null);
+        snapshot.statuses = usageAggregationService.aggregateByStatus(tenant, from, to);
+        snapshot.dates = usageAggregationService.aggregateByDate(tenant, from, to, null);
+        snapshot.eventIds = usageEventService.findEvents(tenant, null, from, to, 0, 1_000)
+                .getContent().stream().map(X402UsageEvent::getId).toList();
+        snapshot.spending = spendingAggregationService.getOverview(tenant, from, to);
+        snapshot.categories = spendingAggregationService.getSpendingByCategory(tenant, from, to);
+        snapshot.daily = spendingAggregationService.getDailySpending(tenant, from, to);
+        snapshot.spendingIds = spendingEventService.findWithFilters(tenant, null, null, from, to, PageRequest.of(0, 1_000))
+                .getContent().stream().map(X402SpendingEvent::getId).toList();
+        return snapshot;
+    }
+
+    private List<X402UsageEvent> usageEvents(int count, int days) {
+        List<X402UsageEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            OffsetDateTime createdAt = now.minusMinutes((long) i * days * 24 * 60 / count);
+            events.add(usageEvent(createdAt,
+                    i % 3 == 0 ? X402UsageStatus.PAYMENT_REQUIRED : X402UsageStatus.SUCCESS, 1_000L * (i % 5)));
+        }
+        return events;
+    }
+
+    private X402UsageEvent usageEvent(OffsetDateTime createdAt, X402UsageStatus status, long amount) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setTenantId(tenant);
+        event.setAgentId("agent-" + Math.floorMod(createdAt.getHour(), 3));
+        event.setEndpoint("/api/archive/" + Math.floorMod(createdAt.getMinute(), 4));
+        event.setStatus(status);
+        event.setAmountAtomic(amount);
+        event.setCreatedAt(createdAt);
+        return event;
+    }
+
+    private List<X402SpendingEvent> spendingEvents(int count, int days) {
+        List<X402SpendingEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            X402SpendingEvent event = new X402SpendingEvent();
+            event.setBuyerId(tenant);
+            event.setServiceId("service-" + i % 4);
+            event.setServiceName("Service " + i % 4);
+            event.setCategory(i % 2 == 0 ? ServiceCategory.DATA_API : ServiceCategory.AI_LANGUAGE_MODEL);
+            event.setStatus(i % 5 == 0 ? SpendingStatus.FAILED : SpendingStatus.SUCCESS);
+            event.setAmountAtomic(2_000L + i);
+            event.setCreatedAt(now.minusMinutes((long) i * days * 24 * 60 / count));
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static class Snapshot {
+        Object totals;
+        Object agents;
+        Object endpoints;
+        Object statuses;
+        Object dates;
+        List<Long> eventIds;
+        Object spending;
+        Object categories;
+        Object daily;
+        List<Long> spendingIds;
+    }
+}
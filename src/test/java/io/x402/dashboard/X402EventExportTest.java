@@ -0,0 +1,102 @@
+package io.x402.dashboard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.buyer.service.X402SpendingEventService;
+import io.x402.dashboard.common.jdbc.X402JdbcExport;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test streaming NDJSON/CSV export of usage and spending events.
+ */
+@SpringBootTest
+class X402EventExportTest {
+
+    @Autowired
+    private X402UsageEventService usageEventService;
+
+    @Autowired
+    private X402SpendingEventService spendingEventService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        usageEventService.deleteAll();
+        spendingEventService.deleteAll();
+    }
+
+    @Test
+    void testUsageNdjsonExport() throws Exception {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<X402UsageEvent> events = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            X402UsageEvent event = new X402UsageEvent();
+            event.setTenantId(i % 2 == 0 ? "t1" : "t2");
+            event.setMethod("GET");
+            event.setEndpoint("/api/resource");
+            event.setStatus(X402UsageStatus.SUCCESS);
+            event.setAmountAtomic(i % 10 == 0 ? null : (long) i);
+            event.setCreatedAt(now.minusSeconds(i));
+            events.add(event);
+        }
+        usageEventService.saveAll(events);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        usageEventService.exportEvents(out, X402JdbcExport.Format.NDJSON,
+                usageEventService.exportColumns("id,amountAtomic,createdAt"),
+                "t1", null, now.minusDays(1), now);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(1_250);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.fieldNames()).toIterable().containsExactly("id", "amountAtomic", "createdAt");
+        assertThat(OffsetDateTime.parse(first.get("createdAt").asText()).isEqual(now.minusSeconds(2_498))).isTrue();
+        assertThat(first.get("amountAtomic").asLong()).isEqualTo(2_498L);
+        assertThat(objectMapper.readTree(lines[lines.length - 1]).get("amountAtomic").isNull()).isTrue();
+    }
+
+    @Test
+    void testSpendingCsvExport() throws Exception {
+        X402SpendingEvent event = new X402SpendingEvent();
+        event.setBuyerId("buyer-1");
+        event.setServiceId("service-1");
+        event.setServiceName("Search, \"pro\" tier");
+        event.setStatus(SpendingStatus.SUCCESS);
+        event.setAmountAtomic(1_000L);
+        spendingEventService.save(event);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        spendingEventService.exportEvents(out, X402JdbcExport.Format.CSV,
+                spendingEventService.exportColumns("serviceId,serviceName,amountAtomic,errorMessage"),
+                "buyer-1", null, null, OffsetDateTime.now().minusHours(1), OffsetDateTime.now().plusHours(1));
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "serviceId,serviceName,amountAtomic,errorMessage\r\n"
+                        + "service-1,\"Search, \"\"pro\"\" tier\",1000,\r\n");
+    }
+
+    @Test
+    void testUnknownColumnIsRejected() {
+        assertThatThrownBy(() -> usageEventService.exportColumns("id,password"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
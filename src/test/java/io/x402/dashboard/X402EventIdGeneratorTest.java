@@ -0,0 +1,59 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.id.X402EventIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402EventIdGenerator.
+ */
+class X402EventIdGeneratorTest {
+
+    @Test
+    void testIdsAreStrictlyIncreasing() {
+        X402EventIdGenerator generator = new X402EventIdGenerator(7);
+        long previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long next = generator.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+        assertThat(X402EventIdGenerator.nodeOf(previous)).isEqualTo(7);
+    }
+
+    @Test
+    void testIdsAreUniqueAcrossThreads() throws InterruptedException {
+        X402EventIdGenerator generator = new X402EventIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ids).hasSize(8 * 20_000);
+    }
+
+    @Test
+    void testTimestampRoundTrip() {
+        Instant before = Instant.now();
+        long id = new X402EventIdGenerator(0).nextId();
+
+        assertThat(X402EventIdGenerator.timestampOf(id)).isBetween(before.minusSeconds(1), Instant.now().plusSeconds(1));
+        assertThat(id).isBetween(X402EventIdGenerator.minIdAt(before.minusSeconds(1)),
+                X402EventIdGenerator.maxIdAt(Instant.now().plusSeconds(1)));
+    }
+}
@@ -0,0 +1,122 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageSketchRepository;
+import io.x402.dashboard.seller.service.X402HeavyHitterAggregator;
+import io.x402.dashboard.seller.service.dto.AgentAggregation;
+import io.x402.dashboard.seller.service.dto.EndpointAggregation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402HeavyHitterAggregator.
+ */
+@SpringBootTest(properties = {
+        "x402.dashboard.sketch.enabled=true",
+        "x402.dashboard.sketch.flush-interval=1h"
+})
+class X402HeavyHitterAggregatorTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T12:00:00Z");
+
+    @Autowired
+    private X402UsageSketchRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String tenantId;
+    private X402HeavyHitterAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = "tenant-" + UUID.randomUUID();
+        X402DashboardProperties.Sketch settings = new X402DashboardProperties.Sketch();
+        settings.setCapacity(8);
+        aggregator = new X402HeavyHitterAggregator(repository, transactionManager, settings, START::toEpochMilli);
+    }
+
+    @Test
+    void testTopAgentsAcrossHoursAndFlushes() {
+        // Heavy agents spread over two hours and two flushes, with a long tail of light ones
+        for (int hour = 0; hour < 2; hour++) {
+            for (int i = 0; i < 50; i++) {
+                aggregator.onCapture(event("agent-big", "/api/a", 10L, hour));
+            }
+            for (int i = 0; i < 30; i++) {
+                aggregator.onCapture(event("agent-mid", "/api/b", 1_000L, hour));
+            }
+            for (int i = 0; i < 40; i++) {
+                aggregator.onCapture(event("agent-tail-" + i, "/api/c", 1L, hour));
+            }
+            aggregator.flush();
+        }
+
+        List<AgentAggregation> byCount = aggregator.topAgents(tenantId, from(), to(), X402UsageStatus.SUCCESS, 2, false);
+        assertThat(byCount).extracting(AgentAggregation::getAgentId).containsExactly("agent-big", "agent-mid");
+        for (AgentAggregation agent : byCount) {
+            long trueCount = agent.getAgentId().equals("agent-big") ? 100L : 60L;
+            assertThat(agent.getCount()).isGreaterThanOrEqualTo(trueCount);
+            assertThat(agent.getCount() - agent.getCountError()).isLessThanOrEqualTo(trueCount);
+        }
+
+        List<AgentAggregation> byAmount = aggregator.topAgents(tenantId, from(), to(), X402UsageStatus.SUCCESS, 1, true);
+        assertThat(byAmount).singleElement().satisfies(a -> {
+            assertThat(a.getAgentId()).isEqualTo("agent-mid");
+            assertThat(a.getAmountAtomic()).isGreaterThanOrEqualTo(60_000L);
+        });
+    }
+
+    @Test
+    void testTopEndpointsFilterByStatus() {
+        aggregator.onCapture(event("agent-1", "/api/a", 10L, 0));
+        X402UsageEvent required = event("agent-1", "/api/b", null, 0);
+        required.setStatus(X402UsageStatus.PAYMENT_REQUIRED);
+        required.setSampleWeight(5);
+        aggregator.onCapture(required);
+        aggregator.flush();
+
+        List<EndpointAggregation> success = aggregator.topEndpoints(tenantId, from(), to(), X402UsageStatus.SUCCESS, 10, false);
+        assertThat(success).singleElement().satisfies(e -> {
+            assertThat(e.getEndpoint()).isEqualTo("/api/a");
+            assertThat(e.getCount()).isEqualTo(1L);
+            assertThat(e.getCountError()).isZero();
+        });
+
+        List<EndpointAggregation> all = aggregator.topEndpoints(tenantId, from(), to(), null, 10, false);
+        assertThat(all).extracting(EndpointAggregation::getEndpoint).containsExactly("/api/b", "/api/a");
+        assertThat(all.get(0).getCount()).isEqualTo(5L);
+    }
+
+    private X402UsageEvent event(String agentId, String endpoint, Long amount, int hour) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setTenantId(tenantId);
+        event.setAgentId(agentId);
+        event.setEndpoint(endpoint);
+        event.setStatus(X402UsageStatus.SUCCESS);
+        event.setAmountAtomic(amount);
+        event.setCreatedAt(OffsetDateTime.ofInstant(START.plusSeconds(hour * 3_600L), ZoneOffset.UTC));
+        return event;
+    }
+
+    private static OffsetDateTime from() {
+        return OffsetDateTime.ofInstant(START, ZoneOffset.UTC).minusHours(1);
+    }
+
+    private static OffsetDateTime to() {
+        return OffsetDateTime.ofInstant(START, ZoneOffset.UTC).plusHours(3);
+    }
+}
@@ -0,0 +1,90 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.sketch.X402Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test for X402Histogram.
+ */
+class X402HistogramTest {
+
+    @Test
+    void testSmallValuesAreExact() {
+        X402Histogram histogram = new X402Histogram();
+        for (long v = 1; v <= 50; v++) {
+            histogram.record(v, 1);
+        }
+
+        assertThat(histogram.getTotalCount()).isEqualTo(50);
+        assertThat(histogram.getMin()).isEqualTo(1);
+        assertThat(histogram.getMax()).isEqualTo(50);
+        assertThat(histogram.getMean()).isEqualTo(25.5);
+        assertThat(histogram.valueAtPercentile(50)).isEqualTo(25);
+        assertThat(histogram.valueAtPercentile(90)).isEqualTo(45);
+        assertThat(histogram.valueAtPercentile(100)).isEqualTo(50);
+        assertThat(new X402Histogram().valueAtPercentile(99)).isZero();
+    }
+
+    @Test
+    void testPercentilesWithinRelativeErrorBound() {
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        X402Histogram histogram = new X402Histogram();
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal around 20ms, in microseconds
+            values[i] = (long) Math.exp(Math.log(20_000) + random.nextGaussian());
+            histogram.record(values[i], 1);
+        }
+        Arrays.sort(values);
+
+        for (double p : new double[] {50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            assertThat((double) histogram.valueAtPercentile(p)).isCloseTo(exact, within(exact / 32.0));
+        }
+    }
+
+    @Test
+    void testMergeEqualsRecordingEverything() {
+        X402Histogram first = new X402Histogram();
+        X402Histogram second = new X402Histogram();
+        X402Histogram all = new X402Histogram();
+        for (long v = 0; v < 10_000; v++) {
+            (v % 3 == 0 ? first : second).record(v * 37, 2);
+            all.record(v * 37, 2);
+        }
+
+        X402Histogram union = X402Histogram.union(List.of(first, second));
+
+        assertThat(union.getTotalCount()).isEqualTo(all.getTotalCount());
+        assertThat(union.getMean()).isEqualTo(all.getMean());
+        assertThat(union.valueAtPercentile(99)).isEqualTo(all.valueAtPercentile(99));
+        assertThat(union.toBytes()).isEqualTo(all.toBytes());
+    }
+
+    @Test
+    void testBytesRoundTrip() {
+        X402Histogram histogram = new X402Histogram();
+        histogram.record(0, 3);
+        histogram.record(1_500, 10);
+        histogram.record(Long.MAX_VALUE, 1);
+
+        X402Histogram restored = X402Histogram.fromBytes(histogram.toBytes());
+
+        assertThat(restored.getTotalCount()).isEqualTo(14);
+        assertThat(restored.getMin()).isZero();
+        assertThat(restored.getMax()).isEqualTo(Long.MAX_VALUE);
+        assertThat(restored.valueAtPercentile(50)).isEqualTo(histogram.valueAtPercentile(50));
+        assertThat(restored.toBytes()).isEqualTo(histogram.toBytes());
+        assertThat(X402Histogram.fromBytes(new X402Histogram().toBytes()).getTotalCount()).isZero();
+        assertThatThrownBy(() -> X402Histogram.fromBytes(new byte[] {9}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
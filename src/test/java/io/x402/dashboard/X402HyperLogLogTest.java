@@ -0,0 +1,89 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.sketch.X402HyperLogLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test for X402HyperLogLog.
+ */
+class X402HyperLogLogTest {
+
+    @Test
+    void testSmallCardinalitiesAreNearlyExact() {
+        X402HyperLogLog sketch = new X402HyperLogLog(12);
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int i = 0; i < 100; i++) {
+                sketch.add("agent-" + i);
+            }
+        }
+        sketch.add(null);
+
+        assertThat(sketch.estimate()).isCloseTo(100L, within(2L));
+        assertThat(new X402HyperLogLog(12).estimate()).isZero();
+    }
+
+    @Test
+    void testLargeCardinalityWithinErrorBound() {
+        X402HyperLogLog sketch = new X402HyperLogLog(12);
+        for (int i = 0; i < 200_000; i++) {
+            sketch.add("10.0." + (i >>> 8) + "." + (i & 0xff) + "#" + i);
+        }
+
+        // Four standard errors (1.04 / 64 each)
+        assertThat((double) sketch.estimate()).isCloseTo(200_000.0, within(200_000 * 4 * 1.04 / 64));
+    }
+
+    @Test
+    void testMergeCountsTheUnion() {
+        X402HyperLogLog first = new X402HyperLogLog(12);
+        X402HyperLogLog second = new X402HyperLogLog(14);
+        for (int i = 0; i < 30_000; i++) {
+            first.add("agent-" + i);
+        }
+        for (int i = 20_000; i < 50_000; i++) {
+            second.add("agent-" + i);
+        }
+
+        X402HyperLogLog union = X402HyperLogLog.union(List.of(first, second), 14);
+        assertThat(union.getPrecision()).isEqualTo(12);
+        assertThat((double) union.estimate()).isCloseTo(50_000.0, within(50_000 * 4 * 1.04 / 64));
+        assertThatThrownBy(() -> second.merge(first)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testReduceMatchesSketchBuiltAtLowerPrecision() {
+        X402HyperLogLog high = new X402HyperLogLog(14);
+        X402HyperLogLog low = new X402HyperLogLog(10);
+        for (int i = 0; i < 10_000; i++) {
+            high.add("buyer-" + i);
+            low.add("buyer-" + i);
+        }
+
+        assertThat(high.reduce(10).toBytes()).isEqualTo(low.toBytes());
+    }
+
+    @Test
+    void testSerializationRoundTripSparseAndDense() {
+        X402HyperLogLog sparse = new X402HyperLogLog(12);
+        for (int i = 0; i < 20; i++) {
+            sparse.add("service-" + i);
+        }
+        X402HyperLogLog dense = new X402HyperLogLog(12);
+        for (int i = 0; i < 100_000; i++) {
+            dense.add("service-" + i);
+        }
+
+        byte[] sparseBytes = sparse.toBytes();
+        assertThat(sparseBytes.length).isLessThan(100);
+        assertThat(X402HyperLogLog.fromBytes(sparseBytes).estimate()).isEqualTo(sparse.estimate());
+        byte[] denseBytes = dense.toBytes();
+        assertThat(denseBytes.length).isEqualTo(3 + 4096);
+        assertThat(X402HyperLogLog.fromBytes(denseBytes).toBytes()).isEqualTo(denseBytes);
+    }
+}
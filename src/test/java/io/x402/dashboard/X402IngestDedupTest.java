@@ -0,0 +1,143 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.buyer.domain.ServiceCategory;
+import io.x402.dashboard.buyer.logging.X402SpendingLogger;
+import io.x402.dashboard.buyer.repository.X402SpendingEventRepository;
+import io.x402.dashboard.common.ingest.X402IngestDeduplicator;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.logging.X402UsageLogger;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for idempotent settlement ingest (X402IngestDeduplicator).
+ */
+@SpringBootTest(properties = "x402.dashboard.ingest.dedup.enabled=true")
+class X402IngestDedupTest {
+
+    @Autowired
+    private X402UsageLogger usageLogger;
+
+    @Autowired
+    private X402SpendingLogger spendingLogger;
+
+    @Autowired
+    private X402UsageEventService eventService;
+
+    @Autowired
+    private X402UsageEventRepository usageRepository;
+
+    @Autowired
+    private X402SpendingEventRepository spendingRepository;
+
+    @Autowired
+    private X402IngestDeduplicator deduplicator;
+
+    @Test
+    void testRetriedSettlementIsRecordedOnce() {
+        String txHash = txHash();
+        long rejectedBefore = rejected(X402IngestDeduplicator.USAGE);
+
+        X402UsageEvent first = usageLogger.logSuccess("agent-1", "GET", "/api/items", "eip155:84532", "USDC", 1000L, txHash, 10L);
+        X402UsageEvent retry = usageLogger.logSuccess("agent-1", "GET", "/api/items", "eip155:84532", "USDC", 1000L, txHash, 12L);
+
+        assertThat(first.getId()).isNotNull();
+        assertThat(retry.getId()).isNull();
+        assertThat(usageRepository.existsByDedupKey(txHash)).isTrue();
+        assertThat(usageRepository.findAll())
+                .filteredOn(e -> txHash.equals(e.getTxHash()))
+                .hasSize(1);
+        assertThat(rejected(X402IngestDeduplicator.USAGE)).isEqualTo(rejectedBefore + 1);
+    }
+
+    @Test
+    void testNonSuccessEventsAreNotKeyed() {
+        String txHash = txHash();
+
+        usageLogger.logSettleFailed("agent-1", "GET", "/api/items", txHash, 10L);
+        usageLogger.logSettleFailed("agent-1", "GET", "/api/items", txHash, 10L);
+
+        assertThat(usageRepository.findAll())
+                .filteredOn(e -> txHash.equals(e.getTxHash()))
+                .hasSize(2)
+                .allSatisfy(e -> assertThat(e.getDedupKey()).isNull());
+    }
+
+    @Test
+    void testUniqueIndexRejectsDuplicatesTheFilterHasNotSeen() {
+        String txHash = txHash();
+        // Stored behind the deduplicator's back, e.g. by another node
+        X402UsageEvent stored = new X402UsageEvent();
+        stored.setStatus(X402UsageStatus.SUCCESS);
+        stored.setTxHash(txHash);
+        stored.setDedupKey(txHash);
+        stored.setAmountAtomic(1000L);
+        eventService.save(stored);
+        long rejectedBefore = rejected(X402IngestDeduplicator.USAGE);
+
+        usageLogger.logSuccess("agent-1", "GET", "/api/items", "eip155:84532", "USDC", 1000L, txHash, 10L);
+
+        assertThat(usageRepository.findAll())
+                .filteredOn(e -> txHash.equals(e.getTxHash()))
+                .hasSize(1);
+        assertThat(rejected(X402IngestDeduplicator.USAGE)).isEqualTo(rejectedBefore + 1);
+    }
+
+    @Test
+    void testBatchWithDuplicateStoresTheRest() {
+        String duplicate = txHash();
+        usageLogger.logSuccess("agent-1", "GET", "/api/items", "eip155:84532", "USDC", 1000L, duplicate, 10L);
+        List<X402UsageEvent> batch = List.of(successEvent(txHash()), successEvent(duplicate), successEvent(txHash()));
+        batch.forEach(e -> e.setDedupKey(e.getTxHash()));
+
+        deduplicator.saveAll(X402IngestDeduplicator.USAGE, batch, eventService::saveAll, X402UsageEvent::getDedupKey);
+
+        assertThat(usageRepository.existsByDedupKey(batch.get(0).getTxHash())).isTrue();
+        assertThat(usageRepository.existsByDedupKey(batch.get(2).getTxHash())).isTrue();
+        assertThat(usageRepository.findAll())
+                .filteredOn(e -> duplicate.equals(e.getTxHash()))
+                .hasSize(1);
+    }
+
+    @Test
+    void testSpendingIsDeduplicatedByTransaction() {
+        String buyerId = "buyer-" + UUID.randomUUID();
+        String txHash = txHash();
+        OffsetDateTime from = OffsetDateTime.now().minusMinutes(1);
+
+        for (int i = 0; i < 3; i++) {
+            spendingLogger.logSuccess(buyerId, "openai-api", "OpenAI API", "/chat/completions",
+                    ServiceCategory.AI_LANGUAGE_MODEL, "eip155:84532", "USDC", 5000L, txHash, 100L);
+        }
+
+        assertThat(spendingRepository.sumAmountByBuyerAndTimeRange(buyerId, from, OffsetDateTime.now().plusMinutes(1)))
+                .isEqualTo(5000L);
+        assertThat(rejected(X402IngestDeduplicator.SPENDING)).isGreaterThanOrEqualTo(2L);
+    }
+
+    private long rejected(String scope) {
+        return deduplicator.getRejectedCounts().getOrDefault(scope, 0L);
+    }
+
+    private static X402UsageEvent successEvent(String txHash) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setStatus(X402UsageStatus.SUCCESS);
+        event.setTxHash(txHash);
+        event.setAmountAtomic(1000L);
+        return event;
+    }
+
+    private static String txHash() {
+        return "0x" + UUID.randomUUID().toString().replace("-", "");
+    }
+}
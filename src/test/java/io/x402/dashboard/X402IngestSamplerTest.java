@@ -0,0 +1,95 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.ingest.X402IngestSampler;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test for X402IngestSampler.
+ */
+class X402IngestSamplerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    @Test
+    void testSuccessIsNeverSampled() {
+        X402IngestSampler sampler = new X402IngestSampler(settings(0, rule(null, null, 0.01)), clock::get);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(sampler.sample("/api/items/{id}", "SUCCESS")).isEqualTo(1);
+        }
+        assertThat(sampler.getStats().getSampledOut()).isZero();
+    }
+
+    @Test
+    void testRuleWeightsAreUnbiased() {
+        X402IngestSampler sampler = new X402IngestSampler(
+                settings(0, rule("/api/**", "PAYMENT_REQUIRED", 0.1)), clock::get);
+
+        long weighted = 0;
+        int kept = 0;
+        for (int i = 0; i < 100_000; i++) {
+            int weight = sampler.sample("/api/items/{id}", "PAYMENT_REQUIRED");
+            assertThat(weight).isIn(0, 10);
+            weighted += weight;
+            kept += weight > 0 ? 1 : 0;
+        }
+
+        assertThat(kept).isBetween(8_000, 12_000);
+        assertThat((double) weighted).isCloseTo(100_000.0, within(5_000.0));
+        // Other endpoints and statuses are not covered by the rule
+        assertThat(sampler.sample("/health", "PAYMENT_REQUIRED")).isEqualTo(1);
+        assertThat(sampler.sample("/api/items/{id}", "VERIFY_FAILED")).isEqualTo(1);
+    }
+
+    @Test
+    void testAdaptiveFactorFollowsTraffic() {
+        X402IngestSampler sampler = new X402IngestSampler(settings(100), clock::get);
+
+        // Within budget until the first window closes
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(sampler.sample("/api/items/{id}", "VERIFY_FAILED")).isEqualTo(1);
+        }
+        clock.addAndGet(1_000L);
+
+        long weighted = 0;
+        for (int i = 0; i < 200_000; i++) {
+            weighted += sampler.sample("/api/items/{id}", "VERIFY_FAILED");
+        }
+        assertThat(sampler.getAdaptiveFactor()).isBetween(100, 101);
+        assertThat((double) weighted).isCloseTo(200_000.0, within(20_000.0));
+
+        // A spike raises the factor at once, up to the weight cap
+        clock.addAndGet(1_000L);
+        sampler.sample("/api/items/{id}", "VERIFY_FAILED");
+        assertThat(sampler.getAdaptiveFactor()).isEqualTo(1_000);
+
+        // A quiet second halves it
+        clock.addAndGet(1_000L);
+        sampler.sample("/api/items/{id}", "VERIFY_FAILED");
+        assertThat(sampler.getAdaptiveFactor()).isEqualTo(500);
+    }
+
+    private static X402DashboardProperties.Sampling settings(
+            int maxEventsPerSecond, X402DashboardProperties.Sampling.Rule... rules) {
+        X402DashboardProperties.Sampling settings = new X402DashboardProperties.Sampling();
+        settings.setEnabled(true);
+        settings.setMaxEventsPerSecond(maxEventsPerSecond);
+        settings.setRules(List.of(rules));
+        return settings;
+    }
+
+    private static X402DashboardProperties.Sampling.Rule rule(String endpoint, String status, double rate) {
+        X402DashboardProperties.Sampling.Rule rule = new X402DashboardProperties.Sampling.Rule();
+        rule.setEndpoint(endpoint);
+        rule.setStatus(status);
+        rule.setRate(rate);
+        return rule;
+    }
+}
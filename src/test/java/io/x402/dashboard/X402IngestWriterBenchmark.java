@@ -0,0 +1,127 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.seller.domain.AgentType;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventJdbcWriter;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput of the JPA repository path versus the JDBC batch writer.
+ *
+ * Excluded from the regular test run; run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "x402.dashboard.ingest.writer=jdbc")
+class X402IngestWriterBenchmark {
+
+    private static final int EVENTS_PER_RUN = 64_000;
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private X402UsageEventRepository repository;
+
+    @Autowired
+    private X402UsageEventJdbcWriter jdbcWriter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+    }
+
+    @ParameterizedTest(name = "repository.save, {0} threads")
+    @ValueSource(ints = {1, 8, 64})
+    void benchmarkRepositorySave(int threads) throws Exception {
+        double rate = run(threads, events -> {
+            for (X402UsageEvent event : events) {
+                repository.save(event);
+            }
+        });
+        report("repository.save", threads, rate);
+    }
+
+    @ParameterizedTest(name = "jdbc batch, {0} threads")
+    @ValueSource(ints = {1, 8, 64})
+    void benchmarkJdbcBatch(int threads) throws Exception {
+        double rate = run(threads, events -> {
+            for (int i = 0; i < events.size(); i += BATCH_SIZE) {
+                List<X402UsageEvent> batch = events.subList(i, Math.min(i + BATCH_SIZE, events.size()));
+                transactionTemplate.executeWithoutResult(status -> jdbcWriter.insertAll(batch));
+            }
+        });
+        report("jdbc batch", threads, rate);
+    }
+
+    private double run(int threads, Writer writer) throws Exception {
+        int perThread = EVENTS_PER_RUN / threads;
+        List<List<X402UsageEvent>> work = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            work.add(events(perThread));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<X402UsageEvent> events : work) {
+            futures.add(executor.submit(() -> {
+                writer.write(events);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        assertThat(repository.count()).isEqualTo((long) perThread * threads);
+        return perThread * threads / (elapsed / 1e9);
+    }
+
+    private static List<X402UsageEvent> events(int count) {
+        List<X402UsageEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            X402UsageEvent event = new X402UsageEvent();
+            event.setAgentId("agent-" + (i % 50));
+            event.setAgentType(AgentType.CLAUDE);
+            event.setMethod("POST");
+            event.setEndpoint("/api/resource/" + (i % 20));
+            event.setNetwork("eip155:84532");
+            event.setAsset("USDC");
+            event.setAmountAtomic(1_000_000L);
+            event.setStatus(i % 4 == 0 ? X402UsageStatus.PAYMENT_REQUIRED : X402UsageStatus.SUCCESS);
+            event.setLatencyMs(100L);
+            event.setCreatedAt(OffsetDateTime.now());
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static void report(String path, int threads, double rate) {
+        System.out.printf("%-16s %3d threads: %,12.0f inserts/sec%n", path, threads, rate);
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(List<X402UsageEvent> events);
+    }
+}
@@ -0,0 +1,135 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Dimension;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Metric;
+import io.x402.dashboard.common.sketch.X402LatencyPercentiles;
+import io.x402.dashboard.common.sketch.X402LatencyRecorder;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.service.X402UsageLatencyListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test for X402LatencyRecorder and X402UsageLatencyListener.
+ */
+@SpringBootTest(properties = {
+        "x402.dashboard.latency.enabled=true",
+        "x402.dashboard.latency.flush-interval=1h"
+})
+class X402LatencyRecorderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 1);
+
+    @Autowired
+    private X402LatencyHistogramRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String tenantId;
+    private X402LatencyRecorder recorder;
+    private X402UsageLatencyListener listener;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = "tenant-" + UUID.randomUUID();
+        recorder = new X402LatencyRecorder(repository, transactionManager, new X402DashboardProperties.Latency());
+        listener = new X402UsageLatencyListener(recorder);
+    }
+
+    @Test
+    void testPercentilesMergeAcrossHoursAndFlushes() {
+        // Latencies 1-1000ms, spread over three hours and two flushes
+        for (int i = 1; i <= 1000; i++) {
+            listener.onCapture(event("/api/items", "agent-" + (i % 2), i * 1000L, i % 3));
+            if (i == 500) {
+                recorder.flush();
+            }
+        }
+        recorder.flush();
+
+        X402LatencyPercentiles all = recorder.percentiles(Metric.LATENCY, Dimension.ENDPOINT, tenantId, null, from(), to());
+        assertThat(all.getCount()).isEqualTo(1000);
+        assertThat(all.getMinMs()).isEqualTo(1.0);
+        assertThat(all.getMaxMs()).isEqualTo(1000.0);
+        assertThat(all.getMeanMs()).isCloseTo(500.5, within(0.001));
+        assertThat(all.getP50Ms()).isCloseTo(500.0, within(500 / 32.0));
+        assertThat(all.getP99Ms()).isCloseTo(990.0, within(990 / 32.0));
+
+        X402LatencyPercentiles agent = recorder.percentiles(Metric.LATENCY, Dimension.AGENT, tenantId, "agent-0", from(), to());
+        assertThat(agent.getCount()).isEqualTo(500);
+        assertThat(agent.getSubject()).isEqualTo("agent-0");
+
+        // Only the first hour
+        OffsetDateTime secondHour = DAY.atTime(1, 0).atZone(ZoneId.systemDefault()).toOffsetDateTime();
+        assertThat(recorder.percentiles(Metric.LATENCY, Dimension.ENDPOINT, tenantId, null, from(), secondHour)
+                .getCount()).isEqualTo(333);
+    }
+
+    @Test
+    void testBreakdownAndSettlementDelayWithSampleWeight() {
+        for (int i = 0; i < 30; i++) {
+            listener.onCapture(event("/api/busy", "agent-1", 2_000L, 0));
+        }
+        X402UsageEvent sampled = event("/api/quiet", "agent-1", 800L, 0);
+        sampled.setSampleWeight(10);
+        sampled.setSettledAt(sampled.getCreatedAt().plusSeconds(3));
+        listener.onCapture(sampled);
+        recorder.flush();
+
+        List<X402LatencyPercentiles> endpoints =
+                recorder.breakdown(Metric.LATENCY, Dimension.ENDPOINT, tenantId, from(), to(), null);
+        assertThat(endpoints).extracting(X402LatencyPercentiles::getSubject).containsExactly("/api/busy", "/api/quiet");
+        assertThat(endpoints.get(1).getCount()).isEqualTo(10);
+        assertThat(endpoints.get(1).getP50Ms()).isEqualTo(0.8);
+        assertThat(recorder.breakdown(Metric.LATENCY, Dimension.ENDPOINT, tenantId, from(), to(), 1)).hasSize(1);
+
+        X402LatencyPercentiles delay =
+                recorder.percentiles(Metric.SETTLEMENT_DELAY, Dimension.ENDPOINT, tenantId, null, from(), to());
+        assertThat(delay.getCount()).isEqualTo(10);
+        assertThat(delay.getMaxMs()).isEqualTo(3000.0);
+    }
+
+    @Test
+    void testMetricParsing() {
+        assertThat(Metric.parse("settlement-delay")).isEqualTo(Metric.SETTLEMENT_DELAY);
+        assertThat(Metric.parse("Latency")).isEqualTo(Metric.LATENCY);
+        assertThatThrownBy(() -> Metric.parse("throughput")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private X402UsageEvent event(String endpoint, String agentId, long latencyMicros, int hourOffset) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setTenantId(tenantId);
+        event.setAgentId(agentId);
+        event.setEndpoint(endpoint);
+        event.setStatus(X402UsageStatus.SUCCESS);
+        event.setLatencyMicros(latencyMicros);
+        event.setLatencyMs(latencyMicros / 1000);
+        event.setCreatedAt(DAY.atTime(hourOffset, 15).atZone(ZoneId.systemDefault()).toOffsetDateTime());
+        return event;
+    }
+
+    private static OffsetDateTime from() {
+        return DAY.atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+
+    private static OffsetDateTime to() {
+        return DAY.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+}
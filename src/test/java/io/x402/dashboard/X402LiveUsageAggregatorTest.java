@@ -0,0 +1,130 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.service.X402LiveUsageAggregator;
+import io.x402.dashboard.seller.service.dto.LiveUsageStats;
+import io.x402.dashboard.seller.service.dto.OverviewTotals;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402LiveUsageAggregator.
+ */
+class X402LiveUsageAggregatorTest {
+
+    private final AtomicLong clock = new AtomicLong(Instant.parse("2025-06-01T12:00:00Z").toEpochMilli());
+
+    @Test
+    void testWindowsOnlyCountRecentBuckets() {
+        X402LiveUsageAggregator aggregator = new X402LiveUsageAggregator(new X402DashboardProperties.Live(), clock::get);
+
+        aggregator.onCapture(event("agent-1", X402UsageStatus.SUCCESS, 100L));
+        clock.addAndGet(Duration.ofMinutes(2).toMillis());
+        aggregator.onCapture(event("agent-1", X402UsageStatus.SUCCESS, 200L));
+        aggregator.onCapture(event("agent-2", X402UsageStatus.VERIFY_FAILED, null));
+
+        OverviewTotals lastMinute = aggregator.getOverviewTotals(null, Duration.ofMinutes(1));
+        assertThat(lastMinute.getTotalCount()).isEqualTo(2L);
+        assertThat(lastMinute.getSuccessAmount()).isEqualTo(200L);
+
+        OverviewTotals lastHour = aggregator.getOverviewTotals(null, Duration.ofHours(1));
+        assertThat(lastHour.getTotalCount()).isEqualTo(3L);
+        assertThat(lastHour.getSuccessAmount()).isEqualTo(300L);
+
+        assertThat(aggregator.aggregateByAgent(null, Duration.ofHours(1), X402UsageStatus.SUCCESS))
+                .singleElement()
+                .satisfies(a -> {
+                    assertThat(a.getAgentId()).isEqualTo("agent-1");
+                    assertThat(a.getCount()).isEqualTo(2L);
+                });
+
+        clock.addAndGet(Duration.ofHours(2).toMillis());
+        assertThat(aggregator.getOverviewTotals(null, Duration.ofHours(1)).getTotalCount()).isZero();
+    }
+
+    @Test
+    void testBackdatedEventsAreNotLive() {
+        X402LiveUsageAggregator aggregator = new X402LiveUsageAggregator(new X402DashboardProperties.Live(), clock::get);
+        X402UsageEvent old = event("agent-1", X402UsageStatus.SUCCESS, 100L);
+        old.setCreatedAt(old.getCreatedAt().minusDays(3));
+
+        aggregator.onCapture(old);
+
+        assertThat(aggregator.getOverviewTotals(null, Duration.ofHours(1)).getTotalCount()).isZero();
+    }
+
+    @Test
+    void testLiveStats() {
+        X402LiveUsageAggregator aggregator = new X402LiveUsageAggregator(new X402DashboardProperties.Live(), clock::get);
+        for (int i = 0; i < 6; i++) {
+            aggregator.onCapture(event("agent-1", X402UsageStatus.SUCCESS, 1_000L));
+        }
+        aggregator.onCapture(event("agent-1", X402UsageStatus.PAYMENT_REQUIRED, 1_000L));
+        aggregator.onCapture(event("agent-1", X402UsageStatus.SETTLE_FAILED, 1_000L));
+
+        LiveUsageStats stats = aggregator.getLiveStats(null, Duration.ofSeconds(60));
+
+        assertThat(stats.getRequestCount()).isEqualTo(8L);
+        assertThat(stats.getRevenueAtomic()).isEqualTo(6_000L);
+        assertThat(stats.getRevenuePerMinute()).isEqualTo(6_000.0);
+        assertThat(stats.getErrorRate()).isEqualTo(12.5);
+    }
+
+    @Test
+    void testConcurrentCapturesAreAllCounted() throws InterruptedException {
+        X402LiveUsageAggregator aggregator = new X402LiveUsageAggregator(new X402DashboardProperties.Live(), clock::get);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    aggregator.onCapture(event("agent-" + (i % 3), X402UsageStatus.SUCCESS, 1L));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        OverviewTotals totals = aggregator.getOverviewTotals(null, Duration.ofMinutes(5));
+        assertThat(totals.getTotalCount()).isEqualTo(80_000L);
+        assertThat(totals.getTotalAmount()).isEqualTo(80_000L);
+    }
+
+    @Test
+    void testHighCardinalityCollapsesIntoOther() {
+        X402DashboardProperties.Live settings = new X402DashboardProperties.Live();
+        settings.setMaxKeysPerBucket(10);
+        X402LiveUsageAggregator aggregator = new X402LiveUsageAggregator(settings, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            aggregator.onCapture(event("agent-" + i, X402UsageStatus.SUCCESS, 1L));
+        }
+
+        assertThat(aggregator.getOverviewTotals(null, Duration.ofMinutes(1)).getTotalCount()).isEqualTo(100L);
+        assertThat(aggregator.aggregateByAgent(null, Duration.ofMinutes(1), null))
+                .hasSize(11)
+                .first()
+                .satisfies(a -> assertThat(a.getAgentId()).isEqualTo(X402LiveUsageAggregator.OTHER));
+    }
+
+    private X402UsageEvent event(String agentId, X402UsageStatus status, Long amount) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setAgentId(agentId);
+        event.setEndpoint("/api/resource");
+        event.setStatus(status);
+        event.setAmountAtomic(amount);
+        event.setCreatedAt(OffsetDateTime.ofInstant(Instant.ofEpochMilli(clock.get()), ZoneOffset.UTC));
+        return event;
+    }
+}
@@ -90,4 +90,33 @@ public class X402LoggedAnnotationTest {
         assertThat(event.getEndpoint()).contains("X402TestService.processWithDefaultEndpoint");
         assertThat(event.getMethod()).isEqualTo("METHOD_CALL");  // Default method
     }
+
+    @Test
+    void testExpressionsFromArgumentsAndResult() {
+        // When: called repeatedly, so the expressions get compiled
+        for (int i = 1; i <= 5; i++) {
+            testService.charge("agent-" + i, i * 100L);
+        }
+
+        // Then
+        List<X402UsageEvent> events = repository.findAll();
+        assertThat(events)
+                .extracting(e -> e.getAgentId() + "/" + e.getAmountAtomic() + "/" + e.getTxHash())
+                .containsExactlyInAnyOrder(
+                        "agent-1/100/0XABC100", "agent-2/200/0XABC200", "agent-3/300/0XABC300",
+                        "agent-4/400/0XABC400", "agent-5/500/0XABC500");
+        assertThat(events).allSatisfy(e -> assertThat(e.getEndpoint()).isEqualTo("/api/charge"));
+    }
+
+    @Test
+    void testFailedExpressionFallsBackToStaticValues() {
+        // When: #result is null because the method threw
+        assertThrows(IllegalStateException.class, () -> testService.refund("declined"));
+
+        // Then
+        List<X402UsageEvent> events = repository.findAll();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getAmountAtomic()).isEqualTo(5L);
+        assertThat(events.get(0).getStatus()).isEqualTo(X402UsageStatus.UNKNOWN_ERROR);
+    }
 }
@@ -0,0 +1,89 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.ingest.X402NonBlockingSink;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402NonBlockingSink.
+ */
+class X402NonBlockingSinkTest {
+
+    @Test
+    void testEventsAreConsumedOnWorkerThread() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        X402NonBlockingSink<String> sink = newSink(1024, e -> threads.add(Thread.currentThread().getName()));
+        sink.start();
+
+        for (int i = 0; i < 100; i++) {
+            sink.offer("SUCCESS");
+        }
+        sink.stop();
+
+        assertThat(threads).hasSize(100).containsOnly("test-sink");
+        assertThat(sink.getStats().getWritten()).isEqualTo(100L);
+    }
+
+    @Test
+    void testFullBufferDropsInsteadOfBlocking() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> consumed = new CopyOnWriteArrayList<>();
+        X402NonBlockingSink<String> sink = newSink(4, e -> {
+            awaitQuietly(release);
+            consumed.add(e);
+        });
+        sink.start();
+
+        // The worker takes the first event and blocks; four more fill the buffer
+        sink.offer("PAYMENT_REQUIRED");
+        Thread.sleep(100);
+        sink.offer("VERIFY_FAILED");
+        for (int i = 0; i < 3; i++) {
+            sink.offer("SUCCESS");
+        }
+
+        long start = System.nanoTime();
+        sink.offer("SUCCESS");          // evicts the buffered VERIFY_FAILED
+        sink.offer("PAYMENT_REQUIRED"); // oldest is SUCCESS: dropped
+        sink.offer("SUCCESS");          // nothing left to evict: dropped too
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+
+        assertThat(sink.getDroppedCounts())
+                .isEqualTo(Map.of("VERIFY_FAILED", 1L, "PAYMENT_REQUIRED", 1L, "SUCCESS", 1L));
+
+        release.countDown();
+        sink.stop();
+        assertThat(consumed).containsExactly("PAYMENT_REQUIRED", "SUCCESS", "SUCCESS", "SUCCESS", "SUCCESS");
+    }
+
+    @Test
+    void testOfferWhenStoppedConsumesSynchronously() {
+        List<String> consumed = new CopyOnWriteArrayList<>();
+        X402NonBlockingSink<String> sink = newSink(16, consumed::add);
+
+        sink.offer("SUCCESS");
+
+        assertThat(consumed).containsExactly("SUCCESS");
+    }
+
+    private static X402NonBlockingSink<String> newSink(int capacity, Consumer<String> consumer) {
+        return new X402NonBlockingSink<>("test", capacity, Duration.ofSeconds(5), e -> e, consumer);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402FunnelRepository;
+import io.x402.dashboard.seller.service.X402PaymentFunnelCorrelator;
+import io.x402.dashboard.seller.service.dto.FunnelAggregation;
+import io.x402.dashboard.seller.service.dto.TimeToPayBucket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402PaymentFunnelCorrelator.
+ */
+@SpringBootTest(properties = {
+        "x402.dashboard.funnel.enabled=true",
+        "x402.dashboard.funnel.flush-interval=1h"
+})
+class X402PaymentFunnelTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T12:00:00Z");
+
+    @Autowired
+    private X402FunnelRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong clock = new AtomicLong(START.toEpochMilli());
+
+    private String tenantId;
+    private X402PaymentFunnelCorrelator correlator;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = "tenant-" + UUID.randomUUID();
+        X402DashboardProperties.Funnel settings = new X402DashboardProperties.Funnel();
+        settings.setConversionWindow(Duration.ofMinutes(10));
+        settings.setMaxPending(2);
+        correlator = new X402PaymentFunnelCorrelator(repository, transactionManager, settings, clock::get);
+    }
+
+    @Test
+    void testPaymentRequiredFollowedBySuccessConverts() {
+        correlator.onCapture(event("agent-1", "/api/items", X402UsageStatus.PAYMENT_REQUIRED, 0));
+        correlator.onCapture(event("agent-1", "/api/items", X402UsageStatus.SUCCESS, 1_500));
+        correlator.onCapture(event("agent-2", "/api/items", X402UsageStatus.PAYMENT_REQUIRED, 100));
+        correlator.flush();
+
+        List<FunnelAggregation> byEndpoint = correlator.aggregateByEndpoint(tenantId, from(), to());
+        assertThat(byEndpoint).singleElement().satisfies(f -> {
+            assertThat(f.getEndpoint()).isEqualTo("/api/items");
+            assertThat(f.getPaymentRequired()).isEqualTo(2L);
+            assertThat(f.getConverted()).isEqualTo(1L);
+            assertThat(f.getConversionRate()).isEqualTo(0.5);
+            assertThat(f.getAvgTimeToPayMs()).isEqualTo(1_500.0);
+        });
+
+        List<TimeToPayBucket> histogram = correlator.getTimeToPay(tenantId, "agent-1", null, from(), to());
+        assertThat(histogram).filteredOn(b -> b.getCount() > 0).singleElement().satisfies(b -> {
+            assertThat(b.getUpperMs()).isEqualTo(2_000L);
+            assertThat(b.getCount()).isEqualTo(1L);
+        });
+        assertThat(histogram.get(histogram.size() - 1).getUpperMs()).isNull();
+    }
+
+    @Test
+    void testUnpaidPaymentRequiredIsAbandonedAfterWindow() {
+        correlator.onCapture(event("agent-1", "/api/items", X402UsageStatus.PAYMENT_REQUIRED, 0));
+        correlator.onCapture(event("agent-1", "/api/items", X402UsageStatus.PAYMENT_REQUIRED, 1_000));
+        clock.addAndGet(Duration.ofMinutes(11).toMillis());
+        correlator.flush();
+
+        assertThat(correlator.getPendingCount()).isZero();
+        // A SUCCESS after the window has nothing left to convert
+        correlator.onCapture(event("agent-1", "/api/items", X402UsageStatus.SUCCESS, Duration.ofMinutes(11).toMillis()));
+        correlator.flush();
+
+        assertThat(correlator.aggregateByAgent(tenantId, from(), to())).singleElement().satisfies(f -> {
+            assertThat(f.getAgentId()).isEqualTo("agent-1");
+            assertThat(f.getPaymentRequired()).isEqualTo(2L);
+            assertThat(f.getConverted()).isZero();
+            assertThat(f.getAbandoned()).isEqualTo(2L);
+            assertThat(f.getUnmatched()).isEqualTo(1L);
+            assertThat(f.getAvgTimeToPayMs()).isNull();
+        });
+    }
+
+    @Test
+    void testPendingStateIsBounded() {
+        correlator.onCapture(event("agent-1", "/api/items", X402UsageStatus.PAYMENT_REQUIRED, 0));
+        correlator.onCapture(event("agent-2", "/api/items", X402UsageStatus.PAYMENT_REQUIRED, 0));
+        correlator.onCapture(event("agent-3", "/api/items", X402UsageStatus.PAYMENT_REQUIRED, 0));
+        correlator.onCapture(event("agent-3", "/api/items", X402UsageStatus.SUCCESS, 500));
+        correlator.flush();
+
+        assertThat(correlator.getPendingCount()).isEqualTo(2);
+        assertThat(correlator.getUntrackedCount()).isEqualTo(1L);
+        assertThat(correlator.aggregateByEndpoint(tenantId, from(), to())).singleElement().satisfies(f -> {
+            assertThat(f.getPaymentRequired()).isEqualTo(3L);
+            assertThat(f.getUnmatched()).isEqualTo(1L);
+        });
+    }
+
+    @Test
+    void testFlushesAccumulateIntoTheSameHour() {
+        correlator.onCapture(event("agent-1", "/api/items", X402UsageStatus.PAYMENT_REQUIRED, 0));
+        correlator.flush();
+        correlator.onCapture(event("agent-1", "/api/items", X402UsageStatus.SUCCESS, 200));
+        correlator.flush();
+
+        assertThat(correlator.aggregateByAgent(tenantId, from(), to())).singleElement().satisfies(f -> {
+            assertThat(f.getPaymentRequired()).isEqualTo(1L);
+            assertThat(f.getConverted()).isEqualTo(1L);
+        });
+    }
+
+    private X402UsageEvent event(String agentId, String endpoint, X402UsageStatus status, long offsetMillis) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setTenantId(tenantId);
+        event.setAgentId(agentId);
+        event.setEndpoint(endpoint);
+        event.setStatus(status);
+        event.setCreatedAt(OffsetDateTime.ofInstant(START.plusMillis(offsetMillis), ZoneOffset.UTC));
+        return event;
+    }
+
+    private static OffsetDateTime from() {
+        return OffsetDateTime.ofInstant(START, ZoneOffset.UTC).minusHours(1);
+    }
+
+    private static OffsetDateTime to() {
+        return OffsetDateTime.ofInstant(START, ZoneOffset.UTC).plusHours(1);
+    }
+}
@@ -0,0 +1,146 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.buyer.domain.ServiceCategory;
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.buyer.repository.X402SpendingEventRepository;
+import io.x402.dashboard.common.query.X402QueryBuilder;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test X402QueryBuilder and the repository queries built with it.
+ */
+@SpringBootTest
+class X402QueryBuilderTest {
+
+    @Autowired
+    private X402UsageEventService usageEventService;
+
+    @Autowired
+    private X402UsageEventRepository usageRepository;
+
+    @Autowired
+    private X402SpendingEventRepository spendingRepository;
+
+    @Test
+    void testOmitsFiltersThatAreNotSet() {
+        OffsetDateTime to = OffsetDateTime.now();
+        X402QueryBuilder query = new X402QueryBuilder("SELECT e FROM X402UsageEvent e")
+                .equal("e.tenantId", "tenantId", null)
+                .equal("e.status", "status", X402UsageStatus.SUCCESS)
+                .between("e.createdAt", to.minusDays(1), to)
+                .append("ORDER BY e.createdAt DESC");
+
+        assertThat(query.build()).isEqualTo("SELECT e FROM X402UsageEvent e"
+                + " WHERE e.status = :status AND e.createdAt BETWEEN :from AND :to ORDER BY e.createdAt DESC");
+        assertThat(query.build()).doesNotContain("IS NULL").doesNotContain("tenantId");
+        assertThat(query.getParameters()).containsOnlyKeys("status", "from", "to");
+        assertThat(query.withSelect("SELECT COUNT(e) FROM X402UsageEvent e").build())
+                .isEqualTo("SELECT COUNT(e) FROM X402UsageEvent e WHERE e.status = :status AND e.createdAt BETWEEN :from AND :to");
+    }
+
+    @Test
+    void testUsageQueriesMatchEveryFilterCombination() {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String tenant = "query-" + UUID.randomUUID();
+        List<X402UsageEvent> events = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            X402UsageEvent event = new X402UsageEvent();
+            event.setTenantId(i % 2 == 0 ? tenant : tenant + "-other");
+            event.setAgentId("agent-" + i % 3);
+            event.setEndpoint("/api/query/" + i % 4);
+            event.setStatus(i % 3 == 0 ? X402UsageStatus.PAYMENT_REQUIRED : X402UsageStatus.SUCCESS);
+            event.setAmountAtomic(1_000L * i);
+            event.setCreatedAt(now.minusMinutes(i));
+            events.add(event);
+        }
+        usageEventService.saveAll(events);
+        OffsetDateTime from = now.minusMinutes(30);
+
+        for (String tenantId : Arrays.asList(tenant, null)) {
+            for (X402UsageStatus status : Arrays.asList(X402UsageStatus.SUCCESS, null)) {
+                List<X402UsageEvent> expected = usageRepository.findAll().stream()
+                        .filter(e -> tenantId == null ? e.getTenantId() != null && e.getTenantId().startsWith(tenant)
+                                : tenantId.equals(e.getTenantId()))
+                        .filter(e -> status == null || e.getStatus() == status)
+                        .filter(e -> !e.getCreatedAt().isBefore(from) && !e.getCreatedAt().isAfter(now))
+                        .toList();
+                Page<X402UsageEvent> page = usageRepository.findEvents(tenantId, status, from, now, PageRequest.of(0, 100_000));
+                List<X402UsageEvent> found = page.getContent().stream()
+                        .filter(e -> e.getTenantId() != null && e.getTenantId().startsWith(tenant))
+                        .toList();
+
+                assertThat(found).extracting(X402UsageEvent::getId)
+                        .containsExactlyInAnyOrderElementsOf(expected.stream().map(X402UsageEvent::getId).toList());
+                assertThat(found).isSortedAccordingTo((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+                if (tenantId != null) {
+                    long amount = expected.stream().mapToLong(X402UsageEvent::getAmountAtomic).sum();
+                    assertThat(page.getTotalElements()).isEqualTo(expected.size());
+                    assertThat(usageRepository.aggregateByAgent(tenantId, from, now, status).stream()
+                            .mapToLong(r -> ((Number) r[2]).longValue()).sum()).isEqualTo(amount);
+                    assertThat(usageRepository.aggregateByDate(tenantId, from, now, status != null ? status.name() : null)
+                            .stream().mapToLong(r -> ((Number) r[1]).longValue()).sum()).isEqualTo(expected.size());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSpendingFiltersMatchEveryCombination() {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String buyer = "query-" + UUID.randomUUID();
+        List<X402SpendingEvent> events = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            X402SpendingEvent event = new X402SpendingEvent();
+            event.setBuyerId(buyer);
+            event.setServiceId(buyer + "-service-" + i % 2);
+            event.setCategory(i % 4 == 0 ? ServiceCategory.DATA_API : ServiceCategory.AI_LANGUAGE_MODEL);
+            event.setStatus(i % 3 == 0 ? SpendingStatus.FAILED : SpendingStatus.SUCCESS);
+            event.setAmountAtomic(1_000L);
+            event.setCreatedAt(now.minusMinutes(i));
+            events.add(event);
+        }
+        spendingRepository.saveAll(events);
+        OffsetDateTime from = now.minusMinutes(30);
+
+        for (String serviceId : Arrays.asList(buyer + "-service-1", null)) {
+            for (SpendingStatus status : Arrays.asList(SpendingStatus.SUCCESS, null)) {
+                for (ServiceCategory category : Arrays.asList(ServiceCategory.DATA_API, null)) {
+                    long expected = events.stream()
+                            .filter(e -> serviceId == null || serviceId.equals(e.getServiceId()))
+                            .filter(e -> status == null || e.getStatus() == status)
+                            .filter(e -> category == null || e.getCategory() == category)
+                            .filter(e -> !e.getCreatedAt().isBefore(from))
+                            .count();
+                    Page<X402SpendingEvent> page = spendingRepository.findWithFilters(
+                            buyer, serviceId, status, category, from, now, PageRequest.of(0, 5));
+
+                    assertThat(page.getTotalElements()).isEqualTo(expected);
+                    assertThat(page.getContent()).hasSize((int) Math.min(5, expected))
+                            .allMatch(e -> Objects.equals(e.getBuyerId(), buyer));
+                    assertThat(spendingRepository.findWithFiltersAfterCursor(
+                            buyer, serviceId, status, category, from, now, now.plusSeconds(1), Long.MAX_VALUE,
+                            PageRequest.of(0, 100))).hasSize((int) expected);
+                }
+            }
+        }
+    }
+}
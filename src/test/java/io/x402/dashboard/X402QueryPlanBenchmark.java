@@ -0,0 +1,188 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.query.X402QueryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans and timings of optional-filter queries written as {@code (:param IS NULL OR col =
+ * :param)} versus built by X402QueryBuilder with only the filters that are set.
+ *
+ * Loads {@code x402.benchmark.rows} events (10 million by default, about a year at one every
+ * three seconds) into each event table in turn and, for every filter combination, prints the
+ * index H2 picks and the median time of both forms over a week. Built queries must use the
+ * index matching their filters and never scan the table.
+ *
+ * Excluded from the regular test run; run with {@code ./gradlew benchmark}, adding
+ * {@code -Dx402.benchmark.rows=1000000} for a quicker run.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class X402QueryPlanBenchmark {
+
+    private static final int ROWS = Integer.getInteger("x402.benchmark.rows", 10_000_000);
+    private static final int CHUNK = 1_000_000;
+    private static final int RUNS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE x402_usage_event");
+        jdbcTemplate.execute("TRUNCATE TABLE x402_spending_event");
+    }
+
+    @Test
+    void benchmarkUsageFilters() {
+        jdbcTemplate.execute("TRUNCATE TABLE x402_usage_event");
+        load("""
+                INSERT INTO x402_usage_event (id, tenant_id, status, amount_atomic, sample_weight, created_at)
+                SELECT X, 'tenant-' || MOD(X, 100),
+                       CASE WHEN MOD(X, 4) = 0 THEN 'PAYMENT_REQUIRED' ELSE 'SUCCESS' END,
+                       1000, 1, DATEADD('SECOND', -X * 3, CURRENT_TIMESTAMP)
+                FROM SYSTEM_RANGE(?, ?)
+                """);
+        OffsetDateTime to = OffsetDateTime.now();
+        OffsetDateTime from = to.minusDays(7);
+
+        for (String tenantId : Arrays.asList("tenant-7", null)) {
+            for (String status : Arrays.asList("SUCCESS", null)) {
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("tenantId", tenantId);
+                parameters.put("status", status);
+                parameters.put("from", from);
+                parameters.put("to", to);
+                String optional = """
+                        SELECT CAST(e.created_at AS DATE), SUM(e.sample_weight), COALESCE(SUM(e.amount_atomic * e.sample_weight), 0)
+                        FROM x402_usage_event e
+                        WHERE (:tenantId IS NULL OR e.tenant_id = :tenantId)
+                          AND e.created_at BETWEEN :from AND :to
+                          AND (:status IS NULL OR e.status = :status)
+                        GROUP BY CAST(e.created_at AS DATE)
+                        """;
+                X402QueryBuilder built = new X402QueryBuilder("""
+                        SELECT CAST(e.created_at AS DATE), SUM(e.sample_weight), COALESCE(SUM(e.amount_atomic * e.sample_weight), 0)
+                        FROM x402_usage_event e""")
+                        .equal("e.tenant_id", "tenantId", tenantId)
+                        .equal("e.status", "status", status)
+                        .between("e.created_at", from, to)
+                        .append("GROUP BY CAST(e.created_at AS DATE)");
+
+                String label = "usage tenant=" + tenantId + " status=" + status;
+                String index = compare(label, optional, parameters, built);
+                assertThat(index).isEqualTo(tenantId != null ? "IDX_TENANT_CREATED" : "IDX_CREATED");
+            }
+        }
+    }
+
+    @Test
+    void benchmarkSpendingFilters() {
+        jdbcTemplate.execute("TRUNCATE TABLE x402_spending_event");
+        load("""
+                INSERT INTO x402_spending_event (id, buyer_id, service_id, category, status, amount_atomic, created_at)
+                SELECT X, 'buyer-' || MOD(X, 100), 'service-' || MOD(X, 37),
+                       CASE WHEN MOD(X, 5) = 0 THEN 'DATA_API' ELSE 'AI_LANGUAGE_MODEL' END,
+                       CASE WHEN MOD(X, 4) = 0 THEN 'FAILED' ELSE 'SUCCESS' END,
+                       1000, DATEADD('SECOND', -X * 3, CURRENT_TIMESTAMP)
+                FROM SYSTEM_RANGE(?, ?)
+                """);
+        OffsetDateTime to = OffsetDateTime.now();
+        OffsetDateTime from = to.minusDays(7);
+
+        for (String buyerId : Arrays.asList("buyer-7", null)) {
+            for (String serviceId : Arrays.asList("service-3", null)) {
+                for (String category : Arrays.asList("DATA_API", null)) {
+                    Map<String, Object> parameters = new HashMap<>();
+                    parameters.put("buyerId", buyerId);
+                    parameters.put("serviceId", serviceId);
+                    parameters.put("status", "SUCCESS");
+                    parameters.put("category", category);
+                    parameters.put("from", from);
+                    parameters.put("to", to);
+                    String optional = """
+                            SELECT COUNT(*) FROM x402_spending_event e
+                            WHERE (:buyerId IS NULL OR e.buyer_id = :buyerId)
+                              AND (:serviceId IS NULL OR e.service_id = :serviceId)
+                              AND (:status IS NULL OR e.status = :status)
+                              AND (:category IS NULL OR e.category = :category)
+                              AND e.created_at BETWEEN :from AND :to
+                            """;
+                    X402QueryBuilder built = new X402QueryBuilder("SELECT COUNT(*) FROM x402_spending_event e")
+                            .equal("e.buyer_id", "buyerId", buyerId)
+                            .equal("e.service_id", "serviceId", serviceId)
+                            .equal("e.status", "status", "SUCCESS")
+                            .equal("e.category", "category", category)
+                            .between("e.created_at", from, to);
+
+                    String label = "spending buyer=" + buyerId + " service=" + serviceId + " category=" + category;
+                    String index = compare(label, optional, parameters, built);
+                    if (buyerId != null) {
+                        assertThat(index).isEqualTo("IDX_SPENDING_BUYER_CREATED");
+                    } else if (serviceId != null) {
+                        assertThat(index).isEqualTo("IDX_SPENDING_SERVICE_CREATED");
+                    }
+                }
+            }
+        }
+    }
+
+    private void load(String insert) {
+        long start = System.nanoTime();
+        for (long first = 1; first <= ROWS; first += CHUNK) {
+            jdbcTemplate.update(insert, first, Math.min(ROWS, first + CHUNK - 1));
+        }
+        jdbcTemplate.execute("ANALYZE");
+        System.out.printf("loaded %,d rows in %.1f s%n", ROWS, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Print plan index and median time of both forms; returns the index of the built query.
+     */
+    private String compare(String label, String optional, Map<String, Object> parameters, X402QueryBuilder built) {
+        String optionalIndex = index(optional, parameters);
+        String builtIndex = index(built.build(), built.getParameters());
+        double optionalMillis = median(optional, parameters);
+        double builtMillis = median(built.build(), built.getParameters());
+        System.out.printf("%-60s IS NULL OR: %-30s %9.1f ms | built: %-30s %9.1f ms%n",
+                label, optionalIndex, optionalMillis, builtIndex, builtMillis);
+        assertThat(builtIndex).isNotEqualTo("TABLESCAN");
+        return builtIndex;
+    }
+
+    private String index(String sql, Map<String, ?> parameters) {
+        String plan = namedJdbcTemplate.queryForObject("EXPLAIN " + sql, parameters, String.class);
+        // H2 names the access path in a comment after the table: /* PUBLIC.IDX_NAME: ... */
+        int start = plan.indexOf("/* PUBLIC.");
+        int end = plan.indexOf(' ', start + 10);
+        String access = plan.substring(start + 10, end).replace(":", "").replace("*/", "");
+        return access.toUpperCase(Locale.ROOT).endsWith(".TABLESCAN") ? "TABLESCAN" : access.toUpperCase(Locale.ROOT);
+    }
+
+    private double median(String sql, Map<String, ?> parameters) {
+        double[] millis = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            namedJdbcTemplate.queryForList(sql, parameters);
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+}
@@ -0,0 +1,101 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Test for the reactive client capture path, X402ClientLoggingFilter, in a servlet
+ * application. X402ReactiveWebFilterTest covers X402UsageLoggingWebFilter.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "x402.dashboard.enable-client-auto-logging=true",
+        "x402.dashboard.endpoint.templates=/reactive/items/{id}"
+})
+class X402ReactiveLoggingTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Autowired
+    private X402UsageEventRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testWebClientRequestsAreLogged() throws InterruptedException {
+        String base = "http://localhost:" + port;
+        WebClient webClient = webClientBuilder.baseUrl(base).build();
+
+        webClient.get().uri("/reactive/items/42?expand=true")
+                .header("X-402-Agent-Id", "gateway-1")
+                .header("X-402-Amount", "2500")
+                .retrieve().toBodilessEntity().block(Duration.ofSeconds(5));
+        webClient.get().uri("/reactive/payment-required")
+                .exchangeToMono(response -> response.releaseBody()).block(Duration.ofSeconds(5));
+
+        // Events are logged by the sink's worker thread
+        List<X402UsageEvent> events = awaitEvents(2);
+        assertThat(events)
+                .extracting(X402UsageEvent::getEndpoint, X402UsageEvent::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple(base + "/reactive/items/{id}", X402UsageStatus.SUCCESS),
+                        tuple(base + "/reactive/payment-required", X402UsageStatus.PAYMENT_REQUIRED));
+        assertThat(events)
+                .filteredOn(e -> e.getStatus() == X402UsageStatus.SUCCESS)
+                .singleElement()
+                .satisfies(e -> {
+                    assertThat(e.getAgentId()).isEqualTo("gateway-1");
+                    assertThat(e.getAmountAtomic()).isEqualTo(2500L);
+                });
+    }
+
+    private List<X402UsageEvent> awaitEvents(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<X402UsageEvent> events = repository.findAll();
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            events = repository.findAll();
+        }
+        return events;
+    }
+
+    /**
+     * Test controller
+     */
+    @RestController
+    public static class ReactiveTestController {
+
+        @GetMapping("/reactive/items/{id}")
+        public ResponseEntity<String> item(@PathVariable("id") String id) {
+            return ResponseEntity.ok("Item " + id);
+        }
+
+        @GetMapping("/reactive/payment-required")
+        public ResponseEntity<String> paymentRequired() {
+            return ResponseEntity.status(402).body("Payment Required");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.web.X402DashboardExportController;
+import io.x402.dashboard.seller.web.X402UsageLoggingInterceptor;
+import io.x402.dashboard.seller.web.X402UsageLoggingWebFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Test for X402UsageLoggingWebFilter in a WebFlux application, registered by
+ * X402ReactiveAutoConfiguration. The handlers are those of
+ * X402ReactiveLoggingTest.ReactiveTestController.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "x402.dashboard.enable-auto-logging=true"
+})
+class X402ReactiveWebFilterTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private X402UsageEventRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testWebFilterIsRegisteredInReactiveApplication() {
+        assertThat(context).isInstanceOf(ReactiveWebApplicationContext.class);
+        assertThat(context.getBeansOfType(X402UsageLoggingWebFilter.class)).hasSize(1);
+        assertThat(context.getBeansOfType(X402UsageLoggingInterceptor.class)).isEmpty();
+    }
+
+    @Test
+    void testDashboardApiIsServedWithoutExport() {
+        assertThat(context.getBeansOfType(X402DashboardExportController.class)).isEmpty();
+        client.get().uri("/x402-dashboard/api/overview").exchange().expectStatus().isOk();
+        client.get().uri("/x402-dashboard/api/export").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testWebFilterLogsMatchedPattern() throws InterruptedException {
+        client.get().uri("/reactive/items/7").header("X-402-Agent-Id", "agent-7")
+                .exchange().expectStatus().isOk();
+        client.get().uri("/reactive/items/8")
+                .exchange().expectStatus().isOk();
+        client.get().uri("/reactive/payment-required")
+                .exchange().expectStatus().isEqualTo(402);
+
+        // Events are logged by the sink's worker thread
+        List<X402UsageEvent> events = awaitEvents(3);
+        assertThat(events)
+                .extracting(X402UsageEvent::getEndpoint, X402UsageEvent::getStatus, X402UsageEvent::getAgentId)
+                .containsExactlyInAnyOrder(
+                        tuple("/reactive/items/{id}", X402UsageStatus.SUCCESS, "agent-7"),
+                        tuple("/reactive/items/{id}", X402UsageStatus.SUCCESS, null),
+                        tuple("/reactive/payment-required", X402UsageStatus.PAYMENT_REQUIRED, null));
+        assertThat(events).allSatisfy(e -> assertThat(e.getLatencyMs()).isNotNull());
+    }
+
+    private List<X402UsageEvent> awaitEvents(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<X402UsageEvent> events = repository.findAll();
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            events = repository.findAll();
+        }
+        return events;
+    }
+}
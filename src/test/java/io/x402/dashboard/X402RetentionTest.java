@@ -0,0 +1,243 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.buyer.domain.ServiceCategory;
+import io.x402.dashboard.buyer.domain.SpendingStatus;
+import io.x402.dashboard.buyer.domain.X402SpendingEvent;
+import io.x402.dashboard.buyer.service.X402SpendingAggregationService;
+import io.x402.dashboard.buyer.service.X402SpendingEventService;
+import io.x402.dashboard.common.retention.X402RetentionJob;
+import io.x402.dashboard.common.sketch.X402Histogram;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Dimension;
+import io.x402.dashboard.common.sketch.X402LatencyHistogramRepository.Metric;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.service.X402UsageAggregationService;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import io.x402.dashboard.seller.service.X402UsageRollupJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402RetentionJob and the aggregates read over ranges it has thinned out.
+ *
+ * The job's own schedule is pushed out of the test run; each test runs it with
+ * {@link X402RetentionJob#runOnce}.
+ */
+@SpringBootTest(properties = {
+        "x402.dashboard.rollup.enabled=true",
+        "x402.dashboard.rollup.commit-lag=0s",
+        "x402.dashboard.rollup.interval=1d",
+        "x402.dashboard.latency.enabled=true",
+        "x402.dashboard.latency.flush-interval=1d",
+        "x402.dashboard.retention.enabled=true",
+        "x402.dashboard.retention.raw=14d",
+        "x402.dashboard.retention.hourly=60d",
+        "x402.dashboard.retention.interval=1d",
+        "x402.dashboard.retention.batch-size=7",
+        "x402.dashboard.retention.batch-pause=0s",
+        "x402.dashboard.retention.tenants.retention-kept.raw=45d"
+})
+class X402RetentionTest {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final String TENANT = "retention-short";
+    private static final String KEPT = "retention-kept";
+
+    @Autowired
+    private X402RetentionJob retentionJob;
+
+    @Autowired
+    private X402UsageRollupJob rollupJob;
+
+    @Autowired
+    private X402UsageEventService usageEventService;
+
+    @Autowired
+    private X402UsageEventRepository usageRepository;
+
+    @Autowired
+    private X402UsageAggregationService usageAggregationService;
+
+    @Autowired
+    private X402SpendingEventService spendingEventService;
+
+    @Autowired
+    private X402SpendingAggregationService spendingAggregationService;
+
+    @Autowired
+    private X402LatencyHistogramRepository latencyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private OffsetDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        usageEventService.deleteAll();
+        spendingEventService.deleteAll();
+        now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void testUsageAggregatesMatchRawScanAfterRawEventsAreDeleted() {
+        usageEventService.saveAll(usageEvents(TENANT, 300, 40));
+        usageEventService.saveAll(usageEvents(KEPT, 100, 40));
+        rollupJob.catchUp();
+        OffsetDateTime from = LocalDate.now().minusDays(35).atStartOfDay(ZONE).toOffsetDateTime();
+        Object[] totals = (Object[]) usageRepository.getTotals(TENANT, from, now)[0];
+        List<String> agents = rows(usageRepository.aggregateByAgent(TENANT, from, now, X402UsageStatus.SUCCESS));
+        List<String> dates = rows(usageRepository.aggregateByDate(TENANT, from, now, null));
+
+        assertThat(retentionJob.runOnce()).isPositive();
+
+        OffsetDateTime rawBefore = now.minusDays(14);
+        assertThat(count("SELECT COUNT(*) FROM x402_usage_event WHERE tenant_id = ? AND created_at < ?",
+                TENANT, rawBefore)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM x402_usage_event WHERE tenant_id = ? AND created_at < ?",
+                KEPT, rawBefore)).isPositive();
+        assertThat(count("SELECT COUNT(*) FROM x402_usage_rollup WHERE resolution = 'MINUTE' AND tenant_id = ? AND bucket_start < ?",
+                TENANT, rawBefore)).isZero();
+
+        assertThat(usageAggregationService.getOverviewTotals(TENANT, from, now)).satisfies(t -> {
+            assertThat(t.getTotalCount()).isEqualTo(((Number) totals[0]).longValue());
+            assertThat(t.getTotalAmount()).isEqualTo(((Number) totals[1]).longValue());
+            assertThat(t.getSuccessCount()).isEqualTo(((Number) totals[2]).longValue());
+        });
+        assertThat(usageAggregationService.aggregateByAgent(TENANT, from, now, X402UsageStatus.SUCCESS))
+                .extracting(a -> a.getAgentId() + "=" + a.getCount() + "/" + a.getAmountAtomic())
+                .containsExactlyInAnyOrderElementsOf(agents);
+        assertThat(usageAggregationService.aggregateByDate(TENANT, from, now, null))
+                .extracting(a -> a.getDate() + "=" + a.getCount() + "/" + a.getAmountAtomic())
+                .containsExactlyElementsOf(dates);
+    }
+
+    @Test
+    void testSpendingIsCompactedAndReadAsBefore() {
+        spendingEventService.saveAll(spendingEvents(TENANT, 200, 40, now));
+        OffsetDateTime from = LocalDate.now().minusDays(35).atStartOfDay(ZONE).toOffsetDateTime();
+        Object overview = spendingAggregationService.getOverview(TENANT, from, now);
+        Object categories = spendingAggregationService.getSpendingByCategory(TENANT, from, now);
+        Object daily = spendingAggregationService.getDailySpending(TENANT, from, now);
+        Object services = spendingAggregationService.getTopServices(TENANT, from, now, 3);
+
+        assertThat(retentionJob.runOnce()).isPositive();
+
+        assertThat(count("SELECT COUNT(*) FROM x402_spending_event WHERE buyer_id = ? AND created_at < ?",
+                TENANT, now.minusDays(14))).isZero();
+        assertThat(count("SELECT COUNT(*) FROM x402_spending_rollup WHERE buyer_id = ?", TENANT)).isPositive();
+        assertThat(spendingAggregationService.getOverview(TENANT, from, now)).usingRecursiveComparison().isEqualTo(overview);
+        assertThat(spendingAggregationService.getSpendingByCategory(TENANT, from, now)).isEqualTo(categories);
+        assertThat(spendingAggregationService.getDailySpending(TENANT, from, now)).isEqualTo(daily);
+        assertThat(spendingAggregationService.getTopServices(TENANT, from, now, 3))
+                .usingRecursiveComparison()
+                .withComparatorForType((a, b) -> Math.abs(a - b) < 1e-9 ? 0 : Double.compare(a, b), Double.class)
+                .isEqualTo(services);
+    }
+
+    @Test
+    void testRangesPastHourlyRetentionReadDailyAggregates() {
+        LocalDate day = LocalDate.now().minusDays(90);
+        OffsetDateTime dayStart = day.atStartOfDay(ZONE).toOffsetDateTime();
+        OffsetDateTime dayEnd = day.atTime(23, 59, 59).atZone(ZONE).toOffsetDateTime();
+        List<X402UsageEvent> usage = new ArrayList<>();
+        for (int hour : new int[]{1, 5, 9}) {
+            usage.add(usageEvent(TENANT, dayStart.plusHours(hour), X402UsageStatus.SUCCESS, 1_000L));
+        }
+        usageEventService.saveAll(usage);
+        rollupJob.catchUp();
+        spendingEventService.saveAll(spendingEvents(TENANT, 3, 1, dayStart.plusDays(1)));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<X402LatencyHistogramRepository.Delta> deltas = new ArrayList<>();
+            for (int hour : new int[]{1, 5, 9}) {
+                X402Histogram histogram = new X402Histogram();
+                histogram.record(hour * 1_000L, 1);
+                deltas.add(new X402LatencyHistogramRepository.Delta(
+                        dayStart.plusHours(hour), Metric.LATENCY, Dimension.ENDPOINT, TENANT, "/api/retention", histogram));
+            }
+            latencyRepository.merge(deltas);
+        });
+
+        retentionJob.runOnce();
+
+        assertThat(count("SELECT COUNT(*) FROM x402_usage_rollup WHERE resolution = 'HOUR' AND tenant_id = ?", TENANT))
+                .isZero();
+        assertThat(count("SELECT COUNT(*) FROM x402_spending_rollup WHERE resolution = 'HOUR' AND buyer_id = ?", TENANT))
+                .isZero();
+        assertThat(count("SELECT COUNT(*) FROM x402_latency_histogram WHERE partition_key = ?", TENANT)).isZero();
+
+        assertThat(usageAggregationService.aggregateByDate(TENANT, dayStart, dayEnd, null))
+                .extracting(a -> a.getDate() + "=" + a.getCount())
+                .containsExactly(day + "=3");
+        assertThat(spendingAggregationService.getOverview(TENANT, dayStart, dayEnd).getTotalRequests()).isEqualTo(3L);
+        assertThat(latencyRepository.find(Metric.LATENCY, Dimension.ENDPOINT, TENANT, null, dayStart, dayStart.plusDays(1)))
+                .singleElement()
+                .satisfies(row -> assertThat(row.getHistogram().getTotalCount()).isEqualTo(3L));
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    private static List<String> rows(List<Object[]> rows) {
+        return rows.stream()
+                .map(r -> r[0] + "=" + ((Number) r[1]).longValue() + "/" + ((Number) r[2]).longValue())
+                .toList();
+    }
+
+    private List<X402UsageEvent> usageEvents(String tenantId, int count, int days) {
+        List<X402UsageEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            OffsetDateTime createdAt = now.minusMinutes((long) i * days * 24 * 60 / count);
+            events.add(usageEvent(tenantId, createdAt,
+                    i % 3 == 0 ? X402UsageStatus.PAYMENT_REQUIRED : X402UsageStatus.SUCCESS, 1_000L * (i % 5)));
+        }
+        return events;
+    }
+
+    private static X402UsageEvent usageEvent(String tenantId, OffsetDateTime createdAt, X402UsageStatus status, long amount) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setTenantId(tenantId);
+        event.setAgentId("agent-" + Math.floorMod(createdAt.getHour(), 3));
+        event.setEndpoint("/api/retention/" + Math.floorMod(createdAt.getMinute(), 4));
+        event.setStatus(status);
+        event.setAmountAtomic(amount);
+        event.setCreatedAt(createdAt);
+        return event;
+    }
+
+    private static List<X402SpendingEvent> spendingEvents(String buyerId, int count, int days, OffsetDateTime end) {
+        List<X402SpendingEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            X402SpendingEvent event = new X402SpendingEvent();
+            event.setBuyerId(buyerId);
+            event.setServiceId("service-" + i % 4);
+            event.setServiceName("Service " + i % 4);
+            event.setCategory(i % 2 == 0 ? ServiceCategory.DATA_API : ServiceCategory.AI_LANGUAGE_MODEL);
+            event.setStatus(i % 5 == 0 ? SpendingStatus.FAILED : SpendingStatus.SUCCESS);
+            event.setAmountAtomic(i % 7 == 0 ? null : 2_000L + 1_000L * (i % 4) + i);
+            event.setCreatedAt(end.minusMinutes(1 + (long) i * days * 24 * 60 / count));
+            events.add(event);
+        }
+        return events;
+    }
+}
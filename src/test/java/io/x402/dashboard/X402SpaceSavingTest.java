@@ -0,0 +1,86 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.sketch.X402SpaceSaving;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402SpaceSaving.
+ */
+class X402SpaceSavingTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void testExactWhileUnderCapacity() {
+        X402SpaceSaving summary = new X402SpaceSaving(10);
+        summary.add("a", 3);
+        summary.add("b", 5);
+        summary.add("a", 4);
+        summary.add(null, 1);
+
+        assertThat(summary.top(2)).extracting(X402SpaceSaving.Entry::getKey).containsExactly("a", "b");
+        assertThat(summary.estimate("a")).isEqualTo(7L);
+        assertThat(summary.error("a")).isZero();
+        assertThat(summary.estimate(null)).isEqualTo(1L);
+        assertThat(summary.estimate("missing")).isZero();
+    }
+
+    @Test
+    void testBoundsHoldOnSkewedStream() {
+        Map<String, Long> truth = new HashMap<>();
+        X402SpaceSaving summary = new X402SpaceSaving(100);
+        fill(summary, truth, 50_000);
+
+        assertBounds(summary, truth);
+        assertThat(summary.getFloor()).isLessThanOrEqualTo(summary.getTotal() / 100);
+        // The heaviest key of a skewed stream is always tracked
+        String heaviest = truth.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey();
+        assertThat(summary.top(1)).singleElement().extracting(X402SpaceSaving.Entry::getKey).isEqualTo(heaviest);
+    }
+
+    @Test
+    void testMergedSummariesKeepBounds() {
+        Map<String, Long> truth = new HashMap<>();
+        List<X402SpaceSaving> buckets = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            X402SpaceSaving bucket = new X402SpaceSaving(100);
+            fill(bucket, truth, 5_000);
+            buckets.add(X402SpaceSaving.fromBytes(bucket.toBytes()));
+        }
+
+        X402SpaceSaving merged = X402SpaceSaving.merge(buckets, 100);
+        assertThat(merged.getTotal()).isEqualTo(truth.values().stream().mapToLong(Long::longValue).sum());
+        assertBounds(merged, truth);
+        assertThat(merged.getFloor()).isLessThanOrEqualTo(merged.getTotal() / 100);
+
+        // Merging partial merges, as repeated flushes into the same hour do
+        X402SpaceSaving remerged = X402SpaceSaving.merge(List.of(
+                X402SpaceSaving.merge(buckets.subList(0, 12), 100),
+                X402SpaceSaving.merge(buckets.subList(12, 24), 100)), 100);
+        assertBounds(remerged, truth);
+    }
+
+    private void fill(X402SpaceSaving summary, Map<String, Long> truth, int events) {
+        for (int i = 0; i < events; i++) {
+            String key = "agent-" + (int) (Math.pow(random.nextDouble(), 3) * 2_000);
+            long weight = 1 + random.nextInt(3);
+            summary.add(key, weight);
+            truth.merge(key, weight, Long::sum);
+        }
+    }
+
+    private static void assertBounds(X402SpaceSaving summary, Map<String, Long> truth) {
+        truth.forEach((key, weight) -> {
+            assertThat(summary.estimate(key)).as(key).isGreaterThanOrEqualTo(weight);
+            assertThat(summary.estimate(key) - summary.error(key)).as(key).isLessThanOrEqualTo(weight);
+        });
+    }
+}
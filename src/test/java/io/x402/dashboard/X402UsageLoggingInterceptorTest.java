@@ -0,0 +1,100 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.web.X402UsageLoggingInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test for the endpoint recorded by X402UsageLoggingInterceptor: the matched handler pattern,
+ * or the configured templates (X402EndpointTemplates) when there is none.
+ */
+@SpringBootTest(properties = {
+        "x402.dashboard.enable-auto-logging=true",
+        "x402.dashboard.endpoint.templates=/catalog/{sku}",
+        "x402.dashboard.endpoint.capture-raw-path=true"
+})
+@AutoConfigureMockMvc
+class X402UsageLoggingInterceptorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private X402UsageLoggingInterceptor interceptor;
+
+    @Autowired
+    private X402UsageEventRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testRequestsAreLoggedUnderTheMatchedPattern() throws Exception {
+        mockMvc.perform(get("/items/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/items/2?expand=true")).andExpect(status().isOk());
+
+        assertThat(repository.findAll())
+                .extracting(X402UsageEvent::getEndpoint, X402UsageEvent::getRawPath, X402UsageEvent::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple("/items/{id}", "/items/1", X402UsageStatus.SUCCESS),
+                        tuple("/items/{id}", "/items/2?expand=true", X402UsageStatus.SUCCESS));
+    }
+
+    @Test
+    void testTemplatesAreUsedWithoutMatchedPattern() {
+        complete(new MockHttpServletRequest("GET", "/catalog/sku-1"));
+        MockHttpServletRequest untemplated = new MockHttpServletRequest("GET", "/other/7");
+        untemplated.setQueryString("page=2");
+        complete(untemplated);
+
+        assertThat(repository.findAll())
+                .extracting(X402UsageEvent::getEndpoint, X402UsageEvent::getRawPath)
+                .containsExactlyInAnyOrder(
+                        tuple("/catalog/{sku}", "/catalog/sku-1"),
+                        tuple("/other/7", "/other/7?page=2"));
+    }
+
+    /**
+     * Run a request through the interceptor without a handler mapping, so
+     * {@link HandlerMapping#BEST_MATCHING_PATTERN_ATTRIBUTE} is not set.
+     */
+    private void complete(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)).isNull();
+        interceptor.preHandle(request, response, new Object());
+        interceptor.afterCompletion(request, response, new Object(), null);
+    }
+
+    /**
+     * Test controller
+     */
+    @RestController
+    public static class ItemController {
+
+        @GetMapping("/items/{id}")
+        public ResponseEntity<String> item(@PathVariable("id") String id) {
+            return ResponseEntity.ok("Item " + id);
+        }
+    }
+}
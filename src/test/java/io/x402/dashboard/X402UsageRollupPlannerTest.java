@@ -0,0 +1,94 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.seller.domain.X402RollupResolution;
+import io.x402.dashboard.seller.repository.X402UsageRollupPlanner;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402UsageRollupPlanner.
+ */
+class X402UsageRollupPlannerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+
+    @Test
+    void testDayAlignedRangeUsesOnlyDayBuckets() {
+        OffsetDateTime from = LocalDate.of(2025, 1, 1).atStartOfDay(ZONE).toOffsetDateTime();
+        OffsetDateTime to = LocalDate.of(2025, 3, 31).atTime(23, 59, 59).atZone(ZONE).toOffsetDateTime();
+
+        X402UsageRollupPlanner.Plan plan = X402UsageRollupPlanner.plan(from, to, ZONE);
+
+        assertThat(plan.getSegments()).hasSize(1);
+        assertThat(plan.getSegments().get(0).getResolution()).isEqualTo(X402RollupResolution.DAY);
+        assertThat(plan.getSegments().get(0).getEnd())
+                .isEqualTo(LocalDate.of(2025, 4, 1).atStartOfDay(ZONE).toOffsetDateTime());
+        assertThat(plan.getRawRanges()).isEmpty();
+    }
+
+    @Test
+    void testUnalignedRangeIsCoveredExactlyOnce() {
+        OffsetDateTime from = OffsetDateTime.of(2025, 3, 28, 22, 17, 42, 500_000_000, ZONE.getRules()
+                .getOffset(java.time.LocalDateTime.of(2025, 3, 28, 22, 17)));
+        // Spans the spring-forward DST change
+        OffsetDateTime to = from.plusDays(3).plusHours(5).plusMinutes(3).withNano(250_000_000);
+
+        X402UsageRollupPlanner.Plan plan = X402UsageRollupPlanner.plan(from, to, ZONE);
+
+        List<X402UsageRollupPlanner.Range> ranges = new ArrayList<>(plan.getSegments());
+        ranges.addAll(plan.getRawRanges());
+        ranges.sort(Comparator.comparing(r -> r.getStart().toInstant()));
+
+        assertThat(ranges.get(0).getStart().toInstant()).isEqualTo(from.toInstant());
+        for (int i = 1; i < ranges.size(); i++) {
+            assertThat(ranges.get(i).getStart().toInstant()).isEqualTo(ranges.get(i - 1).getEnd().toInstant());
+        }
+        assertThat(ranges.get(ranges.size() - 1).getEnd().toInstant()).isEqualTo(to.plusNanos(1).toInstant());
+
+        assertThat(plan.getSegments()).extracting(X402UsageRollupPlanner.Segment::getResolution)
+                .containsExactly(X402RollupResolution.MINUTE, X402RollupResolution.HOUR, X402RollupResolution.DAY,
+                        X402RollupResolution.HOUR, X402RollupResolution.MINUTE);
+        assertThat(plan.getRawRanges()).hasSize(2);
+    }
+
+    @Test
+    void testRangePastRetentionReadsOnlyCoarseBuckets() {
+        OffsetDateTime from = OffsetDateTime.parse("2025-01-01T10:20:00+01:00");
+        OffsetDateTime to = OffsetDateTime.parse("2025-03-01T08:30:15+01:00");
+        OffsetDateTime hourlyBefore = OffsetDateTime.parse("2025-01-20T13:45:00+01:00");
+        OffsetDateTime rawBefore = OffsetDateTime.parse("2025-02-10T06:10:00+01:00");
+
+        X402UsageRollupPlanner.Plan plan = X402UsageRollupPlanner.plan(from, to, ZONE, rawBefore, hourlyBefore);
+
+        // Days starting in the range up to the day after the hourly horizon, then hours up to
+        // the hour after the raw horizon, then the usual cover
+        assertThat(plan.getSegments().get(0).getResolution()).isEqualTo(X402RollupResolution.DAY);
+        assertThat(plan.getSegments().get(0).getStart()).isEqualTo(OffsetDateTime.parse("2025-01-02T00:00+01:00"));
+        assertThat(plan.getSegments().get(0).getEnd()).isEqualTo(OffsetDateTime.parse("2025-01-21T00:00+01:00"));
+        assertThat(plan.getSegments().get(1).getResolution()).isEqualTo(X402RollupResolution.HOUR);
+        assertThat(plan.getSegments().get(1).getEnd()).isEqualTo(OffsetDateTime.parse("2025-02-10T07:00+01:00"));
+        assertThat(plan.getSegments().subList(2, plan.getSegments().size()))
+                .allMatch(segment -> !segment.getStart().isBefore(plan.getSegments().get(1).getEnd()));
+        assertThat(plan.getRawRanges())
+                .allMatch(range -> !range.getStart().isBefore(plan.getSegments().get(1).getEnd()));
+    }
+
+    @Test
+    void testShortRangeIsReadRaw() {
+        OffsetDateTime from = OffsetDateTime.parse("2025-01-01T10:00:10Z");
+        OffsetDateTime to = OffsetDateTime.parse("2025-01-01T10:00:40.5Z");
+
+        X402UsageRollupPlanner.Plan plan = X402UsageRollupPlanner.plan(from, to, ZONE);
+
+        assertThat(plan.getSegments()).isEmpty();
+        assertThat(plan.getRawRanges()).hasSize(1);
+    }
+}
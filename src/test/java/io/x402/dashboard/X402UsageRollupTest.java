@@ -0,0 +1,268 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.ingest.X402UsageEventWalCodec;
+import io.x402.dashboard.common.ingest.X402WalStateRepository;
+import io.x402.dashboard.common.ingest.X402WriteAheadLog;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import io.x402.dashboard.seller.domain.AgentType;
+import io.x402.dashboard.seller.domain.X402UsageEvent;
+import io.x402.dashboard.seller.domain.X402UsageStatus;
+import io.x402.dashboard.seller.repository.X402UsageEventRepository;
+import io.x402.dashboard.seller.repository.X402UsageRollupRepository;
+import io.x402.dashboard.seller.service.X402UsageAggregationService;
+import io.x402.dashboard.seller.service.X402UsageEventService;
+import io.x402.dashboard.seller.service.X402UsageRollupJob;
+import io.x402.dashboard.seller.service.dto.UsageSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test that rollup-backed aggregates match a raw scan of the event table.
+ */
+@SpringBootTest(properties = {
+        "x402.dashboard.rollup.enabled=true",
+        "x402.dashboard.rollup.commit-lag=0s",
+        "x402.dashboard.rollup.interval=1h"
+})
+class X402UsageRollupTest {
+
+    @Autowired
+    private X402UsageEventService eventService;
+
+    @Autowired
+    private X402UsageAggregationService aggregationService;
+
+    @Autowired
+    private X402UsageEventRepository repository;
+
+    @Autowired
+    private X402UsageRollupRepository rollupRepository;
+
+    @Autowired
+    private X402UsageRollupJob rollupJob;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private X402DashboardProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(42);
+
+    @BeforeEach
+    void setUp() {
+        eventService.deleteAll();
+    }
+
+    @Test
+    void testRollupAggregatesMatchRawScan() {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        eventService.saveAll(randomEvents(2_000, now.minusDays(40), now));
+        rollupJob.catchUp();
+        assertThat(rollupRepository.getWatermark()).isPositive();
+
+        // Not rolled up yet: recent events and a late one backdated into a rolled-up day
+        List<X402UsageEvent> tail = randomEvents(50, now.minusMinutes(5), now);
+        tail.add(event("t1", "late-agent", "/api/late", X402UsageStatus.SUCCESS, 7L, now.minusDays(12)));
+        eventService.saveAll(tail);
+
+        ZoneId zone = ZoneId.systemDefault();
+        OffsetDateTime dayStart = LocalDate.now().minusDays(30).atStartOfDay(zone).toOffsetDateTime();
+        OffsetDateTime dayEnd = LocalDate.now().atTime(23, 59, 59, 999_999_999).atZone(zone).toOffsetDateTime();
+        assertMatchesRawScan(null, dayStart, dayEnd);
+        assertMatchesRawScan("t1", dayStart, dayEnd);
+        assertMatchesRawScan(null, now.minusDays(17).minusHours(5).minusMinutes(13).plusNanos(500_000_000L),
+                now.minusHours(2).minusMinutes(1).plusNanos(250_000_000L));
+    }
+
+    @Test
+    void testDeleteKeepsRollupsInStep() {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<X402UsageEvent> events = eventService.saveAll(randomEvents(200, now.minusDays(3), now));
+        rollupJob.catchUp();
+
+        eventService.deleteById(events.get(0).getId());
+        eventService.deleteById(events.get(1).getId());
+
+        assertMatchesRawScan(null, now.minusDays(4), now.plusMinutes(1));
+    }
+
+    @Test
+    void testEventsHeldInWriteAheadLogAreRolledUp(@TempDir Path directory) throws InterruptedException {
+        CountDownLatch released = new CountDownLatch(1);
+        X402DashboardProperties.Wal settings = new X402DashboardProperties.Wal();
+        settings.setSegmentSize(DataSize.ofMegabytes(1));
+        settings.setApplyInterval(Duration.ofMillis(10));
+        X402WriteAheadLog<X402UsageEvent> wal = new X402WriteAheadLog<>(
+                "test-usage", directory, settings, Duration.ofSeconds(10), new X402UsageEventWalCodec(),
+                event -> event.getStatus().name(),
+                batch -> {
+                    // Held as through a database outage
+                    try {
+                        released.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    eventService.saveAll(batch);
+                },
+                new TransactionTemplate(transactionManager),
+                new X402WalStateRepository(jdbcTemplate));
+        wal.start();
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        randomEvents(50, now.minusMinutes(10), now).forEach(wal::append);
+
+        // The watermark moves past the time the events were captured
+        Thread.sleep(20);
+        rollupJob.catchUp();
+        long watermark = rollupRepository.getWatermark();
+        released.countDown();
+        wal.stop();
+
+        assertThat(wal.getAppliedCount()).isEqualTo(50L);
+        assertThat(jdbcTemplate.queryForObject("SELECT MIN(id) FROM x402_usage_event", Long.class))
+                .isGreaterThan(watermark);
+        rollupJob.catchUp();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(event_count) FROM x402_usage_rollup WHERE resolution = 'MINUTE'", Long.class))
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT SUM(sample_weight) FROM x402_usage_event", Long.class));
+        assertMatchesRawScan(null, now.minusHours(1), now.plusMinutes(1));
+    }
+
+    @Test
+    void testLateCommitIsRolledUp() throws Exception {
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        eventService.saveAll(randomEvents(20, now.minusHours(1), now));
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        Thread slowInsert = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            eventService.saveAll(randomEvents(5, now.minusMinutes(30), now));
+            inserted.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        X402DashboardProperties.Rollup settings = properties.getRollup();
+        settings.setCommitLag(Duration.ofMinutes(1));
+        try {
+            slowInsert.start();
+            inserted.await();
+            // Events with higher IDs commit first
+            eventService.saveAll(randomEvents(20, now.minusHours(1), now));
+            rollupJob.catchUp();
+            released.countDown();
+            slowInsert.join();
+
+            assertMatchesRawScan(null, now.minusHours(2), now.plusMinutes(1));
+            rollupJob.catchUp();
+        } finally {
+            settings.setCommitLag(Duration.ZERO);
+        }
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(event_count) FROM x402_usage_rollup WHERE resolution = 'MINUTE'", Long.class))
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT SUM(sample_weight) FROM x402_usage_event", Long.class));
+        assertMatchesRawScan(null, now.minusHours(2), now.plusMinutes(1));
+        rollupJob.catchUp();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM x402_usage_rollup_applied", Long.class)).isZero();
+    }
+
+    private void assertMatchesRawScan(String tenantId, OffsetDateTime from, OffsetDateTime to) {
+        Object[] totals = (Object[]) repository.getTotals(tenantId, from, to)[0];
+        assertThat(aggregationService.getOverviewTotals(tenantId, from, to))
+                .satisfies(t -> {
+                    assertThat(t.getTotalCount()).isEqualTo(((Number) totals[0]).longValue());
+                    assertThat(t.getTotalAmount()).isEqualTo(((Number) totals[1]).longValue());
+                    assertThat(t.getSuccessCount()).isEqualTo(((Number) totals[2]).longValue());
+                });
+
+        assertThat(aggregationService.aggregateByAgent(tenantId, from, to, X402UsageStatus.SUCCESS))
+                .extracting(a -> a.getAgentId() + "=" + a.getCount() + "/" + a.getAmountAtomic())
+                .containsExactlyInAnyOrderElementsOf(rows(repository.aggregateByAgent(tenantId, from, to, X402UsageStatus.SUCCESS)));
+        assertThat(aggregationService.aggregateByEndpoint(tenantId, from, to, null))
+                .extracting(a -> a.getEndpoint() + "=" + a.getCount() + "/" + a.getAmountAtomic())
+                .containsExactlyInAnyOrderElementsOf(rows(repository.aggregateByEndpoint(tenantId, from, to, null)));
+        assertThat(aggregationService.aggregateByStatus(tenantId, from, to))
+                .extracting(a -> a.getStatus() + "=" + a.getCount() + "/" + a.getAmountAtomic())
+                .containsExactlyInAnyOrderElementsOf(rows(repository.aggregateByStatus(tenantId, from, to)));
+        assertThat(aggregationService.aggregateByDate(tenantId, from, to, null))
+                .extracting(a -> a.getDate() + "=" + a.getCount() + "/" + a.getAmountAtomic())
+                .containsExactlyElementsOf(rows(repository.aggregateByDate(tenantId, from, to, null)));
+
+        UsageSnapshot snapshot = aggregationService.getSnapshot(tenantId, from, to);
+        assertThat(snapshot.getTotals().getTotalCount()).isEqualTo(((Number) totals[0]).longValue());
+        assertThat(snapshot.getTotals().getSuccessAmount()).isEqualTo(((Number) totals[3]).longValue());
+        assertThat(snapshot.getStatusAggregations())
+                .extracting(a -> a.getStatus() + "=" + a.getCount() + "/" + a.getAmountAtomic())
+                .containsExactlyInAnyOrderElementsOf(rows(repository.aggregateByStatus(tenantId, from, to)));
+        assertThat(snapshot.getDailyData())
+                .extracting(a -> a.getDate() + "=" + a.getCount() + "/" + a.getAmountAtomic())
+                .containsExactlyElementsOf(rows(repository.aggregateByDate(tenantId, from, to, null)));
+    }
+
+    private static List<String> rows(List<Object[]> rows) {
+        return rows.stream()
+                .map(r -> r[0] + "=" + ((Number) r[1]).longValue() + "/" + ((Number) r[2]).longValue())
+                .toList();
+    }
+
+    private List<X402UsageEvent> randomEvents(int count, OffsetDateTime from, OffsetDateTime to) {
+        long spanSeconds = ChronoUnit.SECONDS.between(from, to);
+        X402UsageStatus[] statuses = X402UsageStatus.values();
+        List<X402UsageEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            X402UsageEvent event = event(
+                    random.nextInt(3) == 0 ? null : "t" + random.nextInt(2),
+                    random.nextInt(10) == 0 ? null : "agent-" + random.nextInt(5),
+                    "/api/resource/" + random.nextInt(4),
+                    statuses[random.nextInt(statuses.length)],
+                    random.nextInt(5) == 0 ? null : (long) random.nextInt(1_000_000),
+                    from.plusSeconds((long) (random.nextDouble() * spanSeconds)));
+            // As if kept by ingest sampling
+            if (event.getStatus() != X402UsageStatus.SUCCESS) {
+                event.setSampleWeight(1 + random.nextInt(10));
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static X402UsageEvent event(
+            String tenantId, String agentId, String endpoint, X402UsageStatus status, Long amount,
+            OffsetDateTime createdAt) {
+        X402UsageEvent event = new X402UsageEvent();
+        event.setTenantId(tenantId);
+        event.setAgentId(agentId);
+        event.setAgentType(AgentType.CLAUDE);
+        event.setMethod("GET");
+        event.setEndpoint(endpoint);
+        event.setStatus(status);
+        event.setAmountAtomic(amount);
+        event.setCreatedAt(createdAt);
+        return event;
+    }
+}
@@ -0,0 +1,235 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.ingest.X402WalCodec;
+import io.x402.dashboard.common.ingest.X402WalOffsetStore;
+import io.x402.dashboard.common.ingest.X402WriteAheadLog;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402WriteAheadLog.
+ */
+class X402WriteAheadLogTest {
+
+    private static final X402WalCodec<String> CODEC = new X402WalCodec<>() {
+        @Override
+        public void write(String event, DataOutput out) throws IOException {
+            out.writeUTF(event);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendedEventsAreAppliedInOrder() {
+        List<String> applied = new CopyOnWriteArrayList<>();
+        X402WriteAheadLog<String> wal = newLog(DataSize.ofMegabytes(1), applied::addAll);
+        wal.start();
+
+        List<String> events = events(0, 100);
+        events.forEach(wal::append);
+        wal.stop();
+
+        assertThat(applied).containsExactlyElementsOf(events);
+        assertThat(wal.getPendingBytes()).isZero();
+        assertThat(wal.getStats().getAppended()).isEqualTo(100L);
+    }
+
+    @Test
+    void testUnappliedRecordsAreReplayedOnRestart() {
+        X402WriteAheadLog<String> crashed = newLog(DataSize.ofMegabytes(1), batch -> {
+            throw new IllegalStateException("database down");
+        });
+        crashed.start();
+        List<String> events = events(0, 20);
+        events.forEach(crashed::append);
+        assertThat(crashed.getPendingBytes()).isPositive();
+
+        // Reopen the same directory without stopping the first log, as after a JVM crash
+        List<String> applied = new CopyOnWriteArrayList<>();
+        X402WriteAheadLog<String> restarted = newLog(DataSize.ofMegabytes(1), applied::addAll);
+        restarted.start();
+        restarted.append("after-restart");
+        restarted.stop();
+        crashed.stop();
+
+        assertThat(applied).containsExactlyElementsOf(
+                Stream.concat(events.stream(), Stream.of("after-restart")).toList());
+    }
+
+    @Test
+    void testCorruptTailIsDiscardedOnRestart() throws IOException {
+        X402WriteAheadLog<String> crashed = newLog(DataSize.ofMegabytes(1), batch -> {
+            throw new IllegalStateException("database down");
+        });
+        crashed.start();
+        crashed.append("event-0");
+        crashed.append("event-1");
+        crashed.append("torn");
+        crashed.stop();
+
+        // Flip a payload byte of the last record so its CRC no longer matches
+        Path segment = segmentFiles().get(0);
+        int tornPayload = 2 * (8 + 2 + "event-0".length()) + 8 + 2;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), tornPayload);
+        }
+
+        List<String> applied = new CopyOnWriteArrayList<>();
+        X402WriteAheadLog<String> restarted = newLog(DataSize.ofMegabytes(1), applied::addAll);
+        restarted.start();
+        restarted.append("event-2");
+        restarted.stop();
+
+        assertThat(applied).containsExactly("event-0", "event-1", "event-2");
+    }
+
+    @Test
+    void testSegmentsRotateAndAppliedSegmentsAreDeleted() throws IOException {
+        List<String> applied = new CopyOnWriteArrayList<>();
+        X402WriteAheadLog<String> wal = newLog(DataSize.ofBytes(256), applied::addAll);
+        wal.start();
+
+        List<String> events = events(0, 200);
+        events.forEach(wal::append);
+        wal.stop();
+
+        assertThat(applied).containsExactlyElementsOf(events);
+        assertThat(segmentFiles()).hasSize(1);
+    }
+
+    @Test
+    void testDuplicatesAreSkippedWithoutBlockingTheBatch() {
+        Set<String> table = ConcurrentHashMap.newKeySet();
+        table.add("event-3");
+        X402WriteAheadLog<String> wal = newLog(DataSize.ofMegabytes(1), batch -> {
+            if (batch.stream().anyMatch(table::contains)) {
+                throw new DuplicateKeyException("duplicate key");
+            }
+            table.addAll(batch);
+        });
+        wal.start();
+
+        events(0, 10).forEach(wal::append);
+        wal.stop();
+
+        assertThat(table).containsExactlyInAnyOrderElementsOf(events(0, 10));
+        assertThat(wal.getSkippedCount()).isEqualTo(1L);
+        assertThat(wal.getAppliedCount()).isEqualTo(9L);
+    }
+
+    @Test
+    void testReplayResumesFromAppliedOffset() throws IOException {
+        Map<String, Long> appliedOffsets = new ConcurrentHashMap<>();
+        X402WalOffsetStore store = new X402WalOffsetStore() {
+            @Override
+            public long getAppliedOffset(String logId) {
+                return appliedOffsets.getOrDefault(logId, -1L);
+            }
+
+            @Override
+            public void setAppliedOffset(String logId, long offset) {
+                appliedOffsets.put(logId, offset);
+            }
+        };
+        List<String> applied = new CopyOnWriteArrayList<>();
+        X402WriteAheadLog<String> first = newLog(DataSize.ofMegabytes(1), applied::addAll, store);
+        first.start();
+        List<String> events = events(0, 40);
+        events.forEach(first::append);
+        first.stop();
+
+        // As if the process died after the batches committed but before the checkpoint was saved
+        Files.delete(directory.resolve("checkpoint"));
+        X402WriteAheadLog<String> restarted = newLog(DataSize.ofMegabytes(1), applied::addAll, store);
+        restarted.start();
+        restarted.append("after-restart");
+        restarted.stop();
+
+        assertThat(applied).containsExactlyElementsOf(
+                Stream.concat(events.stream(), Stream.of("after-restart")).toList());
+    }
+
+    @Test
+    void testEventsPersistedBeforeAFailureAreNotAppliedAgain() throws InterruptedException {
+        List<String> table = new CopyOnWriteArrayList<>();
+        boolean[] down = {false};
+        X402WriteAheadLog<String> wal = newLog(DataSize.ofMegabytes(1), batch -> {
+            if (batch.size() > 1) {
+                throw new DuplicateKeyException("rejected batch");
+            }
+            // The database goes away after the first events of the batch are in
+            if (batch.get(0).equals("event-3") && !down[0]) {
+                down[0] = true;
+                throw new IllegalStateException("database down");
+            }
+            table.addAll(batch);
+        });
+        wal.start();
+
+        events(0, 6).forEach(wal::append);
+        // The failed rest is retried after a pause
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (table.size() < 6 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        wal.stop();
+
+        assertThat(table).containsExactlyElementsOf(events(0, 6));
+    }
+
+    private X402WriteAheadLog<String> newLog(DataSize segmentSize, Consumer<List<String>> batchWriter) {
+        return newLog(segmentSize, batchWriter, null);
+    }
+
+    private X402WriteAheadLog<String> newLog(
+            DataSize segmentSize, Consumer<List<String>> batchWriter, X402WalOffsetStore offsets) {
+        X402DashboardProperties.Wal settings = new X402DashboardProperties.Wal();
+        settings.setSegmentSize(segmentSize);
+        settings.setBatchSize(16);
+        settings.setApplyInterval(Duration.ofMillis(10));
+        return new X402WriteAheadLog<>(
+                "test", directory, settings, Duration.ofSeconds(5), CODEC, e -> e, batchWriter,
+                TransactionOperations.withoutTransaction(), offsets);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".wal")).toList();
+        }
+    }
+
+    private static List<String> events(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "event-" + i).toList();
+    }
+}
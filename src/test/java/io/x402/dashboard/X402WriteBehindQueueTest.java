@@ -0,0 +1,203 @@
+package io.x402.dashboard;
+
+import io.x402.dashboard.common.ingest.X402OverflowPolicy;
+import io.x402.dashboard.common.ingest.X402WriteBehindQueue;
+import io.x402.dashboard.seller.config.X402DashboardProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for X402WriteBehindQueue.
+ */
+class X402WriteBehindQueueTest {
+
+    @Test
+    void testBatchesAreBoundedByFlushSize() throws InterruptedException {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        X402WriteBehindQueue<Integer> queue = newQueue(ingest(1000, 10, X402OverflowPolicy.BLOCK),
+                b -> batches.add(List.copyOf(b)));
+        queue.start();
+
+        for (int i = 0; i < 95; i++) {
+            queue.offer(i);
+        }
+        Thread.sleep(300);
+        queue.stop();
+
+        assertThat(batches).allSatisfy(batch -> assertThat(batch.size()).isLessThanOrEqualTo(10));
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(95);
+        assertThat(queue.getWrittenCount()).isEqualTo(95);
+    }
+
+    @Test
+    void testStopDrainsQueuedEvents() {
+        List<Integer> written = new CopyOnWriteArrayList<>();
+        X402DashboardProperties.Ingest ingest = ingest(1000, 100, X402OverflowPolicy.BLOCK);
+        ingest.setFlushInterval(Duration.ofSeconds(10));
+        X402WriteBehindQueue<Integer> queue = newQueue(ingest, written::addAll);
+        queue.start();
+
+        for (int i = 0; i < 250; i++) {
+            queue.offer(i);
+        }
+        queue.stop();
+
+        assertThat(written).hasSize(250);
+        assertThat(queue.getQueuedCount()).isZero();
+    }
+
+    @Test
+    void testOfferWhenStoppedWritesSynchronously() {
+        List<Integer> written = new CopyOnWriteArrayList<>();
+        X402WriteBehindQueue<Integer> queue = newQueue(ingest(16, 10, X402OverflowPolicy.BLOCK), written::addAll);
+
+        queue.offer(42);
+
+        assertThat(written).containsExactly(42);
+    }
+
+    @Test
+    void testDropNewestShedsButNeverDropsSuccess() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        X402WriteBehindQueue<String> queue = new X402WriteBehindQueue<>(
+                "test", ingest(4, 1, X402OverflowPolicy.DROP_NEWEST), s -> s, batch -> {
+                    awaitQuietly(release);
+                    written.addAll(batch);
+                });
+        queue.start();
+
+        // The writer takes the first event and stalls, then the buffer fills up
+        queue.offer("SUCCESS");
+        Thread.sleep(100);
+        for (int i = 0; i < 7; i++) {
+            queue.offer("PAYMENT_REQUIRED");
+        }
+
+        Thread producer = new Thread(() -> queue.offer("SUCCESS"));
+        producer.start();
+        Thread.sleep(100);
+        assertThat(producer.isAlive()).isTrue();
+
+        release.countDown();
+        producer.join(5000);
+        queue.stop();
+
+        assertThat(written.stream().filter("SUCCESS"::equals)).hasSize(2);
+        assertThat(queue.getDroppedCounts()).containsEntry("PAYMENT_REQUIRED", 3L);
+        assertThat(written).hasSize(6);
+    }
+
+    @Test
+    void testPriorityShedsSheddableStatusesAboveThreshold() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        X402DashboardProperties.Ingest ingest = ingest(8, 1, X402OverflowPolicy.PRIORITY);
+        ingest.setShedThreshold(0.5);
+        X402WriteBehindQueue<String> queue = new X402WriteBehindQueue<>("test", ingest, s -> s, batch -> {
+            awaitQuietly(release);
+            written.addAll(batch);
+        });
+        queue.start();
+
+        queue.offer("SUCCESS");
+        Thread.sleep(100);
+        for (int i = 0; i < 4; i++) {
+            queue.offer("VERIFY_FAILED");
+        }
+        // Buffer is half full: 402 noise is shed, errors still get in
+        queue.offer("PAYMENT_REQUIRED");
+        queue.offer("VERIFY_FAILED");
+
+        release.countDown();
+        queue.stop();
+
+        assertThat(queue.getDroppedCounts()).containsOnlyKeys("PAYMENT_REQUIRED");
+        assertThat(written).hasSize(6).doesNotContain("PAYMENT_REQUIRED");
+    }
+
+    @Test
+    void testFailedBatchIsRetriedWithIdsCleared() {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicLong nextId = new AtomicLong();
+        List<Long> written = new CopyOnWriteArrayList<>();
+        X402DashboardProperties.Ingest ingest = ingest(16, 3, X402OverflowPolicy.BLOCK);
+        ingest.setFlushInterval(Duration.ofSeconds(10));
+        ingest.setRetryBackoff(Duration.ofMillis(10));
+        X402WriteBehindQueue<AtomicLong> queue = new X402WriteBehindQueue<>("test", ingest, e -> "SUCCESS", batch -> {
+            // Assign IDs to events without one, like an insert, and fail the first attempt
+            batch.forEach(event -> event.compareAndSet(0, nextId.incrementAndGet()));
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("database unavailable");
+            }
+            batch.forEach(event -> written.add(event.get()));
+        }, event -> event.set(0));
+        List<AtomicLong> events = List.of(new AtomicLong(), new AtomicLong(), new AtomicLong());
+        queue.start();
+
+        events.forEach(queue::offer);
+        queue.stop();
+
+        assertThat(attempts).hasValue(2);
+        assertThat(written).containsExactly(4L, 5L, 6L);
+        assertThat(queue.getWrittenCount()).isEqualTo(3);
+        assertThat(queue.getRetriedCount()).isEqualTo(1);
+        assertThat(queue.getFailedCount()).isZero();
+    }
+
+    @Test
+    void testBatchIsCountedFailedAfterMaxRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+        X402DashboardProperties.Ingest ingest = ingest(16, 2, X402OverflowPolicy.BLOCK);
+        ingest.setFlushInterval(Duration.ofSeconds(10));
+        ingest.setMaxRetries(2);
+        ingest.setRetryBackoff(Duration.ofMillis(10));
+        X402WriteBehindQueue<Integer> queue = newQueue(ingest, batch -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("database unavailable");
+        });
+        queue.start();
+
+        queue.offer(1);
+        queue.offer(2);
+        queue.stop();
+
+        assertThat(attempts).hasValue(3);
+        assertThat(queue.getRetriedCount()).isEqualTo(2);
+        assertThat(queue.getFailedCount()).isEqualTo(2);
+        assertThat(queue.getWrittenCount()).isZero();
+    }
+
+    private static X402DashboardProperties.Ingest ingest(int capacity, int flushSize, X402OverflowPolicy policy) {
+        X402DashboardProperties.Ingest ingest = new X402DashboardProperties.Ingest();
+        ingest.setQueueCapacity(capacity);
+        ingest.setFlushSize(flushSize);
+        ingest.setFlushInterval(Duration.ofMillis(50));
+        ingest.setShutdownTimeout(Duration.ofSeconds(5));
+        ingest.setOverflowPolicy(policy);
+        return ingest;
+    }
+
+    private static X402WriteBehindQueue<Integer> newQueue(
+            X402DashboardProperties.Ingest ingest, Consumer<List<Integer>> writer) {
+        return new X402WriteBehindQueue<>("test", ingest, String::valueOf, writer);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,6 +5,9 @@ import io.x402.dashboard.buyer.domain.SpendingStatus;
 import io.x402.dashboard.buyer.domain.X402SpendingEvent;
 import io.x402.dashboard.buyer.logging.X402SpendingLogger;
 import io.x402.dashboard.buyer.repository.X402SpendingEventRepository;
+import io.x402.dashboard.buyer.service.X402SpendingAggregationService;
+import io.x402.dashboard.buyer.service.dto.ServiceSpendingAggregation;
+import io.x402.dashboard.buyer.service.dto.SpendingOverview;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -13,6 +16,7 @@ import java.time.OffsetDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 /**
  * Test class for Buyer Dashboard functionality.
@@ -27,6 +31,9 @@ class X402BuyerDashboardTest {
     @Autowired
     private X402SpendingEventRepository repository;
 
+    @Autowired
+    private X402SpendingAggregationService aggregationService;
+
     @BeforeEach
     void setUp() {
         repository.deleteAll();
@@ -147,6 +154,25 @@ class X402BuyerDashboardTest {
         );
         assertThat(aiEvents).hasSize(5);
         System.out.println("Found " + aiEvents.size() + " AI_LANGUAGE_MODEL events");
+
+        // Aggregations are grouped, ranked and limited in the database
+        List<ServiceSpendingAggregation> topServices = aggregationService.getTopServices("buyer-0", from, to, 2);
+        assertThat(topServices)
+            .extracting(ServiceSpendingAggregation::getServiceId)
+            .containsExactly("service-2", "service-0");
+        assertThat(topServices.get(0).getTotalSpentAtomic()).isEqualTo(12000000L);
+        assertThat(topServices.get(0).getRequestCount()).isEqualTo(2L);
+        assertThat(topServices.get(0).getAvgCostAtomic()).isEqualTo(6000000L);
+        assertThat(topServices.get(0).getPercentOfTotal()).isCloseTo(48.0, within(0.001));
+        assertThat(topServices.get(0).getServiceName()).isEqualTo("Service 2");
+
+        assertThat(aggregationService.getSpendingByCategory("buyer-0", from, to))
+            .containsEntry(ServiceCategory.AI_LANGUAGE_MODEL, 9000000L)
+            .containsEntry(ServiceCategory.DATA_API, 16000000L);
+
+        assertThat(aggregationService.getDailySpending("buyer-0", from, to).values().stream()
+            .mapToLong(Long::longValue).sum())
+            .isEqualTo(25000000L);
     }
 
     @Test
@@ -201,6 +227,15 @@ class X402BuyerDashboardTest {
         );
         assertThat(failedCount).isEqualTo(1);
 
+        // Overview is computed in a single query
+        SpendingOverview overview = aggregationService.getOverview(
+            "buyer-001", OffsetDateTime.now().minusHours(1), OffsetDateTime.now().plusHours(1)
+        );
+        assertThat(overview.getTotalRequests()).isEqualTo(5L);
+        assertThat(overview.getSuccessCount()).isEqualTo(1L);
+        assertThat(overview.getTotalSpentAtomic()).isEqualTo(1000000L);
+        assertThat(overview.getSuccessRate()).isEqualTo(20.0);
+
         System.out.println("All spending statuses tested successfully");
     }
 
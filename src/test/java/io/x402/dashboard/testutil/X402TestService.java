@@ -38,4 +38,23 @@ public class X402TestService {
     public void processWithDefaultEndpoint() {
         // Method with minimal annotation
     }
+
+    @X402Logged(
+        endpoint = "/api/charge",
+        agentIdExpression = "#agentId",
+        amountExpression = "#p1",
+        txHashExpression = "#result.toUpperCase()"
+    )
+    public String charge(String agentId, long amountAtomic) {
+        return "0xabc" + amountAtomic;
+    }
+
+    @X402Logged(
+        endpoint = "/api/refund",
+        amountAtomic = 5L,
+        amountExpression = "#result.length()"
+    )
+    public String refund(String reason) {
+        throw new IllegalStateException(reason);
+    }
 }